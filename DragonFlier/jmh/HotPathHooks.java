@@ -0,0 +1,202 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * HotPathHooks
+ * ------------
+ * JMH won't generate benchmarks for a class in the default package, and a class that's in a package can't use
+ * the game's classes (they're all in the default package). So the JMH benchmarks (in dragonflier.jmh) call these
+ * methods instead, through method handles. Each one makes something, or does one of HotPathBenchmarks' hot paths once.
+ * (Everything is passed around as an Object, since the benchmarks can't say GameWorld.)
+ */
+public class HotPathHooks {
+
+    private static final int FRAME_WIDTH = 1200;
+    private static final int FRAME_HEIGHT = 900;
+
+    // a world with eggs eggs (see HotPathBenchmarks.makeWorld), with the dragon flying right and the fireball fired:
+    public static Object world(int eggs){
+        Sprites.preload();
+        GameWorld world = HotPathBenchmarks.makeWorld(eggs);
+        world.apply(GameInput.RIGHT, true); // keep the dragon flying, so the creatures have someone to chase.
+        world.getFireball().fire(); // (so the collision checker checks the fireball against the eggs too)
+        return world;
+    }
+
+    // the world's last egg (makeWorld always puts at least one hatched creature at the end):
+    public static Object creature(Object world){
+        List<Egg> eggList = ((GameWorld) world).getEggs();
+        return eggList.get(eggList.size() - 1);
+    }
+
+    public static Object background(){
+        return new Background(FRAME_WIDTH, FRAME_HEIGHT);
+    }
+
+    // the whole cavern image, decoded the ordinary way (see Benchmarks.loadCavern):
+    public static Object cavernImage(){
+        return Benchmarks.loadCavern();
+    }
+
+    public static Object renderer(){
+        return new FrameRenderer(FRAME_WIDTH);
+    }
+
+    public static Object frameGraphics(){
+        return new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+    }
+
+    // n points in the cavern (and a few off the edges, like the real game), x then y:
+    public static int[] probePoints(Object background, int n){
+        Background b = (Background) background;
+        Random random = new Random(42);
+        int[] points = new int[2 * n];
+        for (int i = 0; i < n; i++){
+            points[2*i] = random.nextInt(b.imageWidth + 20) - 10;
+            points[2*i+1] = random.nextInt(b.imageHeight + 20) - 10;
+        }
+        return points;
+    }
+
+    // n points all around the creature (like where a fireball would be), x then y:
+    public static int[] creatureProbePoints(Object creature, int n){
+        Egg egg = (Egg) creature;
+        Random random = new Random(43);
+        int[] points = new int[2 * n];
+        for (int i = 0; i < n; i++){
+            points[2*i] = egg.getX() + random.nextInt(81) - 40;
+            points[2*i+1] = egg.getY() + random.nextInt(81) - 40;
+        }
+        return points;
+    }
+
+    public static boolean backgroundNotTransparentAt(Object background, int x, int y){
+        return ((Background) background).notTransparentAt(x, y);
+    }
+
+    // how Background.notTransparentAt used to work: getRGB and a new Color for every probe
+    public static boolean getRGBNotTransparentAt(Object cavernImage, int x, int y){
+        return Benchmarks.notTransparentAtTheOldWay((BufferedImage) cavernImage, x, y);
+    }
+
+    public static boolean eggNotTransparentAt(Object creature, int x, int y){
+        return ((Egg) creature).notTransparentAt(x, y);
+    }
+
+    public static long step(Object world){
+        GameWorld w = (GameWorld) world;
+        w.step();
+        return w.getTick();
+    }
+
+    public static long collisionchecker(Object world){
+        GameWorld w = (GameWorld) world;
+        w.collisionchecker();
+        return w.getScore();
+    }
+
+    // Egg.nextLoc() for every egg in the world (added up, so it has to be worked out):
+    public static long eggNextLoc(Object world){
+        List<Egg> eggList = ((GameWorld) world).getEggs();
+        long sum = 0;
+        for (int i = 0; i < eggList.size(); i++){
+            sum += (long) eggList.get(i).nextLoc().x;
+        }
+        return sum;
+    }
+
+    public static long backgroundNextLoc(Object world){
+        return (long) ((GameWorld) world).getBackground().nextLoc().x;
+    }
+
+    public static long fireballNextLoc(Object world){
+        return (long) ((GameWorld) world).getFireball().nextLoc().x;
+    }
+
+    // the move() methods, for Moves (everything moves for real, so the world keeps going from one call to the next):
+    public static int moveDragon(Object world){
+        Dragon dragon = ((GameWorld) world).getDragon();
+        dragon.move();
+        return dragon.getX();
+    }
+
+    public static int moveBackground(Object world){
+        Background background = ((GameWorld) world).getBackground();
+        background.move();
+        return background.getX();
+    }
+
+    public static int moveFireball(Object world){
+        Fireball fireball = ((GameWorld) world).getFireball();
+        if (!fireball.hasFired()){ // throw it again whenever it stops (like Benchmarks.moveAllocations):
+            fireball.setFired(true);
+            fireball.loc.xv = 8;
+            fireball.loc.yv = -3;
+        }
+        fireball.move();
+        return fireball.getX();
+    }
+
+    // every egg's move() (added up, like eggNextLoc):
+    public static long moveEggs(Object world){
+        List<Egg> eggList = ((GameWorld) world).getEggs();
+        long sum = 0;
+        for (int i = 0; i < eggList.size(); i++){
+            Egg egg = eggList.get(i);
+            egg.move();
+            sum += egg.getX();
+        }
+        return sum;
+    }
+
+    // for Lists: n eggs that won't hatch for ages (they're just something to put in the lists)
+    public static Object[] eggs(int n){
+        Background background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+        Dragon dragon = new Dragon(background, FRAME_WIDTH/2, FRAME_HEIGHT/2);
+        TimingWheel clock = new TimingWheel(5);
+        Object[] eggs = new Object[n];
+        for (int i = 0; i < n; i++){
+            eggs[i] = new Egg(background, dragon, clock, i % 6000, i % 3000, 0, 1000000, 1);
+        }
+        return eggs;
+    }
+
+    // a new (empty) one of our ArrayLists (it's a java.util.List, so Lists can use it like one):
+    public static Object newArrayList(){
+        return new ArrayList<Object>();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void swapRemove(Object arrayList, int index){
+        ((ArrayList<Object>) arrayList).swapRemove(index);
+    }
+
+    // adds the numbers 0 to n-1 to an IntArrayList, and then adds them up (getting each one):
+    public static long intArrayListAddAndSum(int n){
+        IntArrayList ints = new IntArrayList();
+        for (int i = 0; i < n; i++) ints.add(i);
+        long sum = 0;
+        for (int i = 0; i < ints.size(); i++) sum += ints.get(i);
+        return sum;
+    }
+
+    // the same with a DoubleArrayList, and the numbers 0, 0.5, 1, ...:
+    public static double doubleArrayListAddAndSum(int n){
+        DoubleArrayList doubles = new DoubleArrayList();
+        for (int i = 0; i < n; i++) doubles.add(i * 0.5);
+        double total = 0;
+        for (int i = 0; i < doubles.size(); i++) total += doubles.get(i);
+        return total;
+    }
+
+    public static int eggCount(Object world){
+        return ((GameWorld) world).getEggs().size();
+    }
+
+    public static void renderFrame(Object renderer, Object world, Object g){
+        ((FrameRenderer) renderer).draw((Graphics) g, (GameWorld) world);
+    }
+
+} // end HotPathHooks class
@@ -0,0 +1,26 @@
+package dragonflier.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Hooks
+ * -----
+ * Finds the methods of HotPathHooks (in the default package) for the benchmarks in here.
+ */
+final class Hooks {
+
+    private Hooks(){
+    }
+
+    static MethodHandle find(String name, MethodType type){
+        try {
+            return MethodHandles.publicLookup().findStatic(Class.forName("HotPathHooks"), name, type);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("HotPathHooks." + name + " isn't there", e);
+        }
+    }
+
+} // end Hooks class
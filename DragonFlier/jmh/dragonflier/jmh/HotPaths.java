@@ -0,0 +1,115 @@
+package dragonflier.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * HotPaths
+ * --------
+ * The JMH versions of the HotPathBenchmarks, each with 12, 1000 and 10000 eggs: one tick of the game, the collision
+ * checker, every egg's nextLoc(), the Background's and the (flying) Fireball's nextLoc(), one Egg.notTransparentAt probe
+ * around a hatched creature, and drawing one whole frame.
+ * (The cavern's own notTransparentAt is in Probes, since it doesn't have anything to do with the eggs.)
+ * The game's classes are in the default package, which a class in a package can't use, so these go through
+ * HotPathHooks (with method handles, which the JIT can see through like ordinary calls).
+ * Run them from the DragonFlier folder with  gradle jmh  (or  gradle jmh -Pjmh="HotPaths.step")
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class HotPaths {
+
+    private static final int POINTS = 1024;
+
+    static final MethodHandle WORLD = Hooks.find("world", MethodType.methodType(Object.class, int.class));
+    static final MethodHandle RENDERER = Hooks.find("renderer", MethodType.methodType(Object.class));
+    static final MethodHandle FRAME_GRAPHICS = Hooks.find("frameGraphics", MethodType.methodType(Object.class));
+    static final MethodHandle STEP = Hooks.find("step", MethodType.methodType(long.class, Object.class));
+    static final MethodHandle COLLISIONCHECKER = Hooks.find("collisionchecker", MethodType.methodType(long.class, Object.class));
+    static final MethodHandle EGG_NEXT_LOC = Hooks.find("eggNextLoc", MethodType.methodType(long.class, Object.class));
+    static final MethodHandle BACKGROUND_NEXT_LOC = Hooks.find("backgroundNextLoc", MethodType.methodType(long.class, Object.class));
+    static final MethodHandle FIREBALL_NEXT_LOC = Hooks.find("fireballNextLoc", MethodType.methodType(long.class, Object.class));
+    static final MethodHandle CREATURE = Hooks.find("creature", MethodType.methodType(Object.class, Object.class));
+    static final MethodHandle CREATURE_PROBE_POINTS = Hooks.find("creatureProbePoints", MethodType.methodType(int[].class, Object.class, int.class));
+    static final MethodHandle EGG_NOT_TRANSPARENT_AT = Hooks.find("eggNotTransparentAt", MethodType.methodType(boolean.class, Object.class, int.class, int.class));
+    static final MethodHandle RENDER_FRAME = Hooks.find("renderFrame", MethodType.methodType(void.class, Object.class, Object.class, Object.class));
+
+    @Param({"12", "1000", "10000"})
+    public int eggs;
+
+    private Object world;
+    private Object renderer;
+    private Object graphics;
+    private Object creature;
+    private int[] creaturePoints;
+
+    @Setup
+    public void setUp() throws Throwable {
+        world = (Object) WORLD.invokeExact(eggs);
+        renderer = (Object) RENDERER.invokeExact();
+        graphics = (Object) FRAME_GRAPHICS.invokeExact();
+        creature = (Object) CREATURE.invokeExact(world);
+        creaturePoints = (int[]) CREATURE_PROBE_POINTS.invokeExact(creature, POINTS);
+    }
+
+    @Benchmark
+    public long step() throws Throwable {
+        return (long) STEP.invokeExact(world);
+    }
+
+    @Benchmark
+    public long collisionchecker() throws Throwable {
+        return (long) COLLISIONCHECKER.invokeExact(world);
+    }
+
+    // (this is every egg's nextLoc(), so divide by the number of eggs for one)
+    @Benchmark
+    public long eggNextLoc() throws Throwable {
+        return (long) EGG_NEXT_LOC.invokeExact(world);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS) // (this one and the next two are much quicker than the rest)
+    public long backgroundNextLoc() throws Throwable {
+        return (long) BACKGROUND_NEXT_LOC.invokeExact(world);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long fireballNextLoc() throws Throwable {
+        return (long) FIREBALL_NEXT_LOC.invokeExact(world);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(POINTS)
+    public void eggNotTransparentAt(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < POINTS; i++){
+            blackhole.consume((boolean) EGG_NOT_TRANSPARENT_AT.invokeExact(creature, creaturePoints[2*i], creaturePoints[2*i+1]));
+        }
+    }
+
+    @Benchmark
+    public void renderFrame(Blackhole blackhole) throws Throwable {
+        RENDER_FRAME.invokeExact(renderer, world, graphics);
+        blackhole.consume(graphics);
+    }
+
+} // end HotPaths class
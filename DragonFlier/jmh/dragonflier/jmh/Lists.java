@@ -0,0 +1,184 @@
+package dragonflier.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lists
+ * -----
+ * The game's own ArrayList against java.util.ArrayList, with 200,000 eggs: adding them all, getting each one,
+ * going through them with a for-each loop, taking out 20,000 of them one at a time, and taking out half of them with removeIf.
+ * (Taking them out one at a time is remove() for java.util.ArrayList, which shifts everything after it down,
+ *  and swapRemove() for ours.) Each pair is javaUtil... and ours..., so they're next to each other in the report.
+ * Then IntArrayList and DoubleArrayList against lists of boxed Integers and Doubles (adding 200,000 numbers and adding them up).
+ * Our ArrayList is in the default package, so it's made (and swapRemove() is called) through HotPathHooks,
+ * but it's a java.util.List, so everything else is the same code for both.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class Lists {
+
+    static final int N = 200_000;
+    static final int REMOVALS = 20_000;
+
+    static final MethodHandle EGGS = Hooks.find("eggs", MethodType.methodType(Object[].class, int.class));
+    static final MethodHandle NEW_ARRAY_LIST = Hooks.find("newArrayList", MethodType.methodType(Object.class));
+    static final MethodHandle SWAP_REMOVE = Hooks.find("swapRemove", MethodType.methodType(void.class, Object.class, int.class));
+    static final MethodHandle INT_ARRAY_LIST_ADD_AND_SUM = Hooks.find("intArrayListAddAndSum", MethodType.methodType(long.class, int.class));
+    static final MethodHandle DOUBLE_ARRAY_LIST_ADD_AND_SUM = Hooks.find("doubleArrayListAddAndSum", MethodType.methodType(double.class, int.class));
+
+    private Object[] eggs;
+    private List<Object> javaUtilFull, oursFull; // (for the benchmarks that only read them)
+
+    @Setup
+    public void setUp() throws Throwable {
+        eggs = (Object[]) EGGS.invokeExact(N);
+        javaUtilFull = fill(new ArrayList<>(), eggs);
+        oursFull = fill(ours(), eggs);
+    }
+
+    /**
+     * Full
+     * ----
+     * A full list of each kind, filled again before every call (for the benchmarks that take things out).
+     */
+    @State(Scope.Thread)
+    public static class Full {
+        List<Object> javaUtil, ours;
+
+        @Setup(Level.Invocation)
+        public void fill(Lists lists) throws Throwable {
+            javaUtil = Lists.fill(new ArrayList<>(), lists.eggs);
+            ours = Lists.fill(ours(), lists.eggs);
+        }
+    }
+
+    @Benchmark
+    public int javaUtilAdd(){
+        return fill(new ArrayList<>(), eggs).size();
+    }
+
+    @Benchmark
+    public int oursAdd() throws Throwable {
+        return fill(ours(), eggs).size();
+    }
+
+    @Benchmark
+    public int javaUtilGet(){
+        return countByGet(javaUtilFull);
+    }
+
+    @Benchmark
+    public int oursGet(){
+        return countByGet(oursFull);
+    }
+
+    @Benchmark
+    public int javaUtilForEach(){
+        return countByForEach(javaUtilFull);
+    }
+
+    @Benchmark
+    public int oursForEach(){
+        return countByForEach(oursFull);
+    }
+
+    @Benchmark
+    public int javaUtilRemove(Full full){
+        for (int i = 0; i < REMOVALS; i++) full.javaUtil.remove(i);
+        return full.javaUtil.size();
+    }
+
+    @Benchmark
+    public int oursSwapRemove(Full full) throws Throwable {
+        for (int i = 0; i < REMOVALS; i++){
+            SWAP_REMOVE.invokeExact((Object) full.ours, i);
+        }
+        return full.ours.size();
+    }
+
+    @Benchmark
+    public int javaUtilRemoveIf(Full full){
+        full.javaUtil.removeIf(egg -> (egg.hashCode() & 1) == 0);
+        return full.javaUtil.size();
+    }
+
+    @Benchmark
+    public int oursRemoveIf(Full full){
+        full.ours.removeIf(egg -> (egg.hashCode() & 1) == 0);
+        return full.ours.size();
+    }
+
+    @Benchmark
+    public long boxedIntegersAddAndSum(){
+        ArrayList<Integer> boxedInts = new ArrayList<>();
+        for (int i = 0; i < N; i++) boxedInts.add(i);
+        long sum = 0;
+        for (int i = 0; i < boxedInts.size(); i++) sum += boxedInts.get(i);
+        return sum;
+    }
+
+    @Benchmark
+    public long intArrayListAddAndSum() throws Throwable {
+        return (long) INT_ARRAY_LIST_ADD_AND_SUM.invokeExact(N);
+    }
+
+    @Benchmark
+    public double boxedDoublesAddAndSum(){
+        ArrayList<Double> boxedDoubles = new ArrayList<>();
+        for (int i = 0; i < N; i++) boxedDoubles.add(i * 0.5);
+        double total = 0;
+        for (int i = 0; i < boxedDoubles.size(); i++) total += boxedDoubles.get(i);
+        return total;
+    }
+
+    @Benchmark
+    public double doubleArrayListAddAndSum() throws Throwable {
+        return (double) DOUBLE_ARRAY_LIST_ADD_AND_SUM.invokeExact(N);
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<Object> ours() throws Throwable {
+        return (List<Object>) (Object) NEW_ARRAY_LIST.invokeExact();
+    }
+
+    static List<Object> fill(List<Object> list, Object[] eggs){
+        for (Object egg: eggs) list.add(egg);
+        return list;
+    }
+
+    private static int countByGet(List<Object> list){
+        int count = 0;
+        for (int i = 0; i < list.size(); i++){
+            if (list.get(i) != null) count++;
+        }
+        return count;
+    }
+
+    private static int countByForEach(List<Object> list){
+        int count = 0;
+        for (Object egg: list){
+            if (egg != null) count++;
+        }
+        return count;
+    }
+
+} // end Lists class
@@ -0,0 +1,81 @@
+package dragonflier.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Moves
+ * -----
+ * The JMH version of Benchmarks' moveAllocations: the move() methods of the Dragon, the Background, a flying Fireball,
+ * and every (hatched) Egg, one at a time and all together (the way a tick does them).
+ * None of them should allocate anything, and the way to check that is JMH's gc profiler:
+ *     gradle jmh -Pjmh="-prof gc Moves"
+ * which adds a gc.alloc.rate.norm line (bytes allocated per operation) for each benchmark; it should be about 0.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class Moves {
+
+    static final MethodHandle WORLD = Hooks.find("world", MethodType.methodType(Object.class, int.class));
+    static final MethodHandle MOVE_DRAGON = Hooks.find("moveDragon", MethodType.methodType(int.class, Object.class));
+    static final MethodHandle MOVE_BACKGROUND = Hooks.find("moveBackground", MethodType.methodType(int.class, Object.class));
+    static final MethodHandle MOVE_FIREBALL = Hooks.find("moveFireball", MethodType.methodType(int.class, Object.class));
+    static final MethodHandle MOVE_EGGS = Hooks.find("moveEggs", MethodType.methodType(long.class, Object.class));
+
+    @Param({"12", "1000"})
+    public int eggs;
+
+    private Object world;
+
+    @Setup
+    public void setUp() throws Throwable {
+        world = (Object) WORLD.invokeExact(eggs);
+    }
+
+    @Benchmark
+    public int dragonMove() throws Throwable {
+        return (int) MOVE_DRAGON.invokeExact(world);
+    }
+
+    @Benchmark
+    public int backgroundMove() throws Throwable {
+        return (int) MOVE_BACKGROUND.invokeExact(world);
+    }
+
+    @Benchmark
+    public int fireballMove() throws Throwable {
+        return (int) MOVE_FIREBALL.invokeExact(world);
+    }
+
+    // (this is every egg's move(), so divide by the number of eggs for one)
+    @Benchmark
+    public long eggMove() throws Throwable {
+        return (long) MOVE_EGGS.invokeExact(world);
+    }
+
+    // all of them, like one tick of moving (without the timers, the collisions or anything else step() does):
+    @Benchmark
+    public long moveEverything() throws Throwable {
+        int dragonX = (int) MOVE_DRAGON.invokeExact(world);
+        int backgroundX = (int) MOVE_BACKGROUND.invokeExact(world);
+        int fireballX = (int) MOVE_FIREBALL.invokeExact(world);
+        return dragonX + backgroundX + fireballX + (long) MOVE_EGGS.invokeExact(world);
+    }
+
+} // end Moves class
@@ -0,0 +1,71 @@
+package dragonflier.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Probes
+ * ------
+ * The JMH version of HotPathBenchmarks' backgroundNotTransparentAt: one probe of the cavern's collision mask,
+ * at 1024 points all over the cavern (and a few off the edges). It only means much if images/bigCavern01.png is there.
+ * getRGBNotTransparentAt is the same probes the way Background.notTransparentAt used to do them (getRGB on the whole
+ * cavern image, and a new Color for every pixel), so the two are next to each other in the report.
+ * (Probes per second is 1,000,000,000 divided by the ns/op.)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgs = {"-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class Probes {
+
+    private static final int POINTS = 1024;
+
+    static final MethodHandle BACKGROUND = Hooks.find("background", MethodType.methodType(Object.class));
+    static final MethodHandle PROBE_POINTS = Hooks.find("probePoints", MethodType.methodType(int[].class, Object.class, int.class));
+    static final MethodHandle CAVERN_IMAGE = Hooks.find("cavernImage", MethodType.methodType(Object.class));
+    static final MethodHandle GET_RGB_NOT_TRANSPARENT_AT = Hooks.find("getRGBNotTransparentAt", MethodType.methodType(boolean.class, Object.class, int.class, int.class));
+    static final MethodHandle NOT_TRANSPARENT_AT = Hooks.find("backgroundNotTransparentAt", MethodType.methodType(boolean.class, Object.class, int.class, int.class));
+
+    private Object background;
+    private Object cavernImage;
+    private int[] points;
+
+    @Setup
+    public void setUp() throws Throwable {
+        background = (Object) BACKGROUND.invokeExact();
+        cavernImage = (Object) CAVERN_IMAGE.invokeExact();
+        points = (int[]) PROBE_POINTS.invokeExact(background, POINTS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void backgroundNotTransparentAt(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < POINTS; i++){
+            blackhole.consume((boolean) NOT_TRANSPARENT_AT.invokeExact(background, points[2*i], points[2*i+1]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void getRGBNotTransparentAt(Blackhole blackhole) throws Throwable {
+        for (int i = 0; i < POINTS; i++){
+            blackhole.consume((boolean) GET_RGB_NOT_TRANSPARENT_AT.invokeExact(cavernImage, points[2*i], points[2*i+1]));
+        }
+    }
+
+} // end Probes class
@@ -0,0 +1,100 @@
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * AcceleratedImage
+ * ----------------
+ * An image that's drawn over and over (like the tiles of the cavern), kept in video memory as a VolatileImage
+ * when we're drawing to the screen, so drawing it is done by the graphics card instead of copying pixels around.
+ *
+ * The catch with a VolatileImage is that its contents can be lost at any time
+ * (for example when the screen mode changes, or another program takes over the graphics card).
+ * So we keep the ordinary image too (the "source"), and every time we draw, we check the VolatileImage first
+ * (validate), and copy the source back into it if it's been lost, and if it got lost again while we were drawing, we
+ * just do it again (contentsLost). That's the standard loop for using a VolatileImage.
+ *
+ * When we're not drawing to a screen (like into a BufferedImage, or with no screen at all), it just draws the source.
+ */
+public class AcceleratedImage {
+
+    private final BufferedImage source;
+    private VolatileImage volatileImage = null;
+
+    /**
+     * AcceleratedImage constructor:
+     * -----------------------------
+     * source should already be a compatible image (see CompatibleImages).
+     */
+    public AcceleratedImage(BufferedImage source){
+        this.source = source;
+    }
+
+    /**
+     * draw
+     * ----
+     * Draws the image with its top left corner at x,y.
+     * PRE: g is not null
+     */
+    public void draw(Graphics g, int x, int y){
+        GraphicsConfiguration gc = screenConfigurationOf(g);
+        if (gc == null){ // (not drawing to the screen, so the VolatileImage wouldn't help)
+            g.drawImage(source, x, y, null);
+            return;
+        }
+        do {
+            if (volatileImage == null || volatileImage.validate(gc) == VolatileImage.IMAGE_INCOMPATIBLE){
+                // (there isn't one yet, or the screen changed so much that we need a new one)
+                if (volatileImage != null) volatileImage.flush();
+                volatileImage = gc.createCompatibleVolatileImage(source.getWidth(), source.getHeight(), source.getTransparency());
+                restore();
+            }
+            else if (volatileImage.contentsLost()){
+                restore();
+            }
+            g.drawImage(volatileImage, x, y, null);
+        } while (volatileImage.contentsLost());
+    }
+
+    /**
+     * flush
+     * -----
+     * Gives back the video memory (call this when the image won't be drawn any more).
+     */
+    public void flush(){
+        if (volatileImage != null) volatileImage.flush();
+        volatileImage = null;
+    }
+
+    public BufferedImage getSource(){
+        return source;
+    }
+
+    /**
+     * restore
+     * -------
+     * Copies the source into the VolatileImage (when it's new, or its contents were lost).
+     */
+    private void restore(){
+        Graphics2D vg = volatileImage.createGraphics();
+        vg.setComposite(java.awt.AlphaComposite.Src); // (so the transparent pixels stay transparent)
+        vg.drawImage(source, 0, 0, null);
+        vg.dispose();
+    }
+
+    /**
+     * screenConfigurationOf
+     * ---------------------
+     * The GraphicsConfiguration that g draws onto, if it's a screen (and null if it isn't).
+     */
+    private static GraphicsConfiguration screenConfigurationOf(Graphics g){
+        if (!(g instanceof Graphics2D)) return null;
+        GraphicsConfiguration gc = ((Graphics2D) g).getDeviceConfiguration();
+        if (gc == null || gc.getDevice().getType() != GraphicsDevice.TYPE_RASTER_SCREEN) return null;
+        return gc;
+    }
+
+} // end AcceleratedImage class
@@ -0,0 +1,178 @@
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * ActiveRenderer
+ * --------------
+ * Normally Swing decides when to paint (we call repaint(), and sometime later it calls paintComponent).
+ * Swing is allowed to squash several repaints into one, which adds some delay.
+ * The ActiveRenderer does the painting itself instead ("active rendering"):
+ * it's a Canvas with a BufferStrategy, which means it draws each frame into a back buffer
+ * and then flips it onto the screen all at once (with 2 buffers that's double buffering, with 3 it's triple buffering).
+ * It has its own thread that draws frames at a steady rate, and it keeps track of how many frames per second it gets.
+ */
+public class ActiveRenderer extends Canvas implements Runnable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Scene
+     * -----
+     * Whatever the renderer draws: render is called once per frame with the back buffer's Graphics.
+     */
+    public interface Scene {
+        void render(Graphics g);
+    }
+
+    private final Scene scene;
+    private final int numberOfBuffers;
+    private final long nanosPerFrame;
+
+    private volatile boolean running = false;
+    private Thread thread = null;
+
+    // frames per second, worked out once a second:
+    private volatile int framesPerSecond = 0;
+    private int framesThisSecond = 0;
+    private long secondStartedAt = 0;
+
+    // what drawFramesPerSecond() draws, and the frames per second it says
+    // (so a new String is only made when the number changes, not every frame; only the render thread uses these):
+    private String framesPerSecondText = "FPS: 0";
+    private int framesPerSecondInText = 0;
+
+    /**
+     * ActiveRenderer constructor:
+     * ---------------------------
+     * numberOfBuffers should be 2 (double buffering) or 3 (triple buffering).
+     * targetFramesPerSecond is how often it tries to draw a frame.
+     */
+    public ActiveRenderer(Scene scene, int numberOfBuffers, int targetFramesPerSecond){
+        this.scene = scene;
+        this.numberOfBuffers = numberOfBuffers;
+        this.nanosPerFrame = 1_000_000_000L / targetFramesPerSecond;
+        setIgnoreRepaint(true); // we paint it ourselves, so Swing/AWT doesn't need to.
+        setFocusable(false);    // let the key presses keep going to the game pane's key bindings.
+        setBackground(Color.BLACK);
+    }
+
+    /**
+     * addNotify
+     * ---------
+     * This gets called when the canvas is put on the screen. That's the first moment
+     * we can make the BufferStrategy, so that's when the render thread starts.
+     */
+    @Override
+    public void addNotify(){
+        super.addNotify();
+        createBufferStrategy(numberOfBuffers);
+        start();
+    }
+
+    @Override
+    public void removeNotify(){
+        stop();
+        super.removeNotify();
+    }
+
+    public synchronized void start(){
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "DragonFlier renderer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * stop
+     * ----
+     * Stops the render thread, and waits for it to finish the frame it's drawing
+     * (so nothing is drawing on the canvas after this returns, like when it's being taken off the screen).
+     * POST: the render thread has finished (unless this is called from the render thread itself,
+     *       which then finishes when it gets back to the top of its loop)
+     */
+    public synchronized void stop(){
+        running = false;
+        Thread renderThread = thread;
+        thread = null;
+        if (renderThread == null || renderThread == Thread.currentThread()) return;
+        renderThread.interrupt(); // (wakes it up if it's waiting for the next frame)
+        try {
+            renderThread.join();
+        }
+        catch (InterruptedException e){
+            Thread.currentThread().interrupt(); // (keep the interrupt for whoever called us)
+        }
+    }
+
+    @Override
+    public void run(){
+        BufferStrategy strategy = getBufferStrategy();
+        long nextFrame = System.nanoTime();
+        secondStartedAt = nextFrame;
+
+        while (running){
+            // The buffers' contents can get lost (for example if the window is minimized),
+            // in which case we just draw the frame again:
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        g.setColor(getBackground());
+                        g.fillRect(0, 0, getWidth(), getHeight());
+                        scene.render(g);
+                        drawFramesPerSecond(g);
+                    }
+                    finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show(); // flip!
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync(); // (some systems buffer up drawing commands; this sends them out now.)
+
+            countFrame();
+
+            // wait until it's time for the next frame. If we've fallen behind, don't try to catch up,
+            // just start counting again from now:
+            nextFrame += nanosPerFrame;
+            long now = System.nanoTime();
+            if (nextFrame < now) nextFrame = now;
+            else LockSupport.parkNanos(nextFrame - now);
+        }
+    }
+
+    private void countFrame(){
+        framesThisSecond++;
+        long now = System.nanoTime();
+        if (now - secondStartedAt >= 1_000_000_000L){
+            framesPerSecond = framesThisSecond;
+            framesThisSecond = 0;
+            secondStartedAt = now;
+        }
+    }
+
+    private void drawFramesPerSecond(Graphics g){
+        g.setColor(Color.WHITE);
+        int fps = framesPerSecond;
+        if (fps != framesPerSecondInText){
+            framesPerSecondText = "FPS: " + fps;
+            framesPerSecondInText = fps;
+        }
+        g.drawString(framesPerSecondText, 10, getHeight() - 10);
+    }
+
+    /**
+     * getFramesPerSecond
+     * ------------------
+     * How many frames were drawn in the last full second.
+     */
+    public int getFramesPerSecond(){
+        return framesPerSecond;
+    }
+
+} // end ActiveRenderer class
@@ -1,120 +1,198 @@
- 
-
+import java.util.AbstractList;
 import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
 
-public class ArrayList {
+/**
+ * ArrayList
+ * ---------
+ * Our own list, kept in an array that doubles in size when it fills up.
+ * It's a java.util.List (it extends AbstractList), so it can go anywhere a List can,
+ * but it has a couple of extra things the game needs for its lists of eggs:
+ *   swapRemove(i) takes out element i by moving the last element into its place, so it never has to shift anything
+ *                 (the order changes, but for something like the eggs in one cell of the SpatialHash, that doesn't matter);
+ *   removeIf(...) takes out everything that matches in one pass, sliding the keepers down as it goes
+ *                 (instead of shifting the whole rest of the list once for every element it removes).
+ * (See IntArrayList and DoubleArrayList for lists of plain numbers, so they don't have to be boxed into Integers and Doubles.)
+ *
+ * This used to be a list of Objects with a few bugs: remove() read one past the end, isEmpty() looked at every element,
+ * toString() was quadratic, and equals() compared the elements with == instead of equals().
+ */
+public class ArrayList<T> extends AbstractList<T> implements RandomAccess {
 
     //class variables
     private int numElements = 0;
-    private int currCap = 100;
-    private Object[] list = new Object[100];
+    private Object[] list;
+
+    public ArrayList(){
+        this(16);
+    }
+
+    public ArrayList(int initialCapacity){
+        list = new Object[Math.max(1, initialCapacity)];
+    }
 
     /*
      * insert() method inserts an object at an indicated index.
      */
-    public void insert(Object obj, int index){
-        //extends the ArrayList if current capacity is reached
-        if(numElements == list.length){
-            currCap*=2;
-            list = Arrays.copyOf(list, currCap);
-        }
-
-        //bumps all current elements up 1 index to make room for new object
-        for(int i = numElements; i > index; i--){
-            list[i] = list[i-1];
-        }
-        //adds object
-        list[index] = obj;
-        numElements++;//tracks number of elements
+    public void insert(T obj, int index){
+        add(index, obj);
     }
+
     /*
      * add() method adds the object to the end of the list
      */
-    public void add(Object obj){
+    @Override
+    public boolean add(T obj){
         //expands the ArrayList if the current capacity is reached
-        if(numElements == list.length){
-            currCap*=2;
-            list = Arrays.copyOf(list, currCap);
-        }
+        if (numElements == list.length) ensureCapacity(numElements * 2);
         //adds the object to the farthest index
-        list[numElements] = obj;
+        list[numElements++] = obj;
+        modCount++;
+        return true;
+    }
+
+    /*
+     * add() with an index puts the object there, bumping everything after it up one index
+     */
+    @Override
+    public void add(int index, T obj){
+        if (index < 0 || index > numElements) throw new IndexOutOfBoundsException("index " + index + ", size " + numElements);
+        if (numElements == list.length) ensureCapacity(numElements * 2);
+        System.arraycopy(list, index, list, index + 1, numElements - index);
+        list[index] = obj;
         numElements++;
+        modCount++;
+    }
+
+    /*
+     * get() gets the object at a indicated index.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index){
+        checkIndex(index);
+        return (T) list[index];
+    }
+
+    /*
+     * set() puts obj at index (instead of what was there), and returns what was there.
+     */
+    @Override
+    public T set(int index, T obj){
+        T old = get(index);
+        list[index] = obj;
+        return old;
     }
+
     /*
      * remove() method removes the object at the indicated index and returns
-     * that object
+     * that object (everything after it moves down one, so the order stays the same)
      */
-    public Object remove(int index){
-        Object item = list[index];
-        for(int i = index; i<numElements; i++){
-            list[i] = list[i+1];
-        }
-        numElements--;
+    @Override
+    public T remove(int index){
+        T item = get(index);
+        System.arraycopy(list, index + 1, list, index, numElements - index - 1);
+        list[--numElements] = null; // (so the list doesn't hang on to it)
+        modCount++;
+        return item;
+    }
+
+    /**
+     * swapRemove
+     * ----------
+     * Removes the object at index by moving the last object into its place, and returns the removed object.
+     * It doesn't shift anything, so it takes the same time wherever the object is, but the order of the list changes.
+     * PRE: 0 <= index < size()
+     */
+    public T swapRemove(int index){
+        T item = get(index);
+        int last = --numElements;
+        list[index] = list[last];
+        list[last] = null;
+        modCount++;
         return item;
     }
+
+    /**
+     * removeIf
+     * --------
+     * Removes every object that filter says yes to, in one pass (the objects that are left keep their order).
+     * Returns true if anything was removed.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter){
+        int kept = 0;
+        for (int i = 0; i < numElements; i++){
+            Object obj = list[i];
+            if (!filter.test((T) obj)) list[kept++] = obj;
+        }
+        if (kept == numElements) return false;
+        Arrays.fill(list, kept, numElements, null);
+        numElements = kept;
+        modCount++;
+        return true;
+    }
+
     /*
      * size() gets the size of the array list
      */
+    @Override
     public int size(){
         return numElements;
     }
+
+    @Override
     public boolean isEmpty(){
-        boolean check = true;
-        for(int i = 0; i<numElements; i++){
-            if(list[i] != null){
-                check = false;
-            }
-        }
-        return check;
+        return numElements == 0;
+    }
+
+    @Override
+    public void clear(){
+        Arrays.fill(list, 0, numElements, null);
+        numElements = 0;
+        modCount++;
     }
-    
+
     /*
      * indexOf() gets the index of an object if it exists
      * in the array list or not.
      */
+    @Override
     public int indexOf(Object obj){
-        int index = -1;
-        for(int i = 0; i < numElements; i++){
-            if(obj.equals(list[i])){
-                index = i;
-                break;
-            }
+        for (int i = 0; i < numElements; i++){
+            if (obj == null ? list[i] == null : obj.equals(list[i])) return i;
         }
-        return index;
+        return -1;
     }
-    /*
-     * toString() method puts the objects into a nice string format
-     */
-    public String toString(){
-        String arrayList = "";
-        for(int i = 0; i < numElements; i++){
-            //adds all objects to string followed by a new line
-            arrayList += list[i].toString() + "\n";
-        }
 
-        return arrayList;
+    /**
+     * ensureCapacity
+     * --------------
+     * Makes sure there's room for at least capacity objects without growing again.
+     */
+    public void ensureCapacity(int capacity){
+        if (capacity > list.length) list = Arrays.copyOf(list, Math.max(capacity, 1));
     }
+
     /*
-     * equals() method checks to see if another arraylist 
-     * is the same as the current one
+     * toString() method puts the objects into a nice string format (one per line)
      */
-    public boolean equals(Object obj){
-        ArrayList that = (ArrayList) obj; //type cast
-        boolean check = true;
-        if(this.numElements != that.size()){//if ArrayLists have different sizes
-            check = false;
-        }
-        for(int i = 0; i < this.numElements; i++){
-            if(this.get(i) != that.get(i)){ //if elements don't equal
-                check = false;
-            }
+    @Override
+    public String toString(){
+        StringBuilder arrayList = new StringBuilder();
+        for (int i = 0; i < numElements; i++){
+            //adds all objects to string followed by a new line
+            arrayList.append(list[i]).append('\n');
         }
-        return check;
+        return arrayList.toString();
     }
-    /*
-     * get() gets the object at a indicated index.
-     */
-    public Object get(int index){
-        return list[index];
+
+    // (equals() and hashCode() come from AbstractList: two lists are equal if they have equal elements in the same order.)
+
+    private void checkIndex(int index){
+        if (index < 0 || index >= numElements) throw new IndexOutOfBoundsException("index " + index + ", size " + numElements);
     }
-} 
\ No newline at end of file
+
+} // end ArrayList class
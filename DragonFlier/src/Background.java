@@ -32,9 +32,17 @@ import java.awt.image.AffineTransformOp;
  */
 public class Background extends DragonGameShape{
     
-    BufferedImage backgroundImage = null;
-    BufferedImage backgroundBackgroundImage = null; // even further in the background is this image.
-                                                    // this needs to be the same size as backgroundImage.
+    // The cavern is big, so it's never loaded all at once: it's cut into tiles that are only decoded
+    // when they come into view (see TiledImage), and only the tiles in the window get drawn.
+    TiledImage backgroundImage = null;
+    TiledImage backgroundBackgroundImage = null; // even further in the background is this image.
+                                                 // this needs to be the same size as backgroundImage.
+
+    // how many tiles of each image we keep decoded (twice what it takes to fill the window, so flying back and forth doesn't decode them again):
+    private static final int TILES_TO_KEEP = 24;
+    
+    // which pixels of backgroundImage are solid, worked out once when the image is loaded:
+    CollisionMask collisionMask = null;
     
     boolean left, right, up, down; // these keep track of the direction the user is trying to go
     
@@ -44,25 +52,63 @@ public class Background extends DragonGameShape{
     int FRAME_WIDTH, FRAME_HEIGHT;
     //double GRAVITY;
 
+    // the cavern we fly around in, if we aren't told which one:
+    public static final String DEFAULT_CAVERN = "images/bigCavern01.png";
+
     /**
      * Background constructor:
      * -----------------------
      * Takes in the width and height of the frame that the background is in.
      */
     public Background(int frame_width,int frame_height) {
+        this(frame_width, frame_height, new File(DEFAULT_CAVERN));
+    }
+
+    /**
+     * Background constructor:
+     * -----------------------
+     * The same, but with the cavern image to use (a level says which one it wants; see LevelFile).
+     */
+    public Background(int frame_width,int frame_height, File cavernFile) {
         
         this.FRAME_WIDTH = frame_width;
         this.FRAME_HEIGHT = frame_height;
         
+        loadImages(cavernFile);
+        reset();
+    }
+
+    /**
+     * reset
+     * -----
+     * Puts the background back where it starts (at the bottom left of the cavern, not moving),
+     * without loading the images again. (The GameWorld does this when the game restarts.)
+     * POST: loc is where the constructor put it, and no direction is being pushed.
+     */
+    public void reset(){
         this.left = false;
         this.right = false;
         this.up = false;
         this.down = false;
-        loadImages();
-
+        this.loc = new LocationAndVelocity();
         this.loc.x = 0;
         this.loc.y = FRAME_HEIGHT - imageHeight; // puts the image at the bottom of the pane
     }
+
+    /**
+     * close
+     * -----
+     * Closes the cavern images' tile stores (see TiledImage.close()). Call this when the background won't be used any more.
+     */
+    public void close(){
+        try {
+            if (backgroundImage != null) backgroundImage.close();
+            if (backgroundBackgroundImage != null) backgroundBackgroundImage.close();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
     
     /**
      * loadImages
@@ -70,12 +116,15 @@ public class Background extends DragonGameShape{
      * This is just a helper method for the constructors, to load all the images we need
      * PRE: all the images are in the images folder!
      */
-    private void loadImages(){
+    private void loadImages(File cavernFile){
         try {
-            this.backgroundImage = ImageIO.read(new File("images/bigCavern01.png"));
-            this.backgroundBackgroundImage = ImageIO.read(new File("images/backgroundbackground02.jpg"));
+            this.backgroundImage = new TiledImage(cavernFile, TiledImage.DEFAULT_TILE_SIZE, TILES_TO_KEEP);
+            this.backgroundBackgroundImage = new TiledImage(new File("images/backgroundbackground02.jpg"), TiledImage.DEFAULT_TILE_SIZE, TILES_TO_KEEP);
             this.imageWidth = this.backgroundImage.getWidth();
             this.imageHeight = this.backgroundImage.getHeight();
+            // The mask comes from a collision map file, which is mapped into memory rather than read in
+            // (it's made from the cavern image the first time, a strip at a time; see CollisionMapFile):
+            this.collisionMask = CollisionMapFile.forCavern(cavernFile, this.backgroundImage);
 
         }
         catch (IOException e) {
@@ -89,16 +138,27 @@ public class Background extends DragonGameShape{
      * draw
      * ----
      * This draws the background (and also the background of the background image.)
+     * Only the tiles that are in the window are drawn.
      * PRE: g is not null
      * POST: draws the background.
      * 
      */
     @Override
     public void draw(Graphics g) {
-        double x = loc.x;
-        double y = loc.y;
-        g.drawImage(backgroundBackgroundImage, (int)x, (int)y, null);
-        g.drawImage(backgroundImage, (int)x, (int)y, null);
+        draw(g, loc.x, loc.y);
+    }
+
+    /**
+     * draw
+     * ----
+     * The same, but with the background at x,y instead of where it really is
+     * (the window draws it part-way between two ticks, so the scrolling looks smooth -- see FrameRenderer).
+     * It doesn't change the background at all.
+     */
+    public void draw(Graphics g, double x, double y) {
+        if (backgroundImage == null) return; // (the images couldn't be loaded)
+        if (backgroundBackgroundImage != null) backgroundBackgroundImage.draw(g, (int)x, (int)y, FRAME_WIDTH, FRAME_HEIGHT);
+        backgroundImage.draw(g, (int)x, (int)y, FRAME_WIDTH, FRAME_HEIGHT);
         
         // if we move to the edge of the image, we'll end up seeing some black. 
         // To prevent that, we could draw secondary images (sort of like looping the image):
@@ -119,10 +179,12 @@ public class Background extends DragonGameShape{
      * PRE: this.loc has been set
      * POST: none; this doesn't change anything, it only returns a LocationAndVelocity object representing
      *       the next location of the background.
+     *       (It's this.scratchLoc, which gets overwritten the next time nextLoc is called.)
      */
     public LocationAndVelocity nextLoc(){
 
-        LocationAndVelocity tempLoc = new LocationAndVelocity(this.loc);
+        LocationAndVelocity tempLoc = this.scratchLoc; // (reused every time, so we don't make a new object each tick)
+        tempLoc.set(this.loc);
         double acceleration = tempLoc.acceleration;
         double maxVelocity = tempLoc.maxVelocity;            
         // take care of left/right motion:
@@ -185,7 +247,7 @@ public class Background extends DragonGameShape{
     public void move() {
         // I put the builk of the code into the the nextLoc() method,
         // which will determine the lext location based on the current velocity and such.
-        this.loc = nextLoc();
+        this.loc.set(nextLoc());
     }
 
     
@@ -194,15 +256,14 @@ public class Background extends DragonGameShape{
      * ----------------
      * This returns true if there's a non-transparent pixel in the background image at x or y.
      * It also returns true if x or y is off the image enirely.
+     * (This gets called a lot, so it looks at the collisionMask rather than the image itself.)
      * 
      */
     public boolean notTransparentAt(int x, int y){
         if (x < 0 || y < 0) return true;
         if (x >= this.imageWidth || y >= this.imageHeight) return true;
         
-        Color pixel = new Color(this.backgroundImage.getRGB(x,y), true);
-        if (pixel.getAlpha() != 0) return true;
-        return false;
+        return this.collisionMask.isSolid(x, y);
     }
     
     public boolean notTransparentAt(double x, double y){
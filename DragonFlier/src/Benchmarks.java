@@ -0,0 +1,1239 @@
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import javax.imageio.ImageIO;
+
+/**
+ * Benchmarks
+ * ----------
+ * A few little timing experiments for the parts of the game that need to be fast.
+ * Run it from the DragonFlier folder (so it can find the images folder) with the name of a benchmark:
+ *     java Benchmarks levelLoad
+ * If you don't give it a name, it runs all of them.
+ * (hotPaths runs HotPathBenchmarks, which times each hot path with different numbers of eggs;
+ *  run that one by itself to give it options. The JMH benchmarks in the jmh folder are the real versions of those;
+ *  HotPathBenchmarks is for when you can't get the JMH jars.
+ *  Our ArrayList, IntArrayList and DoubleArrayList against java.util.ArrayList is only in the jmh folder, as Lists.)
+ */
+public class Benchmarks {
+
+    private static final int FRAME_WIDTH = 1200;
+    private static final int FRAME_HEIGHT = 900;
+
+    // results get added in here so the JIT can't decide the work we're timing isn't needed:
+    private static long sink = 0;
+
+    public static void main(String[] args) {
+        String which = (args.length > 0) ? args[0] : "all";
+        boolean all = which.equals("all");
+
+        if (all || which.equals("levelLoad")) levelLoad();
+        if (all || which.equals("backgroundProbes")) backgroundProbes();
+        if (all || which.equals("hudAllocations")) hudAllocations();
+        if (all || which.equals("eggTimers")) eggTimers();
+        if (all || which.equals("moveAllocations")) moveAllocations();
+        if (all || which.equals("crowdedWorld")) crowdedWorld();
+        if (all || which.equals("parallelCreatures")) parallelCreatures();
+        if (all || which.equals("cavernTiles")) cavernTiles();
+        if (all || which.equals("collisionMap")) collisionMap();
+        if (all || which.equals("compatibleBlits")) compatibleBlits();
+        if (all || which.equals("viewportCulling")) viewportCulling();
+        if (all || which.equals("distanceChecks")) distanceChecks();
+        if (all || which.equals("eggPool")) eggPool();
+        if (all || which.equals("levelStreaming")) levelStreaming();
+        if (all || which.equals("creatureDetail")) creatureDetail();
+        if (all || which.equals("dirtyRepaint")) dirtyRepaint();
+        if (all || which.equals("hotPaths")) HotPathBenchmarks.main(new String[0]);
+    }
+
+    /**
+     * levelLoad
+     * ---------
+     * Times how long it takes to create a level with 12, 500 and 5000 eggs.
+     * "before" is the way it used to work, where every egg decoded its own 12 creature images;
+     * "after" is with the images shared through the Sprites class.
+     */
+    private static void levelLoad(){
+        System.out.println("== levelLoad ==");
+        long start = System.nanoTime();
+        Sprites.preload();
+        System.out.println("decoding and packing all sprites once: " + millis(System.nanoTime() - start) + " ms");
+
+        Background background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+        Dragon dragon = new Dragon(background, FRAME_WIDTH/2, FRAME_HEIGHT/2);
+        TimingWheel clock = new TimingWheel(5);
+
+        int[] eggCounts = {12, 500, 5000};
+        for (int numberOfEggs: eggCounts){
+            // before: every egg decodes all of its own images.
+            start = System.nanoTime();
+            ArrayList<Egg> eggs = makeEggs(background, dragon, clock, numberOfEggs);
+            for (int i = 0; i < numberOfEggs; i++){
+                decodeEggImagesTheOldWay();
+            }
+            long before = System.nanoTime() - start;
+            stopAll(eggs);
+
+            // after: the eggs share the sprites.
+            start = System.nanoTime();
+            eggs = makeEggs(background, dragon, clock, numberOfEggs);
+            long after = System.nanoTime() - start;
+            stopAll(eggs);
+
+            System.out.println(numberOfEggs + " eggs: before " + millis(before) + " ms, after " + millis(after) + " ms");
+        }
+    }
+
+    /**
+     * backgroundProbes
+     * ----------------
+     * Compares how many Background.notTransparentAt-style probes per second we get
+     * by reading the image with getRGB (the old way) and by reading the CollisionMask.
+     * It uses the real cavern image if it's there, otherwise a made-up cavern of about the same size.
+     */
+    private static void backgroundProbes(){
+        System.out.println("== backgroundProbes ==");
+        BufferedImage cavern = loadCavern();
+        CollisionMask mask = CollisionMask.fromImage(cavern);
+        int w = cavern.getWidth();
+        int h = cavern.getHeight();
+
+        // the same random probes for both, (a few off the edges too, like the real game):
+        Random random = new Random(42);
+        int numberOfProbes = 1 << 20;
+        int[] xs = new int[numberOfProbes];
+        int[] ys = new int[numberOfProbes];
+        for (int i = 0; i < numberOfProbes; i++){
+            xs[i] = random.nextInt(w + 20) - 10;
+            ys[i] = random.nextInt(h + 20) - 10;
+        }
+
+        for (int round = 0; round < 3; round++){ // the first round or two is just warming up the JIT
+            long start = System.nanoTime();
+            long probes = 0;
+            while (System.nanoTime() - start < 1_000_000_000L){
+                for (int i = 0; i < numberOfProbes; i++){
+                    if (notTransparentAtTheOldWay(cavern, xs[i], ys[i])) sink++;
+                }
+                probes += numberOfProbes;
+            }
+            double oldRate = probes / ((System.nanoTime() - start) / 1e9);
+
+            start = System.nanoTime();
+            probes = 0;
+            while (System.nanoTime() - start < 1_000_000_000L){
+                for (int i = 0; i < numberOfProbes; i++){
+                    int x = xs[i];
+                    int y = ys[i];
+                    if (x < 0 || y < 0 || x >= w || y >= h || mask.isSolid(x, y)) sink++;
+                }
+                probes += numberOfProbes;
+            }
+            double maskRate = probes / ((System.nanoTime() - start) / 1e9);
+
+            System.out.println("round " + round + ": getRGB " + String.format("%.1f", oldRate / 1e6) + " M probes/s, "
+                + "mask " + String.format("%.1f", maskRate / 1e6) + " M probes/s");
+        }
+    }
+
+    /**
+     * This is how Background.notTransparentAt used to work.
+     * (The JMH Probes benchmark uses it too, through HotPathHooks.)
+     */
+    static boolean notTransparentAtTheOldWay(BufferedImage image, int x, int y){
+        if (x < 0 || y < 0) return true;
+        if (x >= image.getWidth() || y >= image.getHeight()) return true;
+
+        Color pixel = new Color(image.getRGB(x,y), true);
+        if (pixel.getAlpha() != 0) return true;
+        return false;
+    }
+
+    /**
+     * loadCavern
+     * ----------
+     * Loads images/bigCavern01.png, or if it isn't there, makes a cavern-ish image:
+     * solid rock with a bunch of transparent holes cut out of it.
+     */
+    static BufferedImage loadCavern(){
+        try {
+            return ImageIO.read(new File("images/bigCavern01.png"));
+        }
+        catch (IOException e) {
+            System.out.println("images/bigCavern01.png isn't there, so we'll use a made-up cavern instead.");
+        }
+        BufferedImage cavern = new BufferedImage(6400, 3600, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = cavern.createGraphics();
+        g.setColor(new Color(90, 60, 40));
+        g.fillRect(0, 0, cavern.getWidth(), cavern.getHeight());
+        g.setComposite(AlphaComposite.Clear);
+        Random random = new Random(1);
+        for (int i = 0; i < 400; i++){
+            g.fillOval(random.nextInt(cavern.getWidth()), random.nextInt(cavern.getHeight()),
+                100 + random.nextInt(600), 100 + random.nextInt(400));
+        }
+        g.dispose();
+        return cavern;
+    }
+
+    /**
+     * hudAllocations
+     * --------------
+     * Draws the HUD (score, life bar, seconds, and YOU DIED) over and over into an offscreen image,
+     * the old way and with the Hud class, and reports how many bytes each frame allocates.
+     * The score changes every 1000 frames and the seconds every 200 frames (200 ticks is a second of game time).
+     */
+    private static void hudAllocations(){
+        System.out.println("== hudAllocations ==");
+        BufferedImage screen = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.createGraphics();
+        Hud hud = new Hud(FRAME_WIDTH);
+        int frames = 20000;
+
+        for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+            long before = allocatedBytes();
+            for (int frame = 0; frame < frames; frame++){
+                displayScoreTheOldWay(g, frame / 1000);
+                displayLifeLeftTheOldWay(g, 25, 12, 0.5);
+                displayYouDiedTheOldWay(g);
+                displaySecondsElapsedTheOldWay(g, frame / 200);
+            }
+            long oldBytes = allocatedBytes() - before;
+
+            before = allocatedBytes();
+            for (int frame = 0; frame < frames; frame++){
+                hud.displayScore(g, frame / 1000);
+                hud.displayLifeLeft(g, 25, 12, 0.5);
+                hud.displayYouDied(g);
+                hud.displaySecondsElapsed(g, frame / 200);
+            }
+            long newBytes = allocatedBytes() - before;
+
+            System.out.println("round " + round + ": old HUD " + (oldBytes / frames) + " bytes/frame ("
+                + String.format("%.1f", oldBytes / (double)frames * 200 / 1e6) + " MB/s at 200 frames/s), Hud "
+                + (newBytes / frames) + " bytes/frame ("
+                + String.format("%.1f", newBytes / (double)frames * 200 / 1e6) + " MB/s)");
+        }
+        g.dispose();
+    }
+
+    /**
+     * eggTimers
+     * ---------
+     * Makes lots of eggs that all appear, ripen and hatch within a few seconds of each other,
+     * and then runs the TimingWheel through 10 seconds of game time (2000 ticks of 5 ms).
+     * Reports how long each tick takes on average, and how many eggs made it to each stage.
+     * (Before the TimingWheel, every one of these eggs had up to six Swing Timers,
+     *  all going through the one Swing event thread.)
+     */
+    private static void eggTimers(){
+        System.out.println("== eggTimers ==");
+        Sprites.preload();
+        Background background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+        Dragon dragon = new Dragon(background, FRAME_WIDTH/2, FRAME_HEIGHT/2);
+        Random random = new Random(7);
+
+        int[] eggCounts = {1000, 10000, 100000};
+        for (int numberOfEggs: eggCounts){
+            TimingWheel clock = new TimingWheel(5);
+            ArrayList<Egg> eggs = new ArrayList<>();
+            for (int i = 0; i < numberOfEggs; i++){
+                eggs.add(new Egg(background, dragon, clock, 100, 100,
+                    random.nextDouble(), 1 + 3 * random.nextDouble(), 1 + 3 * random.nextDouble()));
+            }
+            int ticks = 2000;
+            // (every egg that hatches prints a line, which would take longer than everything else put together,
+            //  so we turn System.out off while we're timing)
+            PrintStream out = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            long start = System.nanoTime();
+            clock.advance(ticks);
+            long elapsed = System.nanoTime() - start;
+            System.setOut(out);
+
+            int hatched = 0;
+            for (Egg egg: eggs){
+                if (egg.stage == eggStage.HATCHED) hatched++;
+            }
+            System.out.println(numberOfEggs + " eggs: " + String.format("%.1f", elapsed / (double)ticks / 1000.0)
+                + " us/tick, " + hatched + " hatched, " + clock.size() + " timers still waiting");
+        }
+    }
+
+    /**
+     * moveAllocations
+     * ---------------
+     * Runs the move() methods of everything in the game (the dragon, the background, a fireball that's flying,
+     * and 1000 hatched creatures) for 20000 ticks, and reports how many bytes each tick allocated
+     * and how many garbage collections happened while it ran.
+     * (nextLoc() used to make a new LocationAndVelocity every time, and Egg.move() calls it twice.)
+     * The JMH version is Moves in the jmh folder; run it with  gradle jmh -Pjmh="-prof gc Moves"  to see the bytes
+     * per operation from JMH's gc profiler.
+     */
+    private static void moveAllocations(){
+        System.out.println("== moveAllocations ==");
+        Sprites.preload();
+        Background background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+        Dragon dragon = new Dragon(background, FRAME_WIDTH/2, FRAME_HEIGHT/2);
+        TimingWheel clock = new TimingWheel(5);
+        Fireball fireball = new Fireball(dragon, background, clock, FRAME_WIDTH, FRAME_HEIGHT);
+        background.setRight(true); // keep the dragon flying, so the creatures have someone to chase.
+
+        // hatch 1000 creatures:
+        Random random = new Random(11);
+        ArrayList<Egg> eggs = new ArrayList<>();
+        for (int i = 0; i < 1000; i++){
+            eggs.add(new Egg(background, dragon, clock, random.nextInt(4000), random.nextInt(3000), 0, 0.01, 0.01));
+        }
+        clock.advance(100);
+
+        int ticks = 20000;
+        for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+            long collections = garbageCollections();
+            long before = allocatedBytes();
+            long start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++){
+                if (!fireball.hasFired()){ // throw it again whenever it stops:
+                    fireball.setFired(true);
+                    fireball.loc.xv = 8;
+                    fireball.loc.yv = -3;
+                }
+                dragon.move();
+                background.move();
+                fireball.move();
+                for (int i = 0; i < eggs.size(); i++){ // (a for-each loop would make an Iterator every tick)
+                    eggs.get(i).move();
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long bytes = allocatedBytes() - before;
+            System.out.println("round " + round + ": " + (bytes / ticks) + " bytes/tick, "
+                + (garbageCollections() - collections) + " GCs, "
+                + String.format("%.1f", elapsed / (double)ticks / 1000.0) + " us/tick");
+        }
+    }
+
+    /**
+     * crowdedWorld
+     * ------------
+     * Two real GameWorlds with 100,000 hatched creatures scattered around the cavern (see HotPathBenchmarks.makeWorld()),
+     * one with the eggs only in the eggList (the way the game usually runs), and one with the EggStore turned on
+     * (see GameWorld.setUseEggStore()), playing the same game.
+     * It times whole ticks (GameWorld.step(), which moves all the creatures, runs the timers and takes out the dead ones)
+     * in each, and checks they come out the same. Then it times the collision checker by itself in each (with the EggStore,
+     * the dragon is checked against every egg with one loop over its arrays; without it, only the eggs the SpatialHash says
+     * are nearby get checked), and for comparison, just the loop over the EggStore (EggStore.findTouching), and checking
+     * the dragon against every Egg object, the way the collision checker did it before the SpatialHash.
+     */
+    private static void crowdedWorld(){
+        System.out.println("== crowdedWorld ==");
+        Sprites.preload();
+        GameWorld objects = HotPathBenchmarks.makeWorld(100000);
+        GameWorld stored = HotPathBenchmarks.makeWorld(100000);
+        stored.setUseEggStore(true);
+        objects.apply(GameInput.RIGHT, true); // keep the dragons flying, so the creatures have someone to chase.
+        stored.apply(GameInput.RIGHT, true);
+
+        int ticks = 200;
+        for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+            long start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++){
+                objects.step();
+            }
+            long objectNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++){
+                stored.step();
+            }
+            long storeNanos = System.nanoTime() - start;
+            System.out.println("round " + round + ": step, Egg objects " + millis(objectNanos / ticks) + " ms/tick, EggStore "
+                + millis(storeNanos / ticks) + " ms/tick (" + stored.getEggs().size() + " eggs, same game: "
+                + (objects.stateHash() == stored.stateHash()) + ")");
+        }
+
+        Dragon dragon = stored.getDragon();
+        Background background = stored.getBackground();
+        int collisionDistance = dragon.getImageWidth()/3;
+        IntArrayList touching = new IntArrayList();
+        objects.getFireball().fire(); // (so it checks the fireball against the eggs too)
+        stored.getFireball().fire();
+        for (int round = 0; round < 3; round++){
+            long start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++){
+                objects.collisionchecker();
+            }
+            long gridNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++){
+                stored.collisionchecker();
+            }
+            long storeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++){
+                touching.clear();
+                stored.getEggStore().findTouching(dragon.loc.x, dragon.loc.y, background.loc.x, background.loc.y, collisionDistance, touching);
+                sink += touching.size();
+            }
+            long arraysNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int tick = 0; tick < ticks; tick++){
+                sink += collideTheObjectWay(stored.getEggs(), dragon, background, collisionDistance);
+            }
+            long everyEggNanos = System.nanoTime() - start;
+            System.out.println("round " + round + ": collide, collisionchecker " + millis(gridNanos / ticks)
+                + " ms/tick (EggStore " + millis(storeNanos / ticks) + " ms/tick), every egg in the EggStore's arrays "
+                + millis(arraysNanos / ticks) + " ms/tick, every Egg object " + millis(everyEggNanos / ticks) + " ms/tick");
+        }
+        objects.close();
+        stored.close();
+    }
+
+    /**
+     * parallelCreatures
+     * -----------------
+     * Moves 1000, 10000 and 100000 hatched creatures one at a time (with move()) and with a CreatureUpdater,
+     * and checks they end up in the same places.
+     * (How much faster the CreatureUpdater is depends on how many cores the computer has.)
+     */
+    private static void parallelCreatures(){
+        System.out.println("== parallelCreatures (" + ForkJoinPool.commonPool().getParallelism() + " worker threads) ==");
+        Sprites.preload();
+        Background background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+        Dragon dragon = new Dragon(background, FRAME_WIDTH/2, FRAME_HEIGHT/2);
+        CreatureUpdater updater = new CreatureUpdater();
+
+        int[] creatureCounts = {1000, 10000, 100000};
+        for (int numberOfCreatures: creatureCounts){
+            TimingWheel clock = new TimingWheel(5);
+            Random random = new Random(17);
+            ArrayList<Egg> serial = new ArrayList<>();
+            ArrayList<Egg> parallel = new ArrayList<>();
+            for (int i = 0; i < numberOfCreatures; i++){
+                int x = random.nextInt(6400);
+                int y = random.nextInt(3600);
+                serial.add(new Egg(background, dragon, clock, x, y, 0, 0.01, 0.01));
+                parallel.add(new Egg(background, dragon, clock, x, y, 0, 0.01, 0.01));
+            }
+            PrintStream out = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            clock.advance(100); // (hatch them all)
+            System.setOut(out);
+
+            int ticks = Math.max(50, 5_000_000 / numberOfCreatures);
+            long serialNanos = 0, parallelNanos = 0;
+            for (int round = 0; round < 2; round++){ // (the first round is warm-up)
+                long start = System.nanoTime();
+                for (int tick = 0; tick < ticks; tick++){
+                    for (int i = 0; i < serial.size(); i++){
+                        serial.get(i).move();
+                    }
+                }
+                serialNanos = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                for (int tick = 0; tick < ticks; tick++){
+                    updater.update(parallel, dragon, background);
+                }
+                parallelNanos = System.nanoTime() - start;
+            }
+
+            boolean same = true;
+            for (int i = 0; i < numberOfCreatures; i++){
+                if (serial.get(i).loc.x != parallel.get(i).loc.x || serial.get(i).loc.y != parallel.get(i).loc.y) same = false;
+            }
+            System.out.println(numberOfCreatures + " creatures: one at a time " + millis(serialNanos / ticks) + " ms/tick, "
+                + "CreatureUpdater " + millis(parallelNanos / ticks) + " ms/tick" + (same ? " (same places)" : " (DIFFERENT PLACES!)"));
+        }
+    }
+
+    /**
+     * cavernTiles
+     * -----------
+     * Compares loading the whole cavern image (and its collision mask) at once with opening it as a TiledImage
+     * (and building the mask a strip at a time), and then drawing 600 frames while flying diagonally across the cavern,
+     * by drawing the whole image every frame (the old way) and by drawing just the tiles in the window.
+     */
+    private static void cavernTiles(){
+        System.out.println("== cavernTiles ==");
+        File file = new File("images/bigCavern01.png");
+        try {
+            if (!file.exists()){ // (write the made-up cavern out to a file, so there's something to tile)
+                file = File.createTempFile("cavern", ".png");
+                file.deleteOnExit();
+                ImageIO.write(loadCavern(), "png", file);
+            }
+
+            long start = System.nanoTime();
+            BufferedImage whole = ImageIO.read(file);
+            CollisionMask wholeMask = CollisionMask.fromImage(whole);
+            long wholeNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            TiledImage tiled = new TiledImage(file, TiledImage.DEFAULT_TILE_SIZE, 24);
+            long openNanos = System.nanoTime() - start;
+            CollisionMask tiledMask = CollisionMask.fromTiledImage(tiled);
+            long tiledNanos = System.nanoTime() - start;
+
+            boolean same = true;
+            for (int y = 0; y < whole.getHeight(); y += 7){
+                for (int x = 0; x < whole.getWidth(); x += 7){
+                    if (wholeMask.isSolid(x, y) != tiledMask.isSolid(x, y)) same = false;
+                }
+            }
+            System.out.println("loading: whole image and mask " + millis(wholeNanos) + " ms (" + (whole.getWidth() * (long)whole.getHeight() * 4 / 1_000_000)
+                + " MB of pixels), tiled " + millis(openNanos) + " ms to open and " + millis(tiledNanos) + " ms with the mask"
+                + (same ? " (same mask)" : " (DIFFERENT MASK!)"));
+
+            BufferedImage screen = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            Graphics g = screen.createGraphics();
+            int frames = 600;
+            for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+                start = System.nanoTime();
+                for (int frame = 0; frame < frames; frame++){
+                    g.drawImage(whole, -frame * (whole.getWidth() - FRAME_WIDTH) / frames, -frame * (whole.getHeight() - FRAME_HEIGHT) / frames, null);
+                }
+                long oldNanos = System.nanoTime() - start;
+
+                int decodedBefore = tiled.getTilesLoaded();
+                start = System.nanoTime();
+                for (int frame = 0; frame < frames; frame++){
+                    tiled.draw(g, -frame * (tiled.getWidth() - FRAME_WIDTH) / frames, -frame * (tiled.getHeight() - FRAME_HEIGHT) / frames,
+                               FRAME_WIDTH, FRAME_HEIGHT);
+                }
+                long tiledDrawNanos = System.nanoTime() - start;
+                System.out.println("round " + round + ": whole image " + millis(oldNanos / frames) + " ms/frame, tiles "
+                    + millis(tiledDrawNanos / frames) + " ms/frame (" + (tiled.getTilesLoaded() - decodedBefore) + " tiles loaded, "
+                    + tiled.getCachedTileCount() + " kept)");
+            }
+            g.dispose();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * collisionMap
+     * ------------
+     * Writes the cavern's mask to a collision map file, and compares building the mask on the heap with opening the file
+     * (and checks they agree). Then it makes up a 32768 x 32768 cavern, writes its collision map a strip at a time,
+     * and times opening it and probing it, and how much of the heap that took.
+     */
+    private static void collisionMap(){
+        System.out.println("== collisionMap ==");
+        try {
+            BufferedImage cavern = loadCavern();
+            long start = System.nanoTime();
+            CollisionMask heapMask = CollisionMask.fromImage(cavern);
+            long heapNanos = System.nanoTime() - start;
+            File file = File.createTempFile("cavern", ".dfcm");
+            file.deleteOnExit();
+            CollisionMapFile.write(heapMask, file);
+            start = System.nanoTime();
+            CollisionMask mappedMask = CollisionMapFile.open(file);
+            long openNanos = System.nanoTime() - start;
+            boolean same = true;
+            for (int y = 0; y < cavern.getHeight(); y++){
+                for (int x = 0; x < cavern.getWidth(); x++){
+                    if (heapMask.isSolid(x, y) != mappedMask.isSolid(x, y)) same = false;
+                }
+            }
+            for (int y = -1; y <= cavern.getHeight(); y += 97){
+                for (int x = -1; x <= cavern.getWidth(); x += 89){
+                    if (heapMask.hitTest(x, y) != mappedMask.hitTest(x, y)) same = false;
+                }
+            }
+            System.out.println(cavern.getWidth() + " x " + cavern.getHeight() + ": building the mask from the image " + millis(heapNanos)
+                + " ms, opening the collision map " + millis(openNanos) + " ms" + (same ? " (same bits)" : " (DIFFERENT BITS!)"));
+            file.delete();
+
+            // a made-up 32768 x 32768 cavern: rock, with a wavy tunnel every 512 rows.
+            int size = 32768;
+            File big = File.createTempFile("bigCavern", ".dfcm");
+            big.deleteOnExit();
+            start = System.nanoTime();
+            CollisionMapFile.write(big, size, size, 512, new CollisionMapFile.StripSource() {
+                    @Override
+                    public void fill(CollisionMask strip, int firstRow){
+                        for (int y = 0; y < strip.getHeight(); y++){
+                            int row = firstRow + y;
+                            int tunnelTop = (row / 512) * 512 + 100 + (int)(50 * Math.sin(row / 300.0));
+                            if (row % 512 >= tunnelTop % 512 && row % 512 < tunnelTop % 512 + 200) continue; // (in the tunnel)
+                            strip.setSolidRun(0, size, y);
+                        }
+                    }
+                });
+            long writeNanos = System.nanoTime() - start;
+
+            System.gc();
+            long heapBefore = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+            start = System.nanoTime();
+            CollisionMask bigMask = CollisionMapFile.open(big);
+            openNanos = System.nanoTime() - start;
+            long heapAfter = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+
+            Random random = new Random(5);
+            int numberOfProbes = 1 << 22;
+            start = System.nanoTime();
+            for (int i = 0; i < numberOfProbes; i++){
+                if (bigMask.isSolid(random.nextInt(size), random.nextInt(size))) sink++;
+            }
+            long probeNanos = System.nanoTime() - start;
+            System.out.println(size + " x " + size + ": writing " + millis(writeNanos) + " ms (" + (big.length() / 1_000_000) + " MB), opening "
+                + millis(openNanos) + " ms (heap went up " + Math.max(0, (heapAfter - heapBefore) / 1024) + " KB), random probes "
+                + String.format("%.1f", numberOfProbes / (probeNanos / 1e9) / 1e6) + " M probes/s (with the random numbers)");
+            big.delete();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * compatibleBlits
+     * ---------------
+     * Draws the same kind of frame 600 times (the window's tiles of both cavern layers, 12 creatures, the dragon and the fireball)
+     * into a TYPE_INT_RGB image like the back buffer, once with the images just as ImageIO.read gave them to us
+     * (the old way) and once with compatible images (see CompatibleImages), and reports the ms per frame.
+     * (The VolatileImage part of AcceleratedImage only kicks in when drawing to a real screen, so it isn't timed here.)
+     */
+    private static void compatibleBlits(){
+        System.out.println("== compatibleBlits ==");
+        try {
+            BufferedImage cavern = loadCavern();
+            BufferedImage backgroundBackground = ImageIO.read(new File("images/backgroundbackground02.jpg"));
+            ArrayList<BufferedImage> sprites = new ArrayList<>();
+            for (int i = 1; i <= 8; i++) sprites.add(ImageIO.read(new File("images/creatureSmall" + i + ".png")));
+            for (int i = 1; i <= 4; i++) sprites.add(ImageIO.read(new File("images/creatureFire" + i + ".png")));
+            sprites.add(ImageIO.read(new File("images/dragon1Right.png")));
+            sprites.add(ImageIO.read(new File("images/fireball1.png")));
+
+            // the tiles in the window (a 1200 x 900 window at 300,300 covers 3 by 3 tiles of 512):
+            int tileSize = TiledImage.DEFAULT_TILE_SIZE;
+            ArrayList<BufferedImage> oldTiles = new ArrayList<>();
+            ArrayList<BufferedImage> newTiles = new ArrayList<>();
+            int[] pixels = new int[tileSize * tileSize];
+            for (BufferedImage layer : new BufferedImage[] {backgroundBackground, cavern}){
+                for (int row = 0; row < 3; row++){
+                    for (int column = 0; column < 3; column++){
+                        int w = Math.min(tileSize, layer.getWidth() - column * tileSize);
+                        int h = Math.min(tileSize, layer.getHeight() - row * tileSize);
+                        if (w <= 0 || h <= 0) continue;
+                        BufferedImage tile = layer.getSubimage(column * tileSize, row * tileSize, w, h);
+                        oldTiles.add(tile);
+                        tile.getRGB(0, 0, w, h, pixels, 0, tileSize);
+                        newTiles.add(CompatibleImages.fromPixels(pixels, w, h, tileSize));
+                    }
+                }
+            }
+            ArrayList<BufferedImage> newSprites = new ArrayList<>();
+            for (BufferedImage sprite : sprites) newSprites.add(CompatibleImages.toCompatible(sprite));
+
+            System.out.println("image types: old tiles " + typeName(oldTiles.get(0)) + " and " + typeName(oldTiles.get(oldTiles.size() - 1))
+                + ", sprites " + typeName(sprites.get(0)) + "; compatible tiles " + typeName(newTiles.get(0)) + " and "
+                + typeName(newTiles.get(newTiles.size() - 1)) + ", sprites " + typeName(newSprites.get(0)));
+
+            BufferedImage screen = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            Graphics g = screen.createGraphics();
+            int frames = 600;
+            for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+                long oldNanos = drawFrames(g, oldTiles, sprites, frames);
+                long newNanos = drawFrames(g, newTiles, newSprites, frames);
+                System.out.println("round " + round + ": ImageIO images " + millis(oldNanos / frames) + " ms/frame, compatible images "
+                    + millis(newNanos / frames) + " ms/frame (" + String.format("%.1f", (double)oldNanos / newNanos) + "x as fast)");
+            }
+            g.dispose();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * viewportCulling
+     * ---------------
+     * Draws the eggs of a world with 1000, 10000 and 100000 hatched creatures in it (spread over the parts of the cavern
+     * that aren't in the window, plus 20 that are), every egg the old way, and just the ones in the window with the FrameRenderer.
+     */
+    private static void viewportCulling(){
+        System.out.println("== viewportCulling ==");
+        BufferedImage screen = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics g = screen.createGraphics();
+        PrintStream out = System.out;
+        for (int numberOfEggs : new int[] {1000, 10000, 100000}){
+            System.setOut(new PrintStream(OutputStream.nullOutputStream())); // (eggs print a line when they hatch)
+            GameWorld world = new GameWorld(FRAME_WIDTH, FRAME_HEIGHT);
+            Background background = world.getBackground();
+            int left = (int) -background.loc.x;
+            int top = (int) -background.loc.y;
+            Random random = new Random(5);
+            for (int i = 0; i < numberOfEggs; i++){
+                int x, y;
+                if (i < 20){ // in the window
+                    x = left + 100 + random.nextInt(FRAME_WIDTH - 200);
+                    y = top + 100 + random.nextInt(FRAME_HEIGHT - 200);
+                }
+                else do { // anywhere else
+                    x = random.nextInt(6400);
+                    y = random.nextInt(3600);
+                } while (x > left - 200 && x < left + FRAME_WIDTH + 200 && y > top - 200 && y < top + FRAME_HEIGHT + 200);
+                world.addEgg(new Egg(background, world.getDragon(), world.getClock(), x, y, 0, 0.01, 0.01));
+            }
+            world.getClock().advance(100); // (hatch them all)
+            System.setOut(out);
+
+            FrameRenderer renderer = new FrameRenderer(FRAME_WIDTH);
+            int frames = 100;
+            for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+                long start = System.nanoTime();
+                for (int frame = 0; frame < frames; frame++){
+                    for (Egg egg : world.getEggs()) egg.draw(g);
+                }
+                long oldNanos = System.nanoTime() - start;
+                start = System.nanoTime();
+                for (int frame = 0; frame < frames; frame++){
+                    renderer.drawEggs(g, world, world.getBackground().loc.x, world.getBackground().loc.y);
+                }
+                long culledNanos = System.nanoTime() - start;
+                if (round == 2){
+                    System.out.println(numberOfEggs + " eggs: every egg " + millis(oldNanos / frames) + " ms/frame, only the "
+                        + renderer.getEggsDrawn() + " in the window " + millis(culledNanos / frames) + " ms/frame");
+                }
+            }
+        }
+        g.dispose();
+    }
+
+    /**
+     * distanceChecks
+     * --------------
+     * Times checking whether a million creatures are close enough to the dragon to chase it (600 pixels),
+     * the old way (int distance with a square root) and with VectorMath (comparing the distance squared, in doubles),
+     * and counts how many creatures the two ways disagree about (the old way rounds the fractions off).
+     */
+    private static void distanceChecks(){
+        System.out.println("== distanceChecks ==");
+        int n = 1_000_000;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        Random random = new Random(9);
+        for (int i = 0; i < n; i++){
+            xs[i] = random.nextDouble() * 1800 - 300;
+            ys[i] = random.nextDouble() * 1500 - 300;
+        }
+        double dragonX = 600.5, dragonY = 450.25;
+        double radiusSquared = 600.0 * 600.0;
+        for (int round = 0; round < 5; round++){ // (the first couple of rounds are warm-up)
+            long start = System.nanoTime();
+            int oldCount = 0;
+            for (int i = 0; i < n; i++){
+                int x_dist = Math.abs((int)(xs[i] - dragonX));
+                int y_dist = Math.abs((int)(ys[i] - dragonY));
+                if ((int)Math.sqrt(x_dist * x_dist + y_dist * y_dist) < 600) oldCount++;
+            }
+            long oldNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int newCount = 0;
+            for (int i = 0; i < n; i++){
+                if (VectorMath.isWithinSquared(xs[i], ys[i], dragonX, dragonY, radiusSquared)) newCount++;
+            }
+            long newNanos = System.nanoTime() - start;
+            sink += oldCount + newCount;
+            if (round >= 2){
+                System.out.println("round " + round + ": int distance " + String.format("%.2f", (double)oldNanos / n) + " ns/check, VectorMath "
+                    + String.format("%.2f", (double)newNanos / n) + " ns/check (" + Math.abs(oldCount - newCount)
+                    + " more or fewer creatures counted, out of " + n + ", from the rounding)");
+            }
+        }
+    }
+
+    /**
+     * eggPool
+     * -------
+     * First, times a tick with 5,000 hatched creatures, with 50,000, and then with the 50,000 after 45,000 of them have died
+     * (the GameWorld takes the dead ones out, so that should be about as quick as 5,000 again).
+     * Then it plays 20 games in a row (pressing R in between) with 1000 creatures, and reports how many bytes each tick allocated
+     * and how many eggs the EggPool had to make (only the first game's 12 should be new; after that they're all reused).
+     */
+    private static void eggPool(){
+        System.out.println("== eggPool ==");
+        Sprites.preload();
+        int ticks = 200;
+        for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+            GameWorld small = worldWithCreatures(5000);
+            long smallNanos = timeSteps(small, ticks);
+            GameWorld big = worldWithCreatures(50000);
+            long bigNanos = timeSteps(big, ticks);
+            java.util.List<Egg> eggs = big.getEggs();
+            for (int i = 0; i < 45000; i++){
+                eggs.get(i).stage = eggStage.EATEN; // (the same thing that happens when the fireball hits an egg)
+            }
+            big.step(); // (this is where they get taken out)
+            long afterNanos = timeSteps(big, ticks);
+            if (round >= 1){
+                System.out.println("round " + round + ": 5,000 creatures " + String.format("%.1f", smallNanos / 1000.0 / ticks)
+                    + " us/tick, 50,000 " + String.format("%.1f", bigNanos / 1000.0 / ticks) + " us/tick, 50,000 with 45,000 dead "
+                    + String.format("%.1f", afterNanos / 1000.0 / ticks) + " us/tick (" + big.getEggs().size() + " eggs left in the eggList, "
+                    + big.getEggPool().size() + " in the pool)");
+            }
+        }
+
+        GameWorld world = worldWithCreatures(1000);
+        long steps = 0;
+        long bytes = 0;
+        long collections = garbageCollections();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // (RESTART prints a line)
+        for (int game = 0; game < 20; game++){
+            world.apply(GameInput.RESTART, true);
+            world.getFireball().fire();
+            long before = allocatedBytes(); // (after the restart, so this is just the ticks)
+            for (int tick = 0; tick < 3000; tick++){
+                world.step();
+            }
+            if (game > 0){ // (the first game is warm-up)
+                bytes += allocatedBytes() - before;
+                steps += 3000;
+            }
+        }
+        System.setOut(out);
+        System.out.println("20 games: " + (bytes / steps) + " bytes/tick, " + (garbageCollections() - collections) + " GCs, eggs made "
+            + world.getEggPool().getEggsMade() + ", reused " + world.getEggPool().getEggsReused());
+    }
+
+    // a GameWorld with its 12 eggs plus hatched creatures scattered around, so there are eggs eggs in all (creatures don't do damage):
+    private static GameWorld worldWithCreatures(int eggs){
+        GameWorld world = new GameWorld(FRAME_WIDTH, FRAME_HEIGHT);
+        world.creatureDamage = 0;
+        Random random = new Random(31);
+        for (int i = world.getEggs().size(); i < eggs; i++){
+            world.addEgg(new Egg(world.getBackground(), world.getDragon(), world.getClock(), random.nextInt(6400), random.nextInt(3600), 0, 0.01, 0.01));
+        }
+        world.getClock().advance(100); // (hatch them all)
+        return world;
+    }
+
+    // how long ticks steps of world take, in nanoseconds:
+    private static long timeSteps(GameWorld world, int ticks){
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++){
+            world.step();
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * levelStreaming
+     * --------------
+     * Writes a text level with 300,000 eggs spread over a 32768 x 32768 cavern, compiles it, and times opening it.
+     * Then it flies a window across the level with a LevelStreamer, making Eggs only as their regions come near,
+     * and reports how many eggs got made (and how much memory they took), compared to making every egg at the start.
+     */
+    private static void levelStreaming(){
+        System.out.println("== levelStreaming ==");
+        Sprites.preload();
+        int numberOfEggs = 300_000;
+        int size = 32768;
+        File folder = new File(System.getProperty("java.io.tmpdir"), "dragonflier-tiles");
+        File textFile = new File(folder, "benchmarkLevel.txt");
+        File binaryFile = new File(folder, "benchmarkLevel.dflv");
+        try {
+            folder.mkdirs();
+            Random random = new Random(41);
+            try (PrintStream text = new PrintStream(textFile)){
+                text.println("cavern images/bigCavern01.png");
+                text.println("activate 512");
+                for (int i = 0; i < numberOfEggs; i++){
+                    text.println("egg " + random.nextInt(size) + " " + random.nextInt(size) + " " + random.nextInt(5) + " " + (5 + random.nextInt(60)) + " 5");
+                }
+            }
+            long start = System.nanoTime();
+            LevelFile.compile(textFile, binaryFile);
+            System.out.println("compiling " + numberOfEggs + " eggs: " + millis(System.nanoTime() - start) + " ms ("
+                + (textFile.length() / 1024) + " KB of text, " + (binaryFile.length() / 1024) + " KB compiled)");
+
+            for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+                start = System.nanoTime();
+                LevelFile level = LevelFile.open(binaryFile);
+                long openNanos = System.nanoTime() - start;
+
+                Background background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+                Dragon dragon = new Dragon(background, FRAME_WIDTH/2, FRAME_HEIGHT/2);
+                TimingWheel clock = new TimingWheel(5);
+                ArrayList<Egg> eggs = new ArrayList<>();
+                LevelStreamer.EggMaker maker = new LevelStreamer.EggMaker() {
+                    @Override
+                    public Egg makeEgg(int x, int y, double secondsToAppear, double secondsToBeReadyToEat, double secondsToHatch){
+                        Egg egg = new Egg(background, dragon, clock, x, y, secondsToAppear, secondsToBeReadyToEat, secondsToHatch);
+                        eggs.add(egg);
+                        return egg;
+                    }
+                };
+                LevelStreamer streamer = new LevelStreamer(level);
+                long heapBefore = usedHeap();
+                start = System.nanoTime();
+                streamer.activateNear(0, 0, FRAME_WIDTH, FRAME_HEIGHT, maker);
+                long firstWindowNanos = System.nanoTime() - start;
+                // fly diagonally across the whole level, 8 pixels a tick:
+                long slowestTick = 0;
+                for (int step = 0; step * 8 < size - FRAME_WIDTH; step++){
+                    long tickStart = System.nanoTime();
+                    streamer.activateNear(step * 8, step * 8 * 0.5, step * 8 + FRAME_WIDTH, step * 8 * 0.5 + FRAME_HEIGHT, maker);
+                    slowestTick = Math.max(slowestTick, System.nanoTime() - tickStart);
+                }
+                long streamedBytes = usedHeap() - heapBefore;
+                int streamedEggs = eggs.size();
+                stopAll(eggs);
+
+                // and making every egg at the start, the way loadEggs used to:
+                eggs.clear();
+                heapBefore = usedHeap();
+                start = System.nanoTime();
+                new LevelStreamer(level).activateAll(maker);
+                long allNanos = System.nanoTime() - start;
+                long allBytes = usedHeap() - heapBefore;
+                stopAll(eggs);
+                eggs.clear();
+
+                if (round >= 1){
+                    System.out.println("round " + round + ": open " + String.format("%.3f", openNanos / 1e6) + " ms, first window "
+                        + millis(firstWindowNanos) + " ms, slowest tick flying across " + millis(slowestTick) + " ms; streamed "
+                        + streamedEggs + " eggs (" + streamer.getRegionsActivated() + " of " + (level.getColumns() * level.getRows())
+                        + " regions, about " + (streamedBytes >> 20) + " MB); all at once " + millis(allNanos) + " ms, about "
+                        + (allBytes >> 20) + " MB");
+                }
+            }
+        }
+        catch (IOException e) {
+            System.out.println("couldn't write the level: " + e.getMessage());
+        }
+        textFile.delete();
+        binaryFile.delete();
+    }
+
+    // about how many bytes of the heap are in use (after a garbage collection):
+    private static long usedHeap(){
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * creatureDetail
+     * --------------
+     * Moves 50,000 hatched creatures scattered around the cavern for 400 ticks (with the dragon flying right the whole time),
+     * first moving every creature every tick, and then with the CreatureUpdater's level of detail,
+     * and reports how many creatures were in each tier at the end, and how many of the ACTIVE ones ended up somewhere else
+     * (a creature that was COARSE earlier in the flight can be off by a little after its catch-up moves).
+     */
+    private static void creatureDetail(){
+        System.out.println("== creatureDetail ==");
+        Sprites.preload();
+        int ticks = 400;
+        for (int round = 0; round < 3; round++){ // (the first round is warm-up)
+            GameWorld everyTick = worldWithCreatures(50000);
+            GameWorld withDetail = worldWithCreatures(50000);
+            long[] nanos = new long[2];
+            GameWorld[] worlds = {everyTick, withDetail};
+            for (int w = 0; w < 2; w++){
+                GameWorld world = worlds[w];
+                CreatureUpdater updater = new CreatureUpdater();
+                world.getBackground().setLeft(true); // (flying right)
+                long tick = world.getClock().getTick();
+                long start = System.nanoTime();
+                for (int t = 0; t < ticks; t++){
+                    world.getDragon().move();
+                    world.getBackground().move();
+                    tick++;
+                    if (w == 0) updater.update(world.getEggs(), world.getDragon(), world.getBackground());
+                    else updater.update(world.getEggs(), world.getDragon(), world.getBackground(), tick);
+                }
+                nanos[w] = System.nanoTime() - start;
+            }
+
+            int[] tiers = new int[3];
+            int activeDifferent = 0;
+            ChaseSnapshot chase = new ChaseSnapshot(withDetail.getDragon(), withDetail.getBackground());
+            for (int i = 0; i < withDetail.getEggs().size(); i++){
+                Egg a = everyTick.getEggs().get(i);
+                Egg b = withDetail.getEggs().get(i);
+                int tier = CreatureUpdater.tierOf(b, chase);
+                tiers[tier]++;
+                if (tier == CreatureUpdater.ACTIVE && (a.loc.x != b.loc.x || a.loc.y != b.loc.y)) activeDifferent++;
+            }
+            if (round >= 1){
+                System.out.println("round " + round + ": every tick " + String.format("%.1f", nanos[0] / 1000.0 / ticks) + " us/tick, with level of detail "
+                    + String.format("%.1f", nanos[1] / 1000.0 / ticks) + " us/tick (active " + tiers[0] + ", coarse " + tiers[1] + ", dormant " + tiers[2]
+                    + "; " + activeDifferent + " active creatures somewhere else, from when they were farther away)");
+            }
+        }
+    }
+
+    /**
+     * dirtyRepaint
+     * ------------
+     * Plays the same game in two worlds (with 20 extra eggs in the window that appear, ripen and hatch at different times,
+     * the message box, a fireball, and a bit of flying to the right), and draws a frame every 3 ticks:
+     * one world draws the whole frame every time, and the other only draws its DirtyRegion (into an image it keeps).
+     * Reports how much of the window the dirty regions covered, how long the frames took each way,
+     * and how many frames came out different from drawing the whole frame (which should be none).
+     */
+    private static void dirtyRepaint(){
+        System.out.println("== dirtyRepaint ==");
+        Sprites.preload();
+        PrintStream out = System.out;
+        for (int round = 0; round < 2; round++){ // (the first round is warm-up)
+            System.setOut(new PrintStream(OutputStream.nullOutputStream())); // (eggs print a line when they hatch)
+            GameWorld whole = worldWithEggsInTheWindow();
+            GameWorld dirty = worldWithEggsInTheWindow();
+            BufferedImage wholeImage = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            BufferedImage dirtyImage = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            FrameRenderer wholeRenderer = new FrameRenderer(FRAME_WIDTH);
+            FrameRenderer dirtyRenderer = new FrameRenderer(FRAME_WIDTH);
+            DirtyRegion region = new DirtyRegion(FRAME_WIDTH, FRAME_HEIGHT);
+
+            int frames = 0, wholeFrames = 0, emptyFrames = 0, differentFrames = 0;
+            long wholeNanos = 0, dirtyNanos = 0, pixelsDrawn = 0;
+            for (int tick = 0; tick < 3000; tick++){
+                for (GameWorld world : new GameWorld[] {whole, dirty}){
+                    if (tick == 0) world.apply(GameInput.INFO, true);
+                    if (tick == 600) world.apply(GameInput.FIRE, true);
+                    if (tick == 1200) world.apply(GameInput.RIGHT, true);
+                    if (tick == 1400) world.apply(GameInput.RIGHT, false);
+                    world.step();
+                }
+                if (tick % 3 != 2) continue;
+
+                long start = System.nanoTime();
+                Graphics2D g = wholeImage.createGraphics();
+                g.setColor(Color.BLACK);
+                g.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+                wholeRenderer.draw(g, whole);
+                g.dispose();
+                wholeNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                dirtyRenderer.findDirtyRegion(dirty, region);
+                if (!region.isEmpty()){
+                    g = dirtyImage.createGraphics();
+                    region.clip(g);
+                    g.setColor(Color.BLACK);
+                    g.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+                    dirtyRenderer.draw(g, dirty, region.isWholeFrame());
+                    g.dispose();
+                }
+                dirtyNanos += System.nanoTime() - start;
+
+                frames++;
+                pixelsDrawn += region.area();
+                if (region.isWholeFrame()) wholeFrames++;
+                if (region.isEmpty()) emptyFrames++;
+                if (!samePixels(wholeImage, dirtyImage)) differentFrames++;
+            }
+            System.setOut(out);
+            if (round == 1){
+                System.out.println(frames + " frames: " + wholeFrames + " whole frames (the background scrolled), " + emptyFrames + " with nothing to draw, "
+                    + String.format("%.1f", 100.0 * pixelsDrawn / frames / FRAME_WIDTH / FRAME_HEIGHT) + "% of the window drawn on average");
+                System.out.println("whole frame every time " + millis(wholeNanos / frames) + " ms/frame, only the dirty region "
+                    + millis(dirtyNanos / frames) + " ms/frame; " + differentFrames + " frames different");
+            }
+        }
+    }
+
+    // a world with 20 more eggs in the window (they appear, ripen and hatch at different times, so the eggs keep changing):
+    private static GameWorld worldWithEggsInTheWindow(){
+        GameWorld world = new GameWorld(FRAME_WIDTH, FRAME_HEIGHT);
+        Background background = world.getBackground();
+        int left = (int) -background.loc.x;
+        int top = (int) -background.loc.y;
+        Random random = new Random(25);
+        for (int i = 0; i < 20; i++){
+            world.addEgg(new Egg(background, world.getDragon(), world.getClock(), left + 100 + random.nextInt(FRAME_WIDTH - 200),
+                                 top + 100 + random.nextInt(FRAME_HEIGHT - 200), random.nextInt(5), 1 + random.nextInt(5), 1 + random.nextInt(5)));
+        }
+        return world;
+    }
+
+    // true if the two images (TYPE_INT_RGB, the same size) have the same colors everywhere
+    // (the top 8 bits of each int aren't used, so they don't count):
+    private static boolean samePixels(BufferedImage a, BufferedImage b){
+        int[] aPixels = ((java.awt.image.DataBufferInt) a.getRaster().getDataBuffer()).getData();
+        int[] bPixels = ((java.awt.image.DataBufferInt) b.getRaster().getDataBuffer()).getData();
+        for (int i = 0; i < aPixels.length; i++){
+            if (((aPixels[i] ^ bPixels[i]) & 0xffffff) != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * drawFrames
+     * ----------
+     * Draws frames frames of the tiles (3 by 3 of each layer) and the sprites, and returns how long it took in nanoseconds.
+     */
+    private static long drawFrames(Graphics g, ArrayList<BufferedImage> tiles, ArrayList<BufferedImage> sprites, int frames){
+        int tileSize = TiledImage.DEFAULT_TILE_SIZE;
+        long start = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++){
+            for (int i = 0; i < tiles.size(); i++){
+                g.drawImage(tiles.get(i), -300 + (i % 3) * tileSize, -300 + ((i / 3) % 3) * tileSize, null);
+            }
+            for (int i = 0; i < sprites.size(); i++){
+                g.drawImage(sprites.get(i), 50 + (i * 97 + frame) % (FRAME_WIDTH - 150), 50 + (i * 61) % (FRAME_HEIGHT - 150), null);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    // the name of an image's type (for printing):
+    private static String typeName(BufferedImage image){
+        switch (image.getType()){
+            case BufferedImage.TYPE_INT_RGB: return "INT_RGB";
+            case BufferedImage.TYPE_INT_ARGB: return "INT_ARGB";
+            case BufferedImage.TYPE_INT_ARGB_PRE: return "INT_ARGB_PRE";
+            case BufferedImage.TYPE_3BYTE_BGR: return "3BYTE_BGR";
+            case BufferedImage.TYPE_4BYTE_ABGR: return "4BYTE_ABGR";
+            case BufferedImage.TYPE_BYTE_INDEXED: return "BYTE_INDEXED";
+            default: return "type " + image.getType();
+        }
+    }
+
+    /**
+     * The dragon against every egg, the way the collision checker looked at eggs before the SpatialHash
+     * (this just counts the hits, so it can be run over and over).
+     */
+    private static int collideTheObjectWay(ArrayList<Egg> eggs, Dragon dragon, Background background, int collisionDistance){
+        int hits = 0;
+        for (int i = 0; i < eggs.size(); i++){
+            Egg egg = eggs.get(i);
+            if (egg.stage != eggStage.NOTREADYTOEAT && egg.stage != eggStage.READYTOEAT && egg.stage != eggStage.HATCHED) continue;
+            int dx = Math.abs((int)(egg.getX() + background.loc.x - dragon.getX()));
+            int dy = Math.abs((int)(egg.getY() + background.loc.y - dragon.getY()));
+            if ((int)Math.sqrt(dx*dx + dy*dy) < collisionDistance) hits++;
+        }
+        return hits;
+    }
+
+    /**
+     * garbageCollections
+     * ------------------
+     * How many garbage collections there have been so far (added up over all the collectors).
+     */
+    private static long garbageCollections(){
+        long count = 0;
+        for (GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans()){
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * allocatedBytes
+     * --------------
+     * How many bytes this thread has allocated so far (this only works on HotSpot-style JVMs).
+     */
+    private static long allocatedBytes(){
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /*
+     * These are how GamePane used to draw the HUD (before the Hud class):
+     */
+    private static void displayScoreTheOldWay(Graphics g, int score){
+        g.setColor(Color.BLACK);
+        g.setFont(new Font("Arial", Font.PLAIN, 36));
+        g.drawString("SCORE: " + score, FRAME_WIDTH-201, 41);
+        g.setColor(Color.WHITE);
+        g.drawString("SCORE: " + score, FRAME_WIDTH-200, 40);
+    }
+
+    private static void displayLifeLeftTheOldWay(Graphics g, int x, int y, double lifeLeft){
+        g.setColor(Color.BLACK);
+        g.setFont(new Font("Arial", Font.PLAIN, 36));
+        g.drawString("LIFE:" , x, y+32);
+        g.setColor(Color.WHITE);
+        g.drawString("LIFE:" , x+1, y+33);
+        x += 100;
+        g.setColor(Color.BLACK);
+        g.fillRect(x, y, 250, 40);
+        g.setColor(Color.RED);
+        g.fillRect(x+5, y+5, 240, 30);
+        g.setColor(Color.GREEN);
+        g.fillRect(x+5, y+5, (int)(240 * lifeLeft), 30);
+    }
+
+    private static void displayYouDiedTheOldWay(Graphics g){
+        g.setColor(Color.WHITE);
+        g.setFont(new Font("Arial", Font.PLAIN, 200));
+        g.drawString("YOU  DIED" , 110, 525);
+        g.setColor(Color.RED);
+        g.drawString("YOU  DIED" , 113, 528);
+    }
+
+    private static void displaySecondsElapsedTheOldWay(Graphics g, int seconds){
+        g.setColor(Color.BLACK);
+        g.setFont(new Font("Arial", Font.PLAIN, 36));
+        String s = "" + seconds;
+        g.drawString(s , 850, 35);
+        g.setColor(Color.YELLOW);
+        g.drawString(s , 853, 38);
+    }
+
+    private static ArrayList<Egg> makeEggs(Background background, Dragon dragon, TimingWheel clock, int numberOfEggs){
+        ArrayList<Egg> eggs = new ArrayList<>();
+        for (int i = 0; i < numberOfEggs; i++){
+            // a long time to appear, so none of the eggs' timers go off while we're timing:
+            eggs.add(new Egg(background, dragon, clock, 100 + i, 100, 1000, 10, 5));
+        }
+        return eggs;
+    }
+
+    private static void stopAll(ArrayList<Egg> eggs){
+        for (Egg egg: eggs){
+            egg.turnOffAllEggTimers();
+        }
+    }
+
+    /**
+     * decodeEggImagesTheOldWay
+     * ------------------------
+     * This is what each Egg used to do in its constructor (before the Sprites class).
+     */
+    private static ArrayList<BufferedImage> decodeEggImagesTheOldWay(){
+        ArrayList<BufferedImage> images = new ArrayList<>();
+        String[] fileNames = {"images/creatureSmall1.png", "images/creatureSmall2.png", "images/creatureSmall3.png",
+                "images/creatureSmall4.png", "images/creatureSmall5.png", "images/creatureSmall6.png",
+                "images/creatureSmall7.png", "images/creatureSmall8.png", "images/creatureFire1.png",
+                "images/creatureFire2.png", "images/creatureFire3.png", "images/creatureFire4.png"};
+        for (String fileName: fileNames){
+            try {
+                images.add(ImageIO.read(new File(fileName)));
+            }
+            catch (IOException e) {
+                // (the old code just printed the stack trace; we don't want thousands of those here.)
+            }
+        }
+        return images;
+    }
+
+    private static String millis(long nanos){
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+
+} // end Benchmarks class
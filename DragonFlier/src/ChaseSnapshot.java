@@ -0,0 +1,26 @@
+/**
+ * ChaseSnapshot
+ * -------------
+ * Where the dragon and the background were at the start of the creatures' update.
+ * This is all a creature needs to know about them to work out where it's going (see Egg.planMove),
+ * and since it can't change, any number of threads can read it at once.
+ */
+public final class ChaseSnapshot {
+    public final int dragonX, dragonY;         // where the dragon is on the screen
+    public final int backgroundX, backgroundY; // where the background is (background.getX(), background.getY())
+    public final int windowWidth, windowHeight; // how big the window is (so the CreatureUpdater knows which creatures can be seen)
+
+    public ChaseSnapshot(int dragonX, int dragonY, int backgroundX, int backgroundY, int windowWidth, int windowHeight){
+        this.dragonX = dragonX;
+        this.dragonY = dragonY;
+        this.backgroundX = backgroundX;
+        this.backgroundY = backgroundY;
+        this.windowWidth = windowWidth;
+        this.windowHeight = windowHeight;
+    }
+
+    public ChaseSnapshot(Dragon dragon, Background background){
+        this(dragon.getX(), dragon.getY(), background.getX(), background.getY(), background.FRAME_WIDTH, background.FRAME_HEIGHT);
+    }
+
+} // end ChaseSnapshot class
@@ -0,0 +1,203 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * CollisionMapFile
+ * ----------------
+ * A collision map file is a CollisionMask saved to disk: which pixels of the cavern are solid, one bit per pixel.
+ * Opening one doesn't read it in: the file is mapped into memory (FileChannel.map), and the CollisionMask
+ * just looks at the bits right where they are. The operating system only loads the parts of the file we actually look at,
+ * and none of it is on the Java heap. So even a 32768 x 32768 cavern (128 MB of bits) opens in a few milliseconds.
+ *
+ * What's in the file (everything little-endian):
+ *     bytes 0-3    "DFCM"
+ *     bytes 4-7    the version (1)
+ *     bytes 8-15   the width and height, in pixels
+ *     bytes 16-19  how many longs each row takes ((width + 63) / 64)
+ *     bytes 20-35  the bounding box of the solid pixels: minX, minY, maxX, maxY (see CollisionMask)
+ *     bytes 36-63  zeros (so the bits start on a nice round number)
+ *     then the bits, a row at a time, 64 pixels to a long (pixel x is bit x % 64 of long x / 64 in its row).
+ *
+ * Make one from a cavern image with
+ *     java CollisionMapFile images/bigCavern01.png images/bigCavern01.dfcm
+ * (the Background uses images/bigCavern01.dfcm if it's there and up to date, and otherwise makes one in the temp folder.)
+ */
+public class CollisionMapFile {
+
+    private static final int MAGIC = 0x4D434644; // "DFCM" (little-endian)
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+
+    /**
+     * StripSource
+     * -----------
+     * Something that can work out the solid pixels a strip of rows at a time
+     * (so a huge map can be written without ever having the whole thing in memory).
+     */
+    public interface StripSource {
+        // marks the solid pixels of strip, which is the rows of the map starting at firstRow. (strip starts out empty.)
+        void fill(CollisionMask strip, int firstRow);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2){
+            System.out.println("usage: java CollisionMapFile cavern.png cavern.dfcm");
+            return;
+        }
+        long start = System.nanoTime();
+        TiledImage image = new TiledImage(new File(args[0]), TiledImage.DEFAULT_TILE_SIZE, 1);
+        write(image, new File(args[1]));
+        System.out.println("wrote " + args[1] + " (" + image.getWidth() + " x " + image.getHeight() + ") in "
+            + String.format("%.0f", (System.nanoTime() - start) / 1e6) + " ms");
+    }
+
+    /**
+     * forCavern
+     * ---------
+     * The collision map for a cavern image: if there's an up-to-date .dfcm file next to the image, that's opened;
+     * otherwise we use (or make) one in the temp folder.
+     * PRE: image is the TiledImage for imageFile.
+     */
+    public static CollisionMask forCavern(File imageFile, TiledImage image) throws IOException {
+        String name = imageFile.getName();
+        int dot = name.lastIndexOf('.');
+        File nextToImage = new File(imageFile.getParentFile(), ((dot > 0) ? name.substring(0, dot) : name) + ".dfcm");
+        if (nextToImage.exists() && nextToImage.lastModified() >= imageFile.lastModified()){
+            return open(nextToImage);
+        }
+
+        File cached = TiledImage.cacheFileFor(imageFile, ".dfcm");
+        if (cached.exists()){
+            try {
+                return open(cached);
+            }
+            catch (IOException e) {
+                // (it's no good, so we'll just make it again)
+            }
+        }
+        write(image, cached);
+        return open(cached);
+    }
+
+    /**
+     * open
+     * ----
+     * Maps a collision map file into memory and returns a (read-only) CollisionMask that looks at it.
+     * PRE: file was written by one of the write() methods (otherwise this throws an IOException saying what's wrong).
+     */
+    public static CollisionMask open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()){
+                if (channel.read(header, header.position()) < 0) throw new IOException(file + " is too short to be a collision map");
+            }
+            header.flip();
+            if (header.getInt(0) != MAGIC) throw new IOException(file + " isn't a collision map");
+            int version = header.getInt(4);
+            if (version != VERSION) throw new IOException(file + " is a version " + version + " collision map, and we can only read version " + VERSION);
+            int width = header.getInt(8);
+            int height = header.getInt(12);
+            int wordsPerRow = header.getInt(16);
+            if (width < 0 || height < 0 || wordsPerRow != CollisionMask.wordsPerRow(width)) throw new IOException(file + " has a bad header");
+            long bitBytes = (long)wordsPerRow * height * 8;
+            if (channel.size() != HEADER_BYTES + bitBytes) throw new IOException(file + " is the wrong size for a " + width + " x " + height + " map");
+
+            // (the mapping stays good after the channel's closed)
+            LongBuffer bits = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, bitBytes)
+                                     .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            return new CollisionMask(width, height, bits, header.getInt(20), header.getInt(24), header.getInt(28), header.getInt(32));
+        }
+    }
+
+    /**
+     * write
+     * -----
+     * Makes a collision map file from a TiledImage (a pixel is solid if its alpha isn't 0), a strip of tiles at a time.
+     */
+    public static void write(TiledImage image, File file) throws IOException {
+        int tileSize = image.getTileSize();
+        int[] pixels = new int[tileSize * tileSize];
+        write(file, image.getWidth(), image.getHeight(), tileSize, new StripSource() {
+                @Override
+                public void fill(CollisionMask strip, int firstRow){
+                    int row = firstRow / tileSize;
+                    for (int column = 0; column < image.getColumns(); column++){
+                        if (!image.readTilePixels(column, row, pixels)) continue;
+                        int x0 = column * tileSize;
+                        strip.addPixels(pixels, tileSize, x0, 0, Math.min(tileSize, strip.getWidth() - x0), strip.getHeight());
+                    }
+                }
+            });
+    }
+
+    /**
+     * write
+     * -----
+     * Writes a CollisionMask that's already in memory to a file.
+     */
+    public static void write(CollisionMask mask, File file) throws IOException {
+        int wordsPerRow = CollisionMask.wordsPerRow(mask.getWidth());
+        write(file, mask.getWidth(), mask.getHeight(), 256, new StripSource() {
+                @Override
+                public void fill(CollisionMask strip, int firstRow){
+                    for (int y = 0; y < strip.getHeight(); y++){
+                        for (int x = 0; x < strip.getWidth(); x++){
+                            if ((mask.getWord((firstRow + y) * wordsPerRow + (x >>> 6)) & (1L << (x & 63))) != 0) strip.setSolid(x, y);
+                        }
+                    }
+                }
+            });
+    }
+
+    /**
+     * write
+     * -----
+     * Writes a width by height collision map file, stripHeight rows at a time, asking source for the solid pixels of each strip.
+     * Only one strip is in memory at a time. It's written to a temporary file first and then renamed,
+     * so a half-written map never gets opened.
+     */
+    public static void write(File file, int width, int height, int stripHeight, StripSource source) throws IOException {
+        if (file.getParentFile() != null) file.getParentFile().mkdirs();
+        File partFile = new File(file.getPath() + ".part");
+        int wordsPerRow = CollisionMask.wordsPerRow(width);
+        int minX = width, minY = height, maxX = -1, maxY = -1;
+
+        try (FileChannel out = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)){
+            out.position(HEADER_BYTES); // (the header's written last, once we know the bounding box)
+            ByteBuffer bytes = ByteBuffer.allocate(wordsPerRow * stripHeight * 8).order(ByteOrder.LITTLE_ENDIAN);
+            for (int firstRow = 0; firstRow < height; firstRow += stripHeight){
+                CollisionMask strip = new CollisionMask(width, Math.min(stripHeight, height - firstRow));
+                source.fill(strip, firstRow);
+                if (strip.getMinX() <= strip.getMaxX()){ // (if there's anything solid in this strip)
+                    minX = Math.min(minX, strip.getMinX());
+                    maxX = Math.max(maxX, strip.getMaxX());
+                    minY = Math.min(minY, firstRow + strip.getMinY());
+                    maxY = Math.max(maxY, firstRow + strip.getMaxY());
+                }
+                bytes.clear();
+                int words = wordsPerRow * strip.getHeight();
+                for (int i = 0; i < words; i++){
+                    bytes.putLong(strip.getWord(i));
+                }
+                bytes.flip();
+                while (bytes.hasRemaining()) out.write(bytes);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(wordsPerRow);
+            header.putInt(minX).putInt(minY).putInt(maxX).putInt(maxY);
+            header.clear(); // (the whole 64 bytes, zeros and all)
+            while (header.hasRemaining()) out.write(header, header.position());
+        }
+        Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+} // end CollisionMapFile class
@@ -0,0 +1,224 @@
+import java.awt.image.BufferedImage;
+import java.nio.LongBuffer;
+
+/**
+ * CollisionMask
+ * -------------
+ * A CollisionMask remembers which pixels of an image are solid (not transparent), one bit per pixel.
+ * It's made once, when the image is loaded, so checking a pixel later is just a shift and a mask
+ * instead of asking the image for its color (which is slow, and used to create a new Color object every time).
+ * Each row of the image is stored in its own run of longs (64 pixels per long).
+ * It also keeps a bounding box around all the solid pixels, so most misses can be ruled out
+ * without even looking at the bits.
+ *
+ * The bits are kept in a LongBuffer. Usually that's just wrapped around a long[] on the heap,
+ * but it can also be a part of a file mapped into memory (see CollisionMapFile), so a huge cavern's mask
+ * doesn't have to be read in or take up any room on the heap.
+ */
+public class CollisionMask {
+
+    private final int width;
+    private final int height;
+    private final int wordsPerRow; // how many longs it takes to store one row
+    private final LongBuffer bits;
+
+    // the smallest box that holds every solid pixel (inclusive).
+    // If there aren't any solid pixels, minX > maxX, so nothing is ever inside it.
+    private int minX, minY, maxX = -1, maxY = -1;
+
+    /**
+     * CollisionMask constructor:
+     * --------------------------
+     * Makes an empty (all transparent) mask of the given size.
+     */
+    public CollisionMask(int width, int height){
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = wordsPerRow(width);
+        this.bits = LongBuffer.wrap(new long[wordsPerRow * height]);
+        this.minX = width;
+        this.minY = height;
+    }
+
+    /**
+     * CollisionMask constructor:
+     * --------------------------
+     * A mask whose bits are already in a buffer (this is how CollisionMapFile opens a mask that's mapped from a file).
+     * PRE: bits holds wordsPerRow(width) * height longs, and the bounding box is right for them.
+     */
+    CollisionMask(int width, int height, LongBuffer bits, int minX, int minY, int maxX, int maxY){
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = wordsPerRow(width);
+        this.bits = bits;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+    }
+
+    // how many longs it takes to store a row this wide:
+    static int wordsPerRow(int width){
+        return (width + 63) >>> 6;
+    }
+
+    /**
+     * fromImage
+     * ---------
+     * Builds the mask for an image: a pixel is solid if its alpha isn't 0.
+     * PRE: image is not null
+     * POST: returns a new mask the same size as the image.
+     */
+    public static CollisionMask fromImage(BufferedImage image){
+        int w = image.getWidth();
+        int h = image.getHeight();
+        CollisionMask mask = new CollisionMask(w, h);
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++){
+            image.getRGB(0, y, w, 1, row, 0, w); // read a whole row at a time
+            mask.addPixels(row, w, 0, y, w, 1);
+        }
+        return mask;
+    }
+
+    /**
+     * fromTiledImage
+     * --------------
+     * Builds the mask for a TiledImage, one tile at a time,
+     * so the whole image never has to be in memory at once (just the mask, which is 1 bit per pixel).
+     * PRE: image is not null
+     */
+    public static CollisionMask fromTiledImage(TiledImage image){
+        CollisionMask mask = new CollisionMask(image.getWidth(), image.getHeight());
+        int tileSize = image.getTileSize();
+        int[] pixels = new int[tileSize * tileSize];
+        for (int row = 0; row < image.getRows(); row++){
+            for (int column = 0; column < image.getColumns(); column++){
+                if (!image.readTilePixels(column, row, pixels)) continue;
+                int x0 = column * tileSize;
+                int y0 = row * tileSize;
+                mask.addPixels(pixels, tileSize, x0, y0, Math.min(tileSize, mask.width - x0), Math.min(tileSize, mask.height - y0));
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * addPixels
+     * ---------
+     * Marks the solid pixels in a w by h piece of the image whose top left corner is at x0,y0.
+     * The piece's ARGB pixels are in pixels, a row at a time, with rowLength pixels from the start of one row to the next.
+     * PRE: the piece fits inside the mask there.
+     */
+    void addPixels(int[] pixels, int rowLength, int x0, int y0, int w, int h){
+        for (int py = 0; py < h; py++){
+            int y = y0 + py;
+            int rowStart = y * wordsPerRow;
+            int i = py * rowLength;
+            for (int px = 0; px < w; px++, i++){
+                if ((pixels[i] >>> 24) != 0) {
+                    int x = x0 + px;
+                    int word = rowStart + (x >>> 6);
+                    bits.put(word, bits.get(word) | 1L << (x & 63));
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                    if (y < minY) minY = y;
+                    if (y > maxY) maxY = y;
+                }
+            }
+        }
+    }
+
+    /**
+     * setSolid
+     * --------
+     * Marks the pixel at x,y as solid.
+     * PRE: 0 <= x < width and 0 <= y < height, and the mask isn't one that was opened read-only from a file.
+     */
+    public void setSolid(int x, int y){
+        int word = y * wordsPerRow + (x >>> 6);
+        bits.put(word, bits.get(word) | 1L << (x & 63));
+        if (x < minX) minX = x;
+        if (x > maxX) maxX = x;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+    }
+
+    /**
+     * isSolid
+     * -------
+     * Returns true if the pixel at x,y isn't transparent.
+     * PRE: 0 <= x < width and 0 <= y < height (the caller decides what happens off the edge)
+     */
+    public boolean isSolid(int x, int y){
+        return (bits.get(y * wordsPerRow + (x >>> 6)) & (1L << (x & 63))) != 0;
+    }
+
+    /**
+     * hitTest
+     * -------
+     * Like isSolid, but x,y can be anywhere: it returns false right away if x,y is outside
+     * the bounding box of the solid pixels (which also means it's never off the edge of the mask).
+     */
+    public boolean hitTest(int x, int y){
+        if (x < minX || x > maxX || y < minY || y > maxY) return false;
+        return isSolid(x, y);
+    }
+
+    /**
+     * setSolidRun
+     * -----------
+     * Marks the pixels in row y from fromX up to (but not including) toX as solid, a whole long at a time where it can.
+     * (This is handy for making up a cavern, a row at a time.)
+     * PRE: 0 <= fromX <= toX <= width and 0 <= y < height, and the mask isn't one that was opened read-only from a file.
+     */
+    public void setSolidRun(int fromX, int toX, int y){
+        if (fromX >= toX) return;
+        int rowStart = y * wordsPerRow;
+        int x = fromX;
+        while (x < toX){
+            int word = rowStart + (x >>> 6);
+            int bit = x & 63;
+            int n = Math.min(64 - bit, toX - x); // how many of the run's pixels are in this long
+            long run = (n == 64) ? -1L : ((1L << n) - 1) << bit;
+            bits.put(word, bits.get(word) | run);
+            x += n;
+        }
+        if (fromX < minX) minX = fromX;
+        if (toX - 1 > maxX) maxX = toX - 1;
+        if (y < minY) minY = y;
+        if (y > maxY) maxY = y;
+    }
+
+    public int getWidth(){
+        return width;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+
+    /*
+     * These are for CollisionMapFile (to write a mask to a file):
+     */
+    long getWord(int i){
+        return bits.get(i);
+    }
+
+    int getMinX(){
+        return minX;
+    }
+
+    int getMinY(){
+        return minY;
+    }
+
+    int getMaxX(){
+        return maxX;
+    }
+
+    int getMaxY(){
+        return maxY;
+    }
+
+} // end CollisionMask class
@@ -0,0 +1,110 @@
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+
+/**
+ * CompatibleImages
+ * ----------------
+ * Images straight out of ImageIO.read come in whatever format the file was in (like 4 bytes per pixel in ABGR order,
+ * or 3 bytes for a jpg), which usually isn't the format the screen uses. Drawing one of those means Java2D has to
+ * convert every pixel on the way, with its slow general-purpose drawing code, every single frame.
+ * If the image is already in the screen's format (a "compatible" image), drawing it is just a copy
+ * (and Java2D can even keep a copy of it in video memory).
+ *
+ * So every image the game draws goes through here once, when it's loaded: the sprites (the dragon, the creatures in the
+ * Eggs, and the Fireball; see Sprites) go through toCompatible(), and the Background's tiles are made with fromPixels().
+ * With no screen (like in the HeadlessEngine or the benchmarks) we use the formats Java2D draws fastest in software:
+ * TYPE_INT_RGB for images with no transparency, and TYPE_INT_ARGB_PRE (premultiplied alpha) for the rest.
+ */
+public class CompatibleImages {
+
+    private CompatibleImages(){
+    }
+
+    /**
+     * screenConfiguration
+     * -------------------
+     * The GraphicsConfiguration of the main screen, or null if there isn't one.
+     */
+    public static GraphicsConfiguration screenConfiguration(){
+        if (GraphicsEnvironment.isHeadless()) return null;
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+
+    /**
+     * create
+     * ------
+     * Makes a new (empty) compatible image.
+     * transparency is Transparency.OPAQUE, BITMASK or TRANSLUCENT.
+     */
+    public static BufferedImage create(int width, int height, int transparency){
+        GraphicsConfiguration gc = screenConfiguration();
+        if (gc != null) return gc.createCompatibleImage(width, height, transparency);
+        return new BufferedImage(width, height, headlessType(transparency));
+    }
+
+    /**
+     * isCompatible
+     * ------------
+     * True if image is already in the format create() would make for an image with its transparency
+     * (so it doesn't need copying). It doesn't make any images to find out.
+     */
+    public static boolean isCompatible(BufferedImage image){
+        int transparency = image.getColorModel().getTransparency();
+        GraphicsConfiguration gc = screenConfiguration();
+        if (gc == null) return image.getType() == headlessType(transparency);
+        ColorModel model = gc.getColorModel(transparency);
+        return model.equals(image.getColorModel()) && model.isCompatibleSampleModel(image.getSampleModel());
+    }
+
+    /**
+     * toCompatible
+     * ------------
+     * Returns a compatible copy of image (or image itself, if it's already compatible).
+     * PRE: image is not null
+     */
+    public static BufferedImage toCompatible(BufferedImage image){
+        if (isCompatible(image)) return image;
+        BufferedImage copy = create(image.getWidth(), image.getHeight(), image.getColorModel().getTransparency());
+        Graphics2D g = copy.createGraphics();
+        g.setComposite(AlphaComposite.Src); // (copy the pixels exactly, transparent ones and all)
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return copy;
+    }
+
+    /**
+     * fromPixels
+     * ----------
+     * Makes a compatible image from width by height ARGB pixels (rowLength pixels from the start of one row to the next).
+     * It looks at the pixels to decide how transparent the image needs to be, so an image without any see-through pixels
+     * gets the faster opaque format.
+     */
+    public static BufferedImage fromPixels(int[] argb, int width, int height, int rowLength){
+        int transparency = Transparency.OPAQUE;
+        for (int y = 0; y < height && transparency != Transparency.TRANSLUCENT; y++){
+            for (int i = y * rowLength, end = i + width; i < end; i++){
+                int alpha = argb[i] >>> 24;
+                if (alpha == 0xFF) continue;
+                if (alpha != 0){
+                    transparency = Transparency.TRANSLUCENT;
+                    break;
+                }
+                transparency = Transparency.BITMASK;
+            }
+        }
+        BufferedImage image = create(width, height, transparency);
+        image.setRGB(0, 0, width, height, argb, 0, rowLength);
+        return image;
+    }
+
+    // the image type we use for this transparency when there's no screen:
+    private static int headlessType(int transparency){
+        return (transparency == Transparency.OPAQUE) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE;
+    }
+
+} // end CompatibleImages class
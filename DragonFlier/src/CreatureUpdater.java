@@ -0,0 +1,210 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * CreatureUpdater
+ * ---------------
+ * Moves all the hatched creatures for one tick, spreading the work over all the computer's cores.
+ *
+ * Every creature works out where it's going (Egg.planMove) into its own nextState, looking only at itself,
+ * the background's collision mask, and a ChaseSnapshot of where the dragon and background were when the update started.
+ * Then it moves there (Egg.finishMove). No creature ever looks at another creature, so nobody changes anything
+ * anyone else reads, and the eggs can be split up into chunks and handed out to a ForkJoinPool to do at the same time.
+ *
+ * Every creature ends up in exactly the same place it would if they all moved one at a time.
+ * With only a few eggs, it's quicker to just do it all on one thread, so that's what it does.
+ *
+ * On a big level, most creatures are nowhere near the dragon, so when it's given the tick number, it uses a "level of detail":
+ *   ACTIVE:  creatures within ACTIVE_RADIUS of the dragon (or anywhere near the window) move every tick, exactly like always.
+ *            (That's farther than the 600 pixels a creature can sense the dragon from, so everything the player can see is the same.)
+ *   COARSE:  creatures within COARSE_RADIUS move every COARSE_TICKS ticks, COARSE_TICKS ticks' worth at a time
+ *            (each one on its own tick out of the COARSE_TICKS, so they don't all happen on the same tick).
+ *   DORMANT: creatures farther away than that don't move at all, until the dragon comes back within COARSE_RADIUS.
+ * Which tier a creature is in only depends on where it and the dragon are, so the same game always plays out the same way.
+ */
+public class CreatureUpdater {
+
+    // with fewer eggs than this, splitting up the work costs more than it saves:
+    private static final int PARALLEL_THRESHOLD = 2048;
+    // how many eggs each piece of work gets (at most):
+    private static final int CHUNK_SIZE = 512;
+
+    // the level of detail (see above):
+    public static final int ACTIVE_RADIUS = 1000;
+    public static final int COARSE_RADIUS = 3000;
+    public static final int COARSE_TICKS = 4;
+    static final int ACTIVE = 0, COARSE = 1, DORMANT = 2;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * CreatureUpdater constructor:
+     * ----------------------------
+     * pool is where the work gets done (ForkJoinPool.commonPool() is fine).
+     */
+    public CreatureUpdater(ForkJoinPool pool){
+        this.pool = pool;
+    }
+
+    public CreatureUpdater(){
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * update
+     * ------
+     * Moves every hatched creature in eggs one tick (the same as calling move() on each of them).
+     * PRE: nothing else is changing the eggs, the dragon or the background while this runs
+     *      (in the game, it's called from step(), which holds the worldLock).
+     * POST: every hatched creature has moved.
+     */
+    public void update(List<Egg> eggs, Dragon dragon, Background background){
+        update(eggs, dragon, background, -1);
+    }
+
+    /**
+     * update
+     * ------
+     * The same, but using the level of detail (see above): tick is the clock's tick (it has to go up by one every time this is called).
+     * If tick is less than 0, every creature moves one tick, the same as the other update().
+     * PRE: the same as the other update()
+     * POST: every hatched creature that's due to move this tick has moved.
+     */
+    public void update(List<Egg> eggs, Dragon dragon, Background background, long tick){
+        ChaseSnapshot chase = new ChaseSnapshot(dragon, background);
+        if (eggs.size() < PARALLEL_THRESHOLD || pool.getParallelism() <= 1){
+            moveCreatures(eggs, chase, tick, 0, eggs.size());
+        }
+        else {
+            pool.invoke(new MoveCreatures(eggs, chase, tick, 0, eggs.size()));
+        }
+    }
+
+    /**
+     * update
+     * ------
+     * The same, but for the creatures in an EggStore (see EggStore.moveCreatures()): the slots are split up into chunks
+     * the same way the eggs are, and every creature ends up in the same place it would with the other update().
+     * PRE: the same as the other update()
+     * POST: every hatched creature in store that's due to move this tick has moved.
+     */
+    public void update(EggStore store, Dragon dragon, Background background, long tick){
+        ChaseSnapshot chase = new ChaseSnapshot(dragon, background);
+        if (store.size() < PARALLEL_THRESHOLD || pool.getParallelism() <= 1){
+            store.moveCreatures(chase, tick, 0, store.size());
+        }
+        else {
+            pool.invoke(new MoveSlots(store, chase, tick, 0, store.size()));
+        }
+    }
+
+    // moves the hatched creatures in eggs from..to-1 (the ones that aren't hatched just stay put):
+    private static void moveCreatures(List<Egg> eggs, ChaseSnapshot chase, long tick, int from, int to){
+        for (int i = from; i < to; i++){
+            Egg egg = eggs.get(i);
+            if (egg.stage != eggStage.HATCHED) continue;
+            if (tick < 0){
+                egg.planMove(chase);
+                egg.finishMove();
+                continue;
+            }
+            int tier = tierOf(egg, chase);
+            if (tier == DORMANT || (tier == COARSE && (tick + egg.updatePhase) % COARSE_TICKS != 0)){
+                if (tier == DORMANT) egg.lastMovedTick = tick; // (time stands still for it, so it doesn't catch up when it wakes up)
+                continue;
+            }
+            // however many ticks it's been since it last moved (1 if it's been ACTIVE all along):
+            int ticks = (int)Math.max(1, Math.min(COARSE_TICKS, tick - egg.lastMovedTick));
+            egg.planMove(chase, ticks);
+            egg.finishMove();
+            egg.lastMovedTick = tick;
+        }
+    }
+
+    /**
+     * tierOf
+     * ------
+     * Which level of detail a creature gets (ACTIVE, COARSE or DORMANT), from how far it is from the dragon
+     * (anything in the window, or close enough that part of it might be, is always ACTIVE).
+     */
+    static int tierOf(Egg egg, ChaseSnapshot chase){
+        return tierOf(egg.loc.x, egg.loc.y, chase);
+    }
+
+    // (the same, for a creature at eggX, eggY in the cavern)
+    static int tierOf(double eggX, double eggY, ChaseSnapshot chase){
+        double x = eggX + chase.backgroundX; // (where it is on the screen)
+        double y = eggY + chase.backgroundY;
+        int margin = Egg.largestDrawSize();
+        if (-margin <= x && x <= chase.windowWidth + margin && -margin <= y && y <= chase.windowHeight + margin) return ACTIVE;
+        if (VectorMath.isWithin(x, y, chase.dragonX, chase.dragonY, ACTIVE_RADIUS)) return ACTIVE;
+        if (VectorMath.isWithin(x, y, chase.dragonX, chase.dragonY, COARSE_RADIUS)) return COARSE;
+        return DORMANT;
+    }
+
+    /**
+     * MoveCreatures
+     * -------------
+     * Moves the creatures in eggs from..to-1, splitting itself in half until the pieces are small enough.
+     */
+    private static class MoveCreatures extends RecursiveAction {
+        private static final long serialVersionUID = 1L; // (RecursiveAction is Serializable, but these never get serialized)
+
+        private final List<Egg> eggs;
+        private final ChaseSnapshot chase;
+        private final long tick;
+        private final int from, to;
+
+        MoveCreatures(List<Egg> eggs, ChaseSnapshot chase, long tick, int from, int to){
+            this.eggs = eggs;
+            this.chase = chase;
+            this.tick = tick;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if (to - from <= CHUNK_SIZE){
+                moveCreatures(eggs, chase, tick, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MoveCreatures(eggs, chase, tick, from, middle), new MoveCreatures(eggs, chase, tick, middle, to));
+        }
+    } // end MoveCreatures class
+
+    /**
+     * MoveSlots
+     * ---------
+     * The same as MoveCreatures, but for the slots from..to-1 of an EggStore.
+     */
+    private static class MoveSlots extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final EggStore store;
+        private final ChaseSnapshot chase;
+        private final long tick;
+        private final int from, to;
+
+        MoveSlots(EggStore store, ChaseSnapshot chase, long tick, int from, int to){
+            this.store = store;
+            this.chase = chase;
+            this.tick = tick;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if (to - from <= CHUNK_SIZE){
+                store.moveCreatures(chase, tick, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MoveSlots(store, chase, tick, from, middle), new MoveSlots(store, chase, tick, middle, to));
+        }
+    } // end MoveSlots class
+
+} // end CreatureUpdater class
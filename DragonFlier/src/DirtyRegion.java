@@ -0,0 +1,240 @@
+import java.awt.Component;
+import java.awt.Graphics2D;
+import java.awt.geom.Path2D;
+
+/**
+ * DirtyRegion
+ * -----------
+ * The parts of the window that have changed since the last frame and need drawing again, as a few rectangles
+ * (in window coordinates). Things that change add the rectangle they were in and the rectangle they're in now,
+ * and then only those parts of the frame get drawn.
+ *
+ * Rectangles that overlap a lot get merged into one, and there are never more than MAX_RECTANGLES of them
+ * (a new one gets merged with whichever rectangle that grows the least). If they add up to more than WHOLE_FRAME_FRACTION
+ * of the window, or markWholeFrame() is called (like when the background scrolls), the region is just the whole frame.
+ */
+public class DirtyRegion {
+
+    public static final int MAX_RECTANGLES = 16;
+    public static final double WHOLE_FRAME_FRACTION = 0.5;
+
+    private final int frameWidth, frameHeight;
+
+    // rectangle i is x,y,width,height at rectangles[4*i .. 4*i+3]:
+    private int[] rectangles = new int[4 * MAX_RECTANGLES];
+    private int count = 0;
+    private boolean wholeFrame = false;
+
+    public DirtyRegion(int frameWidth, int frameHeight){
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+    }
+
+    /**
+     * add
+     * ---
+     * Adds the rectangle with its top left corner at x,y (the part of it outside the window is cut off).
+     * POST: it's merged with any rectangle it overlaps a lot, and if that makes too many rectangles,
+     *       or too much of the window, the region becomes the whole frame.
+     */
+    public void add(int x, int y, int width, int height){
+        if (wholeFrame) return;
+        int right = Math.min(frameWidth, x + width);
+        int bottom = Math.min(frameHeight, y + height);
+        x = Math.max(0, x);
+        y = Math.max(0, y);
+        if (right <= x || bottom <= y) return; // (nothing of it is in the window)
+        width = right - x;
+        height = bottom - y;
+
+        // merge it with every rectangle that it overlaps so much that together they're no bigger than the two apart
+        // (the merged one might overlap some others now, so we start looking again each time):
+        for (int i = 0; i < count; i++){
+            if (unionArea(i, x, y, width, height) <= (long)width * height + (long)rectangles[4*i+2] * rectangles[4*i+3]){
+                int unionX = Math.min(x, rectangles[4*i]);
+                int unionY = Math.min(y, rectangles[4*i+1]);
+                width = Math.max(x + width, rectangles[4*i] + rectangles[4*i+2]) - unionX;
+                height = Math.max(y + height, rectangles[4*i+1] + rectangles[4*i+3]) - unionY;
+                x = unionX;
+                y = unionY;
+                removeRectangle(i);
+                i = -1;
+            }
+        }
+
+        // too many? then merge it with the one that grows the least:
+        while (count == MAX_RECTANGLES){
+            int best = 0;
+            long bestGrowth = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++){
+                long growth = unionArea(i, x, y, width, height) - (long)rectangles[4*i+2] * rectangles[4*i+3];
+                if (growth < bestGrowth){
+                    best = i;
+                    bestGrowth = growth;
+                }
+            }
+            int unionX = Math.min(x, rectangles[4*best]);
+            int unionY = Math.min(y, rectangles[4*best+1]);
+            width = Math.max(x + width, rectangles[4*best] + rectangles[4*best+2]) - unionX;
+            height = Math.max(y + height, rectangles[4*best+1] + rectangles[4*best+3]) - unionY;
+            x = unionX;
+            y = unionY;
+            removeRectangle(best);
+        }
+
+        rectangles[4*count] = x;
+        rectangles[4*count+1] = y;
+        rectangles[4*count+2] = width;
+        rectangles[4*count+3] = height;
+        count++;
+
+        if (area() > WHOLE_FRAME_FRACTION * frameWidth * frameHeight) markWholeFrame();
+    }
+
+    /**
+     * addAll
+     * ------
+     * Adds every rectangle in other (or the whole frame, if other is the whole frame).
+     */
+    public void addAll(DirtyRegion other){
+        if (other.wholeFrame){
+            markWholeFrame();
+            return;
+        }
+        for (int i = 0; i < other.count; i++){
+            add(other.getX(i), other.getY(i), other.getWidth(i), other.getHeight(i));
+        }
+    }
+
+    public void markWholeFrame(){
+        wholeFrame = true;
+        count = 0;
+    }
+
+    public boolean isWholeFrame(){
+        return wholeFrame;
+    }
+
+    public boolean isEmpty(){
+        return !wholeFrame && count == 0;
+    }
+
+    public void clear(){
+        wholeFrame = false;
+        count = 0;
+    }
+
+    // the number of rectangles (0 if it's the whole frame):
+    public int size(){
+        return count;
+    }
+
+    public int getX(int i){
+        return rectangles[4*i];
+    }
+
+    public int getY(int i){
+        return rectangles[4*i+1];
+    }
+
+    public int getWidth(int i){
+        return rectangles[4*i+2];
+    }
+
+    public int getHeight(int i){
+        return rectangles[4*i+3];
+    }
+
+    /**
+     * area
+     * ----
+     * How many pixels need drawing (the whole window, if it's the whole frame).
+     * (The rectangles that are left can still overlap a little, so this can count a few pixels twice.)
+     */
+    public long area(){
+        if (wholeFrame) return (long)frameWidth * frameHeight;
+        long area = 0;
+        for (int i = 0; i < count; i++){
+            area += (long)rectangles[4*i+2] * rectangles[4*i+3];
+        }
+        return area;
+    }
+
+    /**
+     * repaint
+     * -------
+     * Asks Swing to repaint each rectangle of component (or all of it, if this is the whole frame).
+     */
+    public void repaint(Component component){
+        if (wholeFrame){
+            component.repaint();
+            return;
+        }
+        for (int i = 0; i < count; i++){
+            component.repaint(rectangles[4*i], rectangles[4*i+1], rectangles[4*i+2], rectangles[4*i+3]);
+        }
+    }
+
+    /**
+     * clip
+     * ----
+     * Makes g only draw inside the rectangles (if this is the whole frame, g is left alone).
+     * PRE: the region isn't empty (or g wouldn't draw anything at all)
+     */
+    public void clip(Graphics2D g){
+        if (wholeFrame) return;
+        Path2D.Float shape = new Path2D.Float(Path2D.WIND_NON_ZERO, 5 * count);
+        for (int i = 0; i < count; i++){
+            float x = rectangles[4*i];
+            float y = rectangles[4*i+1];
+            float right = x + rectangles[4*i+2];
+            float bottom = y + rectangles[4*i+3];
+            // (every rectangle goes around the same way, so where they overlap still counts as inside)
+            shape.moveTo(x, y);
+            shape.lineTo(right, y);
+            shape.lineTo(right, bottom);
+            shape.lineTo(x, bottom);
+            shape.closePath();
+        }
+        g.clip(shape);
+    }
+
+    /**
+     * copyFrom
+     * --------
+     * Makes this region the same as other.
+     */
+    public void copyFrom(DirtyRegion other){
+        wholeFrame = other.wholeFrame;
+        count = other.count;
+        if (rectangles.length < other.rectangles.length) rectangles = new int[other.rectangles.length];
+        System.arraycopy(other.rectangles, 0, rectangles, 0, 4 * count);
+    }
+
+    // moves the last rectangle into rectangle i's place (the order doesn't matter):
+    private void removeRectangle(int i){
+        count--;
+        System.arraycopy(rectangles, 4*count, rectangles, 4*i, 4);
+    }
+
+    private long unionArea(int i, int x, int y, int width, int height){
+        int unionX = Math.min(x, rectangles[4*i]);
+        int unionY = Math.min(y, rectangles[4*i+1]);
+        int unionRight = Math.max(x + width, rectangles[4*i] + rectangles[4*i+2]);
+        int unionBottom = Math.max(y + height, rectangles[4*i+1] + rectangles[4*i+3]);
+        return (long)(unionRight - unionX) * (unionBottom - unionY);
+    }
+
+    @Override
+    public String toString(){
+        if (wholeFrame) return "[whole frame]";
+        StringBuilder s = new StringBuilder("[");
+        for (int i = 0; i < count; i++){
+            if (i > 0) s.append(", ");
+            s.append(rectangles[4*i]).append(',').append(rectangles[4*i+1]).append(' ')
+             .append(rectangles[4*i+2]).append('x').append(rectangles[4*i+3]);
+        }
+        return s.append(']').toString();
+    }
+
+} // end DirtyRegion class
@@ -0,0 +1,105 @@
+import java.util.Arrays;
+import java.util.function.DoublePredicate;
+
+/**
+ * DoubleArrayList
+ * ---------------
+ * A list of doubles, kept in a double[] that doubles in size when it fills up.
+ * It's like ArrayList<Double>, except that the numbers are stored as plain doubles, so adding one doesn't make
+ * a Double object. (Handy for things like a list of x,y coordinates: add(x); add(y); and point i is at 2*i and 2*i+1.)
+ * It has the same swapRemove() and removeIf() as our ArrayList.
+ */
+public class DoubleArrayList {
+
+    private int size = 0;
+    private double[] elements;
+
+    public DoubleArrayList(){
+        this(16);
+    }
+
+    public DoubleArrayList(int initialCapacity){
+        elements = new double[Math.max(1, initialCapacity)];
+    }
+
+    public void add(double value){
+        if (size == elements.length) elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = value;
+    }
+
+    /**
+     * get
+     * ---
+     * PRE: 0 <= index < size()
+     */
+    public double get(int index){
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        return elements[index];
+    }
+
+    public void set(int index, double value){
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        elements[index] = value;
+    }
+
+    /**
+     * swapRemove
+     * ----------
+     * Removes the value at index by moving the last value into its place, and returns the removed value.
+     * PRE: 0 <= index < size()
+     */
+    public double swapRemove(int index){
+        double value = get(index);
+        elements[index] = elements[--size];
+        return value;
+    }
+
+    /**
+     * removeIf
+     * --------
+     * Removes every value that filter says yes to, in one pass (the rest keep their order).
+     * Returns true if anything was removed.
+     */
+    public boolean removeIf(DoublePredicate filter){
+        int kept = 0;
+        for (int i = 0; i < size; i++){
+            double value = elements[i];
+            if (!filter.test(value)) elements[kept++] = value;
+        }
+        boolean removed = kept != size;
+        size = kept;
+        return removed;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * toArray
+     * -------
+     * A new array with just the values in the list.
+     */
+    public double[] toArray(){
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder s = new StringBuilder("[");
+        for (int i = 0; i < size; i++){
+            if (i > 0) s.append(", ");
+            s.append(elements[i]);
+        }
+        return s.append(']').toString();
+    }
+
+} // end DoubleArrayList class
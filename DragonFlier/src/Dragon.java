@@ -22,7 +22,7 @@ import java.io.IOException;
 import javax.imageio.ImageIO;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Dragon
@@ -46,14 +46,16 @@ public class Dragon extends DragonGameShape{
 
     // These are lists of all the images used for the dragon.
     // some are images of the dragon facing left, others of the dragon facing right:
-    private ArrayList<BufferedImage> leftDragonImageList = new ArrayList<>();
-    private ArrayList<BufferedImage> rightDragonImageList = new ArrayList<>();
+    // (these are shared with everyone else -- see the Sprites class)
+    private List<BufferedImage> leftDragonImageList;
+    private List<BufferedImage> rightDragonImageList;
 
     // This variable determines which dragon image in the above lists we're currently using:
-    private int whichDragon = 1;
-    
-    private int numberOfDraws = 0 ; // how many times the draw command has been called.
-    // This is useful becayse every certain number of draws, we change the dragon image.
+    private int whichDragon = 0;
+
+    // The dragon flaps on game time: it changes to its next image every TICKS_PER_PICTURE ticks (see animate()).
+    // (about every 16 frames, like it used to be when it changed every 16 times it was drawn)
+    static final int TICKS_PER_PICTURE = 48;
     
     // Since the dragon needs to affect the background, we'll keep a reference to it:
     private Background background = null;
@@ -84,36 +86,19 @@ public class Dragon extends DragonGameShape{
     /**
      * loadImages
      * ----------
-     * This is just a helper method for the constructor, to load all the images we need
+     * This is just a helper method for the constructor, to get all the images we need
+     * (they're decoded just once, by the Sprites class).
      * PRE: all the images are in the images folder!
      * POST: images are ready to go.
      */
     private void loadImages(){
-        try {
-            //this.dragonImage = ImageIO.read(new File("testdragon.png"));
-            //this.dragonImage = ImageIO.read(new File("images/dragon1Left.png"));
-            leftDragonImageList.add(ImageIO.read(new File("images/dragon1Left.png")));
-            leftDragonImageList.add(ImageIO.read(new File("images/dragon2Left.png")));
-            leftDragonImageList.add(ImageIO.read(new File("images/dragon3Left.png")));
-            leftDragonImageList.add(ImageIO.read(new File("images/dragon4Left.png")));
-            leftDragonImageList.add(ImageIO.read(new File("images/dragon5Left.png")));
-            leftDragonImageList.add(ImageIO.read(new File("images/dragon6Left.png")));
-            rightDragonImageList.add(ImageIO.read(new File("images/dragon1Right.png")));
-            rightDragonImageList.add(ImageIO.read(new File("images/dragon2Right.png")));
-            rightDragonImageList.add(ImageIO.read(new File("images/dragon3Right.png")));
-            rightDragonImageList.add(ImageIO.read(new File("images/dragon4Right.png")));
-            rightDragonImageList.add(ImageIO.read(new File("images/dragon5Right.png")));
-            rightDragonImageList.add(ImageIO.read(new File("images/dragon6Right.png")));
-
-            this.dragonImage = leftDragonImageList.get(0);
-            this.imageWidth = this.dragonImage.getWidth();
-            this.imageHeight = this.dragonImage.getHeight();
-
-        }
-        catch (IOException e) {
-            e.printStackTrace();
-        }
+        leftDragonImageList = Sprites.leftDragonImages();
+        rightDragonImageList = Sprites.rightDragonImages();
+        if (leftDragonImageList.isEmpty()) return; // the images couldn't be loaded.
 
+        this.dragonImage = leftDragonImageList.get(0);
+        this.imageWidth = this.dragonImage.getWidth();
+        this.imageHeight = this.dragonImage.getHeight();
     }
 
     /**
@@ -123,15 +108,6 @@ public class Dragon extends DragonGameShape{
      */
     @Override
     public void draw(Graphics g) {
-
-        // We'll switch dragons every 15 times it redraws it.
-        // (if we change it each time it's too fast)
-        this.numberOfDraws++;
-        if (this.numberOfDraws > 15) {
-            this.numberOfDraws = 0;
-            if (this.facingRight) this.dragonImage = nextRightDragonImage();
-            else this.dragonImage = nextLeftDragonImage();
-        }
         double x = loc.x;
         double y = loc.y;
 
@@ -139,29 +115,38 @@ public class Dragon extends DragonGameShape{
     }
 
     /**
-     * nextLeftDragonImage
-     * -------------------
-     * This just gets the next image of the dragon facing left from the LeftDragonImageList
-     * PRE: images have been loaded into the list
-     * POST: whichDragon is incremented.
+     * addTo
+     * -----
+     * Adds the dragon to contents, the same way draw() draws it (see FrameContents).
+     */
+    public void addTo(FrameContents contents){
+        contents.image(dragonImage, (int)loc.x-(imageWidth/2), (int)loc.y-(imageHeight/2));
+    }
+
+    /**
+     * addScreenBounds
+     * ---------------
+     * Adds the rectangle the dragon is drawn in to region.
+     * (The dragon is always flapping, so the FrameRenderer draws where it was and where it is every frame.)
      */
-    private BufferedImage nextLeftDragonImage(){
-        this.whichDragon++; // whichCreature is essentially the index of which creature in the list to use.
-        if (this.whichDragon >= this.leftDragonImageList.size()) this.whichDragon = 0;
-        return this.leftDragonImageList.get(this.whichDragon);
+    public void addScreenBounds(DirtyRegion region){
+        region.add((int)loc.x-(imageWidth/2), (int)loc.y-(imageHeight/2), dragonImage.getWidth(), dragonImage.getHeight());
     }
 
     /**
-     * nextRightDragonImage
-     * -------------------
-     * This just gets the next image of the dragon facing right from the RightDragonImageList
-     * PRE: images have been loaded into the list
-     * POST: whichDragon is incremented.
+     * animate
+     * -------
+     * Changes the dragon's image to the one it should be showing on this tick (the GameWorld calls this every tick),
+     * facing whichever way it's facing. (draw() just draws whatever image this picked, so drawing the dragon
+     * doesn't change it.)
+     * PRE: tick is the clock's tick right now
+     * POST: whichDragon and dragonImage are right for this tick.
      */
-    private BufferedImage nextRightDragonImage(){
-        this.whichDragon++; // whichCreature is essentially the index of which creature in the list to use.
-        if (this.whichDragon >= this.rightDragonImageList.size()) this.whichDragon = 0;
-        return this.rightDragonImageList.get(this.whichDragon);
+    public void animate(long tick){
+        List<BufferedImage> images = this.facingRight ? this.rightDragonImageList : this.leftDragonImageList;
+        if (images.isEmpty()) return; // the images couldn't be loaded.
+        this.whichDragon = (int)((tick / TICKS_PER_PICTURE) % images.size()); // whichDragon is the index of which dragon in the list to use.
+        this.dragonImage = images.get(this.whichDragon);
     }
 
 
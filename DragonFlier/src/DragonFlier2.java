@@ -1,8 +1,10 @@
+import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Transparency;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
@@ -42,14 +44,58 @@ public class DragonFlier2
     private static final int FRAME_WIDTH = 1200;
     private static final int FRAME_HEIGHT = 900;
 
+    // if this is true, the game draws itself with an ActiveRenderer instead of waiting for Swing to repaint it.
+    private boolean activeRendering = false;
+
+    // if this isn't null, every key the player presses is recorded in an InputJournal, and saved here when the game closes.
+    private File recordTo = null;
+
+    // if this isn't null, the EngineMetrics (tick times, paint times, ...) are written to this CSV file when the game closes.
+    private File metricsTo = null;
+
+    /**
+     * main
+     * ----
+     * Run it with  -active  to use active rendering (see the ActiveRenderer class),
+     * and with  -record someFile  to record your keys in an InputJournal (play it back with  java HeadlessEngine -replay someFile),
+     * and with  -metrics someFile.csv  to save the EngineMetrics when the game closes. (Press M to see them while you play.)
+     */
     public static void main(String[] args) {
-        new DragonFlier2();
+        boolean activeRendering = false;
+        File recordTo = null;
+        File metricsTo = null;
+        for (int i = 0; i < args.length; i++){
+            if (args[i].equals("-active")) activeRendering = true;
+            else if (args[i].equals("-record") && i + 1 < args.length) recordTo = new File(args[++i]);
+            else if (args[i].equals("-metrics") && i + 1 < args.length) metricsTo = new File(args[++i]);
+        }
+        new DragonFlier2(activeRendering, recordTo, metricsTo);
     }
 
     /**
      * Constructor for objects of class DragonFlier2
      */
     public DragonFlier2() {
+        this(false, null);
+    }
+
+    /**
+     * Constructor for objects of class DragonFlier2
+     * if activeRendering is true, the game uses an ActiveRenderer to draw itself,
+     * and if recordTo isn't null, the player's keys are recorded and saved in that file when the game closes.
+     */
+    public DragonFlier2(boolean activeRendering, File recordTo) {
+        this(activeRendering, recordTo, null);
+    }
+
+    /**
+     * Constructor for objects of class DragonFlier2
+     * The same, but if metricsTo isn't null, the EngineMetrics are saved to that CSV file when the game closes.
+     */
+    public DragonFlier2(boolean activeRendering, File recordTo, File metricsTo) {
+        this.activeRendering = activeRendering;
+        this.recordTo = recordTo;
+        this.metricsTo = metricsTo;
         
         /*
          * An explanation of "EventQueue.invokeLater(new Runnable....":
@@ -114,34 +160,47 @@ public class DragonFlier2
      * --------
      * The GamePane class extends the JPanel class, wihch is one way of drawing some stuff inside a JFrame.
      * One thing to know about the JPanel is that it automatically calls the paintComponent method.
-     * In our constructor, we also set a timer that will, every 5 miliseconds, change the locations of 
+     * In our constructor, we also start a GameLoop, which, every 5 miliseconds of game time, changes the locations of 
      * various things in our video game (like move the dragon up if you've pushed the up arrow key),
-     * and then call the repaint() method to clear the screen and call the paintComponent method again.
+     * and then calls the repaint() method to clear the screen and call the paintComponent method again.
      * That's how we get the effect of things moving around on the screen.
+     * The GameLoop runs on its own thread, so the game moves at the same speed even if painting is slow.
+     * (The GamePane is the GameLoop's Simulation: the loop calls step() for every tick.)
      */
-    private class GamePane extends JPanel {
+    private class GamePane extends JPanel implements GameLoop.Simulation {
 
-        private Dragon dragon;
-        private Background background;
-        private Fireball fireball;
-        private Egg egg1;
-        private ArrayList<Egg> eggList = new ArrayList<Egg>();
-        long startTime;
+        // the game itself (the dragon, the background, the eggs, the score, ...). The GamePane just runs it and draws it.
+        private GameWorld world;
 
-        double creatureDamage = 0.10; // how much damage it does (as a percent of lifeLeft) when a creature hits you.
+        private FrameRenderer frameRenderer = new FrameRenderer(FRAME_WIDTH); // draws the game (and the score, life left, etc.)
 
-        public int counter = 0; // in order to have things happen every so often when drawing...
-
-        private int score = 0; // Your score for the game.
+        // The simulation thread and painting both use the game's objects, so they take turns by holding this lock:
+        private final Object worldLock = new Object();
+        private GameLoop gameLoop;
         
-        private MessageBox messageBox;
+        // The latest snapshot the simulation has published (for painting),
+        // and where the background was before the current tick (to go in the next snapshot):
+        private volatile GameSnapshot snapshot;
+        private double previousBackgroundX, previousBackgroundY;
+
+        // only used when we're doing active rendering (otherwise it's null, and Swing does the painting):
+        private ActiveRenderer activeRenderer = null;
+
+        // When Swing does the painting, we keep the last frame in frameImage, and only draw the parts of it that have changed
+        // (the FrameRenderer works those out after every batch of ticks, into dirtyRegion), then copy it onto the screen.
+        // regionToPaint collects the changed parts until paintComponent gets to them (it's used by both threads, so
+        // it's synchronized on itself), and regionBeingPainted is what paintComponent is drawing right now.
+        private BufferedImage frameImage = null;
+        private final DirtyRegion dirtyRegion = new DirtyRegion(FRAME_WIDTH, FRAME_HEIGHT);
+        private final DirtyRegion regionToPaint = new DirtyRegion(FRAME_WIDTH, FRAME_HEIGHT);
+        private final DirtyRegion regionBeingPainted = new DirtyRegion(FRAME_WIDTH, FRAME_HEIGHT);
 
         /**
          * GamePane Constructor
          * --------------------
-         * This intializes everything and starts a timer that will move the dragon and background and eggs and fireball every 5 milliseconds 
+         * This intializes everything and starts a GameLoop that will move the dragon and background and eggs and fireball every 5 milliseconds 
          * PRE: all required images are in the images folder, all Action objects 
-         *      (UpAction, DownAction, LeftAction, RightAction, SpaceAction, and R_Action)
+         *      (UpAction, DownAction, LeftAction, RightAction, SpaceAction, R_Action and I_Action)
          *      have been defined and their actionPerformed methods are set to do the right thing.
          * POST: This will load everything up and start the game.
          */
@@ -150,45 +209,90 @@ public class DragonFlier2
             // (for example, if you don't paint over the whole screen, you'll see this)
             setBackground(Color.BLACK);
 
-            // The initialize method sets everything up: the dragon, the background, the fireball, the eggs.
-            // also it does the keyBindings, which binds certain keyboard keys to certain actions
-            // (For example, pressing the space bar shoots the fireball, and pressing the up arrow makes you go up)
-            initialize(); 
-            
-            
-            // The following is a Swing Timer, which, in this case, creates a new ActionLister object every 5 milliseconds.
-            // The ActionListener object will automatically call its actionPerformed method.
-            // In this case, the actionPerformed method will:
+            // Decode all the sprites up front (just once), so every new game starts right away:
+            Sprites.preload();
+
+            // The GameLoop calls our step() method once for every 5 milliseconds of game time, on its own thread.
+            // The step method will:
             // move the dragon, the background, the fireball, and the eggs (moving means changing their x,y coordinates and velocity, etc.)
             // and then check for any collisions (which will update the collided objects accordingly, and change score and health, etc.)
-            // Then, after it's updated all the information, it will call the repaint() method (inherited from JPane) 
-            // which just clears the screen and calls the paintComponent() method again.
-            Timer timer = new Timer(5, new ActionListener() {
+            // Then, after a batch of ticks, the loop calls stepsDone(), which publishes a snapshot for painting
+            // and calls the repaint() method (inherited from JPanel), which clears the screen and calls the paintComponent() method again.
+            this.gameLoop = new GameLoop(this, worldLock, GameWorld.MILLIS_PER_TICK);
+
+            // The GameWorld sets everything up: the dragon, the background, the fireball, the eggs.
+            this.world = new GameWorld(FRAME_WIDTH, FRAME_HEIGHT);
+            resetSnapshot();
+            if (recordTo != null) startRecording(recordTo);
+            if (metricsTo != null) saveMetricsOnExit(metricsTo);
+
+            // The keyBindings bind certain keyboard keys to certain actions
+            // (For example, pressing the space bar shoots the fireball, and pressing the up arrow makes you go up)
+            bindKeys();
+
+            // With active rendering, we put an ActiveRenderer (a Canvas) over the whole pane,
+            // and it calls renderFrame itself about 60 times a second, with triple buffering.
+            if (activeRendering){
+                setLayout(new BorderLayout());
+                setIgnoreRepaint(true);
+                this.activeRenderer = new ActiveRenderer(new ActiveRenderer.Scene() {
                         @Override
-                        public void actionPerformed(ActionEvent e) {
-                            dragon.move();
-                            background.move();
-                            fireball.move();
-                            //messageBox.move();
-
-                            for(Egg anEgg: eggList){
-                                anEgg.move();
-                            }
-                            collisionchecker();
+                        public void render(Graphics g) {
+                            renderFrame(g);
+                        }
+                    }, 3, 60);
+                add(activeRenderer, BorderLayout.CENTER);
+            }
+            
+            gameLoop.start();
+        }
 
-                            // If I wanted to do things every so often, I could use a little counter.
-                            // Curently, I don't use this.
-                            counter++;
-                            if (counter == 100){
-                                counter = 0;
-                                //stuff to do from time to time...
+        /**
+         * step
+         * ----
+         * This is one tick of the game. It's called by the GameLoop (on the simulation thread, holding worldLock).
+         * PRE: initialize() has been called.
+         * POST: everything has moved one tick's worth, and collisions have been dealt with.
+         */
+        @Override
+        public void step(){
+            previousBackgroundX = world.getBackground().loc.x;
+            previousBackgroundY = world.getBackground().loc.y;
 
-                            }
+            world.step();
+        }
 
-                            repaint();
-                        }
-                    });
-            timer.start();
+        /**
+         * stepsDone
+         * ---------
+         * Called by the GameLoop after a batch of ticks: publishes a new snapshot and asks Swing to repaint
+         * the parts of the window that have changed (all of it, if the background has scrolled).
+         * (With active rendering we don't need to ask; the ActiveRenderer draws on its own schedule.)
+         */
+        @Override
+        public void stepsDone(long tick, long tickNanos){
+            Background background = world.getBackground();
+            this.snapshot = new GameSnapshot(tick, tickNanos, previousBackgroundX, previousBackgroundY,
+                                             background.loc.x, background.loc.y);
+            if (activeRenderer != null) return;
+            frameRenderer.findDirtyRegion(world, dirtyRegion);
+            if (dirtyRegion.isEmpty()) return; // (nothing on the screen has changed)
+            synchronized (regionToPaint){
+                regionToPaint.addAll(dirtyRegion);
+            }
+            dirtyRegion.repaint(this);
+        }
+
+        /**
+         * repaintWholeFrame
+         * -----------------
+         * Asks Swing to draw the whole frame again, not just the parts that have changed.
+         */
+        private void repaintWholeFrame(){
+            synchronized (regionToPaint){
+                regionToPaint.markWholeFrame();
+            }
+            repaint();
         }
         
         
@@ -199,86 +303,124 @@ public class DragonFlier2
          * This could be used in the constructor to set everything up,
          * or it could be used later to reset the game (like if they lose and want to play again)
          * PRE: all required images are in the images folder. 
-         *      (This method creates a dragon as well as the background and fireball and eggs, all of which need images loaded up)
-         *      This method also assumes the existence of a bunch of Action objects: 
-         *      UpAction, DownAction, LeftAction, RightAction, SpaceAction, and R_Action
+         *      (The GameWorld creates a dragon as well as the background and fireball and eggs, all of which need images loaded up)
          * POST: everything will be loaded up and ready to go for a new game.
          */
         private void initialize(){
-        	
-        	
-            this.score = 0;
-            this.eggList.clear();
-            this.background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
-            this.dragon = new Dragon(background, FRAME_WIDTH/2, FRAME_HEIGHT/2); // dragon's starting location is in the center of the frame
-            this.fireball = new Fireball(dragon, background,FRAME_WIDTH, FRAME_HEIGHT); // fireball is initially invisible
-            
-            this.messageBox = new MessageBox(0, 0, background);
-            
-            loadEggs(); // creates all the eggs and puts them into this.eggList
-            
-            // I keep track of how many seconds have elapsed in the game, and I do that by getting an inital startTime.
-            this.startTime = System.currentTimeMillis();
-            
-            // the keyBindings bind particular keys to Action objects..
-            // So for example, if they press the up arrow ("VK_UP"), it will create a new UpAction object,
-            // and that object will (because it's a descendent of the Action class), call its 
-            // ActionPerformed method (because an action -- the key pressing -- just occured).
-            // Note that for the arrow keys, there's an action that happens when you press the key,
-            // as well as an action that happens when you stop pressing the key.
-            // These Action objects are defined as inner classes down below.
-            // See about the getKeyStroke method here:
-            // https://docs.oracle.com/javase/7/docs/api/javax/swing/KeyStroke.html#getKeyStroke(int,%20int,%20boolean)
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0, false), "dragon.up.pressed", new UpAction(dragon, true, background));
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0, true), "dragon.up.released", new UpAction(dragon, false, background));
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0, false), "dragon.down.pressed", new DownAction(dragon, true, background));
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0, true), "dragon.down.released", new DownAction(dragon, false,background));
-
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0, false), "dragon.left.pressed", new LeftAction(dragon, true, background));
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0, true), "dragon.left.released", new LeftAction(dragon, false, background));
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0, false), "dragon.right.pressed", new RightAction(dragon, true, background));
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0, true), "dragon.right.released", new RightAction(dragon, false, background));
+            synchronized (worldLock){
+                world.apply(GameInput.RESTART, true); // (this resets the world, and if we're recording, the restart gets recorded too)
+                resetSnapshot();
+            }
+        }
+
+        /**
+         * startRecording
+         * --------------
+         * Starts an InputJournal that records every key from now on (with the tick it got to the game on),
+         * and saves it to file when the program ends (we use a "shutdown hook" for that, since the window
+         * just ends the program when you close it).
+         */
+        private void startRecording(File file){
+            InputJournal journal = new InputJournal(FRAME_WIDTH, FRAME_HEIGHT);
+            world.setJournal(journal);
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                    @Override
+                    public void run() {
+                        synchronized (worldLock){
+                            journal.end(world.getStepCount());
+                            try {
+                                journal.save(file);
+                                System.out.println("saved " + journal.size() + " key presses (" + journal.getEndTick() + " ticks) to " + file);
+                            }
+                            catch (IOException e) {
+                                e.printStackTrace();
+                            }
+                        }
+                    }
+                });
+        }
+
+        /**
+         * saveMetricsOnExit
+         * -----------------
+         * Writes the world's EngineMetrics to a CSV file when the program ends (with a shutdown hook, like startRecording).
+         */
+        private void saveMetricsOnExit(File file){
+            Runtime.getRuntime().addShutdownHook(new Thread() {
+                    @Override
+                    public void run() {
+                        synchronized (worldLock){
+                            try {
+                                world.getMetrics().writeCsv(file);
+                                System.out.println("saved the metrics to " + file);
+                            }
+                            catch (IOException e) {
+                                e.printStackTrace();
+                            }
+                        }
+                    }
+                });
+        }
+
+        /**
+         * resetSnapshot
+         * -------------
+         * The background has jumped back to the start, so this makes sure painting doesn't interpolate from where it was.
+         * PRE: the caller is holding worldLock (or the GameLoop hasn't started yet).
+         */
+        private void resetSnapshot(){
+            Background background = world.getBackground();
+            this.previousBackgroundX = background.loc.x;
+            this.previousBackgroundY = background.loc.y;
+            this.snapshot = new GameSnapshot(gameLoop.getTick(), System.nanoTime(), background.loc.x, background.loc.y,
+                                             background.loc.x, background.loc.y);
+        }
+
+        /**
+         * bindKeys
+         * --------
+         * The keyBindings bind particular keys to Action objects..
+         * So for example, if they press the up arrow ("VK_UP"), it will create a new UpAction object,
+         * and that object will (because it's a descendent of the Action class), call its 
+         * ActionPerformed method (because an action -- the key pressing -- just occured).
+         * Note that for the arrow keys, there's an action that happens when you press the key,
+         * as well as an action that happens when you stop pressing the key.
+         * These Action objects are defined as inner classes down below.
+         * (They act on whatever's in the world when the key is pressed, so this only needs doing once,
+         *  even if the game gets restarted.)
+         * See about the getKeyStroke method here:
+         * https://docs.oracle.com/javase/7/docs/api/javax/swing/KeyStroke.html#getKeyStroke(int,%20int,%20boolean)
+         */
+        private void bindKeys(){
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0, false), "dragon.up.pressed", new UpAction(world, true));
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_UP, 0, true), "dragon.up.released", new UpAction(world, false));
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0, false), "dragon.down.pressed", new DownAction(world, true));
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0, true), "dragon.down.released", new DownAction(world, false));
+
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0, false), "dragon.left.pressed", new LeftAction(world, true));
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_LEFT, 0, true), "dragon.left.released", new LeftAction(world, false));
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0, false), "dragon.right.pressed", new RightAction(world, true));
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_RIGHT, 0, true), "dragon.right.released", new RightAction(world, false));
             //Press the space bar to shoot the fireball:
             addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_SPACE, 0, true), "space pressed: fire fireball", 
-                                                                                new SpaceAction(fireball));
+                                                                                new SpaceAction(world));
             // Press the R key to reset the game:
             addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_R, 0, true), "R pressed: restarting game", 
                                                                                 new R_Action(this));
-            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_I, 0, true), "I pressed: ", new I_Action(messageBox));
-        }
-        
-        
-        /**
-         * loadEggs
-         * --------
-         * This loads up all the eggs into the eggList.
-         * Here is where each egg is given its initial coordinates, 
-         * and the timing of when it appears, ripens, and hatches
-         * PRE: eggList is empty.  (Otherwise, it will get loaded up with more eggs here)
-         * POST: eggList will have a bunch of eggs in it.
-         */
-        private void loadEggs(){
-            // Each egg is passed the background and the dragon,
-            // as well as information about its initial location, 
-            // the number of seconds until it apppears,
-            // the number of seconds after it appears until it ripens (ready to eat),
-            // and the number of seconds after it ripens before it hatches.
-            this.eggList.add(new Egg(background, dragon, 1500, 850, 0, 10, 5));    // 1        
-            this.eggList.add(new Egg(background, dragon, 875, 2645, 0, 17, 5));    // 2
-            this.eggList.add(new Egg(background, dragon, 1800, 2893, 0, 23, 5 )); // 3   
-            this.eggList.add(new Egg(background, dragon, 2000, 2902, 0, 24, 5));  // 4
-            this.eggList.add(new Egg(background, dragon, 2500, 2893, 0 ,25, 5));  // 5
-            this.eggList.add(new Egg(background, dragon, 2010, 2537, 0 , 30, 5)); // 6
-            this.eggList.add(new Egg(background, dragon, 3400, 2031, 0 , 44, 5)); // 7
-            this.eggList.add(new Egg(background, dragon, 1964, 2013, 0 , 47, 5)); // 8
-            this.eggList.add(new Egg(background, dragon, 3840, 2335, 0 , 60, 5)); // 9
-            this.eggList.add(new Egg(background, dragon, 4239, 2960, 0 , 73, 5)); // 10
-            this.eggList.add(new Egg(background, dragon, 3225, 2705, 0 , 81, 5)); // 11
-            this.eggList.add(new Egg(background, dragon, 6000, 3000, 0 , 125, 10)); // 12
-            
+            addKeyBinding(KeyStroke.getKeyStroke(KeyEvent.VK_I, 0, true), "I pressed: ", new I_Action(world));
+
+            // Press M to show (or hide) the metrics. This doesn't change the game, so it doesn't go through the GameLoop
+            // (or get recorded); it just tells the FrameRenderer to draw them.
+            getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_M, 0, true), "M pressed: metrics");
+            getActionMap().put("M pressed: metrics", new AbstractAction() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        frameRenderer.toggleMetrics();
+                        if (activeRenderer == null) repaintWholeFrame();
+                    }
+                });
         }
 
-        
          /**
          * paintComponent
          * --------------
@@ -286,6 +428,8 @@ public class DragonFlier2
          * and it's what draws (and re-draws) everything on the screen
          * The Graphics object, g, automatically gets passed in too,
          *  and it's that object that will run all the drawing methods.
+         *  We draw the parts of the frame that have changed into frameImage, and then copy that onto the screen
+         *  (so if the window was just uncovered, say, nothing needs drawing again at all).
          *  PRE: none (since you don't call this method directly, you don't need to worry about it)
          *  POST: paints a bunch of stuff on the screen: 
          *        the background, the fireball, the eggs, the dragon, the score, the life left, the seconds elapsed,
@@ -293,147 +437,75 @@ public class DragonFlier2
          */
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            
-            // If we thought we might do something to the Graphics object that we wouldn't want to be permenant,
-            // We could create a copy of the Graphics object 
-            // (and maybe cast it to Graphics2d which has some extra methods):
-            // Graphics2D g2d = (Graphics2D) g.create();  // later we'll have to dispose of this Graphics object.
-            
-            // We pass the Graphics object to the background's draw method, so it can draw itself.
-            
-            // To get something (background, dragon, egg, etc.) to be drawn,
-            // Each thing has it's own draw method, and we just need to pass the Graphics object to it:
-            this.background.draw(g);       
-            this.fireball.draw(g);
-            if(messageBox.getRun()) {
-            	this.messageBox.draw(g);
-            }
-            
-            
-            for (Egg thisEgg: eggList){ // draw all the eggs in the eggList.
-                thisEgg.draw(g);
-            }
-            this.dragon.draw(g);
-            
-            displayScore(g);
-            
-            displayLifeLeft(g, 25,12, dragon.getLifeLeft());
-            
-            if (dragon.getLifeLeft() <= 0) displayYouDied(g);
-            
-            displaySecondsElapsed(g);
-
-            
-            //g2d.dispose(); // only needed if we created a new Graphics object copy.
+            if (activeRenderer != null) return; // the ActiveRenderer is drawing the game instead.
+            updateFrameImage();
+            g.drawImage(frameImage, 0, 0, null);
         }
-        
-        
-        /**
-         * displayScore
-         * ------------
-         * Just what it says!
-         * This is meant to be called inside the paintComponent method, since that's where the Graphics object g comes from.
-         * PRE: none
-         * POST: displays the score
-         */
-        public void displayScore(Graphics g){
-            g.setColor(Color.BLACK);
-            int fontSize = 36;
-            g.setFont(new Font("Arial", Font.PLAIN, fontSize)); 
-            // drop shadow in black:
-            g.drawString("SCORE: " + this.score, FRAME_WIDTH-201, 41);
-            g.setColor(Color.WHITE);
-            g.drawString("SCORE: " + this.score, FRAME_WIDTH-200, 40);
 
-        }
-
-        
         /**
-         * displayLifeLeft
+         * updateFrameImage
          * ----------------
-         * This displays a little rectangle that shows how much life you have left.
-         * green represents life you still have, while red represents life lost.
-         * the double lifeLeft is the percentage of life you have left.
-         * (So, for example,  if lifeLeft== .25, then the rectangle would be 25% green (on the left side),
-         *  and 75% red (on the right side).)
-         * x & y are where to place the top left corner of the rectangle.
-         * This method is meant to be called inside the paintComponent method, since that's where the Graphics object g comes from.
-         * PRE: 0 <= lifeLeft <= 1,  x & y are in a valid region of the screen (otherwise this might not get seen)
-         * POST: displays a rectangle showing how much life you have left next to the word "LIFE:"
+         * Draws the parts of frameImage that have changed since it was last drawn (all of it, the first time).
+         * PRE: we're on the Swing thread (only paintComponent calls this).
          */
-        public void displayLifeLeft(Graphics g, int x, int y, double lifeLeft) {
-            g.setColor(Color.BLACK);
-            int fontSize = 36;
-            g.setFont(new Font("Arial", Font.PLAIN, fontSize)); 
-            // drop shadow in black:
-            g.drawString("LIFE:" , x, y+32);
-            g.setColor(Color.WHITE);
-            g.drawString("LIFE:" , x+1, y+33);
-
-            x += 100; // move over to make room for the word LIFE.
-            int bigRecWidth = 250;
-            int bigRecHeight = 40;
-            int smallRecWidth = bigRecWidth - 10;
-            int smallRecHeight = bigRecHeight - 10;
-            int widthDiff = bigRecWidth - smallRecWidth;
-            int smallX = x + (widthDiff/2);
-            int heightDiff = bigRecHeight - smallRecHeight;
-            int smallY = y + (heightDiff/2);
-            // black outer rectangle:
-            g.setColor(Color.BLACK);
-            g.fillRect(x, y, bigRecWidth, bigRecHeight);
-            // red rectangle:
-            g.setColor(Color.RED);
-            g.fillRect(smallX, smallY, smallRecWidth, smallRecHeight);
-            // green (life) rectangle:
-            g.setColor(Color.GREEN);
-            g.fillRect(smallX, smallY, (int)((double)smallRecWidth * lifeLeft), smallRecHeight);
+        private void updateFrameImage(){
+            synchronized (regionToPaint){
+                regionBeingPainted.copyFrom(regionToPaint);
+                regionToPaint.clear();
+            }
+            if (frameImage == null){
+                frameImage = CompatibleImages.create(FRAME_WIDTH, FRAME_HEIGHT, Transparency.OPAQUE);
+                regionBeingPainted.markWholeFrame();
+            }
+            if (regionBeingPainted.isEmpty()) return;
+
+            Graphics2D g = frameImage.createGraphics();
+            regionBeingPainted.clip(g);
+            g.setColor(Color.BLACK); // (what super.paintComponent does for the window)
+            g.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+            renderFrame(g, regionBeingPainted.isWholeFrame());
+            g.dispose();
         }
 
         /**
-         * displayYouDied
-         * --------------
-         * This draws the words YOU DIED on the screen
-         * This method is meant to be called inside the paintComponent method, since that's where the Graphics object g comes from.
-         * PRE: none
-         * POST: draws the words "YOU DIED"
+         * renderFrame
+         * -----------
+         * Draws one frame of the game with g. This is used by paintComponent, and by the ActiveRenderer
+         * when we're doing active rendering, so the game looks the same either way.
+         * PRE: g is not null
          */
-        public void displayYouDied(Graphics g){
-            g.setColor(Color.WHITE);
-            int fontSize = 200;
-            g.setFont(new Font("Arial", Font.PLAIN, fontSize)); 
-            // drop shadow in black:
-            int x = 110;
-            int y = 525;
-            int shadowOffset = 3;
-            g.drawString("YOU  DIED" , x, y);
-            g.setColor(Color.RED);
-            g.drawString("YOU  DIED" , x + shadowOffset, y + shadowOffset);
-
+        private void renderFrame(Graphics g) {
+            renderFrame(g, true);
         }
-        
+
         /**
-         * displaySecondsElapsed
-         * ---------------------
-         * This displays the seconds elapsed since the beginning of the game.
-         * This method is meant to be called inside the paintComponent method, since that's where the Graphics object g comes from.
-         * PRE: this.startTime had been initialized at the beginning of the game.
-         * POST: draws the seconds elapsed at the top of the screen.
+         * renderFrame
+         * -----------
+         * The same, but if wholeFrame is false, g is clipped to the parts of the window that have changed.
          */
-        public void displaySecondsElapsed(Graphics g){
-            g.setColor(Color.BLACK);
-            int fontSize = 36;
-            g.setFont(new Font("Arial", Font.PLAIN, fontSize)); 
-            int x = 850;
-            int y = 35;
-            int shadowOffset = 3;
-            int seconds = (int)(System.currentTimeMillis() - this.startTime)/ 1000;
-            String s = "" + seconds;
-            g.drawString(s , x, y);
-            g.setColor(Color.YELLOW);
-            g.drawString(s , x + shadowOffset, y + shadowOffset);
+        private void renderFrame(Graphics g, boolean wholeFrame) {
+            // The simulation runs on a different thread, so we hold the worldLock while the FrameRenderer
+            // writes down what the frame shows (that way nothing moves halfway through), and let go of it before
+            // the frame is really drawn (the slow part), so the simulation doesn't have to wait for the drawing.
+            synchronized (worldLock){
+                // Painting usually happens in between two ticks. To keep the scrolling smooth, we draw the background
+                // (and everything that's drawn relative to it) part-way between where it was on the last two ticks.
+                // (The FrameRenderer is just told where to draw it; the background itself stays where it is.)
+                Background background = world.getBackground();
+                double backgroundX = background.loc.x;
+                double backgroundY = background.loc.y;
+                GameSnapshot s = this.snapshot;
+                if (s != null){
+                    double alpha = s.alpha(System.nanoTime(), gameLoop.getNanosPerTick());
+                    backgroundX = s.interpolatedX(alpha);
+                    backgroundY = s.interpolatedY(alpha);
+                }
+                frameRenderer.capture(world, wholeFrame, backgroundX, backgroundY);
+            }
+            frameRenderer.drawCaptured(g); // (doesn't look at the world, so it doesn't need the lock)
         }
-
+        
+        
         /**
          * addKeyBinding
          * -------------
@@ -452,173 +524,19 @@ public class DragonFlier2
             ActionMap am = getActionMap();
 
             im.put(ks, name);
-            am.put(name, action);
-        }
-
-        /**
-         * distance
-         * --------
-         * This calculates the distance between two points (x1,y1) and (x2,y2)
-         * using our old friend, the Pythagorean Theorem.
-         * PRE: none? 
-         * POST: an int returned representing the distance between (x1,y1) and (x2,y2)
-         */
-        public int distance(int x1, int y1, int x2, int y2){
-            int x_dist = Math.abs(x1-x2);
-            int y_dist = Math.abs(y1-y2);
-            int x_squared = x_dist * x_dist;
-            int y_squared = y_dist * y_dist;
-
-            return (int)Math.sqrt(x_squared + y_squared);
-        }
-
-        /** distance: 
-         *  ---------
-         *  a version that takes in doubles: 
-         */
-        private int distance(double x1, double y1, double x2, double y2){
-            int x_dist = Math.abs((int)(x1-x2));
-            int y_dist = Math.abs((int)(y1-y2));
-            int x_squared = x_dist * x_dist;
-            int y_squared = y_dist * y_dist;
-
-            return (int)Math.sqrt(x_squared + y_squared);
-        }
-
-        /**
-         * distance
-         * ---------
-         * a version to calculate the distance between the dragon and an egg.
-         * PRE: d and e aren't null
-         * POST: returns pixel distance between d and e
-         */
-        private int distance(Dragon d, Egg e){
-            if (d == null || e == null) return 0;
-            return distance(d.getX(), d.getY(), e.getX(), e.getY());
-
-        }
-
-        /**
-         * collisionchecker
-         * ----------------
-         * This checks for dragon collision with eggs/creatures  and fireball collision with eggs:
-         * (Note: this method DOES NOT check for collisions with the WALL (i.e, background), since each moving object 
-         *  -- dragon, egg fireball -- deals with possible collisions with the wall in their own move methods.)
-         *  When collisions are detected, it does the appropriate thing.  For example:
-         *  If the dragon collides with an "egg", then it checks the egg's eggStage. 
-         *     If the eggStage is "ready to eat", then the egg is eaten and score goes up.
-         *     If the eggStage is "not ready to eat", then egg is eaten and health goes down by a ten percent.
-         *     If the eggStage is "hatched", then if it's hungry, it'll reduce dragon's life a bit and then be not hungry for a couple of seconds
-         *  If the fireball collides with an egg, then (so long as the fireball isn't in smoke form), again we check the stage of the egg:
-         *     If the eggStage is "hatched", then the creature is shot and the fireball disappears
-         *     If the egg isn't hatched yet, then you lose a point for destroying an egg that could have been eaten.
-         *  PRE: loadEggs() has been called
-         *  POST: eggs, dragon, and fireball have all been updated in light of any possible collisions.
-         */
-        public void collisionchecker() {
-            // check for dragon collision with eggs  and fireball collision with eggs:
-
-            int eggDragonCollisionDistance = dragon.getImageWidth()/3;
-            int eggFireballCollisionDistance = fireball.imageWidth * 2; 
-            
-            for(Egg thisEgg: eggList){
-                int eggDragonDistance = distance(thisEgg.getX()+background.loc.x, thisEgg.getY()+background.loc.y, 
-                        dragon.getX(), dragon.getY());
-
-                // check for dragon-egg collisions:
-                if (eggDragonDistance < eggDragonCollisionDistance){
-                    if (thisEgg.stage == eggStage.READYTOEAT){
-
-                        this.score++;
-                        thisEgg.getEaten();
-                    }
-                    else if (thisEgg.stage == eggStage.NOTREADYTOEAT){
-
-                        // eating raw eggs doesn't affect your score, just your life:
-                        dragon.subtractLife(0.1); // a tenth of your life is lost!
-                        System.out.println("That egg was not ready to be eaten!");
-                        thisEgg.getEaten();
-
-                    }
-                    else if (thisEgg.stage == eggStage.HATCHED){
-                        // life goes down!
-                        if (thisEgg.isHungry == true) {
-                            dragon.subtractLife(this.creatureDamage);
-                            thisEgg.tookABiteOfTheDragon();
-                        }
-                        
-                        // bounce the creature back a little:
-                        thisEgg.loc.xv = -thisEgg.loc.xv;
-                        thisEgg.loc.yv = -thisEgg.loc.yv;
-
-                        // just in case the creature is moving slowly so the bounce isn't noticable, make it a big bounce:
-                        if (Math.abs(thisEgg.loc.xv) < 2){
-                            if (thisEgg.loc.xv < 0) thisEgg.loc.xv = -5;
-                            else thisEgg.loc.xv = 5;
-                        }
-                        if (Math.abs(thisEgg.loc.yv) < 2){
-                            if (thisEgg.loc.yv < 0) thisEgg.loc.yv = -5;
-                            else thisEgg.loc.yv = 5;
-                        }
-
-                    }
-                }
-
-                // Check for the fireball hitting the egg (or creature):
-                // (but only if it's been fired and is in fireball (not smoke) form)
-                if (fireball.hasFired() && fireball.currentFireballImage == fireball.fireballImage){
-                    // first check if the egg is still in egg form (in which case you lose a point for shooting it):
-                    if (thisEgg.stage == eggStage.READYTOEAT || thisEgg.stage == eggStage.NOTREADYTOEAT){
-                        int eggFireballDistance = distance(thisEgg.getX(), thisEgg.getY(), 
-                                fireball.getX(), fireball.getY());
-                        if (eggFireballDistance < eggFireballCollisionDistance){
-                            thisEgg.stage = eggStage.EATEN;
-                            this.score--;
-                            System.out.println("Your fireball hit an egg! how sad!");
-                        }
-                    }
-                    // then check if the egg has hatched and is in creature form:
-                    else if (thisEgg.stage == eggStage.HATCHED && fireballHasHitTheCreature(thisEgg)){
-                        //thisEgg.stage = eggStage.KILLED;
-                        thisEgg.creatureShot();
-                        //this.score++; // killing the creature doesn't get you points, it just saves you.
-                        fireball.setFired(false);
-                        System.out.println("You killed the creature!");
+            // Key presses come in on the Swing thread, but the game runs on the simulation thread,
+            // so instead of doing the action right away, we hand it to the GameLoop to do before the next tick:
+            am.put(name, new AbstractAction() {
+                    @Override
+                    public void actionPerformed(ActionEvent e) {
+                        gameLoop.post(new Runnable() {
+                                @Override
+                                public void run() {
+                                    action.actionPerformed(e);
+                                }
+                            });
                     }
-                }
-
-            }
-        } // end collisionChecker()
-        
-
-        /**
-         * fireballHasHitTheCreature
-         * -------------------------
-         * This returns a boolean if the fireball is currently hitting the creature.
-         * It does so by checking the center of the fireball as well as 4 points at the corners
-         * (NW, NE, SW, SE), of the fireball, to see if any of them overlapped with 
-         * non-transparent parts of the creature's image.
-         * PRE: this should only be called if the creature has hatched and not been killed., e is not null.
-         * POST: returns true if this.fireball has hit the egg, false otherwise.
-         */
-        public boolean fireballHasHitTheCreature(Egg e){
-            if (e == null) return false;
-
-            int fx = (int)(this.fireball.getX() );
-            int fy = (int)(this.fireball.getY() );
-            //System.out.println("fireball (" + fx + ", " + fy + "), creature(" + e.getX() + ", " + e.getY() + ")");
-            int offset = this.fireball.imageWidth/4;
-            // we'll check the center of the fireball, then 4 points at 
-            // the upper left, upper right, lower left, and lower right,
-            // to see if any of those coincide with non-transparent parts of the creature image:
-            // (These coordinates are relative to the background image.)
-            if (e.notTransparentAt(fx, fy) || 
-            e.notTransparentAt(fx-offset, fy-offset) ||
-            e.notTransparentAt(fx+offset, fy-offset) ||
-            e.notTransparentAt(fx-offset, fy+offset) ||
-            e.notTransparentAt(fx+offset, fy+offset)) return true;
-            else return false;
-
+                });
         }
 
         /*   // not needed.
@@ -646,92 +564,79 @@ public class DragonFlier2
      */
 
     public class UpAction extends AbstractAction {
-        private Dragon dragon;
+        private GameWorld world;
         private boolean pressed;
-        private Background background;
 
-        public UpAction(Dragon d, boolean pressed, Background b) {
-            this.dragon = d;
+        public UpAction(GameWorld world, boolean pressed) {
+            this.world = world;
             this.pressed = pressed;
-            this.background = b;
         }
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            background.setUp(pressed); // "setUP" means set the background to the "UP" condition, since it person just pressed the UP button.
+            world.apply(GameInput.UP, pressed); // (this sets the background to the "UP" condition)
         }
 
     }
 
     public class DownAction extends AbstractAction {
-        private Dragon dragon;
+        private GameWorld world;
         private boolean pressed;
-        private Background background;
 
-        public DownAction(Dragon d, boolean pressed, Background b) {
-            this.dragon = d;
+        public DownAction(GameWorld world, boolean pressed) {
+            this.world = world;
             this.pressed = pressed;
-            this.background = b;
         }
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            background.setDown(pressed);
+            world.apply(GameInput.DOWN, pressed);
         }
 
     }
 
     public class LeftAction extends AbstractAction {
-        private Dragon dragon;
+        private GameWorld world;
         private boolean pressed;
-        private Background background;
 
-        public LeftAction(Dragon d, boolean pressed, Background b) {
-            this.dragon = d;
+        public LeftAction(GameWorld world, boolean pressed) {
+            this.world = world;
             this.pressed = pressed;
-            this.background = b;
         }
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            dragon.setLeft(pressed); 
-            dragon.setFacingRight(false);
-            background.setRight(pressed); // pressing left makes the backround move right
+            world.apply(GameInput.LEFT, pressed); // pressing left makes the backround move right
         }
 
     }
 
     public class RightAction extends AbstractAction {
-        private Dragon dragon;
+        private GameWorld world;
         private boolean pressed;
-        private Background background;
 
-        public RightAction(Dragon d, boolean pressed, Background b) {
-            this.dragon = d;
+        public RightAction(GameWorld world, boolean pressed) {
+            this.world = world;
             this.pressed = pressed;
-            this.background = b;
         }
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            dragon.setRight(pressed);
-            dragon.setFacingRight(true);
-            background.setLeft(pressed); // pressing right makes the background move left.
+            world.apply(GameInput.RIGHT, pressed); // pressing right makes the background move left.
         }
 
     }
 
     public class SpaceAction extends AbstractAction {
-        private Fireball fireball;
+        private GameWorld world;
 
-        public SpaceAction(Fireball f) {
-            this.fireball = f;
+        public SpaceAction(GameWorld world) {
+            this.world = world;
         }
 
         @Override
         public void actionPerformed(ActionEvent e) {
-            //if (!fireball.fired) fireball.fire();
-            fireball.fire();
+            world.apply(GameInput.FIRE, true);
         }
     }
     
@@ -743,22 +648,20 @@ public class DragonFlier2
         }
         @Override
         public void actionPerformed(ActionEvent e) {
-            System.out.println("You typed 'R' so we'll RESTART the game!");
-            this.gamePane.initialize();
+            this.gamePane.initialize(); // (the world says "You typed 'R'...")
         }
     }
     
     public class I_Action extends AbstractAction {
-    	private MessageBox messageBox;
-        public I_Action(MessageBox g){
-            this.messageBox = g;
+    	private GameWorld world;
+        public I_Action(GameWorld world){
+            this.world = world;
             
         }
         
 		@Override
         public void actionPerformed(ActionEvent e) {
-            System.out.println("You typed I. ");
-            messageBox.setRun(true);
+            world.apply(GameInput.INFO, true);
             
         }
     }
@@ -14,6 +14,10 @@ import java.awt.Graphics;
 public abstract class DragonGameShape
 {
     protected LocationAndVelocity loc;
+
+    // Somewhere for a subclass's nextLoc() to work out the next location, without making a new object every tick.
+    // (So whatever nextLoc() returns gets overwritten the next time it's called; copy it with loc.set() if you need to keep it.)
+    protected final LocationAndVelocity scratchLoc = new LocationAndVelocity();
     
     public DragonGameShape(){
         this.loc = new LocationAndVelocity();
@@ -3,8 +3,7 @@ import java.awt.Dimension;
 import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.Transparency;
 import java.awt.event.KeyEvent;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -13,7 +12,6 @@ import javax.swing.InputMap;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
-import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import java.io.File;
@@ -22,7 +20,7 @@ import java.io.IOException;
 import javax.imageio.ImageIO;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
-import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Egg
@@ -38,6 +36,31 @@ public class Egg extends DragonGameShape{
     
     int amountOfBlueness = 0; // the bluer it is, the more ready to eat.
     int amountOfBluenessAddedEachTime = 5;
+
+    // the color for each amountOfBlueness, made once for all the eggs (so getting bluer doesn't make a new Color every time):
+    private static final Color[] BLUES = new Color[256];
+    static {
+        for (int blueness = 0; blueness < BLUES.length; blueness++){
+            BLUES[blueness] = new Color(255 - blueness, 255 - blueness, 255);
+        }
+    }
+
+    // how big an egg is (before it hatches):
+    private static final int EGG_WIDTH = 20;
+    private static final int EGG_HEIGHT = 30;
+
+    // the egg drawn in each color in BLUES (and with the red dot, for when it's ready to eat), by amountOfBlueness.
+    // Copying a little image onto the screen looks exactly the same whatever part of the window is being drawn
+    // (filling an oval can come out a pixel different at the edges when only some of the window is being drawn -- see DirtyRegion).
+    // They're all made here, once, and never changed after that, so any thread that draws eggs can use them.
+    private static final BufferedImage[] EGG_IMAGES = new BufferedImage[BLUES.length];
+    private static final BufferedImage[] READY_EGG_IMAGES = new BufferedImage[BLUES.length];
+    static {
+        for (int blueness = 0; blueness < BLUES.length; blueness++){
+            EGG_IMAGES[blueness] = makeEggImage(BLUES[blueness], false);
+            READY_EGG_IMAGES[blueness] = makeEggImage(BLUES[blueness], true);
+        }
+    }
     
     // We need access to the background and the dragon in order to draw the creature
     // relative to the background and bounce off walls and go towards the dragon:
@@ -51,45 +74,129 @@ public class Egg extends DragonGameShape{
     int imageHeight = 10; 
     
     // the size to draw the egg:
-    int eggWidth = 20;
-    int eggHeight = 30;
+    int eggWidth = EGG_WIDTH;
+    int eggHeight = EGG_HEIGHT;
     
     // an image for the creature (hatched) stage is stored here:
     // (This is the CURRENT image -- this will change a lot since it's animated.)
     BufferedImage creatureImage;
     
     // list of all the creature images for animating the creature:
-    ArrayList<BufferedImage> creatureImageList = new ArrayList<>(); 
+    // (these are shared by every egg -- see the Sprites class)
+    List<BufferedImage> creatureImageList; 
     // list of all the images for the creatures when they're on fire:
     // (when the dragon shoots fire and hits the creature, the animation changes)
-    ArrayList<BufferedImage> creatureFireImageList = new ArrayList<>(); 
+    List<BufferedImage> creatureFireImageList; 
+    // the collision masks that go with each of those images (same order),
+    // and the one that goes with the current creatureImage:
+    List<CollisionMask> creatureMaskList;
+    List<CollisionMask> creatureFireMaskList;
+    CollisionMask creatureMask;
 
     int whichCreature = 0; // index of which image in creatureImageList to use.
     int whichCreatureFire = 0; // index of which image in creatureFireImageList to use
     
-    int numberOfDraws = 0 ; // how many times the draw command has been called.
-                            // useful if we want to do something every x number of draws.
+    // The creature's animation runs on game time (not on how often it gets drawn), so it's the same whether the game
+    // is being drawn or not: it flips to its next picture every TICKS_PER_PICTURE ticks, and once it's been shot,
+    // it shrinks a little every TICKS_PER_SHRINK ticks. (The picture and its size are what its collision mask and
+    // planMove() use, so they're part of the game, not just how it looks -- see animate().)
+    // animationStartTick is the tick it hatched (or got shot) on, and timesShrunk is how many times it's shrunk since it got shot.
+    static final int TICKS_PER_PICTURE = 33; // (about every 11 frames, like it used to be)
+    static final int TICKS_PER_SHRINK = 3;
+    long animationStartTick = 0;
+    int timesShrunk = 0;
+
+    // where planMove() works out the creature's next location (see CreatureUpdater):
+    final LocationAndVelocity nextState = new LocationAndVelocity();
+
+    // for the CreatureUpdater's level of detail: the last tick the creature was moved on, and which of the ticks
+    // it gets moved on when it's far from the dragon (worked out from where the egg is, so it's the same every game):
+    long lastMovedTick = 0;
+    int updatePhase = 0;
+
+    // which cell of the game's SpatialHash this egg is filed under (only the SpatialHash changes these):
+    long spatialCell = 0;
+    boolean inSpatialHash = false;
+
+    // the EggStore this egg is in, and its slot there (null and -1 if it's not in one; only the EggStore changes these):
+    EggStore store = null;
+    int storeSlot = -1;
+
+    // true while the egg is sitting in an EggPool waiting to be used again (only the EggPool changes this):
+    boolean inPool = false;
+
+    // which of the level's eggs this is (or -1 if it didn't come from the level), and true once its region has been put away
+    // because the dragon went far away from it, so the GameWorld takes it out of the game (only the LevelStreamer changes these):
+    int levelEggNumber = -1;
+    boolean putAway = false;
+
+    // what the egg looked like, and where it was in the window, the last time it was drawn
+    // (so the FrameRenderer can tell whether that part of the window needs drawing again).
+    // drawnFrame is the number of the FrameRenderer's frame it was drawn in (only the FrameRenderer changes these -- see rememberDrawn()):
+    eggStage drawnStage = null;
+    Color drawnColor = null;
+    int drawnX = 0, drawnY = 0, drawnWidth = 0, drawnHeight = 0;
+    long drawnFrame = -1;
     
     
     // The following variables keep track of when it will move through the different stages.
-    // The Swing Timers are used to have trigger events after a certain time:
-    Timer timerUntilEggAppears = null;
+    // Each of these Tasks is run by the game's TimingWheel (the "clock") when its time comes.
+    // (The clock only moves when the game does, so pausing the game pauses all of these too.)
+    TimingWheel clock;
     double secondsItTakesUntilTheEggAppears = 0.5; // default value
-    Timer timerToKeepGettingBluer = null;
-    Timer timerUntilEggReadyToEat = null;
     double secondsItTakesUntilTheEggIsReadyToEat = 9.0; // default value
-    Timer timerUntilEggHatches = null;
     double secondsItTakesUntilTheEggHatches = 9.0; // default value
-    Timer timerUntilKilledCreatureDisappears = null;
-    Timer timerUntilHungryAgain = null;
+    long ticksBetweenBlueIncreases = 1; // worked out in eggAppears()
+
+    final TimingWheel.Task timerUntilEggAppears = new TimingWheel.Task() {
+            @Override
+            public void run() {
+                eggAppears();
+            }
+        };
+    final TimingWheel.Task timerToKeepGettingBluer = new TimingWheel.Task() {
+            @Override
+            public void run() {
+                increaseBlueness();
+                // keep going until it's all the way blue:
+                if (amountOfBlueness < 255) clock.schedule(this, ticksBetweenBlueIncreases);
+            }
+        };
+    final TimingWheel.Task timerUntilEggReadyToEat = new TimingWheel.Task() {
+            @Override
+            public void run() {
+                eggReadyToEat();
+            }
+        };
+    final TimingWheel.Task timerUntilEggHatches = new TimingWheel.Task() {
+            @Override
+            public void run() {
+                eggHatches();
+            }
+        };
+    final TimingWheel.Task timerUntilKilledCreatureDisappears = new TimingWheel.Task() {
+            @Override
+            public void run() {
+                stage = eggStage.NONEXISTENT;
+                tellStore();
+            }
+        };
+    final TimingWheel.Task timerUntilHungryAgain = new TimingWheel.Task() {
+            @Override
+            public void run() {
+                isHungry = true;
+                tellStore();
+            }
+        };
 
     /**
      * constructors:
      * -------------
      */
-    public Egg(Background b, Dragon d, int x, int y) {
+    public Egg(Background b, Dragon d, TimingWheel clock, int x, int y) {
         this.background = b;
         this.dragon = d;
+        this.clock = clock;
         this.stage = eggStage.NONEXISTENT; // later we'll change this.
         this.loc.x = x;
         this.loc.y = y;
@@ -102,14 +209,43 @@ public class Egg extends DragonGameShape{
 
     } // end constructor
     
-    public Egg(Background b, Dragon d, int x, int y, double secondsToAppear, double secondsToBeReadyToEat, double secondsToHatch){
+    public Egg(Background b, Dragon d, TimingWheel clock, int x, int y, double secondsToAppear, double secondsToBeReadyToEat, double secondsToHatch){
+        reuse(b, d, clock, x, y, secondsToAppear, secondsToBeReadyToEat, secondsToHatch);
+    }
+
+    /**
+     * reuse
+     * -----
+     * Turns this egg back into a brand new one, just like the constructor above would make
+     * (this is how the EggPool hands out an old egg instead of making a new one).
+     * Any timers it still had going on its old clock are cancelled first.
+     * PRE: the egg isn't in a SpatialHash, and nothing else is still using it.
+     * POST: stage == NONEXISTENT, and the timer for it to appear is started on the new clock.
+     */
+    public void reuse(Background b, Dragon d, TimingWheel clock, int x, int y, double secondsToAppear, double secondsToBeReadyToEat, double secondsToHatch){
+        if (this.clock != null) turnOffEveryTimer();
         this.background = b;
         this.dragon = d;
+        this.clock = clock;
         this.stage = eggStage.NONEXISTENT; // later we'll change this.
         this.loc.x = x;
         this.loc.y = y;
+        this.loc.xv = 0;
+        this.loc.yv = 0;
         this.loc.maxVelocity = d.getMaxVelocity() * 0.5;
         this.isHungry = true;
+        this.color = Color.WHITE;
+        this.amountOfBlueness = 0;
+        this.whichCreature = 0;
+        this.whichCreatureFire = 0;
+        this.animationStartTick = 0;
+        this.timesShrunk = 0;
+        this.imageWidth = 20;
+        this.imageHeight = 10;
+        this.lastMovedTick = 0;
+        this.levelEggNumber = -1;
+        this.putAway = false;
+        this.updatePhase = Math.floorMod(x * 31 + y, CreatureUpdater.COARSE_TICKS);
         this.secondsItTakesUntilTheEggAppears = secondsToAppear; // default value
         this.secondsItTakesUntilTheEggIsReadyToEat = secondsToBeReadyToEat; // default value
         this.secondsItTakesUntilTheEggHatches = secondsToHatch; // default value
@@ -123,61 +259,33 @@ public class Egg extends DragonGameShape{
     /**
      * startEggTimerForEggToAppear
      * ---------------------------
-     * This just starts the Timer that will control when the egg will first appear
+     * This just starts the timer that will control when the egg will first appear
      * PRE: secondsItTakesUntilTheEggAppears must have been previously set (and be > 0)
      * POST: timer will start. At the end of the timer, the egg will move into the NOTREADYTOEAT stage.
      */
     private void startEggTimerForEggToAppear(){
-        int timeUntilEggAppears = (int)(this.secondsItTakesUntilTheEggAppears * 1000.0);
-        timerUntilEggAppears = new Timer(timeUntilEggAppears, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    // We start in the non-existent phase
-                    // If we want to have a different timing for each event
-                    // (nonexistent, notReadyToEat, ReadyToEAt),
-                    // we'll need different timers for that
-                    eggAppears();
-
-                }
-            });
-        timerUntilEggAppears.setRepeats(false);    
-        timerUntilEggAppears.start();
-        
+        clock.schedule(timerUntilEggAppears, clock.ticksFor(this.secondsItTakesUntilTheEggAppears * 1000.0));
     }
     
     /**
      * loadImages
      * ----------
-     * This is just a helper method for the constructors, to load all the images we need
+     * This is just a helper method for the constructors, to get all the images we need.
+     * The images are only decoded once for all the eggs (by the Sprites class), so this is quick.
      * PRE: all the images are in the images folder!
      * POST: images are ready to go.
      */
     private void loadImages(){
-        try {
-            
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall1.png")));
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall2.png")));
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall3.png")));
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall4.png")));
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall5.png")));
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall6.png")));
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall7.png")));
-            this.creatureImageList.add(ImageIO.read(new File("images/creatureSmall8.png")));
-            this.creatureImage = this.creatureImageList.get(0); // current image.
-            
-            this.creatureFireImageList.add(ImageIO.read(new File("images/creatureFire1.png")));
-            this.creatureFireImageList.add(ImageIO.read(new File("images/creatureFire2.png")));
-            this.creatureFireImageList.add(ImageIO.read(new File("images/creatureFire3.png")));
-            this.creatureFireImageList.add(ImageIO.read(new File("images/creatureFire4.png")));
-            
-
-            this.imageWidth = this.creatureImage.getWidth();
-            this.imageHeight = this.creatureImage.getHeight();
-
-        }
-        catch (IOException e) {
-            e.printStackTrace();
-        }
+        this.creatureImageList = Sprites.creatureImages();
+        this.creatureFireImageList = Sprites.creatureFireImages();
+        this.creatureMaskList = Sprites.creatureMasks();
+        this.creatureFireMaskList = Sprites.creatureFireMasks();
+        if (this.creatureImageList.isEmpty()) return; // the images couldn't be loaded.
+
+        this.creatureImage = this.creatureImageList.get(0); // current image.
+        this.creatureMask = this.creatureMaskList.get(0);
+        this.imageWidth = this.creatureImage.getWidth();
+        this.imageHeight = this.creatureImage.getHeight();
     }
 
     /**
@@ -188,27 +296,13 @@ public class Egg extends DragonGameShape{
      */
     public void eggAppears(){
         stage = eggStage.NOTREADYTOEAT;
-        int timeUntilEggReadyToEat = (int)(this.secondsItTakesUntilTheEggIsReadyToEat * 1000.0);
-        timerUntilEggReadyToEat = new Timer(timeUntilEggReadyToEat, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
+        double timeUntilEggReadyToEat = this.secondsItTakesUntilTheEggIsReadyToEat * 1000.0;
+        clock.schedule(timerUntilEggReadyToEat, clock.ticksFor(timeUntilEggReadyToEat));
 
-                    eggReadyToEat();
-
-                }
-            });
-        timerUntilEggReadyToEat.setRepeats(false);    
-        timerUntilEggReadyToEat.start();
-
-        int eachBlueIncreaseHappensThisOften = timeUntilEggReadyToEat / (255/amountOfBluenessAddedEachTime);
-        timerToKeepGettingBluer = new Timer(eachBlueIncreaseHappensThisOften, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    increaseBlueness();
-                }
-            });
-
-        timerToKeepGettingBluer.start();
+        double eachBlueIncreaseHappensThisOften = timeUntilEggReadyToEat / (255/amountOfBluenessAddedEachTime);
+        ticksBetweenBlueIncreases = clock.ticksFor(eachBlueIncreaseHappensThisOften);
+        clock.schedule(timerToKeepGettingBluer, ticksBetweenBlueIncreases);
+        tellStore();
 
     }
 
@@ -226,9 +320,9 @@ public class Egg extends DragonGameShape{
         this.amountOfBlueness += amountOfBluenessAddedEachTime;
         if (this.amountOfBlueness > 255) {
             this.amountOfBlueness = 255; // 255 is max.
-            this.timerToKeepGettingBluer.stop();
+            clock.cancel(this.timerToKeepGettingBluer);
         }
-        this.color = new Color(255-this.amountOfBlueness,255-this.amountOfBlueness,255);
+        this.color = BLUES[this.amountOfBlueness]; // (the same as new Color(255-amountOfBlueness, 255-amountOfBlueness, 255))
 
     }
 
@@ -249,17 +343,8 @@ public class Egg extends DragonGameShape{
 
         }
         stage = eggStage.READYTOEAT;
-        int timeUntilEggHatches = (int)(this.secondsItTakesUntilTheEggHatches * 1000.0);
-        timerUntilEggHatches = new Timer(timeUntilEggHatches, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-
-                    eggHatches();
-
-                }
-            });
-        timerUntilEggHatches.setRepeats(false);    
-        timerUntilEggHatches.start();
+        clock.schedule(timerUntilEggHatches, clock.ticksFor(this.secondsItTakesUntilTheEggHatches * 1000.0));
+        tellStore();
 
     }
 
@@ -274,10 +359,14 @@ public class Egg extends DragonGameShape{
     public void eggHatches(){
         // we need to check the stage before we hatch because maybe it's already been eaten or something.
         if (stage == eggStage.READYTOEAT) stage = eggStage.HATCHED;
+        animationStartTick = clock.getTick();
 
         //this.color = new Color(255,0,0);
-        System.out.println("AN EGG HAS HATCHED!!!! ");
+        // (this used to print "AN EGG HAS HATCHED!!!!", but that's a lot of printing with lots of eggs;
+        //  the EngineMetrics count how many eggs are hatched instead)
         isHungry = true;
+        lastMovedTick = clock.getTick() - 1; // (so the CreatureUpdater moves it one tick's worth on this tick, like always)
+        tellStore();
 
     }
 
@@ -295,24 +384,70 @@ public class Egg extends DragonGameShape{
     public void creatureShot(){
         if (this.stage != eggStage.HATCHED) return; // it shouldn't get here.
         this.stage = eggStage.KILLED;
+        tellStore();
+        if (this.creatureFireImageList.isEmpty()) return; // the images couldn't be loaded.
         this.creatureImage = this.creatureFireImageList.get(0);
+        this.creatureMask = this.creatureFireMaskList.get(0);
         this.imageWidth = creatureImage.getWidth();
         this.imageHeight = creatureImage.getHeight();
-        this.numberOfDraws = 0;
-        this.whichCreature = 1;
+        this.whichCreatureFire = 0;
+        this.animationStartTick = clock.getTick();
+        this.timesShrunk = 0;
 
         int timeUntilKilledCreatureDisappears = 3000;
-        this.timerUntilKilledCreatureDisappears = new Timer(timeUntilKilledCreatureDisappears, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
+        clock.schedule(this.timerUntilKilledCreatureDisappears, clock.ticksFor(timeUntilKilledCreatureDisappears));
+
+    }
+
+    /**
+     * isUntouched
+     * -----------
+     * True if nothing has happened to the egg except its timers: it hasn't hatched (or been eaten or shot).
+     * An egg like that is just where the level put it, so saveState() has everything about it.
+     */
+    public boolean isUntouched(){
+        return stage == eggStage.NONEXISTENT || stage == eggStage.NOTREADYTOEAT || stage == eggStage.READYTOEAT;
+    }
 
-                    stage = eggStage.NONEXISTENT; 
+    // how many ints saveState() writes for each egg:
+    static final int SAVED_STATE_INTS = 7;
 
-                }
-            });
-        this.timerUntilKilledCreatureDisappears.setRepeats(false);    
-        this.timerUntilKilledCreatureDisappears.start();
+    /**
+     * saveState
+     * ---------
+     * Writes down what restoreState() needs to make an egg from the level just like this one again:
+     * its stage, how blue it is, and how many ticks each of its egg timers has left to go. It takes SAVED_STATE_INTS ints,
+     * starting at state[at]. (Its location and the seconds for each stage come from the level, so they aren't in there.)
+     * PRE: isUntouched()
+     */
+    public void saveState(int[] state, int at){
+        state[at] = stage.ordinal();
+        state[at + 1] = amountOfBlueness;
+        state[at + 2] = (int) ticksBetweenBlueIncreases;
+        state[at + 3] = (int) clock.ticksUntil(timerUntilEggAppears);
+        state[at + 4] = (int) clock.ticksUntil(timerToKeepGettingBluer);
+        state[at + 5] = (int) clock.ticksUntil(timerUntilEggReadyToEat);
+        state[at + 6] = (int) clock.ticksUntil(timerUntilEggHatches);
+    }
 
+    /**
+     * restoreState
+     * ------------
+     * Puts back what saveState() wrote down: the stage, the blueness, and each egg timer with the ticks it had left.
+     * PRE: the egg was just made (or reused) with the same level settings as the one that was saved.
+     * POST: the egg is just like the one that was saved was (as if no time had gone by since).
+     */
+    public void restoreState(int[] state, int at){
+        turnOffAllEggTimers();
+        this.stage = eggStage.values()[state[at]];
+        this.amountOfBlueness = state[at + 1];
+        this.color = (amountOfBlueness == 0) ? Color.WHITE : BLUES[amountOfBlueness];
+        this.ticksBetweenBlueIncreases = state[at + 2];
+        if (state[at + 3] >= 0) clock.schedule(timerUntilEggAppears, state[at + 3]);
+        if (state[at + 4] >= 0) clock.schedule(timerToKeepGettingBluer, state[at + 4]);
+        if (state[at + 5] >= 0) clock.schedule(timerUntilEggReadyToEat, state[at + 5]);
+        if (state[at + 6] >= 0) clock.schedule(timerUntilEggHatches, state[at + 6]);
+        tellStore();
     }
 
     /**
@@ -328,19 +463,10 @@ public class Egg extends DragonGameShape{
      *       timerUntilHungryAgain is started (when it goes off, isHungry will be set to true)
      */
     public void tookABiteOfTheDragon(){
-        System.out.println("took a bite of dragon!");
         this.isHungry = false;
         int timeUntilHungryAgain = 1000;
-        this.timerUntilHungryAgain = new Timer(timeUntilHungryAgain, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-
-                    isHungry = true; 
-
-                }
-            });
-        this.timerUntilHungryAgain.setRepeats(false);    
-        this.timerUntilHungryAgain.start();
+        clock.schedule(this.timerUntilHungryAgain, clock.ticksFor(timeUntilHungryAgain));
+        tellStore();
 
     }
     
@@ -348,15 +474,38 @@ public class Egg extends DragonGameShape{
      * turnOffAllEggTimers
      * -------------------
      * It does what it says.
-     * PRE: timers aren't null, and have started. (if not, nothing happens)
+     * PRE: none (timers that aren't going are just left alone)
      * POST: all timers are stopped
      */
     public void turnOffAllEggTimers(){
-        if (timerUntilEggAppears != null) timerUntilEggAppears.stop();
-        if (timerToKeepGettingBluer != null)timerToKeepGettingBluer.stop();
-        if (timerUntilEggReadyToEat != null)timerUntilEggReadyToEat.stop();
-        if (timerUntilEggHatches != null)timerUntilEggHatches.stop();
-        if (timerUntilHungryAgain != null)timerUntilHungryAgain.stop();
+        clock.cancel(timerUntilEggAppears);
+        clock.cancel(timerToKeepGettingBluer);
+        clock.cancel(timerUntilEggReadyToEat);
+        clock.cancel(timerUntilEggHatches);
+        clock.cancel(timerUntilHungryAgain);
+    }
+
+    /**
+     * turnOffEveryTimer
+     * -----------------
+     * Like turnOffAllEggTimers, but this also stops the timer for a killed creature to disappear
+     * (so nothing is left on the clock that could change this egg later).
+     */
+    public void turnOffEveryTimer(){
+        turnOffAllEggTimers();
+        clock.cancel(timerUntilKilledCreatureDisappears);
+    }
+
+    /**
+     * isDead
+     * ------
+     * True once the egg is gone for good: it's been eaten (or shot before it hatched),
+     * or it hatched, got shot, and has burned up (so it's NONEXISTENT again, with nothing left to wait for).
+     * (An egg that's NONEXISTENT because it hasn't appeared yet isn't dead.)
+     * Dead eggs never get drawn, moved or hit by anything, so the GameWorld can take them out of the game.
+     */
+    public boolean isDead(){
+        return stage == eggStage.EATEN || (stage == eggStage.NONEXISTENT && !timerUntilEggAppears.isScheduled());
     }
 
     /**
@@ -397,18 +546,72 @@ public class Egg extends DragonGameShape{
 
         }
         this.stage = eggStage.EATEN;
+        tellStore();
 
     }
 
+    /**
+     * tellStore
+     * ---------
+     * If this egg is in an EggStore, this copies what just changed (its stage, hunger, ...) into it (see EggStore.refresh()).
+     */
+    private void tellStore(){
+        if (store != null) store.refresh(this);
+    }
+
     /**
      * move
      * ----
      * Each time this is called, we update the Egg/creature's position.
      * (If it's still an egg, it doesn't move.)
+     * This is just planMove() followed by finishMove(), using where the dragon and background are right now.
      */
     @Override
     public void move(){
         if (stage != eggStage.HATCHED) return; // it only moves if it's hatched.
+        planMove(dragon.getX(), dragon.getY(), background.getX(), background.getY());
+        finishMove();
+    }
+
+    /**
+     * planMove
+     * --------
+     * This works out where the creature will be after this tick (bouncing off walls and chasing the dragon and all),
+     * and puts it in nextState, without changing loc. Call finishMove() to actually go there.
+     * The only things it reads are this egg, the background's collision mask, and where the dragon and background are
+     * (which are passed in, so they can't change in the middle). So lots of eggs can plan their moves
+     * at the same time on different threads (see CreatureUpdater).
+     * PRE: stage == HATCHED (otherwise nothing happens)
+     * POST: nextState is where the creature will be.
+     */
+    public void planMove(ChaseSnapshot chase){
+        planMove(chase.dragonX, chase.dragonY, chase.backgroundX, chase.backgroundY, 1);
+    }
+
+    /**
+     * planMove
+     * --------
+     * The same, but for ticks ticks' worth of moving at once (the CreatureUpdater does this for creatures that are far from the dragon,
+     * so they only have to be moved every few ticks). The walls are only checked at the start and the end of the move.
+     * PRE: ticks >= 1
+     */
+    public void planMove(ChaseSnapshot chase, int ticks){
+        planMove(chase.dragonX, chase.dragonY, chase.backgroundX, chase.backgroundY, ticks);
+    }
+
+    /**
+     * planMove
+     * --------
+     * The same, but with the dragon's screen location and the background's location as numbers.
+     */
+    public void planMove(int dragonX, int dragonY, int backgroundX, int backgroundY){
+        planMove(dragonX, dragonY, backgroundX, backgroundY, 1);
+    }
+
+    private void planMove(int dragonX, int dragonY, int backgroundX, int backgroundY, int ticks){
+        LocationAndVelocity state = this.nextState;
+        state.set(this.loc);
+        if (stage != eggStage.HATCHED) return; // it only moves if it's hatched.
 
         // First we check if we're going to hit (and bounce off) of a wall:
         boolean gotBounced = false;
@@ -416,83 +619,114 @@ public class Egg extends DragonGameShape{
         int verticalMargin = imageHeight/4; // how much above or below we want to check.
         int horizontalMargin = imageWidth/4; // how much left or right to check.
 
-        int currentx = (int)loc.x; 
-        int currenty = (int)loc.y;
+        int currentx = (int)state.x; 
+        int currenty = (int)state.y;
         int leftOfX = currentx - horizontalMargin;
         int rightOfX = currentx + horizontalMargin;
 
-        int aboveY = (int)(loc.y - verticalMargin);
-        int belowY = (int)(loc.y + verticalMargin);
+        int aboveY = (int)(state.y - verticalMargin);
+        int belowY = (int)(state.y + verticalMargin);
 
         // check the pixels that are above, below, left and right of the creature.
         // If they're in the background where they shoudn't be, initiate a "bounce"
         // (which means reverse velocity): 
-        if ((background.notTransparentAt(loc.x, aboveY) && loc.yv < 0) ||
-        (background.notTransparentAt(loc.x, belowY) && loc.yv > 0) ) {
+        if ((background.notTransparentAt(state.x, aboveY) && state.yv < 0) ||
+        (background.notTransparentAt(state.x, belowY) && state.yv > 0) ) {
             gotBounced = true;
-            loc.yv = -loc.yv; // reverse velocity for a bounce!
+            state.yv = -state.yv; // reverse velocity for a bounce!
         }
 
-        if ( (background.notTransparentAt(leftOfX, loc.y) && loc.xv < 0) ||
-        (background.notTransparentAt(rightOfX, loc.y) && loc.xv > 0) ) {
+        if ( (background.notTransparentAt(leftOfX, state.y) && state.xv < 0) ||
+        (background.notTransparentAt(rightOfX, state.y) && state.xv > 0) ) {
             gotBounced = true;
-            loc.xv = -loc.xv; // reverse velocity for a bounce!
+            state.xv = -state.xv; // reverse velocity for a bounce!
         }
 
         // if it didn't get bounced, but it's next location mgiht put it into the background,
         // reverse velocity and move it over a little:
         if (!gotBounced){ 
             // check next location:
-            LocationAndVelocity nextloc = nextLoc();
+            LocationAndVelocity nextloc = nextLoc(state, dragonX, dragonY, backgroundX, backgroundY, ticks);
             int nextx = (int)(nextloc.x); 
             int nexty = (int)(nextloc.y);
             if (background.notTransparentAt(nextx, nexty)){
-                this.loc.yv = -this.loc.yv; 
-                this.loc.xv = -this.loc.xv; 
-                if (0 < loc.xv && loc.xv < 0.2) loc.xv = 2;
-                if (-0.2 < loc.xv && loc.xv < 0) loc.xv = -2;
+                state.yv = -state.yv; 
+                state.xv = -state.xv; 
+                if (0 < state.xv && state.xv < 0.2) state.xv = 2;
+                if (-0.2 < state.xv && state.xv < 0) state.xv = -2;
 
-                if (nextx < loc.x) loc.x += ((loc.x - nextx) + 5); // if a bad nextx is to the left, move right a little.
-                if (loc.x < nextx) loc.x -= ((nextx - loc.x) + 5); // if a bad nextx is to the right, move left a little.
-                if (nexty < loc.y) loc.y += ((loc.y - nexty) + 5); // if a bad nextx is to the left, move right a little.
-                if (loc.y < nexty) loc.y -= ((nexty - loc.y) + 5); // if a bad nexty is below me, move up a little. 
+                if (nextx < state.x) state.x += ((state.x - nextx) + 5); // if a bad nextx is to the left, move right a little.
+                if (state.x < nextx) state.x -= ((nextx - state.x) + 5); // if a bad nextx is to the right, move left a little.
+                if (nexty < state.y) state.y += ((state.y - nexty) + 5); // if a bad nextx is to the left, move right a little.
+                if (state.y < nexty) state.y -= ((nexty - state.y) + 5); // if a bad nexty is below me, move up a little. 
 
                 gotBounced = true;
             }
         }
 
         // Presumably, we haven't moved into any background location yet, so 
-        // current loc.x and loc.y should be "safe".
+        // current state.x and state.y should be "safe".
         // We'll store them in case we still end up moving into the backround.
-        double safeX = loc.x;  
-        double safeY = loc.y; 
+        double safeX = state.x;  
+        double safeY = state.y; 
         
         // now, determine new next location and move there.
-        this.loc = nextLoc();
+        state.set(nextLoc(state, dragonX, dragonY, backgroundX, backgroundY, ticks));
         
         // Finally I'm going to do a last check of the new location 
         // to see it would overlap the non-transparent parts of the background.
         // If so, I'll revert to the most recent safeX, safeY coordinates.
-        if ( background.notTransparentAt((int)loc.x, (int)loc.y) ){
-            loc.x = safeX;
-            loc.y = safeY;
-            loc.xv *= 3.0; // I'll also increase the velocity so it bounces out of there more quickly.
-            loc.yv *= 3.0;
+        if ( background.notTransparentAt((int)state.x, (int)state.y) ){
+            state.x = safeX;
+            state.y = safeY;
+            state.xv *= 3.0; // I'll also increase the velocity so it bounces out of there more quickly.
+            state.yv *= 3.0;
         }
     }
 
+    /**
+     * finishMove
+     * ----------
+     * Moves the creature to where planMove() said it would go.
+     */
+    public void finishMove(){
+        if (stage != eggStage.HATCHED) return;
+        this.loc.set(this.nextState);
+    }
+
     /**
      * nextLoc()
      * ---------
      * This returns a LocationAndVelocity object representing where the egg/creature
      * will be next if it doesn't bounce off of anything or get obstructed in some way.
      * PRE: this assumes that the egg is in HATCHED stage, so it can actually move
-     * POST: none; this doesn't change anything, it just returns a new LocationAndVelocity object
+     * POST: none; this doesn't change anything, it just returns a LocationAndVelocity object
      *       representing where the creature would be if it moved (based on it's current velocity,etc.)
      *       and didn't bounce off of anything.
+     *       (It's this.scratchLoc, which gets overwritten the next time nextLoc is called.)
      */
     public LocationAndVelocity nextLoc(){
-        LocationAndVelocity tempLoc = new LocationAndVelocity(this.loc);
+        return nextLoc(this.loc, dragon.getX(), dragon.getY(), background.getX(), background.getY());
+    }
+
+    // nextLoc for ticks ticks in a row (without checking the walls in between):
+    private LocationAndVelocity nextLoc(LocationAndVelocity from, int dragonX, int dragonY, int backgroundX, int backgroundY, int ticks){
+        LocationAndVelocity next = nextLoc(from, dragonX, dragonY, backgroundX, backgroundY);
+        for (int tick = 1; tick < ticks; tick++){
+            next = nextLoc(next, dragonX, dragonY, backgroundX, backgroundY); // (next is scratchLoc, which nextLoc copies before it changes it)
+        }
+        return next;
+    }
+
+    /**
+     * nextLoc
+     * -------
+     * The same, but starting from the location from (instead of this.loc),
+     * with the dragon's screen location and the background's location passed in.
+     */
+    private LocationAndVelocity nextLoc(LocationAndVelocity from, int dragonX, int dragonY, int backgroundX, int backgroundY){
+        LocationAndVelocity tempLoc = this.scratchLoc; // (reused every time, so we don't make a new object each tick)
+        tempLoc.set(from);
 
         // is the creature currently chasing the dragon, is it chasing it up (i.e., the dragon is above it?) or down, etc.?
         // These booleans mark that.
@@ -503,15 +737,14 @@ public class Egg extends DragonGameShape{
 
         // Check for chasing:
         int distanceAtWhichTheCreatureSensesTheDragon = 600; // about half of the screen width.
-        int screenX = (int)(this.loc.x + background.getX()); // screenX is where the creature would be drawn on the screen horizontally.
-        int screenY = (int)(this.loc.y + background.getY());
-        int distanceToDragon = loc.distance(dragon.getX(), dragon.getY(), screenX, screenY);
-        if (distanceToDragon < distanceAtWhichTheCreatureSensesTheDragon){
+        int screenX = (int)(from.x + backgroundX); // screenX is where the creature would be drawn on the screen horizontally.
+        int screenY = (int)(from.y + backgroundY);
+        if (VectorMath.isWithin(dragonX, dragonY, from.x + backgroundX, from.y + backgroundY, distanceAtWhichTheCreatureSensesTheDragon)){
             // we're chasing!
-            if (screenX < dragon.getX()) chasingRight = true;
-            if (dragon.getX() < screenX) chasingLeft = true;
-            if (dragon.getY() < screenY) chasingUp = true;
-            if (screenY < dragon.getY()) chasingDown = true;
+            if (screenX < dragonX) chasingRight = true;
+            if (dragonX < screenX) chasingLeft = true;
+            if (dragonY < screenY) chasingUp = true;
+            if (screenY < dragonY) chasingDown = true;
         }
 
         if (this.isHungry == false){ // they don't chase when they're full.
@@ -573,17 +806,38 @@ public class Egg extends DragonGameShape{
 
     }
 
+    /**
+     * largestDrawSize
+     * ---------------
+     * The biggest width or height an egg or creature is ever drawn at
+     * (so anything whose center is farther than half of this outside the window can't be seen).
+     */
+    public static int largestDrawSize(){
+        return Math.max(30, Sprites.largestCreatureSize()); // (30 is the egg's height)
+    }
+
     /**
      * draw
      * ----
      * This draws the egg (or creature, if it is hatched), on the screen.
+     * It doesn't change anything about the egg (the creature's animation moves along in animate(), every tick),
+     * so drawing the game, or not drawing it, or drawing only some of the eggs, never changes how the game goes.
      * PRE: g is not null
      */
     @Override
     public void draw(Graphics g) {
+        draw(g, background.loc.x, background.loc.y);
+    }
+
+    /**
+     * draw
+     * ----
+     * The same, but as if the background was at backgroundX,backgroundY (see Background.draw(g, x, y)).
+     */
+    public void draw(Graphics g, double backgroundX, double backgroundY) {
         //System.out.println("egg draw!!!!");
-        double bx = background.getX();
-        double by = background.getY();
+        double bx = (int) backgroundX; // (eggs go by the background's whole-pixel location, like background.getX())
+        double by = (int) backgroundY;
 
         int centerX = ((int) (bx + getX())) - (eggWidth/2); // so it draws the egg centered on it's x,y coordinates
         int centerY = ((int) (by + getY())) - (eggHeight/2);
@@ -593,48 +847,26 @@ public class Egg extends DragonGameShape{
                 return; // don't draw anything
 
             case NOTREADYTOEAT:
-                g.setColor(this.color);
-                g.fillOval(centerX, centerY, eggWidth, eggHeight);
+                g.drawImage(eggImage(false), centerX, centerY, null);
                 break;
             case READYTOEAT:
-                g.setColor(this.color);
-                g.fillOval(centerX, centerY, eggWidth, eggHeight);
-                // a little dot in the center:
-                g.setColor(Color.RED);
-                g.fillOval((int) (bx+loc.x), (int) (by+loc.y), 2, 2);
-
+                g.drawImage(eggImage(true), centerX, centerY, null); // (with a little red dot in the center)
                 break;
             case HATCHED:
                 int imageWidthToDraw = imageWidth;
                 int imageHeightToDraw = imageHeight;
                 centerX = ((int) (bx+loc.x)) - (imageWidth/2);
                 centerY = ((int) (by+loc.y)) - (imageHeight/2);
-                // We'll switch creatures every 10 times it redraws it.
-                // (if we change it each time we draw the animation, it's too fast)
-                numberOfDraws++;
-                if (numberOfDraws > 10) {
-                    numberOfDraws = 0;
-                    this.creatureImage = nextCreatureImage();
-                }
-
                 g.drawImage(creatureImage, centerX, centerY, imageWidthToDraw, imageHeightToDraw, null);
 
                 break;
 
             case KILLED:
-                numberOfDraws++;
-                if (numberOfDraws > 10){
-                    numberOfDraws = 0;
-                    this.creatureImage = nextCreatureFireImage();
-                    
-                }
                 imageWidthToDraw = imageWidth;
                 imageHeightToDraw = imageHeight;
                 centerX = ((int) (bx+loc.x)) - (imageWidth/2);
                 centerY = ((int) (by+loc.y)) - (imageHeight/2);
                 g.drawImage(creatureImage, centerX, centerY, imageWidthToDraw, imageHeightToDraw, null);
-                imageWidth = (int)((double)imageWidth * 0.99);
-                imageHeight = (int)((double)imageWidth * 0.99);
                 break;
 
             case EATEN:
@@ -645,30 +877,185 @@ public class Egg extends DragonGameShape{
     }
     
     /**
-     * nextCreatureImage
-     * -----------------
-     * This just grabs the next image from the creatureImageList and returns it.
-     * PRE: none
-     * POST: this.whichCreature is incremented.
+     * addTo
+     * -----
+     * Adds the egg (or creature) to contents, just the way draw() would draw it with the background at
+     * backgroundX,backgroundY (nothing, if it isn't drawn at this stage). See FrameContents.
      */
-    private BufferedImage nextCreatureImage(){
-        this.whichCreature++; // whichCreature is essentially the index of which creature in the list to use.
-        if (this.whichCreature >= this.creatureImageList.size()) this.whichCreature = 0;
-        return this.creatureImageList.get(this.whichCreature);
+    public void addTo(FrameContents contents, double backgroundX, double backgroundY){
+        switch(stage) {
+            case NOTREADYTOEAT:
+                contents.image(eggImage(false), screenLeft(backgroundX), screenTop(backgroundY));
+                break;
+            case READYTOEAT:
+                contents.image(eggImage(true), screenLeft(backgroundX), screenTop(backgroundY)); // (with the red dot)
+                break;
+            case HATCHED:
+            case KILLED:
+                contents.image(creatureImage, screenLeft(backgroundX), screenTop(backgroundY), imageWidth, imageHeight);
+                break;
+            default:
+                break; // (NONEXISTENT and EATEN eggs aren't drawn)
+        }
     }
     
     /**
-     * nextCreatureFireImage()
-     * -----------------------
-     * This grabs the next image in the creatureFireImageList,
-     * which holds all the images of the creature on fire.
-     * PRE: none
-     * POST: this.whichCreatureFire is incremented.
+     * eggImage
+     * --------
+     * The egg in this.color (with the red dot in the center if withDot is true).
+     * (this.color is always BLUES[amountOfBlueness], so that's the one to use.)
+     */
+    private BufferedImage eggImage(boolean withDot){
+        return (withDot ? READY_EGG_IMAGES : EGG_IMAGES)[amountOfBlueness];
+    }
+
+    /**
+     * makeEggImage
+     * ------------
+     * Draws an egg in color (with the red dot in the center if withDot is true) into a new image just big enough for it.
+     */
+    private static BufferedImage makeEggImage(Color color, boolean withDot){
+        BufferedImage image = CompatibleImages.create(EGG_WIDTH, EGG_HEIGHT, Transparency.BITMASK);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillOval(0, 0, EGG_WIDTH, EGG_HEIGHT);
+        if (withDot){
+            g.setColor(Color.RED);
+            g.fillOval(EGG_WIDTH/2, EGG_HEIGHT/2, 2, 2);
+        }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * addScreenBounds
+     * ---------------
+     * Adds the rectangle of the window the egg (or creature) would be drawn in right now to region
+     * (nothing, if it isn't drawn at this stage).
+     */
+    public void addScreenBounds(DirtyRegion region){
+        int width = screenWidth();
+        if (width > 0) region.add(screenLeft(), screenTop(), width, screenHeight());
+    }
+
+    /**
+     * addDrawnBounds
+     * --------------
+     * Adds the rectangle of the window the egg was in the last time it was drawn to region.
+     */
+    public void addDrawnBounds(DirtyRegion region){
+        if (drawnWidth > 0) region.add(drawnX, drawnY, drawnWidth, drawnHeight);
+    }
+
+    /**
+     * looksDifferentFromWhenDrawn
+     * ---------------------------
+     * True if drawing the egg now would look different from the last time it was drawn
+     * (it's at a different stage, or a different color, or somewhere else in the window).
+     * A creature always does, since it's animated (and usually moving).
+     */
+    public boolean looksDifferentFromWhenDrawn(){
+        if (stage == eggStage.HATCHED || stage == eggStage.KILLED) return true;
+        if (stage != drawnStage || color != drawnColor) return true;
+        if (screenWidth() == 0) return false; // (it's not drawn at all, and still isn't)
+        return screenLeft() != drawnX || screenTop() != drawnY;
+    }
+
+    // where draw() would draw the egg (or creature) in the window right now, and how big (0 if it doesn't draw anything):
+    private int screenLeft(){
+        return screenLeft(background.loc.x);
+    }
+
+    private int screenTop(){
+        return screenTop(background.loc.y);
+    }
+
+    // (the same, with the background at backgroundX,backgroundY)
+    private int screenLeft(double backgroundX){
+        int bx = (int) backgroundX;
+        if (stage == eggStage.HATCHED || stage == eggStage.KILLED) return ((int) (bx + loc.x)) - (imageWidth/2);
+        return bx + getX() - (eggWidth/2);
+    }
+
+    private int screenTop(double backgroundY){
+        int by = (int) backgroundY;
+        if (stage == eggStage.HATCHED || stage == eggStage.KILLED) return ((int) (by + loc.y)) - (imageHeight/2);
+        return by + getY() - (eggHeight/2);
+    }
+
+    private int screenWidth(){
+        switch(stage) {
+            case NOTREADYTOEAT:
+            case READYTOEAT:
+                return eggWidth;
+            case HATCHED:
+            case KILLED:
+                return imageWidth;
+            default:
+                return 0;
+        }
+    }
+
+    private int screenHeight(){
+        if (stage == eggStage.HATCHED || stage == eggStage.KILLED) return imageHeight;
+        return eggHeight;
+    }
+
+    /**
+     * animate
+     * -------
+     * Moves the creature's animation along to where it should be on this tick (the GameWorld calls this every tick).
+     * A hatched creature flips to its next picture every TICKS_PER_PICTURE ticks. A creature on fire flips through
+     * the fire pictures the same way, and shrinks by 1% every TICKS_PER_SHRINK ticks.
+     * It all goes by how many ticks it's been since the creature hatched (or got shot), so it comes out the same
+     * however often it's called.
+     * PRE: tick is the clock's tick right now
+     * POST: creatureImage, creatureMask, imageWidth and imageHeight are what they should be on this tick.
+     *       (Eggs that haven't hatched, and the ones that are gone, are left alone.)
+     */
+    public void animate(long tick){
+        if (stage == eggStage.HATCHED){
+            if (this.creatureImageList.isEmpty()) return; // the images couldn't be loaded.
+            int picture = (int)(((tick - animationStartTick) / TICKS_PER_PICTURE) % this.creatureImageList.size());
+            if (picture != this.whichCreature){
+                this.whichCreature = picture; // whichCreature is essentially the index of which creature in the list to use.
+                this.creatureImage = this.creatureImageList.get(picture);
+                this.creatureMask = this.creatureMaskList.get(picture);
+            }
+        }
+        else if (stage == eggStage.KILLED){
+            if (this.creatureFireImageList.isEmpty()) return;
+            int picture = (int)(((tick - animationStartTick) / TICKS_PER_PICTURE) % this.creatureFireImageList.size());
+            if (picture != this.whichCreatureFire){
+                this.whichCreatureFire = picture;
+                this.creatureImage = this.creatureFireImageList.get(picture);
+                this.creatureMask = this.creatureFireMaskList.get(picture);
+            }
+            long shrinks = (tick - animationStartTick) / TICKS_PER_SHRINK;
+            while (timesShrunk < shrinks){
+                imageWidth = (int)((double)imageWidth * 0.99);
+                imageHeight = (int)((double)imageWidth * 0.99);
+                timesShrunk++;
+            }
+        }
+    }
+
+    /**
+     * rememberDrawn
+     * -------------
+     * The FrameRenderer calls this right after it draws the egg in frame number frame (with the background at
+     * backgroundX,backgroundY): it remembers what the egg looked like and where it was
+     * (for looksDifferentFromWhenDrawn() and addDrawnBounds()).
+     * Only the FrameRenderer uses these, and nothing in the game looks at them.
      */
-    private BufferedImage nextCreatureFireImage(){
-        this.whichCreatureFire++; // whichCreature is essentially the index of which creature in the list to use.
-        if (this.whichCreatureFire >= this.creatureFireImageList.size()) this.whichCreatureFire = 0;
-        return this.creatureFireImageList.get(this.whichCreatureFire);
+    public void rememberDrawn(long frame, double backgroundX, double backgroundY){
+        drawnStage = stage;
+        drawnColor = color;
+        drawnX = screenLeft(backgroundX);
+        drawnY = screenTop(backgroundY);
+        drawnWidth = screenWidth();
+        drawnHeight = screenHeight();
+        drawnFrame = frame;
     }
 
     /**
@@ -676,8 +1063,10 @@ public class Egg extends DragonGameShape{
      * ----------------
      * This returns true if there's a non-transparent pixel in the (hatched) image at x, y.
      * This version of the method returns FALSE if x or y is off the image enirely.
-     * PRE: the following varaibles have been set (and are not null): creatureImage, imageWidth, imageHeight
-     * PRE: none
+     * It uses the collision mask of the current image, so it doesn't have to read the image's pixels:
+     * anything outside the box around the creature's solid pixels is ruled out right away.
+     * PRE: the following varaibles have been set: creatureMask, imageWidth, imageHeight
+     *      (if creatureMask is null, because the images couldn't be loaded, this returns false)
      */
     public boolean notTransparentAt(int x, int y){
         /*
@@ -700,10 +1089,9 @@ public class Egg extends DragonGameShape{
 
         if (x < 0 || y < 0) return false;
         if (x >= this.imageWidth || y >= this.imageHeight) return false;
+        if (this.creatureMask == null) return false;
 
-        Color pixel = new Color(this.creatureImage.getRGB(x,y), true);
-        if (pixel.getAlpha() != 0) return true;
-        return false;
+        return this.creatureMask.hitTest(x, y);
     }
 
 }
@@ -0,0 +1,65 @@
+/**
+ * EggPool
+ * -------
+ * A place to keep eggs that are done with, so they can be used again instead of making new ones.
+ * When an egg is eaten (or a creature is shot and burns up), the GameWorld takes it out of the game and gives it to the pool,
+ * and when the game is restarted, all of its eggs go in the pool too. Then obtain() hands out one of those
+ * (set up again from scratch with Egg.reuse()), and only makes a new Egg if the pool is empty.
+ * Each egg keeps its own timer Tasks, so those get reused along with it.
+ *
+ * After the first game, restarting (or a level that keeps making new eggs) doesn't make any new eggs at all.
+ */
+public class EggPool {
+
+    private final ArrayList<Egg> freeEggs = new ArrayList<>();
+
+    // how many eggs obtain() has had to make, and how many it's reused (handy for seeing whether the pool is working):
+    private long eggsMade = 0;
+    private long eggsReused = 0;
+
+    /**
+     * obtain
+     * ------
+     * An egg with these settings (the same ones as the Egg constructor), taken from the pool if there are any there.
+     * POST: the egg's timer for it to appear is started on clock.
+     */
+    public Egg obtain(Background b, Dragon d, TimingWheel clock, int x, int y, double secondsToAppear, double secondsToBeReadyToEat, double secondsToHatch){
+        if (freeEggs.isEmpty()){
+            eggsMade++;
+            return new Egg(b, d, clock, x, y, secondsToAppear, secondsToBeReadyToEat, secondsToHatch);
+        }
+        Egg egg = freeEggs.remove(freeEggs.size() - 1); // (taking the last one doesn't have to shift anything)
+        egg.inPool = false;
+        egg.reuse(b, d, clock, x, y, secondsToAppear, secondsToBeReadyToEat, secondsToHatch);
+        eggsReused++;
+        return egg;
+    }
+
+    /**
+     * free
+     * ----
+     * Puts an egg in the pool, to be used again later. Its timers are all stopped right away.
+     * (Giving the pool an egg that's already in it does nothing.)
+     * PRE: the egg isn't in the game anymore (it's out of the GameWorld's eggList and eggGrid).
+     */
+    public void free(Egg egg){
+        if (egg.inPool) return;
+        egg.turnOffEveryTimer();
+        egg.inPool = true;
+        freeEggs.add(egg);
+    }
+
+    // how many eggs are in the pool right now:
+    public int size(){
+        return freeEggs.size();
+    }
+
+    public long getEggsMade(){
+        return eggsMade;
+    }
+
+    public long getEggsReused(){
+        return eggsReused;
+    }
+
+} // end EggPool class
@@ -0,0 +1,441 @@
+import java.util.Arrays;
+
+/**
+ * EggStore
+ * --------
+ * Another way for the GameWorld to keep track of lots of eggs (and the creatures that hatch out of them).
+ * Instead of going from one Egg object to the next, with each one's location and stage and hunger spread around the heap,
+ * the EggStore keeps each of those things in its own array: all the x's together, all the y's together,
+ * all the stages together, and so on. (This is sometimes called "structure of arrays".)
+ * Slot i is the egg that's at index i in the GameWorld's eggList, and it's in every array at index i.
+ *
+ * It's off unless you turn it on (GameWorld.setUseEggStore(true), or java HeadlessEngine -eggStore).
+ * When it's on, the GameWorld moves the creatures with moveCreatures() and checks which eggs the dragon has run into
+ * with findTouching(), which are plain loops over arrays of numbers, so the computer can zip through them much faster
+ * than hopping from one Egg object to the next. The game comes out exactly the same either way.
+ *
+ * The Egg objects are still the real eggs (their timers, pictures and collision masks, drawing, the fireball, ...),
+ * so the two have to agree:
+ *   - moveCreatures() copies the new location of every creature it moves back into its Egg (the window draws the Egg,
+ *     and the fireball checks the Egg's collision mask), so only the creatures that moved get looked at.
+ *   - when something happens to an Egg outside of here (a timer goes off, it gets eaten or shot, or bumped by the dragon),
+ *     refresh() copies it into the arrays again (the Egg calls it itself, and so does the GameWorld's collision checker).
+ */
+public class EggStore {
+
+    private static final eggStage[] STAGES = eggStage.values();
+    private static final byte NOTREADYTOEAT = (byte)eggStage.NOTREADYTOEAT.ordinal();
+    private static final byte READYTOEAT = (byte)eggStage.READYTOEAT.ordinal();
+    private static final byte HATCHED = (byte)eggStage.HATCHED.ordinal();
+
+    private static final int DISTANCE_AT_WHICH_THE_CREATURE_SENSES_THE_DRAGON = 600; // (same as Egg.nextLoc)
+
+    private final Background background;
+
+    private int size = 0;
+
+    // the Egg in each slot:
+    private Egg[] eggs;
+
+    // location and velocity (the same as each Egg's loc):
+    private double[] x, y, xv, yv;
+    private double[] acceleration, maxVelocity, gravity;
+
+    // the rest of what moving a creature needs:
+    private byte[] stage;          // eggStage.ordinal()
+    private boolean[] isHungry;
+    private int[] imageWidth, imageHeight;
+
+    // the CreatureUpdater's level of detail (see Egg.lastMovedTick and Egg.updatePhase):
+    private long[] lastMovedTick;
+    private byte[] updatePhase;
+
+    // which slots moveCreatures() moved on the last tick (so the GameWorld only has to re-file those in its eggGrid):
+    private boolean[] moved;
+
+    // slots that remove() has marked to be taken out by compact():
+    private boolean[] removed;
+    private int removedCount = 0;
+
+    /**
+     * EggStore constructor:
+     * ---------------------
+     * background is the game's background (the creatures bounce off of it).
+     */
+    public EggStore(Background background){
+        this.background = background;
+        allocate(64);
+    }
+
+    /**
+     * add
+     * ---
+     * Puts an egg into the next slot (the GameWorld adds them in the same order as its eggList).
+     * PRE: egg isn't in an EggStore already.
+     * POST: egg.storeSlot is its slot, and everything about it has been copied in.
+     */
+    public void add(Egg egg){
+        if (size == eggs.length) allocate(size * 2);
+        int i = size++;
+        eggs[i] = egg;
+        egg.store = this;
+        egg.storeSlot = i;
+        lastMovedTick[i] = egg.lastMovedTick;
+        updatePhase[i] = (byte)egg.updatePhase;
+        moved[i] = false;
+        removed[i] = false;
+        refresh(egg);
+    }
+
+    /**
+     * refresh
+     * -------
+     * Copies egg's location, velocity, stage, hunger and size into its slot again, after something outside of
+     * the EggStore has changed them.
+     * PRE: egg is in this EggStore.
+     */
+    public void refresh(Egg egg){
+        int i = egg.storeSlot;
+        LocationAndVelocity loc = egg.loc;
+        x[i] = loc.x;
+        y[i] = loc.y;
+        xv[i] = loc.xv;
+        yv[i] = loc.yv;
+        acceleration[i] = loc.acceleration;
+        maxVelocity[i] = loc.maxVelocity;
+        gravity[i] = loc.gravity;
+        stage[i] = (byte)egg.stage.ordinal();
+        isHungry[i] = egg.isHungry;
+        imageWidth[i] = egg.imageWidth;
+        imageHeight[i] = egg.imageHeight;
+        // (a creature that isn't moving has its lastMovedTick kept up to date in here, and not in the Egg;
+        //  the Egg's is only ever newer when it's just hatched)
+        lastMovedTick[i] = Math.max(lastMovedTick[i], egg.lastMovedTick);
+    }
+
+    /**
+     * remove
+     * ------
+     * Marks egg's slot to be taken out the next time compact() is called.
+     * PRE: egg is in this EggStore.
+     */
+    public void remove(Egg egg){
+        int i = egg.storeSlot;
+        if (removed[i]) return;
+        removed[i] = true;
+        removedCount++;
+    }
+
+    /**
+     * compact
+     * -------
+     * Takes out the slots that remove() marked, and moves the rest down to fill the gaps (keeping them in the same order,
+     * the same as the GameWorld's eggList.removeIf() does, so slot i is still eggList.get(i)).
+     * POST: none of the eggs that were removed are in the EggStore any more.
+     */
+    public void compact(){
+        if (removedCount == 0) return;
+        int kept = 0;
+        for (int i = 0; i < size; i++){
+            if (removed[i]){
+                eggs[i].store = null;
+                eggs[i].storeSlot = -1;
+                removed[i] = false;
+                continue;
+            }
+            if (kept != i) moveSlot(i, kept);
+            kept++;
+        }
+        Arrays.fill(eggs, kept, size, null); // (so the eggs that were taken out can be garbage collected)
+        size = kept;
+        removedCount = 0;
+    }
+
+    // copies slot from into slot to:
+    private void moveSlot(int from, int to){
+        eggs[to] = eggs[from];
+        eggs[to].storeSlot = to;
+        x[to] = x[from];
+        y[to] = y[from];
+        xv[to] = xv[from];
+        yv[to] = yv[from];
+        acceleration[to] = acceleration[from];
+        maxVelocity[to] = maxVelocity[from];
+        gravity[to] = gravity[from];
+        stage[to] = stage[from];
+        isHungry[to] = isHungry[from];
+        imageWidth[to] = imageWidth[from];
+        imageHeight[to] = imageHeight[from];
+        lastMovedTick[to] = lastMovedTick[from];
+        updatePhase[to] = updatePhase[from];
+        moved[to] = moved[from];
+    }
+
+    /**
+     * clear
+     * -----
+     * Takes every egg out (and copies each one's lastMovedTick back into it first, so it could be moved the ordinary way
+     * from here on).
+     */
+    public void clear(){
+        for (int i = 0; i < size; i++){
+            eggs[i].lastMovedTick = lastMovedTick[i];
+            eggs[i].store = null;
+            eggs[i].storeSlot = -1;
+            removed[i] = false;
+        }
+        Arrays.fill(eggs, 0, size, null);
+        size = 0;
+        removedCount = 0;
+    }
+
+    /**
+     * moveCreatures
+     * -------------
+     * Moves the hatched creatures in slots from..to-1 one tick, exactly the way the CreatureUpdater moves the same Eggs
+     * (with the same level of detail, if tick isn't less than 0), and copies where each one ends up back into its Egg.
+     * Each slot only looks at itself, so different threads can move different slots at the same time
+     * (the CreatureUpdater does that, with lots of eggs).
+     * PRE: nothing else is changing these slots, the dragon or the background while this runs.
+     * POST: every creature in those slots that's due to move this tick has moved, and wasMoved() says which ones did.
+     */
+    public void moveCreatures(ChaseSnapshot chase, long tick, int from, int to){
+        double[] next = new double[4]; // (where nextLoc() puts its answer; one for each piece of work, not each creature)
+        for (int i = from; i < to; i++){
+            moved[i] = false;
+            if (stage[i] != HATCHED) continue;
+            int ticks = 1;
+            if (tick >= 0){
+                int tier = CreatureUpdater.tierOf(x[i], y[i], chase);
+                if (tier == CreatureUpdater.DORMANT
+                    || (tier == CreatureUpdater.COARSE && (tick + updatePhase[i]) % CreatureUpdater.COARSE_TICKS != 0)){
+                    if (tier == CreatureUpdater.DORMANT) lastMovedTick[i] = tick; // (time stands still for it)
+                    continue;
+                }
+                ticks = (int)Math.max(1, Math.min(CreatureUpdater.COARSE_TICKS, tick - lastMovedTick[i]));
+                lastMovedTick[i] = tick;
+            }
+            move(i, chase, ticks, next);
+            moved[i] = true;
+
+            Egg egg = eggs[i];
+            egg.loc.x = x[i];
+            egg.loc.y = y[i];
+            egg.loc.xv = xv[i];
+            egg.loc.yv = yv[i];
+            egg.lastMovedTick = lastMovedTick[i];
+        }
+    }
+
+    // Egg.planMove() and Egg.finishMove(), for slot i:
+    private void move(int i, ChaseSnapshot chase, int ticks, double[] next){
+        double stateX = x[i];
+        double stateY = y[i];
+        double stateXV = xv[i];
+        double stateYV = yv[i];
+        boolean gotBounced = false;
+
+        int verticalMargin = imageHeight[i]/4;
+        int horizontalMargin = imageWidth[i]/4;
+
+        int currentx = (int)stateX;
+        int leftOfX = currentx - horizontalMargin;
+        int rightOfX = currentx + horizontalMargin;
+        int aboveY = (int)(stateY - verticalMargin);
+        int belowY = (int)(stateY + verticalMargin);
+
+        // bounce off of walls above, below, left and right:
+        if ((background.notTransparentAt(stateX, aboveY) && stateYV < 0) ||
+            (background.notTransparentAt(stateX, belowY) && stateYV > 0)){
+            gotBounced = true;
+            stateYV = -stateYV;
+        }
+        if ((background.notTransparentAt(leftOfX, stateY) && stateXV < 0) ||
+            (background.notTransparentAt(rightOfX, stateY) && stateXV > 0)){
+            gotBounced = true;
+            stateXV = -stateXV;
+        }
+
+        // if the next location is in the wall, turn around and move over a little:
+        if (!gotBounced){
+            nextLoc(i, stateX, stateY, stateXV, stateYV, chase, ticks, next);
+            int nextx = (int)next[0];
+            int nexty = (int)next[1];
+            if (background.notTransparentAt(nextx, nexty)){
+                stateYV = -stateYV;
+                stateXV = -stateXV;
+                if (0 < stateXV && stateXV < 0.2) stateXV = 2;
+                if (-0.2 < stateXV && stateXV < 0) stateXV = -2;
+
+                if (nextx < stateX) stateX += ((stateX - nextx) + 5);
+                if (stateX < nextx) stateX -= ((nextx - stateX) + 5);
+                if (nexty < stateY) stateY += ((stateY - nexty) + 5);
+                if (stateY < nexty) stateY -= ((nexty - stateY) + 5);
+            }
+        }
+
+        double safeX = stateX;
+        double safeY = stateY;
+
+        nextLoc(i, stateX, stateY, stateXV, stateYV, chase, ticks, next);
+        stateX = next[0];
+        stateY = next[1];
+        stateXV = next[2];
+        stateYV = next[3];
+
+        // if we still ended up in the wall, go back to where we were (and bounce out faster):
+        if (background.notTransparentAt((int)stateX, (int)stateY)){
+            stateX = safeX;
+            stateY = safeY;
+            stateXV *= 3.0;
+            stateYV *= 3.0;
+        }
+
+        x[i] = stateX;
+        y[i] = stateY;
+        xv[i] = stateXV;
+        yv[i] = stateYV;
+    }
+
+    // Egg.nextLoc(), for slot i starting from newX, newY, newXV, newYV, ticks times in a row
+    // (the answer goes in next: x, y, xv, yv):
+    private void nextLoc(int i, double newX, double newY, double newXV, double newYV, ChaseSnapshot chase, int ticks, double[] next){
+        int dragonX = chase.dragonX;
+        int dragonY = chase.dragonY;
+        int backgroundX = chase.backgroundX;
+        int backgroundY = chase.backgroundY;
+        double accel = acceleration[i];
+        double maxV = maxVelocity[i];
+        double g = gravity[i];
+        boolean hungry = isHungry[i];
+
+        for (int tick = 0; tick < ticks; tick++){
+            boolean chasingUp = false;
+            boolean chasingDown = false;
+            boolean chasingLeft = false;
+            boolean chasingRight = false;
+
+            if (hungry){ // they don't chase when they're full.
+                int screenX = (int)(newX + backgroundX);
+                int screenY = (int)(newY + backgroundY);
+                if (VectorMath.isWithin(dragonX, dragonY, newX + backgroundX, newY + backgroundY, DISTANCE_AT_WHICH_THE_CREATURE_SENSES_THE_DRAGON)){
+                    if (screenX < dragonX) chasingRight = true;
+                    if (dragonX < screenX) chasingLeft = true;
+                    if (dragonY < screenY) chasingUp = true;
+                    if (screenY < dragonY) chasingDown = true;
+                }
+            }
+
+            // up/down:
+            if (chasingUp) newYV -= accel;
+            else if (chasingDown) newYV += accel;
+            else newYV *= g;
+            if (newYV >= maxV) newYV = maxV;
+            else if (newYV <= -maxV) newYV = -maxV;
+            newY += newYV;
+            if (newY <= 0) newY = 0;
+            else if (newY >= background.imageHeight) newY = background.imageHeight;
+
+            // left/right:
+            if (chasingLeft) newXV -= accel;
+            else if (chasingRight) newXV += accel;
+            else newXV *= g;
+            if (newXV >= maxV) newXV = maxV;
+            else if (newXV <= -maxV) newXV = -maxV;
+            newX += newXV;
+            if (newX <= 0) newX = 0;
+            else if (newY >= background.imageWidth) newX = background.imageWidth - 1; // (Egg checks y here too)
+        }
+
+        next[0] = newX;
+        next[1] = newY;
+        next[2] = newXV;
+        next[3] = newYV;
+    }
+
+    /**
+     * findTouching
+     * ------------
+     * Adds to out the slot of every egg or creature that the dragon is touching: the ones that can be run into
+     * (eggs that have appeared, and hatched creatures) whose center is within collisionDistance of the dragon.
+     * It's the same check as the GameWorld's collision checker does for each egg, but it checks them all
+     * in one loop over the arrays, instead of asking the eggGrid for the eggs nearby.
+     * (That's a lot quicker than going through every Egg object, but asking the eggGrid is quicker still, since it only
+     *  looks at the few eggs near the dragon -- Benchmarks crowdedWorld times all three.)
+     * dragonX, dragonY is where the dragon is on the screen (dragon.loc), and backgroundX, backgroundY is background.loc.
+     * PRE: out is not null
+     */
+    public void findTouching(double dragonX, double dragonY, double backgroundX, double backgroundY,
+                             int collisionDistance, IntArrayList out){
+        for (int i = 0; i < size; i++){
+            byte s = stage[i];
+            if (s != NOTREADYTOEAT && s != READYTOEAT && s != HATCHED) continue;
+            if (VectorMath.isWithin(x[i] + backgroundX, y[i] + backgroundY, dragonX, dragonY, collisionDistance)) out.add(i);
+        }
+    }
+
+    /*
+     * getters:
+     */
+    public int size(){
+        return size;
+    }
+
+    public Egg getEgg(int i){
+        return eggs[i];
+    }
+
+    public double getX(int i){
+        return x[i];
+    }
+
+    public double getY(int i){
+        return y[i];
+    }
+
+    public eggStage getStage(int i){
+        return STAGES[stage[i]];
+    }
+
+    // true if moveCreatures() moved slot i on the last tick:
+    public boolean wasMoved(int i){
+        return moved[i];
+    }
+
+    // makes all the arrays (or makes them bigger, keeping what's in them):
+    private void allocate(int capacity){
+        eggs = (eggs == null) ? new Egg[capacity] : Arrays.copyOf(eggs, capacity);
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        xv = grow(xv, capacity);
+        yv = grow(yv, capacity);
+        acceleration = grow(acceleration, capacity);
+        maxVelocity = grow(maxVelocity, capacity);
+        gravity = grow(gravity, capacity);
+        stage = grow(stage, capacity);
+        isHungry = grow(isHungry, capacity);
+        imageWidth = grow(imageWidth, capacity);
+        imageHeight = grow(imageHeight, capacity);
+        lastMovedTick = (lastMovedTick == null) ? new long[capacity] : Arrays.copyOf(lastMovedTick, capacity);
+        updatePhase = grow(updatePhase, capacity);
+        moved = grow(moved, capacity);
+        removed = grow(removed, capacity);
+    }
+
+    private static double[] grow(double[] array, int capacity){
+        return (array == null) ? new double[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity){
+        return (array == null) ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static byte[] grow(byte[] array, int capacity){
+        return (array == null) ? new byte[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static boolean[] grow(boolean[] array, int capacity){
+        return (array == null) ? new boolean[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+} // end EggStore class
@@ -0,0 +1,320 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * EngineMetrics
+ * -------------
+ * Keeps track of how the game engine is doing while it runs: how long each tick takes, how long each frame takes
+ * to paint, how long the collision checker takes, how many timers are waiting on the clock, how many eggs are in
+ * each stage, and how many times things happen (eggs eaten, creatures killed, ...).
+ *
+ * The times go into Histograms instead of just an average, because the thing that makes a game stutter is the
+ * occasional slow tick, and an average hides those. A Histogram can tell you the 99th percentile (the time that 99% of
+ * ticks are faster than) and the slowest one.
+ *
+ * Every GameWorld has one (see GameWorld.getMetrics()). Recording something never makes a new object, so it's cheap
+ * enough to do on every tick. Press M in the game to see them (the FrameRenderer draws them over the game),
+ * run it with  -metrics file.csv  to save them when the game closes, or  java HeadlessEngine -metrics file.csv ...
+ */
+public class EngineMetrics {
+
+    /**
+     * Histogram
+     * ---------
+     * Counts how many values fell into each of a bunch of buckets, the way an HDR ("high dynamic range") histogram does:
+     * values below 32 each get their own bucket, and above that, every power of two (32-63, 64-127, 128-255, ...) is split into
+     * 32 buckets. So a value can be anything from 0 to Long.MAX_VALUE (nanoseconds or whatever), it only ever takes 1888 longs,
+     * recording a value is just a couple of shifts and an increment, and any value we read back out (like the 99th percentile)
+     * is within about 3% of the real one.
+     */
+    public static class Histogram {
+        private static final int SUB_BUCKET_BITS = 5;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // 32
+        private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final String name;
+        private final long[] counts = new long[BUCKETS];
+        private long count = 0;
+        private long total = 0;
+        private long min = Long.MAX_VALUE;
+        private long max = 0;
+
+        public Histogram(String name){
+            this.name = name;
+        }
+
+        /**
+         * record
+         * ------
+         * Adds one value (values less than 0 count as 0).
+         */
+        public void record(long value){
+            if (value < 0) value = 0;
+            counts[bucketOf(value)]++;
+            count++;
+            total += value;
+            if (value < min) min = value;
+            if (value > max) max = value;
+        }
+
+        /**
+         * valueAtPercentile
+         * -----------------
+         * The value that percent percent of the recorded values are less than or equal to (within about 3%),
+         * or 0 if nothing has been recorded.
+         * PRE: 0 <= percent <= 100
+         */
+        public long valueAtPercentile(double percent){
+            if (count == 0) return 0;
+            long wanted = Math.max(1, (long)Math.ceil(percent / 100 * count)); // (how many values have to be at or below it)
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++){
+                seen += counts[i];
+                if (seen >= wanted) return Math.min(max, Math.max(min, highestValueIn(i)));
+            }
+            return max;
+        }
+
+        public void reset(){
+            Arrays.fill(counts, 0);
+            count = 0;
+            total = 0;
+            min = Long.MAX_VALUE;
+            max = 0;
+        }
+
+        public String getName(){
+            return name;
+        }
+
+        public long getCount(){
+            return count;
+        }
+
+        public long getMin(){
+            return (count == 0) ? 0 : min;
+        }
+
+        public long getMax(){
+            return max;
+        }
+
+        public double getMean(){
+            return (count == 0) ? 0 : (double)total / count;
+        }
+
+        // which bucket a value goes in:
+        static int bucketOf(long value){
+            if (value < SUB_BUCKETS) return (int)value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value); // (which power of two it's in; at least SUB_BUCKET_BITS)
+            int subBucket = (int)(value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        // the biggest value that goes in bucket i:
+        static long highestValueIn(int i){
+            if (i < SUB_BUCKETS) return i;
+            int exponent = i / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            int subBucket = i % SUB_BUCKETS;
+            long lowest = (1L << exponent) | ((long)subBucket << (exponent - SUB_BUCKET_BITS));
+            return lowest + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+
+    // how long things take, in nanoseconds:
+    private final Histogram tickNanos = new Histogram("tickNanos");
+    private final Histogram paintNanos = new Histogram("paintNanos");
+    private final Histogram collisionNanos = new Histogram("collisionNanos");
+    // how many timers were waiting on the clock, recorded once a tick:
+    private final Histogram timerQueueDepth = new Histogram("timerQueueDepth");
+    private int lastTimerQueueDepth = 0;
+
+    // how many eggs were in each stage on the last tick (the index is the eggStage's ordinal):
+    private final int[] stageCounts = new int[eggStage.values().length];
+    private final int[] countingStages = new int[eggStage.values().length]; // (the counts for the tick we're in the middle of)
+
+    // how many times things have happened (these used to be printed out, right in the middle of the collision checker):
+    private long eggsEaten = 0;        // ready-to-eat eggs the dragon ate
+    private long rawEggsEaten = 0;     // eggs the dragon ate before they were ready
+    private long bites = 0;            // times a hungry creature bit the dragon
+    private long eggsShot = 0;         // eggs the fireball hit
+    private long creaturesKilled = 0;  // creatures the fireball hit
+
+    /*
+     * recording things (the GameWorld and the FrameRenderer call these):
+     */
+    public void recordTick(long nanos){
+        tickNanos.record(nanos);
+    }
+
+    public void recordPaint(long nanos){
+        paintNanos.record(nanos);
+    }
+
+    public void recordCollisions(long nanos){
+        collisionNanos.record(nanos);
+    }
+
+    public void recordTimerQueueDepth(int size){
+        timerQueueDepth.record(size);
+        lastTimerQueueDepth = size;
+    }
+
+    /**
+     * countStage
+     * ----------
+     * Counts one egg in the given stage (call it for every egg, and then call stagesCounted()).
+     */
+    public void countStage(eggStage stage){
+        countingStages[stage.ordinal()]++;
+    }
+
+    /**
+     * stagesCounted
+     * -------------
+     * Every egg has been counted, so those are now the stage counts (and the next countStage starts over).
+     */
+    public void stagesCounted(){
+        for (int i = 0; i < stageCounts.length; i++){
+            stageCounts[i] = countingStages[i];
+            countingStages[i] = 0;
+        }
+    }
+
+    public void eggEaten(){
+        eggsEaten++;
+    }
+
+    public void rawEggEaten(){
+        rawEggsEaten++;
+    }
+
+    public void creatureBit(){
+        bites++;
+    }
+
+    public void eggShot(){
+        eggsShot++;
+    }
+
+    public void creatureKilled(){
+        creaturesKilled++;
+    }
+
+    /**
+     * reset
+     * -----
+     * Forgets everything that's been recorded so far.
+     */
+    public void reset(){
+        tickNanos.reset();
+        paintNanos.reset();
+        collisionNanos.reset();
+        timerQueueDepth.reset();
+        Arrays.fill(stageCounts, 0);
+        Arrays.fill(countingStages, 0);
+        lastTimerQueueDepth = 0;
+        eggsEaten = rawEggsEaten = bites = eggsShot = creaturesKilled = 0;
+    }
+
+    /**
+     * overlayLines
+     * ------------
+     * The metrics as a few lines of text, for drawing over the game (times in milliseconds).
+     */
+    public String[] overlayLines(){
+        StringBuilder stages = new StringBuilder("eggs:");
+        for (eggStage stage: eggStage.values()){
+            if (stageCounts[stage.ordinal()] > 0) stages.append(' ').append(stage).append(' ').append(stageCounts[stage.ordinal()]);
+        }
+        return new String[] {
+            timeLine("tick", tickNanos),
+            timeLine("paint", paintNanos),
+            timeLine("collisions", collisionNanos),
+            "timers: now " + lastTimerQueueDepth + ", mean " + String.format("%.0f", timerQueueDepth.getMean())
+                + ", max " + timerQueueDepth.getMax(),
+            stages.toString(),
+            "eaten " + eggsEaten + ", raw " + rawEggsEaten + ", bites " + bites + ", eggs shot " + eggsShot + ", killed " + creaturesKilled,
+        };
+    }
+
+    // one histogram of nanoseconds as a line of text in milliseconds:
+    private static String timeLine(String label, Histogram h){
+        return String.format("%s: mean %.2f  50%% %.2f  99%% %.2f  max %.2f ms  (%d)", label, h.getMean() / 1e6,
+            h.valueAtPercentile(50) / 1e6, h.valueAtPercentile(99) / 1e6, h.getMax() / 1e6, h.getCount());
+    }
+
+    /**
+     * writeCsv
+     * --------
+     * Writes all the metrics to a CSV file (for a spreadsheet, or for comparing two versions of the game):
+     * one row for each histogram (count, min, mean, percentiles, max), then one row for each stage and each counter
+     * (with its number in the value column).
+     */
+    public void writeCsv(File file) throws IOException {
+        try (PrintWriter csv = new PrintWriter(new BufferedWriter(new FileWriter(file)))){
+            csv.println("metric,count,min,mean,p50,p90,p99,p999,max,value");
+            for (Histogram h: new Histogram[] {tickNanos, paintNanos, collisionNanos, timerQueueDepth}){
+                csv.println(h.getName() + "," + h.getCount() + "," + h.getMin() + "," + String.format("%.1f", h.getMean()) + ","
+                    + h.valueAtPercentile(50) + "," + h.valueAtPercentile(90) + "," + h.valueAtPercentile(99) + ","
+                    + h.valueAtPercentile(99.9) + "," + h.getMax() + ",");
+            }
+            for (eggStage stage: eggStage.values()){
+                csv.println("stage." + stage + ",,,,,,,,," + stageCounts[stage.ordinal()]);
+            }
+            csv.println("eggsEaten,,,,,,,,," + eggsEaten);
+            csv.println("rawEggsEaten,,,,,,,,," + rawEggsEaten);
+            csv.println("bites,,,,,,,,," + bites);
+            csv.println("eggsShot,,,,,,,,," + eggsShot);
+            csv.println("creaturesKilled,,,,,,,,," + creaturesKilled);
+        }
+    }
+
+    /*
+     * getters:
+     */
+    public Histogram getTickNanos(){
+        return tickNanos;
+    }
+
+    public Histogram getPaintNanos(){
+        return paintNanos;
+    }
+
+    public Histogram getCollisionNanos(){
+        return collisionNanos;
+    }
+
+    public Histogram getTimerQueueDepth(){
+        return timerQueueDepth;
+    }
+
+    public int getStageCount(eggStage stage){
+        return stageCounts[stage.ordinal()];
+    }
+
+    public long getEggsEaten(){
+        return eggsEaten;
+    }
+
+    public long getRawEggsEaten(){
+        return rawEggsEaten;
+    }
+
+    public long getBites(){
+        return bites;
+    }
+
+    public long getEggsShot(){
+        return eggsShot;
+    }
+
+    public long getCreaturesKilled(){
+        return creaturesKilled;
+    }
+
+} // end EngineMetrics class
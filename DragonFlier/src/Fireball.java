@@ -3,8 +3,6 @@ import java.awt.Dimension;
 import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -13,7 +11,6 @@ import javax.swing.InputMap;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
-import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import java.io.File;
@@ -52,12 +49,22 @@ public class Fireball extends DragonGameShape {
     int imageWidth; 
     int imageHeight; 
     
-    // A Swing timer is set every time you shoot the fireball:
-    Timer timerUntilReadyToFireAgain = null;
+    // A timer is set every time you shoot the fireball. It goes off every tenth of a second
+    // (on the game's clock) to count down until you're ready to fire again:
+    TimingWheel clock;
+    final TimingWheel.Task timerUntilReadyToFireAgain = new TimingWheel.Task() {
+            @Override
+            public void run() {
+                secondsUntilReadyToFire -= 0.1;
+                if (secondsUntilReadyToFire <= 0.0) getReadyToFire();
+                else clock.schedule(this, clock.ticksFor(100)); // keep ticking down
+            }
+        };
 
-    public Fireball(Dragon d, Background b, int frame_width,int frame_height){
+    public Fireball(Dragon d, Background b, TimingWheel clock, int frame_width,int frame_height){
         this.dragon = d;
         this.background = b;
+        this.clock = clock;
         this.FRAME_WIDTH = frame_width;
         this.FRAME_HEIGHT = frame_height;
         this.loc.gravity = 0.98; // maybe I want to change gravity later?
@@ -70,22 +77,19 @@ public class Fireball extends DragonGameShape {
     /**
      * loadImages
      * ----------
-     * This is just a helper method for the constructors, to load all the images we need
+     * This is just a helper method for the constructors, to get all the images we need
+     * (they're decoded just once, by the Sprites class).
      * PRE: all the images are in the images folder!
      * POST: images are ready to go.
      */
     private void loadImages(){
-        try {
-            this.fireballImage = ImageIO.read(new File("images/fireball1.png"));
-            this.currentFireballImage = this.fireballImage;
-            this.imageWidth = this.fireballImage.getWidth();
-            this.imageHeight = this.fireballImage.getHeight();
-            this.puffOfSmokeImage = ImageIO.read(new File("images/puffOfSmoke.png"));
+        this.fireballImage = Sprites.fireballImage();
+        this.puffOfSmokeImage = Sprites.puffOfSmokeImage();
+        this.currentFireballImage = this.fireballImage;
+        if (this.fireballImage == null) return; // the image couldn't be loaded.
 
-        }
-        catch (IOException e) {
-            e.printStackTrace();
-        }
+        this.imageWidth = this.fireballImage.getWidth();
+        this.imageHeight = this.fireballImage.getHeight();
     }
 
     /**
@@ -99,19 +103,59 @@ public class Fireball extends DragonGameShape {
      */
     //@Override
     public void draw(Graphics g) {
+        draw(g, this.background.loc.x, this.background.loc.y);
+    }
+
+    /**
+     * draw
+     * ----
+     * The same, but as if the background was at bx,by (see Background.draw(g, x, y)).
+     */
+    public void draw(Graphics g, double bx, double by) {
         if (!this.readyToFire) drawReadyToFireMeter(g);
         
         if (!fired) return;
 
-        // this needs to draw relative to the background's location.
-        double bx = this.background.loc.x;
-        double by = this.background.loc.y;
-
+        // this needs to draw relative to the background's location (bx,by).
         int x = (int)(loc.x + bx); // so that it's relative to the background location.
         int y = (int)(loc.y + by);
 
+        // don't bother drawing it if it's flown off the screen:
+        if (x + imageWidth/2 < 0 || x - imageWidth/2 >= FRAME_WIDTH || y + imageHeight/2 < 0 || y - imageHeight/2 >= FRAME_HEIGHT) return;
+
         g.drawImage(currentFireballImage, (int)x-(imageWidth/2), (int)y-(imageHeight/2), null);
     }
+
+    /**
+     * addTo
+     * -----
+     * Adds what draw(g, bx, by) would draw to contents (see FrameContents), so it can be drawn later.
+     */
+    public void addTo(FrameContents contents, double bx, double by) {
+        if (!this.readyToFire) addReadyToFireMeterTo(contents);
+
+        if (!fired) return;
+
+        int x = (int)(loc.x + bx);
+        int y = (int)(loc.y + by);
+        if (x + imageWidth/2 < 0 || x - imageWidth/2 >= FRAME_WIDTH || y + imageHeight/2 < 0 || y - imageHeight/2 >= FRAME_HEIGHT) return;
+
+        contents.image(currentFireballImage, x-(imageWidth/2), y-(imageHeight/2));
+    }
+
+    /**
+     * addScreenBounds
+     * ---------------
+     * Adds the rectangles that draw() draws in to region:
+     * the fireball (or puff of smoke) if it's been fired, and the ready to fire meter if it's showing.
+     */
+    public void addScreenBounds(DirtyRegion region){
+        if (!this.readyToFire) region.add(FRAME_WIDTH/3 + 100, 12, 250, 40); // (where drawReadyToFireMeter draws it)
+        if (!fired) return;
+        int x = (int)(loc.x + this.background.loc.x);
+        int y = (int)(loc.y + this.background.loc.y);
+        region.add(x-(imageWidth/2), y-(imageHeight/2), currentFireballImage.getWidth(), currentFireballImage.getHeight());
+    }
     
     /**
      * drawReadyToFireMeter
@@ -154,6 +198,21 @@ public class Fireball extends DragonGameShape {
         g.fillRect(smallX, smallY, (int)((double)smallRecWidth * percentageUntilReady), smallRecHeight);
     }
 
+    /**
+     * addReadyToFireMeterTo
+     * ---------------------
+     * The same meter as drawReadyToFireMeter, added to contents instead of drawn.
+     */
+    private void addReadyToFireMeterTo(FrameContents contents){
+        int x = FRAME_WIDTH/3 + 100;
+        int y = 12;
+        double secondsElapsed = (numberOfSecondsItTakesToBeReadyToFireAgain - secondsUntilReadyToFire);
+        double percentageUntilReady =  secondsElapsed / numberOfSecondsItTakesToBeReadyToFireAgain ;
+        contents.fillRect(Color.BLACK, x, y, 250, 40);
+        contents.fillRect(Color.ORANGE, x + 5, y + 5, 240, 30);
+        contents.fillRect(Color.RED, x + 5, y + 5, (int)(240.0 * percentageUntilReady), 30);
+    }
+
     /**
      * nextLoc
      * -------
@@ -162,9 +221,11 @@ public class Fireball extends DragonGameShape {
      * PRE: this.loc has been set
      * POST: none; this doesn't change anything, it only returns a LocationAndVelocity object representing
      *       the next location of the fireball.
+     *       (It's this.scratchLoc, which gets overwritten the next time nextLoc is called.)
      */
     public LocationAndVelocity nextLoc(){
-        LocationAndVelocity tempLoc = new LocationAndVelocity(loc);
+        LocationAndVelocity tempLoc = this.scratchLoc; // (reused every time, so we don't make a new object each tick)
+        tempLoc.set(this.loc);
 
         double acceleration = tempLoc.acceleration;
         double maxVelocity = tempLoc.maxVelocity;
@@ -277,7 +338,7 @@ public class Fireball extends DragonGameShape {
         }
 
         // now, determine new next location and move there.
-        this.loc = nextLoc();
+        this.loc.set(nextLoc());
         // if you stop moving, you've stopped firing, (so you won't be drawn, so you'll disappear):
         if (Math.abs(this.loc.xv) < 0.05 && Math.abs(this.loc.yv) < 0.05) this.fired = false; 
     }
@@ -327,17 +388,7 @@ public class Fireball extends DragonGameShape {
             this.readyToFire = false;
 
             int timeUntilReadyToFire = 100; // it ticks down every tenth of a second
-            timerUntilReadyToFireAgain = new Timer(timeUntilReadyToFire, new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        
-                        secondsUntilReadyToFire -= 0.1;
-                        if (secondsUntilReadyToFire <= 0.0) getReadyToFire();
-
-                    }
-                });
-            timerUntilReadyToFireAgain.setRepeats(true);    
-            timerUntilReadyToFireAgain.start();
+            clock.schedule(timerUntilReadyToFireAgain, clock.ticksFor(timeUntilReadyToFire));
 
             loc = new LocationAndVelocity(dragon.getLoc());
             loc.x -= background.loc.x;
@@ -379,7 +430,7 @@ public class Fireball extends DragonGameShape {
         this.readyToFire = true;
         this.fired = false;
         this.secondsUntilReadyToFire = this.numberOfSecondsItTakesToBeReadyToFireAgain;
-        timerUntilReadyToFireAgain.stop();
+        clock.cancel(timerUntilReadyToFireAgain);
         this.currentFireballImage = this.fireballImage;
         //System.out.println("ready to fire!");
 
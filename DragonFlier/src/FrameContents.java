@@ -0,0 +1,151 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * FrameContents
+ * -------------
+ * Everything one frame of the game shows, written down as a list of things to draw, in order:
+ * the background (and where it is), and then images, rectangles and text, each with where it goes.
+ * The FrameRenderer fills it in from the GameWorld while the simulation is waiting (holding the worldLock),
+ * and then drawOn() draws it after the lock has been let go, so the simulation can keep going while the frame is drawn
+ * (see FrameRenderer.capture() and FrameRenderer.drawCaptured()).
+ *
+ * Only numbers, and things that never change once they're made (images, colors, fonts and strings), go in here,
+ * so nothing the simulation does afterwards can change what gets drawn.
+ * It's reused for every frame, so drawing doesn't make garbage.
+ */
+public class FrameContents {
+
+    // what each thing in the list is:
+    private static final int BACKGROUND = 0, IMAGE = 1, SCALED_IMAGE = 2, FILL_RECT = 3, DRAW_RECT = 4, TEXT = 5;
+
+    private int size = 0;
+    private int[] kind = new int[64];
+    private Object[] thing = new Object[64]; // the Background, BufferedImage or String to draw
+    private Color[] color = new Color[64];
+    private Font[] font = new Font[64];
+    private int[] x = new int[64], y = new int[64], width = new int[64], height = new int[64];
+
+    /**
+     * clear
+     * -----
+     * Empties the list (so it can be filled in for the next frame).
+     */
+    public void clear(){
+        Arrays.fill(thing, 0, size, null); // (so old images and strings can be garbage collected)
+        Arrays.fill(color, 0, size, null);
+        Arrays.fill(font, 0, size, null);
+        size = 0;
+    }
+
+    /*
+     * the things that can be drawn (each one goes on the end of the list):
+     */
+
+    // the background's images, with the background at bx,by (see Background.draw(g, x, y)):
+    public void background(Background background, int bx, int by){
+        add(BACKGROUND, background, null, null, bx, by, 0, 0);
+    }
+
+    public void image(BufferedImage image, int left, int top){
+        add(IMAGE, image, null, null, left, top, 0, 0);
+    }
+
+    // (stretched or squashed to w by h)
+    public void image(BufferedImage image, int left, int top, int w, int h){
+        add(SCALED_IMAGE, image, null, null, left, top, w, h);
+    }
+
+    public void fillRect(Color c, int left, int top, int w, int h){
+        add(FILL_RECT, null, c, null, left, top, w, h);
+    }
+
+    public void drawRect(Color c, int left, int top, int w, int h){
+        add(DRAW_RECT, null, c, null, left, top, w, h);
+    }
+
+    // (x,y is where the text's baseline starts, like g.drawString)
+    public void text(String s, Font f, Color c, int left, int baseline){
+        add(TEXT, s, c, f, left, baseline, 0, 0);
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * drawOn
+     * ------
+     * Draws everything in the list with g, in the order it was added.
+     * PRE: g is not null
+     */
+    public void drawOn(Graphics g){
+        drawOn(g, 0, size);
+    }
+
+    /**
+     * drawOn
+     * ------
+     * The same, but only the things from index from (inclusive) up to to (exclusive).
+     * PRE: g is not null, 0 <= from <= to <= size()
+     */
+    public void drawOn(Graphics g, int from, int to){
+        for (int i = from; i < to; i++){
+            switch (kind[i]){
+                case BACKGROUND:
+                    ((Background) thing[i]).draw(g, x[i], y[i]);
+                    break;
+                case IMAGE:
+                    g.drawImage((BufferedImage) thing[i], x[i], y[i], null);
+                    break;
+                case SCALED_IMAGE:
+                    g.drawImage((BufferedImage) thing[i], x[i], y[i], width[i], height[i], null);
+                    break;
+                case FILL_RECT:
+                    g.setColor(color[i]);
+                    g.fillRect(x[i], y[i], width[i], height[i]);
+                    break;
+                case DRAW_RECT:
+                    g.setColor(color[i]);
+                    g.drawRect(x[i], y[i], width[i], height[i]);
+                    break;
+                case TEXT:
+                    g.setColor(color[i]);
+                    g.setFont(font[i]);
+                    g.drawString((String) thing[i], x[i], y[i]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void add(int what, Object it, Color c, Font f, int left, int top, int w, int h){
+        if (size == kind.length) grow();
+        kind[size] = what;
+        thing[size] = it;
+        color[size] = c;
+        font[size] = f;
+        x[size] = left;
+        y[size] = top;
+        width[size] = w;
+        height[size] = h;
+        size++;
+    }
+
+    private void grow(){
+        int capacity = kind.length * 2;
+        kind = Arrays.copyOf(kind, capacity);
+        thing = Arrays.copyOf(thing, capacity);
+        color = Arrays.copyOf(color, capacity);
+        font = Arrays.copyOf(font, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        width = Arrays.copyOf(width, capacity);
+        height = Arrays.copyOf(height, capacity);
+    }
+
+} // end FrameContents class
@@ -0,0 +1,328 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+
+/**
+ * FrameRenderer
+ * -------------
+ * Draws one whole frame of a GameWorld: the background, the fireball, the message box, the eggs, the dragon,
+ * and the HUD on top. The GamePane uses it to draw the game in the window, and the benchmarks use it
+ * to draw the game into an offscreen image (so we can time how long a frame takes without opening a window).
+ *
+ * Only the eggs that can be seen in the window get drawn: the world's eggGrid tells us which eggs are inside the window
+ * (plus a margin, so a creature that's half on the screen still gets drawn), so the rest are never even looked at,
+ * and drawing a frame takes about as long in a huge cavern full of eggs as in a small one.
+ * Leaving eggs out doesn't change the game: drawing an egg never changes it (a creature's animation, and the collision
+ * mask that goes with it, move along every tick in Egg.animate(), whether the creature gets drawn or not).
+ *
+ * Drawing a frame is split in two: capture() looks at the world and writes down everything the frame shows
+ * (in a FrameContents: which images go where, the rectangles and the text), and drawCaptured() draws it.
+ * Only capture() needs the world to hold still, so the window holds the worldLock just for that,
+ * and the simulation can keep going while drawCaptured() does the slow part.
+ *
+ * It times every frame it draws (into the world's EngineMetrics), and if showMetrics is on (the M key), it draws the
+ * metrics over the top of the game.
+ *
+ * It also remembers what it drew, so that findDirtyRegion() can work out which parts of the window have changed since
+ * the last frame (where the dragon was and is, the eggs that have changed, the score if it's gone up, ...).
+ * Then the GamePane only draws those parts again. If the background has scrolled, everything has moved,
+ * so that's the whole frame.
+ */
+public class FrameRenderer {
+
+    private final Hud hud; // draws the score, life left, etc.
+
+    private final ArrayList<Egg> visibleEggs = new ArrayList<>(); // (reused every frame, so drawing doesn't make garbage)
+    private final FrameContents contents = new FrameContents(); // what capture() wrote down for drawCaptured() to draw
+    private int metricsStart = 0; // where the metrics overlay starts in contents (it's drawn, but not timed)
+    private long captureNanos = 0; // how long the last capture() took
+    private long unrecordedPaintNanos = -1; // how long the last frame took, if it hasn't been put in the metrics yet (-1 if it has)
+    private int eggsDrawn = 0; // how many eggs the last frame drew (for the benchmarks)
+
+    // the metrics overlay (volatile, since the M key turns it on and off from the Swing thread):
+    private volatile boolean showMetrics = false;
+    private static final Font METRICS_FONT = new Font("Monospaced", Font.PLAIN, 14);
+    private static final Color METRICS_BACKGROUND = new Color(0, 0, 0, 170);
+    private String[] metricsLines = new String[0];
+    private int framesUntilMetricsUpdate = 0; // (the text is only remade a few times a second, so it can be read)
+    private static final int METRICS_X = 25, METRICS_Y = 70, METRICS_LINE_HEIGHT = 18, METRICS_WIDTH = 560;
+
+    // what the last frame drew (for findDirtyRegion):
+    private long framesDrawn = 0;
+    private final ArrayList<Egg> drawnEggs = new ArrayList<>();
+    private DirtyRegion drawnMovers = null; // where the dragon and the fireball were (made once we know how big the window is)
+    private int drawnBackgroundX, drawnBackgroundY;
+    private boolean messageBoxDrawn = false;
+    private boolean youDiedDrawn = false;
+    // the world's step count when findDirtyRegion() was last called, and whether the next frame needs to be the whole thing
+    // (because a frame that only drew part of the window was drawn after the game had moved on from that step):
+    private long dirtyRegionStep = -1;
+    private boolean needsWholeFrame = false;
+
+    /**
+     * FrameRenderer constructor:
+     * --------------------------
+     * frameWidth is the width of the window (the HUD needs it to know where to put the score).
+     */
+    public FrameRenderer(int frameWidth){
+        this.hud = new Hud(frameWidth);
+    }
+
+    /**
+     * draw
+     * ----
+     * Draws everything in the world with g.
+     * PRE: g and world are not null, and nothing else is changing the world while we draw it.
+     * POST: the whole frame has been drawn.
+     */
+    public void draw(Graphics g, GameWorld world){
+        draw(g, world, true);
+    }
+
+    /**
+     * draw
+     * ----
+     * The same, but if wholeFrame is false, g is clipped to the region that findDirtyRegion() found
+     * (so only that part of the window really gets drawn).
+     * PRE: g and world are not null, and nothing else is changing the world while we draw it.
+     */
+    public void draw(Graphics g, GameWorld world, boolean wholeFrame){
+        Background background = world.getBackground();
+        draw(g, world, wholeFrame, background.loc.x, background.loc.y);
+    }
+
+    /**
+     * draw
+     * ----
+     * The same, but with the background (and everything that moves with it: the eggs and the fireball) drawn as if
+     * the background was at backgroundX,backgroundY. The window uses this to draw the background part-way between
+     * where it was on the last two ticks, so the scrolling looks smooth.
+     * Drawing doesn't change anything in the world (not even the background), so it can't change how the game goes.
+     * It's just capture() and then drawCaptured().
+     * PRE: g and world are not null, and nothing else is changing the world while we draw it.
+     */
+    public void draw(Graphics g, GameWorld world, boolean wholeFrame, double backgroundX, double backgroundY){
+        capture(world, wholeFrame, backgroundX, backgroundY);
+        drawCaptured(g);
+        recordPaintTime(world.getMetrics()); // (now, instead of at the next capture)
+    }
+
+    /**
+     * capture
+     * -------
+     * Writes down everything the frame will show (see FrameContents), with the background at backgroundX,backgroundY,
+     * but doesn't draw any of it: drawCaptured() does that. The images, colors and fonts in it never change,
+     * and everything else is copied, so once this is done the world can change all it wants without changing the frame.
+     * The window calls this holding worldLock, and then lets go of the lock before it calls drawCaptured(),
+     * so the simulation doesn't have to wait while the frame is drawn.
+     * (wholeFrame is the same as for draw.)
+     * PRE: world is not null, and nothing else is changing the world while we look at it.
+     * POST: drawCaptured() will draw the frame.
+     */
+    public void capture(GameWorld world, boolean wholeFrame, double backgroundX, double backgroundY){
+        long start = System.nanoTime();
+        recordPaintTime(world.getMetrics()); // (the last frame's, if it was drawn after the lock was let go)
+        if (wholeFrame) needsWholeFrame = false;
+        else if (world.getStepCount() != dirtyRegionStep || (int) backgroundX != drawnBackgroundX || (int) backgroundY != drawnBackgroundY){
+            needsWholeFrame = true; // (the game has moved on since findDirtyRegion, so something might have changed outside the region)
+        }
+        framesDrawn++;
+
+        // To get something (background, dragon, egg, etc.) to be drawn,
+        // each thing has its own addTo method, that adds what it would draw to the contents (in the order it's drawn):
+        contents.clear();
+        contents.background(world.getBackground(), (int) backgroundX, (int) backgroundY);
+        world.getFireball().addTo(contents, backgroundX, backgroundY);
+        MessageBox messageBox = world.getMessageBox();
+        if(messageBox.getRun()) {
+        	messageBox.addTo(contents);
+        }
+
+        addEggs(world, backgroundX, backgroundY); // (only the ones in the window)
+        Dragon dragon = world.getDragon();
+        dragon.addTo(contents);
+
+        // the score, life bar, etc. are drawn by the HUD:
+        hud.addScore(contents, world.getScore());
+        hud.addLifeLeft(contents, 25,12, dragon.getLifeLeft());
+        if (dragon.getLifeLeft() <= 0) hud.addYouDied(contents);
+        hud.addSecondsElapsed(contents, world.getSecondsElapsed());
+
+        rememberWhatWasDrawn(world, backgroundX, backgroundY);
+
+        metricsStart = contents.size();
+        if (showMetrics) addMetrics(world.getMetrics()); // (on top of everything, and not counted in the paint time)
+        captureNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * drawCaptured
+     * ------------
+     * Draws the frame that capture() wrote down, with g. It doesn't look at the world at all,
+     * so it doesn't need the worldLock. How long it took (and the capture) is counted in the paint time.
+     * PRE: g is not null, capture() has been called.
+     */
+    public void drawCaptured(Graphics g){
+        long start = System.nanoTime();
+        contents.drawOn(g, 0, metricsStart);
+        unrecordedPaintNanos = captureNanos + (System.nanoTime() - start);
+        contents.drawOn(g, metricsStart, contents.size()); // (after we stop the timer, so drawing them doesn't count)
+    }
+
+    // puts the time the last frame took in metrics (if it hasn't been put there already):
+    private void recordPaintTime(EngineMetrics metrics){
+        if (unrecordedPaintNanos < 0) return;
+        metrics.recordPaint(unrecordedPaintNanos);
+        unrecordedPaintNanos = -1;
+    }
+
+    /**
+     * addMetrics
+     * ----------
+     * Adds the metrics (tick, paint and collision times, timers, eggs in each stage, ...) in a dark box under the life bar.
+     * PRE: metrics is not null
+     */
+    private void addMetrics(EngineMetrics metrics){
+        if (framesUntilMetricsUpdate <= 0){
+            metricsLines = metrics.overlayLines();
+            framesUntilMetricsUpdate = 15;
+        }
+        framesUntilMetricsUpdate--;
+
+        int lineHeight = METRICS_LINE_HEIGHT;
+        int x = METRICS_X, y = METRICS_Y;
+        contents.fillRect(METRICS_BACKGROUND, x - 8, y - 4, METRICS_WIDTH, metricsLines.length * lineHeight + 8);
+        for (int i = 0; i < metricsLines.length; i++){
+            contents.text(metricsLines[i], METRICS_FONT, Color.GREEN, x, y + (i + 1) * lineHeight - 4);
+        }
+    }
+
+    /**
+     * toggleMetrics
+     * -------------
+     * Turns the metrics overlay on if it's off, and off if it's on.
+     */
+    public void toggleMetrics(){
+        showMetrics = !showMetrics;
+        framesUntilMetricsUpdate = 0;
+    }
+
+    public void setShowMetrics(boolean showMetrics){
+        this.showMetrics = showMetrics;
+        framesUntilMetricsUpdate = 0;
+    }
+
+    /**
+     * drawEggs
+     * --------
+     * Draws the eggs that are in the window (and none of the others), with the background at backgroundX,backgroundY.
+     * PRE: g and world are not null
+     * POST: getEggsDrawn() is how many eggs it drew.
+     */
+    void drawEggs(Graphics g, GameWorld world, double backgroundX, double backgroundY){
+        contents.clear();
+        metricsStart = 0;
+        addEggs(world, backgroundX, backgroundY);
+        contents.drawOn(g);
+    }
+
+    /**
+     * addEggs
+     * -------
+     * Adds the eggs that are in the window to contents (and remembers that they were drawn, for findDirtyRegion).
+     * POST: getEggsDrawn() is how many eggs it added.
+     */
+    private void addEggs(GameWorld world, double backgroundX, double backgroundY){
+        findVisibleEggs(world, backgroundX, backgroundY);
+        drawnEggs.clear();
+        for (int i = 0; i < visibleEggs.size(); i++){
+            Egg egg = visibleEggs.get(i);
+            egg.addTo(contents, backgroundX, backgroundY);
+            egg.rememberDrawn(framesDrawn, backgroundX, backgroundY);
+            drawnEggs.add(egg);
+        }
+        eggsDrawn = visibleEggs.size();
+    }
+
+    /**
+     * findVisibleEggs
+     * ---------------
+     * Fills visibleEggs with the eggs that are in the window, with the background at backgroundX,backgroundY.
+     */
+    private void findVisibleEggs(GameWorld world, double backgroundX, double backgroundY){
+        // the window is FRAME_WIDTH by FRAME_HEIGHT, and in cavern coordinates it starts at -(backgroundX,backgroundY):
+        Background background = world.getBackground();
+        double margin = Egg.largestDrawSize() / 2.0 + 1;
+        double left = -backgroundX;
+        double top = -backgroundY;
+        visibleEggs.clear();
+        world.findEggsIn(left - margin, top - margin, left + background.FRAME_WIDTH + margin, top + background.FRAME_HEIGHT + margin, visibleEggs);
+    }
+
+    /**
+     * rememberWhatWasDrawn
+     * --------------------
+     * Called at the end of draw(): remembers where the background (was drawn), the dragon and the fireball were,
+     * and what else was showing. (The eggs and the HUD remember what they drew themselves.)
+     */
+    private void rememberWhatWasDrawn(GameWorld world, double backgroundX, double backgroundY){
+        Background background = world.getBackground();
+        drawnBackgroundX = (int) backgroundX;
+        drawnBackgroundY = (int) backgroundY;
+        if (drawnMovers == null) drawnMovers = new DirtyRegion(background.FRAME_WIDTH, background.FRAME_HEIGHT);
+        drawnMovers.clear();
+        world.getDragon().addScreenBounds(drawnMovers);
+        world.getFireball().addScreenBounds(drawnMovers);
+        messageBoxDrawn = world.getMessageBox().getRun();
+        youDiedDrawn = world.getDragon().getLifeLeft() <= 0;
+    }
+
+    /**
+     * findDirtyRegion
+     * ---------------
+     * Works out which parts of the window would look different if we drew the world now, instead of how the last frame
+     * drew it, and puts them in region: where the dragon and the fireball were and are, the eggs and creatures that have
+     * changed (or gone), the parts of the HUD whose numbers have changed, the message box if it's been shown or hidden,
+     * and the metrics if they're showing. If the background has scrolled (or nothing's been drawn yet), it's the whole frame.
+     * PRE: nothing else is changing the world (the GamePane calls this from stepsDone, holding worldLock).
+     * POST: region has what needs drawing (it's empty if nothing's changed).
+     */
+    public void findDirtyRegion(GameWorld world, DirtyRegion region){
+        region.clear();
+        dirtyRegionStep = world.getStepCount();
+        Background background = world.getBackground();
+        if (framesDrawn == 0 || needsWholeFrame || (int) background.loc.x != drawnBackgroundX || (int) background.loc.y != drawnBackgroundY){
+            region.markWholeFrame();
+            return;
+        }
+
+        // the dragon is always flapping, and the fireball flies (and its meter counts down), so they always get drawn again:
+        region.addAll(drawnMovers);
+        Dragon dragon = world.getDragon();
+        dragon.addScreenBounds(region);
+        world.getFireball().addScreenBounds(region);
+
+        // the eggs that were drawn and look different now (or aren't in the game anymore):
+        for (int i = 0; i < drawnEggs.size(); i++){
+            Egg egg = drawnEggs.get(i);
+            if (egg.inPool || egg.looksDifferentFromWhenDrawn()) egg.addDrawnBounds(region);
+        }
+        // and where the eggs in the window are now, if they weren't drawn last frame or look different:
+        findVisibleEggs(world, background.loc.x, background.loc.y);
+        for (int i = 0; i < visibleEggs.size(); i++){
+            Egg egg = visibleEggs.get(i);
+            if (egg.drawnFrame != framesDrawn || egg.looksDifferentFromWhenDrawn()) egg.addScreenBounds(region);
+        }
+
+        hud.addChangedBounds(region, world.getScore(), dragon.getLifeLeft(), world.getSecondsElapsed());
+        if ((dragon.getLifeLeft() <= 0) != youDiedDrawn) hud.addYouDiedBounds(region);
+        MessageBox messageBox = world.getMessageBox();
+        if (messageBox.getRun() != messageBoxDrawn) messageBox.addScreenBounds(region);
+        if (showMetrics) region.add(METRICS_X - 8, METRICS_Y - 4, METRICS_WIDTH, metricsLines.length * METRICS_LINE_HEIGHT + 8);
+    }
+
+    public int getEggsDrawn(){
+        return eggsDrawn;
+    }
+
+} // end FrameRenderer class
@@ -0,0 +1,10 @@
+// GameInput -- the different things the player can do (each one is a key in the game; see GameWorld.apply)
+enum GameInput {
+    UP,      // the up arrow
+    DOWN,    // the down arrow
+    LEFT,    // the left arrow
+    RIGHT,   // the right arrow
+    FIRE,    // the space bar
+    RESTART, // R
+    INFO     // I
+}
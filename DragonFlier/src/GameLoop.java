@@ -0,0 +1,154 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * GameLoop
+ * --------
+ * The GameLoop runs the game's simulation on its own thread (not the Swing event thread),
+ * in fixed-size steps called "ticks". Every tick moves the game forward by exactly the same amount of time,
+ * so the game plays out the same way no matter how long painting takes.
+ *
+ * It works with an "accumulator": the real time that has gone by is added to the accumulator,
+ * and for every whole tick's worth of time in there, we run one tick and take that time back out.
+ * If painting stalls for a while, the loop just runs a few ticks in a row to catch up.
+ * After each batch of ticks, the simulation gets a chance to publish what it looks like now (for painting).
+ *
+ * Anything that wants to change the game from another thread (like a key press)
+ * should hand it to post(), and it'll be run on the loop's thread at the start of the next tick.
+ */
+public class GameLoop implements Runnable {
+
+    /**
+     * Simulation
+     * ----------
+     * Whatever the loop is running has to be able to do these two things.
+     */
+    public interface Simulation {
+        // moves everything forward by one tick.
+        void step();
+
+        // called after a batch of ticks; tick is the number of the last tick, and
+        // tickNanos is the System.nanoTime() of when it ran.
+        void stepsDone(long tick, long tickNanos);
+    }
+
+    // if we ever fall further behind than this, we give up on catching up on the extra time
+    // (the game slows down instead of freezing while it tries to catch up):
+    private static final long MAX_CATCH_UP_NANOS = 250_000_000L;
+
+    private final Simulation simulation;
+    private final Object lock; // the ticks are run while holding this, so painting can hold it too.
+    private final long nanosPerTick;
+
+    private final ConcurrentLinkedQueue<Runnable> posted = new ConcurrentLinkedQueue<>();
+
+    private volatile double speed = 1.0; // 2.0 means the game runs twice as fast as real time, etc.
+    private volatile boolean running = false;
+    private Thread thread = null;
+    private volatile long tick = 0;
+
+    /**
+     * GameLoop constructor:
+     * ---------------------
+     * millisPerTick is how much game time one tick is worth.
+     * Ticks run while holding lock.
+     */
+    public GameLoop(Simulation simulation, Object lock, double millisPerTick) {
+        this.simulation = simulation;
+        this.lock = lock;
+        this.nanosPerTick = (long)(millisPerTick * 1_000_000.0);
+    }
+
+    /**
+     * start
+     * -----
+     * Starts the simulation thread.
+     * PRE: it isn't already running.
+     */
+    public synchronized void start(){
+        if (running) return;
+        running = true;
+        thread = new Thread(this, "DragonFlier simulation");
+        thread.setDaemon(true); // so it doesn't keep the program alive once the window's closed.
+        thread.start();
+    }
+
+    /**
+     * stop
+     * ----
+     * Stops the simulation thread (after it finishes the tick it's on).
+     */
+    public synchronized void stop(){
+        running = false;
+        if (thread != null) thread.interrupt();
+        thread = null;
+    }
+
+    /**
+     * post
+     * ----
+     * Runs something on the simulation thread, right before the next tick.
+     * This can be called from any thread.
+     */
+    public void post(Runnable r){
+        posted.add(r);
+    }
+
+    @Override
+    public void run(){
+        long accumulator = 0;
+        long last = System.nanoTime();
+
+        while (running){
+            long now = System.nanoTime();
+            accumulator += (long)((now - last) * speed);
+            last = now;
+            if (accumulator > MAX_CATCH_UP_NANOS) accumulator = MAX_CATCH_UP_NANOS;
+
+            if (accumulator >= nanosPerTick){
+                synchronized (lock){
+                    long tickNanos = now;
+                    while (accumulator >= nanosPerTick){
+                        runPosted();
+                        simulation.step();
+                        tick++;
+                        accumulator -= nanosPerTick;
+                        tickNanos = System.nanoTime();
+                    }
+                    simulation.stepsDone(tick, tickNanos);
+                }
+            }
+
+            // sleep until there's about a tick's worth of time to do:
+            long nanosToWait = (long)((nanosPerTick - accumulator) / speed);
+            if (nanosToWait > 0) LockSupport.parkNanos(nanosToWait);
+        }
+    }
+
+    private void runPosted(){
+        Runnable r;
+        while ((r = posted.poll()) != null){
+            r.run();
+        }
+    }
+
+    /*
+     * getters and setters:
+     */
+    public long getTick(){
+        return tick;
+    }
+
+    public long getNanosPerTick(){
+        return nanosPerTick;
+    }
+
+    public void setSpeed(double speed){
+        this.speed = speed;
+    }
+
+    public double getSpeed(){
+        return speed;
+    }
+
+} // end GameLoop class
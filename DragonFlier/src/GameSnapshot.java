@@ -0,0 +1,55 @@
+/**
+ * GameSnapshot
+ * ------------
+ * A GameSnapshot is published by the simulation after each batch of ticks, so painting knows
+ * which tick it's looking at and where the background (the "camera") was on the last two ticks.
+ * It can't be changed once it's made, so it's safe to hand from the simulation thread to the painting thread.
+ *
+ * Painting usually happens somewhere in between two ticks. To keep the motion smooth,
+ * painting can use interpolatedX/Y to draw the background part-way between where it was
+ * on the previous tick and where it is now.
+ */
+public final class GameSnapshot {
+    public final long tick;      // the number of the last tick that ran
+    public final long tickNanos; // System.nanoTime() when it ran
+
+    // where the background was before the last tick, and where it is now:
+    public final double previousBackgroundX, previousBackgroundY;
+    public final double backgroundX, backgroundY;
+
+    public GameSnapshot(long tick, long tickNanos, double previousBackgroundX, double previousBackgroundY,
+                        double backgroundX, double backgroundY){
+        this.tick = tick;
+        this.tickNanos = tickNanos;
+        this.previousBackgroundX = previousBackgroundX;
+        this.previousBackgroundY = previousBackgroundY;
+        this.backgroundX = backgroundX;
+        this.backgroundY = backgroundY;
+    }
+
+    /**
+     * alpha
+     * -----
+     * How far we are (from 0.0 to 1.0) between the last tick and the next one, at time nowNanos.
+     */
+    public double alpha(long nowNanos, long nanosPerTick){
+        double alpha = (double)(nowNanos - tickNanos) / nanosPerTick;
+        if (alpha < 0) return 0;
+        if (alpha > 1) return 1;
+        return alpha;
+    }
+
+    /*
+     * interpolatedX / interpolatedY
+     * -----------------------------
+     * Where to draw the background: alpha of the way from the previous tick's position to the current one.
+     */
+    public double interpolatedX(double alpha){
+        return previousBackgroundX + (backgroundX - previousBackgroundX) * alpha;
+    }
+
+    public double interpolatedY(double alpha){
+        return previousBackgroundY + (backgroundY - previousBackgroundY) * alpha;
+    }
+
+} // end GameSnapshot class
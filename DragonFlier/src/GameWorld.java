@@ -0,0 +1,712 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * GameWorld
+ * ---------
+ * The GameWorld is the game itself, without any of the window or drawing stuff:
+ * the dragon, the background, the fireball and the eggs, the clock that runs their timers, and the score.
+ * Every call to step() moves the whole game forward one tick (5 milliseconds of game time),
+ * and apply() is how the player's key presses get in.
+ *
+ * Nothing in here needs a screen (or Swing), so the same game can be played in a window (see DragonFlier2's GamePane,
+ * which just draws whatever the GameWorld looks like), or run as fast as possible with no window at all (see HeadlessEngine).
+ * Since everything happens on ticks (even the timers), the same key presses on the same ticks always give the same game.
+ */
+public class GameWorld {
+
+    // how much game time one tick is worth:
+    public static final double MILLIS_PER_TICK = 5;
+
+    // the level we play, if we aren't told which one:
+    public static final String DEFAULT_LEVEL = "levels/level01.txt";
+
+    private final int frameWidth, frameHeight;
+
+    private Dragon dragon;
+    private Background background;
+    private Fireball fireball;
+    private MessageBox messageBox;
+    private ArrayList<Egg> eggList = new ArrayList<Egg>();
+
+    // All the eggs are also filed in this grid by where they are in the cavern,
+    // so the collision checker only has to look at the eggs that are nearby:
+    private SpatialHash eggGrid = new SpatialHash(256);
+    private ArrayList<Egg> nearbyEggs = new ArrayList<Egg>(); // (reused by the collision checker)
+
+    // Eggs that are done with (eaten, or shot and burned up) are taken out of the game at the end of each step,
+    // and kept in here to be used again, along with all the eggs from before a restart (see EggPool):
+    private final EggPool eggPool = new EggPool();
+    private int eggsRemoved = 0; // how many dead eggs have been taken out since the game started (or was restarted)
+    private final Predicate<Egg> removeIfDead = new Predicate<Egg>() { // (made once, so compacting doesn't make garbage)
+        @Override
+        public boolean test(Egg anEgg){
+            if (anEgg.putAway){ // (its region's been put away; it's not dead, so it isn't counted in eggsRemoved)
+                if (eggStore != null) eggStore.remove(anEgg);
+                eggGrid.remove(anEgg);
+                eggPool.free(anEgg);
+                return true;
+            }
+            if (!anEgg.isDead()) return false;
+            if (eggStore != null) eggStore.remove(anEgg);
+            eggGrid.remove(anEgg);
+            eggPool.free(anEgg);
+            eggsRemoved++;
+            return true;
+        }
+    };
+
+    // The clock that runs all the timers (when the eggs appear, ripen, hatch, when the fireball is ready again, etc.).
+    // It moves forward one tick at the start of every step(), so if the game stops, so do the timers.
+    private TimingWheel clock;
+
+    private CreatureUpdater creatureUpdater = new CreatureUpdater();
+
+    // If this isn't null, the eggs are also kept in an EggStore (in the same order as the eggList), and the creatures are moved,
+    // and checked against the dragon, with loops over its arrays instead of over the Egg objects (see setUseEggStore()):
+    private EggStore eggStore = null;
+    private final IntArrayList touchingSlots = new IntArrayList(); // (reused by the collision checker)
+
+    double creatureDamage = 0.10; // how much damage it does (as a percent of lifeLeft) when a creature hits you.
+
+    public int counter = 0; // in order to have things happen every so often...
+
+    private int score = 0; // Your score for the game.
+
+    // how many times step() has been called since the GameWorld was made (this doesn't go back to 0 when the game restarts):
+    private long stepCount = 0;
+
+    // if this isn't null, every key that gets applied is written down in it (see InputJournal):
+    private InputJournal journal = null;
+
+    // how long the ticks take, how many eggs are in each stage, etc. (this keeps going when the game restarts, like stepCount):
+    private final EngineMetrics metrics = new EngineMetrics();
+
+    // The level's eggs are made a region at a time, as the window gets near them (see LevelFile and LevelStreamer).
+    // (This is null if the level couldn't be loaded; then there just aren't any eggs.)
+    private LevelStreamer levelStreamer = null;
+    private final LevelStreamer.EggMaker eggMaker = new LevelStreamer.EggMaker() {
+        @Override
+        public Egg makeEgg(int x, int y, double secondsToAppear, double secondsToBeReadyToEat, double secondsToHatch){
+            Egg anEgg = eggPool.obtain(background, dragon, clock, x, y, secondsToAppear, secondsToBeReadyToEat, secondsToHatch);
+            addEgg(anEgg);
+            return anEgg;
+        }
+    };
+
+    /**
+     * GameWorld constructor:
+     * ----------------------
+     * frameWidth and frameHeight are the size of the window the game is played in
+     * (the dragon sits in the middle of it, and the background scrolls around behind it).
+     * This plays the DEFAULT_LEVEL.
+     */
+    public GameWorld(int frameWidth, int frameHeight){
+        this(frameWidth, frameHeight, new File(DEFAULT_LEVEL));
+    }
+
+    /**
+     * GameWorld constructor:
+     * ----------------------
+     * The same, but playing the level in levelFile (either the text form or a compiled .dflv file; see LevelFile).
+     */
+    public GameWorld(int frameWidth, int frameHeight, File levelFile){
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        try {
+            this.levelStreamer = new LevelStreamer(LevelFile.load(levelFile));
+        }
+        catch (IOException e) {
+            System.out.println("couldn't load level " + levelFile + ": " + e.getMessage());
+        }
+        reset();
+    }
+
+    /**
+     * reset
+     * -----
+     * This is used to bring everything in the game to it's original starting position.
+     * (It's used to set everything up, and also to restart the game when they press R.)
+     * PRE: all required images are in the images folder. 
+     *      (This method creates a dragon as well as the background (the first time) and fireball and eggs, all of which need images loaded up)
+     * POST: everything will be loaded up and ready to go for a new game.
+     */
+    public void reset(){
+        this.score = 0;
+        this.counter = 0;
+        this.eggsRemoved = 0;
+        this.eggGrid.clear();
+        if (eggStore != null) eggStore.clear();
+        for (Egg anEgg: eggList){
+            eggPool.free(anEgg); // (this stops its timers on the old clock, before we throw that clock away)
+        }
+        this.eggList.clear();
+        this.clock = new TimingWheel(MILLIS_PER_TICK); // (a new clock, so none of the old timers carry over)
+        // The background is made once, and just put back where it starts after that (so the cavern's tiles, and the files
+        // they come from, are kept, instead of opening the files again every time they restart):
+        if (this.background == null){
+            File cavernFile = new File((levelStreamer != null) ? levelStreamer.getLevel().getCavern() : Background.DEFAULT_CAVERN);
+            this.background = new Background(frameWidth, frameHeight, cavernFile);
+        }
+        else {
+            this.background.reset();
+        }
+        this.dragon = new Dragon(background, frameWidth/2, frameHeight/2); // dragon's starting location is in the center of the frame
+        this.fireball = new Fireball(dragon, background, clock, frameWidth, frameHeight); // fireball is initially invisible
+
+        this.messageBox = new MessageBox(0, 0, background);
+
+        loadEggs(); // creates the eggs near the start (or all of them) and puts them into this.eggList and this.eggGrid
+    }
+
+    /**
+     * close
+     * -----
+     * Closes the files the background's images come from (see Background.close()).
+     * Call this when the world won't be used any more.
+     */
+    public void close(){
+        background.close();
+    }
+
+    /**
+     * step
+     * ----
+     * This is one tick of the game.
+     * PRE: none
+     * POST: the timers have run, everything has moved one tick's worth, and collisions have been dealt with.
+     */
+    public void step(){
+        long start = System.nanoTime();
+        stepCount++;
+        clock.advance(); // runs any timers that are due this tick.
+        metrics.recordTimerQueueDepth(clock.size());
+
+        dragon.move();
+        dragon.animate(clock.getTick());
+        background.move();
+        fireball.move();
+        streamEggs(); // (makes the eggs in any region the window has come close to)
+        //messageBox.move();
+
+        // move all the hatched creatures (on several threads at once, if there are lots of them;
+        // the ones far from the dragon only move every few ticks, or not at all -- see CreatureUpdater):
+        long tick = clock.getTick();
+        if (eggStore != null){
+            moveStoredEggs(tick);
+        }
+        else {
+            creatureUpdater.update(eggList, dragon, background, tick);
+            for (int i = 0; i < eggList.size(); i++){ // (not a for-each loop, so there's no Iterator made every tick)
+                Egg anEgg = eggList.get(i);
+                anEgg.animate(tick); // (every creature, even the ones that aren't being drawn or moved this tick)
+                eggGrid.update(anEgg); // in case it moved into a different cell of the grid.
+                metrics.countStage(anEgg.stage);
+            }
+        }
+        metrics.stagesCounted();
+        long collisionStart = System.nanoTime();
+        collisionchecker();
+        long collisionEnd = System.nanoTime();
+        metrics.recordCollisions(collisionEnd - collisionStart);
+        putAwayFarRegions();
+        removeDeadEggs();
+
+        // If I wanted to do things every so often, I could use a little counter.
+        // Curently, I don't use this.
+        counter++;
+        if (counter == 100){
+            counter = 0;
+            //stuff to do from time to time...
+
+        }
+        metrics.recordTick(System.nanoTime() - start);
+    }
+
+    /**
+     * moveStoredEggs
+     * --------------
+     * The part of step() that moves the creatures, when the eggs are in the eggStore: it's the same as what step() does
+     * with the eggList, but the creatures are moved by the eggStore, and the stages are counted from its array,
+     * so only the creatures (to animate them) and the eggs that moved (to re-file them in the eggGrid) get looked at.
+     * PRE: eggStore isn't null
+     */
+    private void moveStoredEggs(long tick){
+        creatureUpdater.update(eggStore, dragon, background, tick);
+        for (int i = 0; i < eggStore.size(); i++){
+            eggStage stage = eggStore.getStage(i);
+            metrics.countStage(stage);
+            if (stage == eggStage.HATCHED || stage == eggStage.KILLED){ // (animate() leaves every other egg alone)
+                Egg anEgg = eggStore.getEgg(i);
+                anEgg.animate(tick);
+                if (eggStore.wasMoved(i)) eggGrid.update(anEgg);
+            }
+        }
+    }
+
+    /**
+     * apply
+     * -----
+     * This does whatever a key does. pressed is true when the key goes down and false when it comes back up.
+     * (The arrow keys do one thing when they're pressed and another when they're let go;
+     *  FIRE, RESTART and INFO just happen, whichever it is.)
+     * If there's a journal, the key is written down in it first (with the step count, so it can be played back on the same tick).
+     * PRE: input isn't null
+     */
+    public void apply(GameInput input, boolean pressed){
+        if (journal != null) journal.record(stepCount, input, pressed);
+        switch (input){
+            case UP:
+                background.setUp(pressed); // "setUP" means set the background to the "UP" condition, since it person just pressed the UP button.
+                break;
+            case DOWN:
+                background.setDown(pressed);
+                break;
+            case LEFT:
+                dragon.setLeft(pressed); 
+                dragon.setFacingRight(false);
+                background.setRight(pressed); // pressing left makes the backround move right
+                break;
+            case RIGHT:
+                dragon.setRight(pressed);
+                dragon.setFacingRight(true);
+                background.setLeft(pressed); // pressing right makes the background move left.
+                break;
+            case FIRE:
+                fireball.fire();
+                break;
+            case RESTART:
+                System.out.println("You typed 'R' so we'll RESTART the game!");
+                reset();
+                break;
+            case INFO:
+                System.out.println("You typed I. ");
+                messageBox.setRun(true);
+                break;
+        }
+    }
+
+    /**
+     * addEgg
+     * ------
+     * Puts one more egg into the game (on top of the ones from the level).
+     * This is handy for trying out a level with lots of eggs, like the benchmarks do.
+     * PRE: the egg was made with this world's background, dragon and clock (see getClock()).
+     * POST: the egg is in the eggList and the eggGrid.
+     */
+    public void addEgg(Egg anEgg){
+        eggList.add(anEgg);
+        eggGrid.insert(anEgg);
+        if (eggStore != null) eggStore.add(anEgg);
+    }
+
+    /**
+     * setUseEggStore
+     * --------------
+     * Turns the EggStore on (or off). It's off unless this turns it on.
+     * While it's on, every egg is in the eggStore too, and step() moves the creatures, and the collision checker finds the eggs
+     * the dragon has run into, with loops over the eggStore's arrays (see EggStore). The game comes out exactly the same
+     * either way, so it can be turned on or off at any time (even in the middle of a game).
+     * PRE: while it's on, the eggs are only changed through their own methods or this GameWorld
+     *      (so the eggStore hears about it -- see EggStore.refresh()).
+     */
+    public void setUseEggStore(boolean useEggStore){
+        if (useEggStore && eggStore == null){
+            eggStore = new EggStore(background);
+            for (int i = 0; i < eggList.size(); i++){
+                eggStore.add(eggList.get(i));
+            }
+        }
+        else if (!useEggStore && eggStore != null){
+            eggStore.clear();
+            eggStore = null;
+        }
+    }
+
+    public boolean isUsingEggStore(){
+        return eggStore != null;
+    }
+
+    /**
+     * putAwayFarRegions
+     * -----------------
+     * Every LevelStreamer.DEACTIVATION_CHECK_TICKS ticks, this has the levelStreamer put away the regions that the window
+     * has gone far away from (see LevelStreamer.deactivateFar()). Their eggs are marked putAway, and removeDeadEggs()
+     * takes them out along with the dead ones.
+     */
+    private void putAwayFarRegions(){
+        if (levelStreamer == null || clock.getTick() % LevelStreamer.DEACTIVATION_CHECK_TICKS != 0) return;
+        double left = -background.loc.x; // (the part of the cavern that's in the window)
+        double top = -background.loc.y;
+        levelStreamer.deactivateFar(left, top, left + frameWidth, top + frameHeight);
+    }
+
+    /**
+     * removeDeadEggs
+     * --------------
+     * Takes every dead egg (see Egg.isDead()) out of the eggList and the eggGrid, and puts it in the eggPool.
+     * (The eggs whose region has been put away go back to the eggPool the same way.)
+     * This is done in one pass at the end of step(), when nothing is in the middle of going through the eggList,
+     * so the eggs that are left stay in the same order. After this, a tick only has to deal with the eggs that are still alive.
+     */
+    private void removeDeadEggs(){
+        eggList.removeIf(removeIfDead);
+        if (eggStore != null) eggStore.compact(); // (takes the same eggs out of the eggStore, so it stays in the same order)
+    }
+
+    /**
+     * findEggsIn
+     * ----------
+     * Adds to out every egg whose center is inside the rectangle from (minX,minY) to (maxX,maxY), in cavern coordinates.
+     * It asks the eggGrid, so it only looks at the eggs near the rectangle, not all of them.
+     * PRE: out is not null
+     */
+    public void findEggsIn(double minX, double minY, double maxX, double maxY, List<Egg> out){
+        eggGrid.queryRect(minX, minY, maxX, maxY, out);
+    }
+
+    /**
+     * describe
+     * --------
+     * A few lines describing where everything is right now (handy for checking that two runs of the game came out the same).
+     */
+    public String describe(){
+        int[] stageCounts = new int[eggStage.values().length];
+        for (Egg anEgg: eggList){
+            stageCounts[anEgg.stage.ordinal()]++;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("tick: ").append(getTick()).append('\n');
+        sb.append("score: ").append(score).append('\n');
+        sb.append("life left: ").append(String.format("%.2f", dragon.getLifeLeft())).append('\n');
+        sb.append("background: ").append(String.format("(%.3f, %.3f)", background.loc.x, background.loc.y)).append('\n');
+        sb.append("fireball: ").append(fireball.hasFired() ? String.format("(%.3f, %.3f)", fireball.loc.x, fireball.loc.y) : "not fired");
+        sb.append(fireball.readyToFire ? ", ready to fire" : ", not ready to fire").append('\n');
+        sb.append("eggs:");
+        for (eggStage stage: eggStage.values()){
+            sb.append(' ').append(stage).append('=').append(stageCounts[stage.ordinal()]);
+        }
+        sb.append(" removed=").append(eggsRemoved); // (dead eggs are taken out of the eggList, so they're counted here instead)
+        sb.append('\n');
+        for (int i = 0; i < eggList.size(); i++){
+            Egg anEgg = eggList.get(i);
+            sb.append(String.format("  egg %d: %s at (%.3f, %.3f)%n", i + 1, anEgg.stage, anEgg.loc.x, anEgg.loc.y));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * stateHash
+     * ---------
+     * One number made from everything that decides how the game goes from here: the score, the dragon's life,
+     * where the background and fireball are, and every egg's stage, location, velocity, color and hunger, and which
+     * picture a creature is showing and how big it is (its collision mask goes with those).
+     * Two games in the same state always give the same number, so it's handy for checking that two runs came out
+     * exactly the same (describe() is the same thing, but rounded, and for people to read).
+     */
+    public long stateHash(){
+        long h = getTick();
+        h = 31 * h + score;
+        h = 31 * h + Double.doubleToLongBits(dragon.getLifeLeft());
+        h = 31 * h + Double.doubleToLongBits(background.loc.x);
+        h = 31 * h + Double.doubleToLongBits(background.loc.y);
+        h = 31 * h + Double.doubleToLongBits(background.loc.xv);
+        h = 31 * h + Double.doubleToLongBits(background.loc.yv);
+        h = 31 * h + (fireball.hasFired() ? Double.doubleToLongBits(fireball.loc.x) * 7 + Double.doubleToLongBits(fireball.loc.y) : 0);
+        h = 31 * h + (fireball.readyToFire ? 1 : 0);
+        h = 31 * h + eggsRemoved;
+        for (int i = 0; i < eggList.size(); i++){
+            Egg anEgg = eggList.get(i);
+            h = 31 * h + anEgg.stage.ordinal();
+            h = 31 * h + Double.doubleToLongBits(anEgg.loc.x);
+            h = 31 * h + Double.doubleToLongBits(anEgg.loc.y);
+            h = 31 * h + Double.doubleToLongBits(anEgg.loc.xv);
+            h = 31 * h + Double.doubleToLongBits(anEgg.loc.yv);
+            h = 31 * h + anEgg.color.getRGB();
+            h = 31 * h + (anEgg.isHungry ? 1 : 0);
+            h = 31 * h + anEgg.whichCreature;
+            h = 31 * h + anEgg.whichCreatureFire;
+            h = 31 * h + anEgg.imageWidth;
+            h = 31 * h + anEgg.imageHeight;
+        }
+        return h;
+    }
+
+    /*
+     * getters:
+     */
+    public Dragon getDragon(){
+        return dragon;
+    }
+
+    public Background getBackground(){
+        return background;
+    }
+
+    public Fireball getFireball(){
+        return fireball;
+    }
+
+    public MessageBox getMessageBox(){
+        return messageBox;
+    }
+
+    public ArrayList<Egg> getEggs(){
+        return eggList;
+    }
+
+    // (null unless setUseEggStore(true) has turned it on)
+    public EggStore getEggStore(){
+        return eggStore;
+    }
+
+    // (null if the level couldn't be loaded)
+    public LevelStreamer getLevelStreamer(){
+        return levelStreamer;
+    }
+
+    public EggPool getEggPool(){
+        return eggPool;
+    }
+
+    // how many dead eggs have been taken out of the eggList since the game started (or was restarted):
+    public int getEggsRemoved(){
+        return eggsRemoved;
+    }
+
+    public TimingWheel getClock(){
+        return clock;
+    }
+
+    public int getScore(){
+        return score;
+    }
+
+    // how many ticks since the GameWorld was made (even if the game's been restarted since):
+    public long getStepCount(){
+        return stepCount;
+    }
+
+    // starts writing down every key that's applied in journal (or stops, if it's null):
+    public void setJournal(InputJournal journal){
+        this.journal = journal;
+    }
+
+    public EngineMetrics getMetrics(){
+        return metrics;
+    }
+
+    public InputJournal getJournal(){
+        return journal;
+    }
+
+    // how many ticks since the game started (or was restarted):
+    public long getTick(){
+        return clock.getTick();
+    }
+
+    // how many seconds of game time since the game started (or was restarted):
+    public int getSecondsElapsed(){
+        return (int)(clock.getTick() * MILLIS_PER_TICK / 1000);
+    }
+
+    /**
+     * loadEggs
+     * --------
+     * This loads up the level's eggs into the eggList: the ones near where the game starts, or all of them if the level says so.
+     * (The rest are made as the window gets near them; see streamEggs().)
+     * Each egg is given its location and the timing of when it appears, ripens, and hatches by the level file (see levels/level01.txt).
+     * PRE: eggList is empty.  (Otherwise, it will get loaded up with more eggs here)
+     * POST: eggList will have a bunch of eggs in it.
+     */
+    private void loadEggs(){
+        if (levelStreamer == null) return; // (the level couldn't be loaded)
+        levelStreamer.reset();
+        streamEggs();
+    }
+
+    /**
+     * streamEggs
+     * ----------
+     * Makes the eggs for every region of the level that the window has come near (that isn't active already;
+     * a region that was put away gets its eggs back how they were -- see LevelStreamer).
+     * The eggs come from the eggPool, so after a restart these are the same Egg objects as last time.
+     */
+    private void streamEggs(){
+        if (levelStreamer == null) return;
+        double left = -background.loc.x; // (the part of the cavern that's in the window)
+        double top = -background.loc.y;
+        levelStreamer.activateNear(left, top, left + frameWidth, top + frameHeight, eggMaker);
+    }
+
+    /**
+     * collisionchecker
+     * ----------------
+     * This checks for dragon collision with eggs/creatures  and fireball collision with eggs:
+     * (Note: this method DOES NOT check for collisions with the WALL (i.e, background), since each moving object 
+     *  -- dragon, egg fireball -- deals with possible collisions with the wall in their own move methods.)
+     *  When collisions are detected, it does the appropriate thing.  For example:
+     *  If the dragon collides with an "egg", then it checks the egg's eggStage. 
+     *     If the eggStage is "ready to eat", then the egg is eaten and score goes up.
+     *     If the eggStage is "not ready to eat", then egg is eaten and health goes down by a ten percent.
+     *     If the eggStage is "hatched", then if it's hungry, it'll reduce dragon's life a bit and then be not hungry for a couple of seconds
+     *  If the fireball collides with an egg, then (so long as the fireball isn't in smoke form), again we check the stage of the egg:
+     *     If the eggStage is "hatched", then the creature is shot and the fireball disappears
+     *     If the egg isn't hatched yet, then you lose a point for destroying an egg that could have been eaten.
+     *  PRE: loadEggs() has been called
+     *  POST: eggs, dragon, and fireball have all been updated in light of any possible collisions.
+     */
+    public void collisionchecker() {
+        // check for dragon collision with eggs  and fireball collision with eggs:
+        // (Rather than checking every egg, we ask the eggGrid for the eggs that are close enough to matter.)
+
+        int eggDragonCollisionDistance = dragon.getImageWidth()/3;
+        int eggFireballCollisionDistance = fireball.imageWidth * 2; 
+
+        if (eggStore != null){
+            // the eggStore checks every egg against the dragon in one loop over its arrays:
+            touchingSlots.clear();
+            eggStore.findTouching(dragon.loc.x, dragon.loc.y, background.loc.x, background.loc.y,
+                                  eggDragonCollisionDistance, touchingSlots);
+            for (int i = 0; i < touchingSlots.size(); i++){
+                checkForDragonEggCollision(eggStore.getEgg(touchingSlots.get(i)), eggDragonCollisionDistance);
+            }
+        }
+        else {
+            // the eggs near the dragon (the dragon's x,y is on the screen, so we change it to cavern coordinates first):
+            nearbyEggs.clear();
+            eggGrid.query(dragon.loc.x - background.loc.x, dragon.loc.y - background.loc.y,
+                          eggDragonCollisionDistance, nearbyEggs);
+            for (int i = 0; i < nearbyEggs.size(); i++){
+                checkForDragonEggCollision(nearbyEggs.get(i), eggDragonCollisionDistance);
+            }
+        }
+
+        // Check for the fireball hitting the egg (or creature):
+        // (but only if it's been fired and is in fireball (not smoke) form)
+        if (fireball.hasFired() && fireball.currentFireballImage == fireball.fireballImage){
+            // a creature can get hit as far away as the corner of the fireball plus the size of the creature:
+            int reach = Math.max(eggFireballCollisionDistance, fireball.imageWidth/2 + Sprites.largestCreatureSize());
+            nearbyEggs.clear();
+            eggGrid.query(fireball.getX(), fireball.getY(), reach + 2, nearbyEggs);
+            for (int i = 0; i < nearbyEggs.size(); i++){
+                checkForFireballEggCollision(nearbyEggs.get(i), eggFireballCollisionDistance);
+            }
+        }
+    } // end collisionChecker()
+
+    /**
+     * checkForDragonEggCollision
+     * --------------------------
+     * This is the part of the collisionchecker that checks one egg against the dragon.
+     * PRE: thisEgg isn't null
+     */
+    private void checkForDragonEggCollision(Egg thisEgg, int eggDragonCollisionDistance){
+        // check for dragon-egg collisions:
+        // (VectorMath compares the distance squared, so there's no square root, and nothing gets rounded off)
+        if (VectorMath.isWithin(thisEgg.loc.x + background.loc.x, thisEgg.loc.y + background.loc.y,
+                                dragon.loc.x, dragon.loc.y, eggDragonCollisionDistance)){
+            if (thisEgg.stage == eggStage.READYTOEAT){
+
+                this.score++;
+                metrics.eggEaten();
+                thisEgg.getEaten();
+            }
+            else if (thisEgg.stage == eggStage.NOTREADYTOEAT){
+
+                // eating raw eggs doesn't affect your score, just your life:
+                dragon.subtractLife(0.1); // a tenth of your life is lost!
+                metrics.rawEggEaten(); // ("That egg was not ready to be eaten!")
+                thisEgg.getEaten();
+
+            }
+            else if (thisEgg.stage == eggStage.HATCHED){
+                // life goes down!
+                if (thisEgg.isHungry == true) {
+                    dragon.subtractLife(this.creatureDamage);
+                    metrics.creatureBit();
+                    thisEgg.tookABiteOfTheDragon();
+                }
+                
+                // bounce the creature back a little:
+                thisEgg.loc.xv = -thisEgg.loc.xv;
+                thisEgg.loc.yv = -thisEgg.loc.yv;
+
+                // just in case the creature is moving slowly so the bounce isn't noticable, make it a big bounce:
+                if (Math.abs(thisEgg.loc.xv) < 2){
+                    if (thisEgg.loc.xv < 0) thisEgg.loc.xv = -5;
+                    else thisEgg.loc.xv = 5;
+                }
+                if (Math.abs(thisEgg.loc.yv) < 2){
+                    if (thisEgg.loc.yv < 0) thisEgg.loc.yv = -5;
+                    else thisEgg.loc.yv = 5;
+                }
+                if (eggStore != null) eggStore.refresh(thisEgg); // (we changed its velocity ourselves)
+
+            }
+        }
+    }
+
+    /**
+     * checkForFireballEggCollision
+     * ----------------------------
+     * This is the part of the collisionchecker that checks one egg (or creature) against the fireball.
+     * PRE: thisEgg isn't null
+     */
+    private void checkForFireballEggCollision(Egg thisEgg, int eggFireballCollisionDistance){
+        // (an earlier creature might have just stopped the fireball)
+        if (!fireball.hasFired()) return;
+
+        // first check if the egg is still in egg form (in which case you lose a point for shooting it):
+        if (thisEgg.stage == eggStage.READYTOEAT || thisEgg.stage == eggStage.NOTREADYTOEAT){
+            if (VectorMath.isWithin(thisEgg.loc.x, thisEgg.loc.y, fireball.loc.x, fireball.loc.y, eggFireballCollisionDistance)){
+                thisEgg.stage = eggStage.EATEN;
+                if (eggStore != null) eggStore.refresh(thisEgg);
+                this.score--;
+                metrics.eggShot(); // ("Your fireball hit an egg! how sad!")
+            }
+        }
+        // then check if the egg has hatched and is in creature form:
+        else if (thisEgg.stage == eggStage.HATCHED && fireballHasHitTheCreature(thisEgg)){
+            //thisEgg.stage = eggStage.KILLED;
+            thisEgg.creatureShot();
+            //this.score++; // killing the creature doesn't get you points, it just saves you.
+            fireball.setFired(false);
+            metrics.creatureKilled(); // ("You killed the creature!")
+        }
+    }
+    
+
+    /**
+     * fireballHasHitTheCreature
+     * -------------------------
+     * This returns a boolean if the fireball is currently hitting the creature.
+     * It does so by checking the center of the fireball as well as 4 points at the corners
+     * (NW, NE, SW, SE), of the fireball, to see if any of them overlapped with 
+     * non-transparent parts of the creature's image.
+     * PRE: this should only be called if the creature has hatched and not been killed., e is not null.
+     * POST: returns true if this.fireball has hit the egg, false otherwise.
+     */
+    public boolean fireballHasHitTheCreature(Egg e){
+        if (e == null) return false;
+
+        int fx = (int)(this.fireball.getX() );
+        int fy = (int)(this.fireball.getY() );
+        //System.out.println("fireball (" + fx + ", " + fy + "), creature(" + e.getX() + ", " + e.getY() + ")");
+        int offset = this.fireball.imageWidth/4;
+        // we'll check the center of the fireball, then 4 points at 
+        // the upper left, upper right, lower left, and lower right,
+        // to see if any of those coincide with non-transparent parts of the creature image:
+        // (These coordinates are relative to the background image.)
+        if (e.notTransparentAt(fx, fy) || 
+        e.notTransparentAt(fx-offset, fy-offset) ||
+        e.notTransparentAt(fx+offset, fy-offset) ||
+        e.notTransparentAt(fx-offset, fy+offset) ||
+        e.notTransparentAt(fx+offset, fy+offset)) return true;
+        else return false;
+
+    }
+
+} // end GameWorld class
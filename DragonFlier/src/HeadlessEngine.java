@@ -0,0 +1,312 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * HeadlessEngine
+ * --------------
+ * Runs the game with no window at all, as fast as the computer can go.
+ * It plays a script of key presses (or none, if you don't give it one) for some number of ticks,
+ * then says how many ticks per second it managed, and what the game looked like at the end.
+ * Since the game only moves on ticks, the same script always ends up in the same place,
+ * and that's the same place the game in the window ends up if you press the same keys on the same ticks.
+ *
+ * Run it from the DragonFlier folder (so it can find the images folder):
+ *     java HeadlessEngine -ticks 20000 -script myScript.txt -quiet
+ *
+ * It can also play back a session that was recorded in the window (java DragonFlier2 -record session.dfj):
+ *     java HeadlessEngine -replay session.dfj -frames -csv times.csv -quiet
+ * A replay always times every tick (-profile does that for a script too), and -frames also draws a frame into
+ * an offscreen image every few ticks and times that (-frameEvery N draws one every N ticks instead).
+ * It prints the average, median, 90th and 99th percentile and longest tick (and frame) times, and -csv writes all
+ * of them to a file, so two versions of the game can be compared on exactly the same play session.
+ * Drawing frames never changes the game, so a replay ends up in exactly the same state however often it draws
+ * (it prints a "state hash" of the end state -- see GameWorld.stateHash() -- so that's easy to check).
+ * -metrics writes the game's EngineMetrics (tick, collision and frame time histograms, eggs in each stage, and so on)
+ * to a CSV file at the end.
+ * -eggStore runs the game with the eggs in an EggStore (see GameWorld.setUseEggStore()); it comes out in exactly
+ * the same state, so the state hash is the same with it or without it.
+ *
+ * A script is a text file with one key press per line: the tick, the key (one of the GameInputs),
+ * and "press" or "release" (if you leave that off, it's "press"). Blank lines and lines starting with # are skipped.
+ *     # fly right for 5 seconds, and shoot
+ *     0 RIGHT press
+ *     1000 RIGHT release
+ *     1200 FIRE
+ * Something on tick t happens right before tick t+1 runs (that's when a key press in the window gets to the game, too).
+ */
+public class HeadlessEngine {
+
+    private static final int FRAME_WIDTH = 1200;
+    private static final int FRAME_HEIGHT = 900;
+
+    /**
+     * ScriptedInput
+     * -------------
+     * One line of a script.
+     */
+    static class ScriptedInput {
+        final long tick;
+        final GameInput input;
+        final boolean pressed;
+
+        ScriptedInput(long tick, GameInput input, boolean pressed){
+            this.tick = tick;
+            this.input = input;
+            this.pressed = pressed;
+        }
+    }
+
+    /**
+     * Profile
+     * -------
+     * How long each tick took (and, if we're drawing frames too, how long each frame took), in nanoseconds.
+     * A frame is drawn into an offscreen image every ticksPerFrame ticks (TICKS_PER_FRAME, unless -frameEvery says otherwise,
+     * which is about how often the window gets drawn).
+     */
+    static class Profile {
+        static final int TICKS_PER_FRAME = 3; // (15 ms of game time, so about 67 frames a second)
+
+        final long[] tickNanos;
+        final long[] frameNanos; // null if we're not drawing frames
+        final int ticksPerFrame; // 0 if we're not drawing frames
+        final FrameRenderer renderer;
+        final Graphics frameGraphics;
+
+        // (ticksPerFrame is 0 to not draw any frames)
+        Profile(long ticks, int ticksPerFrame, int frameWidth, int frameHeight){
+            this.tickNanos = new long[(int)ticks];
+            this.ticksPerFrame = ticksPerFrame;
+            if (ticksPerFrame > 0){
+                this.frameNanos = new long[(int)(ticks / ticksPerFrame)];
+                this.renderer = new FrameRenderer(frameWidth);
+                this.frameGraphics = new BufferedImage(frameWidth, frameHeight, BufferedImage.TYPE_INT_RGB).createGraphics();
+            }
+            else {
+                this.frameNanos = null;
+                this.renderer = null;
+                this.frameGraphics = null;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true"); // (we never open a window)
+
+        long ticks = 12000; // one minute of game time
+        boolean ticksGiven = false;
+        String scriptFile = null;
+        String replayFile = null;
+        String csvFile = null;
+        String metricsFile = null;
+        boolean quiet = false;
+        boolean profiling = false;
+        boolean drawFrames = false;
+        boolean useEggStore = false;
+        int ticksPerFrame = Profile.TICKS_PER_FRAME;
+        for (int i = 0; i < args.length; i++){
+            if (args[i].equals("-ticks")){
+                ticks = Long.parseLong(args[++i]);
+                ticksGiven = true;
+            }
+            else if (args[i].equals("-script")) scriptFile = args[++i];
+            else if (args[i].equals("-replay")) replayFile = args[++i];
+            else if (args[i].equals("-quiet")) quiet = true;
+            else if (args[i].equals("-profile")) profiling = true;
+            else if (args[i].equals("-frames")) drawFrames = true;
+            else if (args[i].equals("-frameEvery")){
+                ticksPerFrame = Integer.parseInt(args[++i]);
+                drawFrames = ticksPerFrame > 0;
+            }
+            else if (args[i].equals("-csv")) csvFile = args[++i];
+            else if (args[i].equals("-metrics")) metricsFile = args[++i];
+            else if (args[i].equals("-eggStore")) useEggStore = true;
+            else {
+                System.out.println("usage: java HeadlessEngine [-ticks N] [-script file | -replay journal] [-profile] [-frames] [-frameEvery N] [-csv file] [-metrics file] [-eggStore] [-quiet]");
+                return;
+            }
+        }
+
+        int frameWidth = FRAME_WIDTH;
+        int frameHeight = FRAME_HEIGHT;
+        ArrayList<ScriptedInput> script;
+        if (replayFile != null){
+            // play back a recorded session: the same keys on the same ticks, for as long as the session went on.
+            InputJournal journal = InputJournal.load(new File(replayFile));
+            script = scriptFrom(journal);
+            if (!ticksGiven) ticks = journal.getEndTick();
+            frameWidth = journal.getFrameWidth();
+            frameHeight = journal.getFrameHeight();
+            profiling = true;
+        }
+        else {
+            script = (scriptFile == null) ? new ArrayList<>() : readScript(scriptFile);
+        }
+        if (drawFrames || csvFile != null) profiling = true;
+
+        Sprites.preload();
+        GameWorld world = new GameWorld(frameWidth, frameHeight);
+        world.setUseEggStore(useEggStore);
+        Profile profile = profiling ? new Profile(ticks, drawFrames ? ticksPerFrame : 0, frameWidth, frameHeight) : null;
+
+        // the game prints things now and then (like when an egg hatches); -quiet turns that off while it runs:
+        PrintStream out = System.out;
+        if (quiet) System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        long start = System.nanoTime();
+        run(world, script, ticks, profile);
+        long elapsed = System.nanoTime() - start;
+
+        System.setOut(out);
+        System.out.println("ran " + ticks + " ticks (" + String.format("%.1f", ticks * GameWorld.MILLIS_PER_TICK / 1000)
+            + " seconds of game time) in " + String.format("%.3f", elapsed / 1e9) + " seconds: "
+            + String.format("%.0f", ticks / (elapsed / 1e9)) + " ticks/second");
+        if (profile != null){
+            System.out.println("tick times: " + summarize(profile.tickNanos));
+            if (profile.frameNanos != null) System.out.println("frame times: " + summarize(profile.frameNanos));
+            if (csvFile != null) writeCsv(profile, csvFile);
+        }
+        if (metricsFile != null){
+            world.getMetrics().writeCsv(new File(metricsFile));
+            System.out.println("wrote the metrics to " + metricsFile);
+        }
+        System.out.println("state hash: " + Long.toHexString(world.stateHash()));
+        System.out.print(world.describe());
+        world.close();
+    }
+
+    /**
+     * run
+     * ---
+     * Runs the world for the given number of ticks, applying the script's inputs on their ticks.
+     * PRE: script is in order by tick
+     */
+    public static void run(GameWorld world, ArrayList<ScriptedInput> script, long ticks){
+        run(world, script, ticks, null);
+    }
+
+    /**
+     * run
+     * ---
+     * The same, but if profile isn't null, it times every tick (and draws and times a frame every few ticks, if the profile
+     * has frameNanos).
+     * PRE: script is in order by tick, and profile (if it isn't null) was made for this many ticks.
+     */
+    static void run(GameWorld world, ArrayList<ScriptedInput> script, long ticks, Profile profile){
+        int next = 0;
+        for (long tick = 0; tick < ticks; tick++){
+            while (next < script.size() && script.get(next).tick <= tick){
+                ScriptedInput s = script.get(next++);
+                world.apply(s.input, s.pressed);
+            }
+            if (profile == null){
+                world.step();
+                continue;
+            }
+            long start = System.nanoTime();
+            world.step();
+            long end = System.nanoTime();
+            profile.tickNanos[(int)tick] = end - start;
+            if (profile.frameNanos != null && (tick + 1) % profile.ticksPerFrame == 0){
+                profile.renderer.draw(profile.frameGraphics, world);
+                profile.frameNanos[(int)(tick / profile.ticksPerFrame)] = System.nanoTime() - end;
+            }
+        }
+    }
+
+    /**
+     * scriptFrom
+     * ----------
+     * Turns a recorded InputJournal into a script.
+     */
+    static ArrayList<ScriptedInput> scriptFrom(InputJournal journal){
+        ArrayList<ScriptedInput> script = new ArrayList<>();
+        for (int i = 0; i < journal.size(); i++){
+            script.add(new ScriptedInput(journal.getTick(i), journal.getInput(i), journal.isPressed(i)));
+        }
+        return script;
+    }
+
+    /**
+     * summarize
+     * ---------
+     * The average, median, 90th, 99th percentile and longest of a bunch of times, in microseconds.
+     */
+    static String summarize(long[] nanos){
+        if (nanos.length == 0) return "(none)";
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long n: sorted) total += n;
+        return String.format("mean %.2f us, 50%% %.2f us, 90%% %.2f us, 99%% %.2f us, max %.2f us",
+            total / (double)sorted.length / 1000, percentile(sorted, 0.5) / 1000.0, percentile(sorted, 0.9) / 1000.0,
+            percentile(sorted, 0.99) / 1000.0, sorted[sorted.length - 1] / 1000.0);
+    }
+
+    private static long percentile(long[] sorted, double p){
+        int i = (int)Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    /**
+     * writeCsv
+     * --------
+     * Writes every tick's time (and the frame time, on the ticks a frame was drawn) to a file,
+     * so two versions of the game can be compared tick by tick on the same session.
+     */
+    private static void writeCsv(Profile profile, String fileName) throws IOException {
+        try (PrintWriter csv = new PrintWriter(new BufferedWriter(new FileWriter(fileName)))){
+            csv.println("tick,tickNanos,frameNanos");
+            for (int tick = 0; tick < profile.tickNanos.length; tick++){
+                csv.print(tick + "," + profile.tickNanos[tick] + ",");
+                if (profile.frameNanos != null && (tick + 1) % profile.ticksPerFrame == 0){
+                    csv.print(profile.frameNanos[tick / profile.ticksPerFrame]);
+                }
+                csv.println();
+            }
+        }
+    }
+
+    /**
+     * readScript
+     * ----------
+     * Reads a script file (see the top of this class for what it looks like).
+     */
+    static ArrayList<ScriptedInput> readScript(String fileName) throws IOException {
+        ArrayList<ScriptedInput> script = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(fileName))){
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null){
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] parts = line.split("\\s+");
+                try {
+                    long tick = Long.parseLong(parts[0]);
+                    GameInput input = GameInput.valueOf(parts[1].toUpperCase());
+                    boolean pressed = parts.length < 3 || !parts[2].equalsIgnoreCase("release");
+                    if (!script.isEmpty() && tick < script.get(script.size() - 1).tick){
+                        throw new IOException(fileName + " line " + lineNumber + ": the ticks have to be in order");
+                    }
+                    script.add(new ScriptedInput(tick, input, pressed));
+                }
+                catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException(fileName + " line " + lineNumber + ": can't understand \"" + line + "\"");
+                }
+            }
+        }
+        return script;
+    }
+
+} // end HeadlessEngine class
@@ -0,0 +1,324 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * HotPathBenchmarks
+ * -----------------
+ * Times the parts of the game that run over and over every tick (or every frame),
+ * with different numbers of eggs in the level, so if one of them gets slower we'll see it as a number.
+ *   backgroundNotTransparentAt  one Background.notTransparentAt probe (the eggs, dragon and fireball do lots of these every tick)
+ *   eggNotTransparentAt         one Egg.notTransparentAt probe (what fireballHasHitTheCreature does)
+ *   backgroundNextLoc           Background.nextLoc()
+ *   fireballNextLoc             Fireball.nextLoc() for a fireball that's flying
+ *   eggNextLoc                  Egg.nextLoc() for one hatched creature (averaged over all the eggs in the level)
+ *   collisionchecker            GameWorld.collisionchecker() (what used to be GamePane.collisionchecker)
+ *   step                        one whole tick of the game, GameWorld.step()
+ *   renderFrame                 drawing one whole frame (what paintComponent draws) into an offscreen image
+ * The Dragon doesn't have a nextLoc() (it works out its next location inside move()), so it isn't in here separately,
+ * but it's part of step.
+ *
+ * It works like JMH does: for each benchmark (and each number of eggs), it runs a few warm-up iterations
+ * (so the JIT has compiled everything), and then a few measured iterations, each about the same length of time,
+ * and prints the average time per operation and how much it varied from one iteration to the next.
+ * Run it from the DragonFlier folder (so it can find the images folder):
+ *     java HotPathBenchmarks [-wi 3] [-i 5] [-r 500] [-p eggs=12,1000,10000] [name]
+ * -wi is the number of warm-up iterations, -i the number of measured ones, -r how many milliseconds each iteration runs,
+ * -p eggs= the numbers of eggs to try, and if you give a name, only the benchmarks with that in their name are run.
+ * (The eggs on top of the 12 in the level are hatched creatures scattered around the cavern.)
+ * The probe benchmarks only mean much if images/bigCavern01.png is there; without it, everything is solid rock.
+ *
+ * The real versions of these are the JMH benchmarks in the jmh folder (run them with  gradle jmh ).
+ * This one is for when you can't get the JMH jars, like with no internet, so it only needs javac.
+ */
+public class HotPathBenchmarks {
+
+    private static final int FRAME_WIDTH = 1200;
+    private static final int FRAME_HEIGHT = 900;
+
+    // results get added in here so the JIT can't decide the work we're timing isn't needed:
+    private static long sink = 0;
+
+    /**
+     * HotPath
+     * -------
+     * One benchmark. setUp() gets everything ready (for that many eggs), and call() does opsPerCall operations
+     * (it returns something so the work can't be optimized away). usesEggs is false if the number of eggs doesn't matter,
+     * in which case it's only run once.
+     */
+    static abstract class HotPath {
+        final String name;
+        final boolean usesEggs;
+        final String units;  // "ns/op" or "us/op"
+        int opsPerCall = 1;
+
+        HotPath(String name, boolean usesEggs, String units){
+            this.name = name;
+            this.usesEggs = usesEggs;
+            this.units = units;
+        }
+
+        abstract void setUp(int eggs);
+
+        abstract long call();
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true"); // (we never open a window)
+
+        int warmupIterations = 3;
+        int iterations = 5;
+        int iterationMillis = 500;
+        int[] eggCounts = {12, 1000, 10000};
+        String filter = null;
+        for (int i = 0; i < args.length; i++){
+            if (args[i].equals("-wi")) warmupIterations = Integer.parseInt(args[++i]);
+            else if (args[i].equals("-i")) iterations = Integer.parseInt(args[++i]);
+            else if (args[i].equals("-r")) iterationMillis = Integer.parseInt(args[++i]);
+            else if (args[i].equals("-p") && args[i+1].startsWith("eggs=")) eggCounts = parseCounts(args[++i].substring(5));
+            else filter = args[i];
+        }
+
+        Sprites.preload();
+        System.out.println(String.format("%-28s %7s %6s %4s %12s %10s  %s", "Benchmark", "(eggs)", "Mode", "Cnt", "Score", "Error", "Units"));
+        HotPath[] paths = hotPaths();
+        for (int p = 0; p < paths.length; p++){
+            HotPath path = paths[p];
+            paths[p] = null; // (so its world can be garbage collected once we're done with it; the cavern image is big)
+            if (filter != null && !path.name.contains(filter)) continue;
+            int[] counts = path.usesEggs ? eggCounts : new int[] {0};
+            for (int eggs: counts){
+                quietly(() -> path.setUp(eggs));
+                for (int i = 0; i < warmupIterations; i++){
+                    measure(path, iterationMillis);
+                }
+                double[] scores = new double[iterations];
+                for (int i = 0; i < iterations; i++){
+                    scores[i] = measure(path, iterationMillis);
+                }
+                double mean = mean(scores);
+                System.out.println(String.format("%-28s %7s %6s %4d %12.3f %s %8.3f  %s", path.name, path.usesEggs ? "" + eggs : "N/A",
+                    "avgt", iterations, mean, "+-", standardDeviation(scores, mean), path.units));
+            }
+        }
+        if (sink == 42) System.out.println(); // (just so sink is used for something)
+    }
+
+    /**
+     * measure
+     * -------
+     * One iteration: calls path over and over for about iterationMillis, and returns the average time per operation
+     * (in the path's units).
+     */
+    private static double measure(HotPath path, int iterationMillis){
+        // (eggs print a line when things happen to them, which we don't want to time, so System.out is off while we measure)
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        long end = System.nanoTime() + iterationMillis * 1_000_000L;
+        long calls = 0;
+        long start = System.nanoTime();
+        long now;
+        do {
+            sink += path.call();
+            calls++;
+            now = System.nanoTime();
+        } while (now < end);
+        System.setOut(out);
+
+        double nanosPerOp = (now - start) / (double)(calls * path.opsPerCall);
+        return path.units.equals("us/op") ? nanosPerOp / 1000 : nanosPerOp;
+    }
+
+    /**
+     * hotPaths
+     * --------
+     * Makes all the benchmarks.
+     */
+    private static HotPath[] hotPaths(){
+        return new HotPath[] {
+            new HotPath("backgroundNotTransparentAt", false, "ns/op") {
+                Background background;
+                int[] xs, ys;
+                void setUp(int eggs){
+                    background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+                    opsPerCall = 1024;
+                    xs = new int[opsPerCall];
+                    ys = new int[opsPerCall];
+                    Random random = new Random(42);
+                    for (int i = 0; i < opsPerCall; i++){ // (a few off the edges too, like the real game)
+                        xs[i] = random.nextInt(background.imageWidth + 20) - 10;
+                        ys[i] = random.nextInt(background.imageHeight + 20) - 10;
+                    }
+                }
+                long call(){
+                    long solid = 0;
+                    for (int i = 0; i < opsPerCall; i++){
+                        if (background.notTransparentAt(xs[i], ys[i])) solid++;
+                    }
+                    return solid;
+                }
+            },
+            new HotPath("eggNotTransparentAt", false, "ns/op") {
+                Egg creature;
+                int[] xs, ys;
+                void setUp(int eggs){
+                    GameWorld world = makeWorld(1);
+                    creature = world.getEggs().get(world.getEggs().size() - 1);
+                    opsPerCall = 1024;
+                    xs = new int[opsPerCall];
+                    ys = new int[opsPerCall];
+                    Random random = new Random(43);
+                    for (int i = 0; i < opsPerCall; i++){ // (all around the creature, like where a fireball would be)
+                        xs[i] = creature.getX() + random.nextInt(81) - 40;
+                        ys[i] = creature.getY() + random.nextInt(81) - 40;
+                    }
+                }
+                long call(){
+                    long hits = 0;
+                    for (int i = 0; i < opsPerCall; i++){
+                        if (creature.notTransparentAt(xs[i], ys[i])) hits++;
+                    }
+                    return hits;
+                }
+            },
+            new HotPath("backgroundNextLoc", false, "ns/op") {
+                Background background;
+                void setUp(int eggs){
+                    background = new Background(FRAME_WIDTH, FRAME_HEIGHT);
+                    background.setRight(true);
+                    background.setDown(true);
+                    background.loc.xv = -3;
+                    background.loc.yv = -2;
+                }
+                long call(){
+                    return (long)background.nextLoc().x;
+                }
+            },
+            new HotPath("fireballNextLoc", false, "ns/op") {
+                Fireball fireball;
+                void setUp(int eggs){
+                    GameWorld world = makeWorld(0);
+                    fireball = world.getFireball();
+                    fireball.setFired(true);
+                    fireball.loc.xv = 8;
+                    fireball.loc.yv = -3;
+                }
+                long call(){
+                    return (long)fireball.nextLoc().x;
+                }
+            },
+            new HotPath("eggNextLoc", true, "ns/op") {
+                GameWorld world;
+                void setUp(int eggs){
+                    world = makeWorld(eggs);
+                    opsPerCall = world.getEggs().size();
+                }
+                long call(){
+                    List<Egg> eggList = world.getEggs();
+                    long sum = 0;
+                    for (int i = 0; i < eggList.size(); i++){
+                        sum += (long)eggList.get(i).nextLoc().x;
+                    }
+                    return sum;
+                }
+            },
+            new HotPath("collisionchecker", true, "us/op") {
+                GameWorld world;
+                void setUp(int eggs){
+                    world = makeWorld(eggs);
+                    world.getFireball().fire(); // (so it checks the fireball against the eggs too)
+                }
+                long call(){
+                    world.collisionchecker();
+                    return world.getScore();
+                }
+            },
+            new HotPath("step", true, "us/op") {
+                GameWorld world;
+                void setUp(int eggs){
+                    world = makeWorld(eggs);
+                    world.apply(GameInput.RIGHT, true); // keep the dragon flying, so the creatures have someone to chase.
+                }
+                long call(){
+                    world.step();
+                    return world.getTick();
+                }
+            },
+            new HotPath("renderFrame", true, "us/op") {
+                GameWorld world;
+                FrameRenderer renderer;
+                Graphics g;
+                void setUp(int eggs){
+                    world = makeWorld(eggs);
+                    renderer = new FrameRenderer(FRAME_WIDTH);
+                    g = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+                }
+                long call(){
+                    renderer.draw(g, world);
+                    return 1;
+                }
+            },
+        };
+    }
+
+    /**
+     * makeWorld
+     * ---------
+     * Makes a GameWorld with eggs eggs in it: the 12 from the level, and then as many hatched creatures as it takes,
+     * scattered around the cavern. (If eggs is less than 12 it still has the 12, plus one creature if eggs isn't 0.)
+     * Creatures don't do any damage in here, so the dragon stays alive however long it runs.
+     */
+    static GameWorld makeWorld(int eggs){
+        GameWorld world = new GameWorld(FRAME_WIDTH, FRAME_HEIGHT);
+        world.creatureDamage = 0;
+        Background background = world.getBackground();
+        Dragon dragon = world.getDragon();
+        TimingWheel clock = world.getClock();
+        Random random = new Random(23);
+        int creatures = Math.max(eggs - world.getEggs().size(), eggs > 0 ? 1 : 0);
+        for (int i = 0; i < creatures; i++){
+            world.addEgg(new Egg(background, dragon, clock, random.nextInt(6400), random.nextInt(3600), 0, 0.01, 0.01));
+        }
+        clock.advance(100); // (hatch them all)
+        return world;
+    }
+
+    // runs something with System.out turned off (in case anything prints while the world is being made):
+    private static void quietly(Runnable r){
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            r.run();
+        }
+        finally {
+            System.setOut(out);
+        }
+    }
+
+    private static int[] parseCounts(String s){
+        String[] parts = s.split(",");
+        int[] counts = new int[parts.length];
+        for (int i = 0; i < parts.length; i++){
+            counts[i] = Integer.parseInt(parts[i].trim());
+        }
+        return counts;
+    }
+
+    private static double mean(double[] values){
+        double sum = 0;
+        for (double v: values) sum += v;
+        return sum / values.length;
+    }
+
+    private static double standardDeviation(double[] values, double mean){
+        if (values.length < 2) return 0;
+        double sum = 0;
+        for (double v: values) sum += (v - mean) * (v - mean);
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+} // end HotPathBenchmarks class
@@ -0,0 +1,302 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Hud
+ * ---
+ * The HUD ("heads-up display") is all the stuff drawn on top of the game: the score, the life bar,
+ * the seconds elapsed, and "YOU DIED".
+ * The HUD gets drawn every frame, but the numbers on it hardly ever change. So instead of making a new Font
+ * and a new String every frame, each piece of text is drawn once into a little image (a CachedText),
+ * and that image is just copied onto the screen until the number changes.
+ * (The fonts are made once, when the class is loaded. A Font can't be changed, so the render thread and the game thread
+ *  can both use them.)
+ * It also remembers what it last drew, so addChangedBounds() can say which parts of the window need drawing again.
+ */
+public class Hud {
+
+    private static final Font ARIAL = new Font("Arial", Font.PLAIN, 36);
+    private static final Font BIG_ARIAL = new Font("Arial", Font.PLAIN, 200);
+
+    private final int frameWidth;
+
+    // where the text goes (the score is over on the right, so that depends on how wide the window is):
+    private static final int SCORE_Y = 41;
+    private static final int SECONDS_X = 850, SECONDS_Y = 35;
+    private static final int YOU_DIED_X = 110, YOU_DIED_Y = 525;
+
+    private final CachedText scoreText;
+    private final CachedText lifeText;
+    private final CachedText youDiedText;
+    private final CachedText secondsText;
+
+    // where the life bar was last drawn, and how much life it showed (so we know when it needs drawing again):
+    private int lifeBarX = 0, lifeBarY = 0;
+    private double lifeLeftDrawn = -1;
+
+    /**
+     * Hud constructor:
+     * ----------------
+     * frameWidth is the width of the window (the score is drawn over on the right side).
+     */
+    public Hud(int frameWidth){
+        this.frameWidth = frameWidth;
+        // each of these is drawn twice: once in the first color, and then again, a little offset, in the second color.
+        this.scoreText = new CachedText("SCORE: ", ARIAL, Color.BLACK, Color.WHITE, 1, -1);
+        this.lifeText = new CachedText("", ARIAL, Color.BLACK, Color.WHITE, 1, 1);
+        this.lifeText.setText("LIFE:");
+        this.youDiedText = new CachedText("", BIG_ARIAL, Color.WHITE, Color.RED, 3, 3);
+        this.youDiedText.setText("YOU  DIED");
+        this.secondsText = new CachedText("", ARIAL, Color.BLACK, Color.YELLOW, 3, 3);
+    }
+
+    /**
+     * displayScore
+     * ------------
+     * Just what it says!
+     * This is meant to be called while painting, since that's where the Graphics object g comes from.
+     * PRE: none
+     * POST: displays the score
+     */
+    public void displayScore(Graphics g, int score){
+        scoreText.setNumber(score);
+        scoreText.draw(g, scoreX(), SCORE_Y);
+    }
+
+    /**
+     * displayLifeLeft
+     * ----------------
+     * This displays a little rectangle that shows how much life you have left.
+     * green represents life you still have, while red represents life lost.
+     * the double lifeLeft is the percentage of life you have left.
+     * (So, for example,  if lifeLeft== .25, then the rectangle would be 25% green (on the left side),
+     *  and 75% red (on the right side).)
+     * x & y are where to place the top left corner of the rectangle.
+     * PRE: 0 <= lifeLeft <= 1,  x & y are in a valid region of the screen (otherwise this might not get seen)
+     * POST: displays a rectangle showing how much life you have left next to the word "LIFE:"
+     */
+    public void displayLifeLeft(Graphics g, int x, int y, double lifeLeft) {
+        lifeText.draw(g, x, y+32);
+        lifeBarX = x;
+        lifeBarY = y;
+        lifeLeftDrawn = lifeLeft;
+
+        x += 100; // move over to make room for the word LIFE.
+        int bigRecWidth = 250;
+        int bigRecHeight = 40;
+        int smallRecWidth = bigRecWidth - 10;
+        int smallRecHeight = bigRecHeight - 10;
+        int widthDiff = bigRecWidth - smallRecWidth;
+        int smallX = x + (widthDiff/2);
+        int heightDiff = bigRecHeight - smallRecHeight;
+        int smallY = y + (heightDiff/2);
+        // black outer rectangle:
+        g.setColor(Color.BLACK);
+        g.fillRect(x, y, bigRecWidth, bigRecHeight);
+        // red rectangle:
+        g.setColor(Color.RED);
+        g.fillRect(smallX, smallY, smallRecWidth, smallRecHeight);
+        // green (life) rectangle:
+        g.setColor(Color.GREEN);
+        g.fillRect(smallX, smallY, (int)((double)smallRecWidth * lifeLeft), smallRecHeight);
+    }
+
+    /**
+     * displayYouDied
+     * --------------
+     * This draws the words YOU DIED on the screen
+     * PRE: none
+     * POST: draws the words "YOU DIED"
+     */
+    public void displayYouDied(Graphics g){
+        youDiedText.draw(g, YOU_DIED_X, YOU_DIED_Y);
+    }
+
+    /**
+     * displaySecondsElapsed
+     * ---------------------
+     * This displays the seconds elapsed since the beginning of the game at the top of the screen.
+     * PRE: none
+     * POST: draws the seconds elapsed at the top of the screen.
+     */
+    public void displaySecondsElapsed(Graphics g, int seconds){
+        secondsText.setNumber(seconds);
+        secondsText.draw(g, SECONDS_X, SECONDS_Y);
+    }
+
+    /*
+     * The same four things again, but added to contents (see FrameContents) instead of drawn,
+     * so they can be drawn after the worldLock has been let go:
+     */
+
+    public void addScore(FrameContents contents, int score){
+        scoreText.setNumber(score);
+        scoreText.addTo(contents, scoreX(), SCORE_Y);
+    }
+
+    public void addLifeLeft(FrameContents contents, int x, int y, double lifeLeft){
+        lifeText.addTo(contents, x, y+32);
+        lifeBarX = x;
+        lifeBarY = y;
+        lifeLeftDrawn = lifeLeft;
+
+        x += 100; // (the same rectangles displayLifeLeft draws)
+        contents.fillRect(Color.BLACK, x, y, 250, 40);
+        contents.fillRect(Color.RED, x + 5, y + 5, 240, 30);
+        contents.fillRect(Color.GREEN, x + 5, y + 5, (int)(240.0 * lifeLeft), 30);
+    }
+
+    public void addYouDied(FrameContents contents){
+        youDiedText.addTo(contents, YOU_DIED_X, YOU_DIED_Y);
+    }
+
+    public void addSecondsElapsed(FrameContents contents, int seconds){
+        secondsText.setNumber(seconds);
+        secondsText.addTo(contents, SECONDS_X, SECONDS_Y);
+    }
+
+    /**
+     * addChangedBounds
+     * ----------------
+     * Adds to region the parts of the HUD that would look different if they were drawn with these numbers
+     * (the old score and the new score if the score has changed, and so on). Nothing, if none of them have changed.
+     * PRE: the life bar has been drawn at least once (so we know where it goes).
+     */
+    public void addChangedBounds(DirtyRegion region, int score, double lifeLeft, int seconds){
+        if (!scoreText.shows(score)){
+            scoreText.addBounds(region, scoreX(), SCORE_Y); // (the old score)
+            scoreText.setNumber(score);
+            scoreText.addBounds(region, scoreX(), SCORE_Y);
+        }
+        if (!secondsText.shows(seconds)){
+            secondsText.addBounds(region, SECONDS_X, SECONDS_Y);
+            secondsText.setNumber(seconds);
+            secondsText.addBounds(region, SECONDS_X, SECONDS_Y);
+        }
+        if (lifeLeft != lifeLeftDrawn) region.add(lifeBarX + 100, lifeBarY, 250, 40); // (the bar, but not the word LIFE:)
+    }
+
+    /**
+     * addYouDiedBounds
+     * ----------------
+     * Adds the rectangle "YOU DIED" is drawn in to region.
+     */
+    public void addYouDiedBounds(DirtyRegion region){
+        youDiedText.addBounds(region, YOU_DIED_X, YOU_DIED_Y);
+    }
+
+    private int scoreX(){
+        return frameWidth - 201;
+    }
+
+    /**
+     * CachedText
+     * ----------
+     * One piece of HUD text, drawn (with its shadow) into an image that's only redrawn when the text changes.
+     * The text is drawn in backColor at (x,y), and then again in frontColor at (x+dx, y+dy).
+     */
+    private static class CachedText {
+        private final String prefix; // for numbers: what goes in front of the number, like "SCORE: "
+        private final Font font;
+        private final Color backColor, frontColor;
+        private final int dx, dy;
+
+        private String text = null;
+        private int number = 0;
+        private boolean hasNumber = false;
+
+        private BufferedImage image = null;
+        private int originX, baseline; // where (x,y) of the back text is in the image
+
+        CachedText(String prefix, Font font, Color backColor, Color frontColor, int dx, int dy){
+            this.prefix = prefix;
+            this.font = font;
+            this.backColor = backColor;
+            this.frontColor = frontColor;
+            this.dx = dx;
+            this.dy = dy;
+        }
+
+        /**
+         * setNumber
+         * ---------
+         * Shows prefix + n. If n is the same as last time, nothing happens (not even making a String).
+         */
+        void setNumber(int n){
+            if (hasNumber && n == number) return;
+            number = n;
+            hasNumber = true;
+            setText(prefix + n);
+        }
+
+        // true if the text is showing n already:
+        boolean shows(int n){
+            return hasNumber && n == number;
+        }
+
+        void setText(String newText){
+            if (newText.equals(text)) return;
+            text = newText;
+            render();
+        }
+
+        /**
+         * render
+         * ------
+         * Draws the text into a new image just big enough for it and its shadow.
+         */
+        private void render(){
+            // we need a Graphics to measure the text, so we borrow one from a tiny image:
+            BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D sg = scratch.createGraphics();
+            FontMetrics metrics = sg.getFontMetrics(font);
+            sg.dispose();
+
+            originX = Math.max(0, -dx);
+            baseline = metrics.getAscent() + Math.max(0, -dy);
+            int width = Math.max(1, metrics.stringWidth(text) + Math.abs(dx));
+            int height = Math.max(1, metrics.getAscent() + metrics.getDescent() + Math.abs(dy));
+
+            image = CompatibleImages.create(width, height, Transparency.TRANSLUCENT);
+            Graphics2D g = image.createGraphics();
+            g.setFont(font);
+            g.setColor(backColor);
+            g.drawString(text, originX, baseline);
+            g.setColor(frontColor);
+            g.drawString(text, originX + dx, baseline + dy);
+            g.dispose();
+        }
+
+        /**
+         * draw
+         * ----
+         * Draws the text so that the back text's baseline starts at x,y (like g.drawString would).
+         */
+        void draw(Graphics g, int x, int y){
+            if (image == null) return;
+            g.drawImage(image, x - originX, y - baseline, null);
+        }
+
+        // (the image is never drawn on again once it's made, so it's safe to draw after the lock is let go)
+        void addTo(FrameContents contents, int x, int y){
+            if (image == null) return;
+            contents.image(image, x - originX, y - baseline);
+        }
+
+        /**
+         * addBounds
+         * ---------
+         * Adds the rectangle that draw(g, x, y) would draw the text in to region.
+         */
+        void addBounds(DirtyRegion region, int x, int y){
+            if (image == null) return;
+            region.add(x - originX, y - baseline, image.getWidth(), image.getHeight());
+        }
+    } // end CachedText class
+
+} // end Hud class
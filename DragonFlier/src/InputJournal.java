@@ -0,0 +1,186 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * InputJournal
+ * ------------
+ * An InputJournal is a recording of everything the player did in one session of the game:
+ * every key press (and release), and the tick it happened on. Since the game only ever moves on ticks,
+ * playing the same journal into a new GameWorld gives exactly the same game, as fast as the computer can go
+ * (see HeadlessEngine -replay). That way two versions of the game can be timed on the very same play session.
+ *
+ * The tick of each entry is the number of steps the GameWorld had done when the key got to it
+ * (see GameWorld.getStepCount(); that keeps counting even when the game is restarted).
+ * The journal also remembers the tick the session ended on, so a replay knows how long to run.
+ *
+ * The file is small: a header ("DFIJ", a version number, and the window size), and then for each entry,
+ * how many ticks since the last entry (as a "varint": 7 bits per byte, so a gap of less than 128 ticks is one byte),
+ * and one byte for which key and whether it was pressed. A key byte of 255 marks the end of the session.
+ */
+public class InputJournal {
+
+    private static final int MAGIC = 0x4446494A; // "DFIJ"
+    private static final int VERSION = 1;
+    private static final int END_OF_SESSION = 0xFF;
+
+    private final int frameWidth, frameHeight; // (the replay has to use the same size window, since the dragon starts in the middle)
+
+    private long[] ticks = new long[64];
+    private GameInput[] inputs = new GameInput[64];
+    private boolean[] pressed = new boolean[64];
+    private int size = 0;
+    private long endTick = -1; // -1 until end() is called
+
+    /**
+     * InputJournal constructor:
+     * -------------------------
+     * An empty journal for a game played in a window that's frameWidth by frameHeight.
+     */
+    public InputJournal(int frameWidth, int frameHeight){
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+    }
+
+    /**
+     * record
+     * ------
+     * Adds one key press (or release) to the end of the journal.
+     * PRE: tick isn't before the last one recorded, and end() hasn't been called yet.
+     */
+    public void record(long tick, GameInput input, boolean isPressed){
+        if (size > 0 && tick < ticks[size - 1]){
+            throw new IllegalArgumentException("tick " + tick + " is before the last one recorded (" + ticks[size - 1] + ")");
+        }
+        if (size == ticks.length){
+            ticks = Arrays.copyOf(ticks, size * 2);
+            inputs = Arrays.copyOf(inputs, size * 2);
+            pressed = Arrays.copyOf(pressed, size * 2);
+        }
+        ticks[size] = tick;
+        inputs[size] = input;
+        pressed[size] = isPressed;
+        size++;
+    }
+
+    /**
+     * end
+     * ---
+     * Marks the tick the session ended on (the replay runs up to here).
+     */
+    public void end(long tick){
+        this.endTick = Math.max(tick, (size > 0) ? ticks[size - 1] : 0);
+    }
+
+    /**
+     * save
+     * ----
+     * Writes the journal to a file (see the top of this class for what's in it).
+     * If end() hasn't been called, the session is taken to end on the last entry.
+     */
+    public void save(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))){
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarint(out, frameWidth);
+            writeVarint(out, frameHeight);
+            long last = 0;
+            for (int i = 0; i < size; i++){
+                writeVarint(out, ticks[i] - last);
+                out.writeByte((inputs[i].ordinal() << 1) | (pressed[i] ? 1 : 0));
+                last = ticks[i];
+            }
+            writeVarint(out, getEndTick() - last);
+            out.writeByte(END_OF_SESSION);
+        }
+    }
+
+    /**
+     * load
+     * ----
+     * Reads a journal that was written by save().
+     * PRE: file is a journal (otherwise this throws an IOException saying what's wrong with it).
+     */
+    public static InputJournal load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))){
+            if (in.readInt() != MAGIC) throw new IOException(file + " isn't an input journal");
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new IOException(file + " is a version " + version + " journal, and we can only read version " + VERSION);
+            InputJournal journal = new InputJournal((int)readVarint(in), (int)readVarint(in));
+            GameInput[] allInputs = GameInput.values();
+            long tick = 0;
+            while (true){
+                tick += readVarint(in);
+                int key = in.readUnsignedByte();
+                if (key == END_OF_SESSION){
+                    journal.end(tick);
+                    return journal;
+                }
+                if ((key >> 1) >= allInputs.length) throw new IOException(file + " has a key we don't know about (" + key + ")");
+                journal.record(tick, allInputs[key >> 1], (key & 1) != 0);
+            }
+        }
+        catch (EOFException e) {
+            throw new IOException(file + " ends in the middle (the game probably didn't get to save it all)");
+        }
+    }
+
+    /*
+     * getters:
+     */
+    public int size(){
+        return size;
+    }
+
+    public long getTick(int i){
+        return ticks[i];
+    }
+
+    public GameInput getInput(int i){
+        return inputs[i];
+    }
+
+    public boolean isPressed(int i){
+        return pressed[i];
+    }
+
+    // the tick the session ended on (or the last entry's tick, if end() hasn't been called):
+    public long getEndTick(){
+        if (endTick >= 0) return endTick;
+        return (size > 0) ? ticks[size - 1] : 0;
+    }
+
+    public int getFrameWidth(){
+        return frameWidth;
+    }
+
+    public int getFrameHeight(){
+        return frameHeight;
+    }
+
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0){
+            out.writeByte((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int)value);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7){
+            int b = in.readUnsignedByte();
+            value |= (long)(b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("a number in the journal is too long");
+    }
+
+} // end InputJournal class
@@ -0,0 +1,105 @@
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * IntArrayList
+ * ------------
+ * A list of ints, kept in an int[] that doubles in size when it fills up.
+ * It's like ArrayList<Integer>, except that the numbers are stored as plain ints, so adding one doesn't make
+ * an Integer object (and reading one doesn't have to follow a pointer to get to it).
+ * It has the same swapRemove() and removeIf() as our ArrayList.
+ */
+public class IntArrayList {
+
+    private int size = 0;
+    private int[] elements;
+
+    public IntArrayList(){
+        this(16);
+    }
+
+    public IntArrayList(int initialCapacity){
+        elements = new int[Math.max(1, initialCapacity)];
+    }
+
+    public void add(int value){
+        if (size == elements.length) elements = Arrays.copyOf(elements, size * 2);
+        elements[size++] = value;
+    }
+
+    /**
+     * get
+     * ---
+     * PRE: 0 <= index < size()
+     */
+    public int get(int index){
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        return elements[index];
+    }
+
+    public void set(int index, int value){
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        elements[index] = value;
+    }
+
+    /**
+     * swapRemove
+     * ----------
+     * Removes the value at index by moving the last value into its place, and returns the removed value.
+     * PRE: 0 <= index < size()
+     */
+    public int swapRemove(int index){
+        int value = get(index);
+        elements[index] = elements[--size];
+        return value;
+    }
+
+    /**
+     * removeIf
+     * --------
+     * Removes every value that filter says yes to, in one pass (the rest keep their order).
+     * Returns true if anything was removed.
+     */
+    public boolean removeIf(IntPredicate filter){
+        int kept = 0;
+        for (int i = 0; i < size; i++){
+            int value = elements[i];
+            if (!filter.test(value)) elements[kept++] = value;
+        }
+        boolean removed = kept != size;
+        size = kept;
+        return removed;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void clear(){
+        size = 0;
+    }
+
+    /**
+     * toArray
+     * -------
+     * A new array with just the values in the list.
+     */
+    public int[] toArray(){
+        return Arrays.copyOf(elements, size);
+    }
+
+    @Override
+    public String toString(){
+        StringBuilder s = new StringBuilder("[");
+        for (int i = 0; i < size; i++){
+            if (i > 0) s.append(", ");
+            s.append(elements[i]);
+        }
+        return s.append(']').toString();
+    }
+
+} // end IntArrayList class
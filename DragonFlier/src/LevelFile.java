@@ -0,0 +1,396 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * LevelFile
+ * ---------
+ * A level says which cavern to fly around in, and where all the eggs are (and when each one appears, gets ready to eat, and hatches).
+ * Levels are written as text files (like levels/level01.txt), and then compiled into a binary .dflv file for the game to use.
+ *
+ * The text form, one thing per line (blank lines and anything after a # are ignored):
+ *     cavern images/bigCavern01.png     which cavern image to use
+ *     regionSize 1024                   how big (in pixels) the square regions the eggs are grouped into are (1024 if it's not given)
+ *     activate 512                      how close (in pixels) a region has to come to the window before its eggs are made
+ *                                       ("activate all" makes every egg at the start, which is what a small level wants)
+ *     egg 1500 850 0 10 5               an egg at x=1500, y=850 in the cavern, that appears 0 seconds after its region is activated,
+ *                                       is ready to eat 10 seconds after that, and hatches 5 seconds after that
+ *
+ * In the binary form, the eggs are sorted by which region they're in, and there's a table saying where each region's eggs start.
+ * Opening one doesn't read it in: the file is mapped into memory (like a CollisionMapFile), so even a level with a million eggs
+ * opens right away, and it only costs memory for the regions we actually look at (see LevelStreamer, which makes the Eggs).
+ *
+ * What's in the binary file (everything little-endian):
+ *     bytes 0-3    "DFLV"
+ *     bytes 4-7    the version (1)
+ *     bytes 8-11   the region size, in pixels
+ *     bytes 12-19  how many columns and rows of regions there are
+ *     bytes 20-23  the activation distance, in pixels (-1 for "activate all")
+ *     bytes 24-27  how many eggs there are
+ *     bytes 28-31  how many bytes the cavern's name takes
+ *     bytes 32-63  zeros
+ *     then the cavern's name (UTF-8), with zeros after it to make it a multiple of 4 bytes;
+ *     then the region table: columns * rows + 1 ints, where the eggs for region r (which is column + row * columns)
+ *          are numbers table[r] up to (but not including) table[r + 1];
+ *     then the eggs, 24 bytes each: which egg it was in the text file (int), x and y (ints),
+ *          and the seconds to appear, to be ready to eat, and to hatch (floats).
+ *
+ * Compile one with
+ *     java LevelFile levels/level01.txt levels/level01.dflv
+ * (the game uses levels/level01.dflv if it's there and up to date, and otherwise compiles one in the temp folder.)
+ */
+public class LevelFile {
+
+    private static final int MAGIC = 0x564C4644; // "DFLV" (little-endian)
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int EGG_BYTES = 24;
+
+    public static final int DEFAULT_REGION_SIZE = 1024;
+    public static final int DEFAULT_ACTIVATION_DISTANCE = 512;
+    public static final int ACTIVATE_ALL = -1;
+
+    private final String cavern;
+    private final int regionSize;
+    private final int columns, rows;
+    private final int activationDistance;
+    private final int numberOfEggs;
+    private final ByteBuffer regionTable; // (columns * rows + 1 ints)
+    private final ByteBuffer eggs;        // (numberOfEggs records of EGG_BYTES each)
+
+    private LevelFile(String cavern, int regionSize, int columns, int rows, int activationDistance, int numberOfEggs,
+                      ByteBuffer regionTable, ByteBuffer eggs){
+        this.cavern = cavern;
+        this.regionSize = regionSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.activationDistance = activationDistance;
+        this.numberOfEggs = numberOfEggs;
+        this.regionTable = regionTable;
+        this.eggs = eggs;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2){
+            System.out.println("usage: java LevelFile level.txt level.dflv");
+            return;
+        }
+        long start = System.nanoTime();
+        compile(new File(args[0]), new File(args[1]));
+        LevelFile level = open(new File(args[1]));
+        System.out.println("wrote " + args[1] + " (" + level.getNumberOfEggs() + " eggs in " + level.getColumns() + " x " + level.getRows()
+            + " regions) in " + String.format("%.0f", (System.nanoTime() - start) / 1e6) + " ms");
+    }
+
+    /**
+     * load
+     * ----
+     * Opens a level: a .dflv file is opened as it is, and anything else is taken to be the text form (see forText).
+     */
+    public static LevelFile load(File file) throws IOException {
+        if (file.getName().endsWith(".dflv")) return open(file);
+        return forText(file);
+    }
+
+    /**
+     * forText
+     * -------
+     * The compiled level for a text level file: if there's an up-to-date .dflv file next to it, that's opened;
+     * otherwise we use (or compile) one in the temp folder.
+     */
+    public static LevelFile forText(File textFile) throws IOException {
+        String name = textFile.getName();
+        int dot = name.lastIndexOf('.');
+        File nextToText = new File(textFile.getParentFile(), ((dot > 0) ? name.substring(0, dot) : name) + ".dflv");
+        if (nextToText.exists() && nextToText.lastModified() >= textFile.lastModified()){
+            return open(nextToText);
+        }
+
+        File cached = TiledImage.cacheFileFor(textFile, ".dflv");
+        if (cached.exists()){
+            try {
+                return open(cached);
+            }
+            catch (IOException e) {
+                // (it's no good, so we'll just compile it again)
+            }
+        }
+        compile(textFile, cached);
+        return open(cached);
+    }
+
+    /**
+     * open
+     * ----
+     * Maps a compiled level file into memory.
+     * PRE: file was written by compile() (otherwise this throws an IOException saying what's wrong).
+     */
+    public static LevelFile open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            long size = channel.size();
+            if (size < HEADER_BYTES) throw new IOException(file + " is too short to be a level file");
+            // (the mapping stays good after the channel's closed)
+            ByteBuffer all = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+            if (all.getInt(0) != MAGIC) throw new IOException(file + " isn't a level file");
+            int version = all.getInt(4);
+            if (version != VERSION) throw new IOException(file + " is a version " + version + " level file, and we can only read version " + VERSION);
+            int regionSize = all.getInt(8);
+            int columns = all.getInt(12);
+            int rows = all.getInt(16);
+            int activationDistance = all.getInt(20);
+            int numberOfEggs = all.getInt(24);
+            int nameBytes = all.getInt(28);
+            if (regionSize <= 0 || columns <= 0 || rows <= 0 || numberOfEggs < 0 || nameBytes < 0 || nameBytes > size
+                || (long)columns * rows > Integer.MAX_VALUE - 1) throw new IOException(file + " has a bad header");
+
+            int tableStart = HEADER_BYTES + roundUpTo4(nameBytes);
+            long tableBytes = ((long)columns * rows + 1) * 4;
+            long eggsStart = tableStart + tableBytes;
+            if (size != eggsStart + (long)numberOfEggs * EGG_BYTES){
+                throw new IOException(file + " is the wrong size for a level with " + numberOfEggs + " eggs in " + columns + " x " + rows + " regions");
+            }
+
+            byte[] name = new byte[nameBytes];
+            all.get(HEADER_BYTES, name);
+            ByteBuffer regionTable = all.slice(tableStart, (int)tableBytes).order(ByteOrder.LITTLE_ENDIAN);
+            ByteBuffer eggs = all.slice((int)eggsStart, numberOfEggs * EGG_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            return new LevelFile(new String(name, StandardCharsets.UTF_8), regionSize, columns, rows, activationDistance, numberOfEggs,
+                                 regionTable, eggs);
+        }
+    }
+
+    /**
+     * compile
+     * -------
+     * Reads a text level file, and writes the binary form of it.
+     * The eggs are sorted into their regions with a counting sort, so the eggs in each region stay in the order they were in the text file.
+     * It's written to a temporary file first and then renamed, so a half-written level never gets opened.
+     * PRE: textFile is a level in the text form (otherwise this throws an IOException saying which line is wrong).
+     */
+    public static void compile(File textFile, File file) throws IOException {
+        String cavern = null;
+        int regionSize = DEFAULT_REGION_SIZE;
+        int activationDistance = DEFAULT_ACTIVATION_DISTANCE;
+        IntArrayList xs = new IntArrayList();
+        IntArrayList ys = new IntArrayList();
+        DoubleArrayList seconds = new DoubleArrayList(); // (three for each egg: to appear, to be ready to eat, and to hatch)
+
+        try (BufferedReader in = new BufferedReader(new FileReader(textFile, StandardCharsets.UTF_8))){
+            String line;
+            int lineNumber = 0;
+            while ((line = in.readLine()) != null){
+                lineNumber++;
+                int hash = line.indexOf('#');
+                if (hash >= 0) line = line.substring(0, hash);
+                String[] words = line.trim().split("\\s+");
+                if (words[0].isEmpty()) continue;
+                String where = textFile + ":" + lineNumber + ": ";
+                try {
+                    switch (words[0]){
+                        case "cavern":
+                            if (words.length != 2) throw new IOException(where + "it should be  cavern path/to/image.png");
+                            cavern = words[1];
+                            break;
+                        case "regionSize":
+                            if (words.length != 2) throw new IOException(where + "it should be  regionSize pixels");
+                            regionSize = Integer.parseInt(words[1]);
+                            if (regionSize <= 0) throw new IOException(where + "the region size has to be more than 0");
+                            break;
+                        case "activate":
+                            if (words.length != 2) throw new IOException(where + "it should be  activate pixels  or  activate all");
+                            activationDistance = words[1].equals("all") ? ACTIVATE_ALL : Integer.parseInt(words[1]);
+                            if (activationDistance < ACTIVATE_ALL) throw new IOException(where + "the activation distance can't be less than 0");
+                            break;
+                        case "egg":
+                            if (words.length != 6) throw new IOException(where + "it should be  egg x y secondsToAppear secondsToBeReadyToEat secondsToHatch");
+                            int x = Integer.parseInt(words[1]);
+                            int y = Integer.parseInt(words[2]);
+                            if (x < 0 || y < 0) throw new IOException(where + "eggs can't be at negative coordinates");
+                            xs.add(x);
+                            ys.add(y);
+                            for (int i = 3; i < 6; i++){
+                                seconds.add(Double.parseDouble(words[i]));
+                            }
+                            break;
+                        default:
+                            throw new IOException(where + "I don't know what \"" + words[0] + "\" means");
+                    }
+                }
+                catch (NumberFormatException e) {
+                    throw new IOException(where + "that isn't a number: " + e.getMessage());
+                }
+            }
+        }
+        if (cavern == null) throw new IOException(textFile + " doesn't say which cavern to use");
+
+        // how many regions it takes to cover every egg:
+        int maxX = 0, maxY = 0;
+        for (int i = 0; i < xs.size(); i++){
+            maxX = Math.max(maxX, xs.get(i));
+            maxY = Math.max(maxY, ys.get(i));
+        }
+        int columns = maxX / regionSize + 1;
+        int rows = maxY / regionSize + 1;
+
+        // count the eggs in each region, then add those up so table[r] is where region r's eggs start:
+        int[] table = new int[columns * rows + 1];
+        for (int i = 0; i < xs.size(); i++){
+            table[regionOf(xs.get(i), ys.get(i), regionSize, columns) + 1]++;
+        }
+        for (int r = 0; r < columns * rows; r++){
+            table[r + 1] += table[r];
+        }
+        // now put each egg where it goes:
+        int[] order = new int[xs.size()]; // (order[j] is which egg from the text file goes j-th)
+        int[] next = Arrays.copyOf(table, table.length - 1);
+        for (int i = 0; i < xs.size(); i++){
+            order[next[regionOf(xs.get(i), ys.get(i), regionSize, columns)]++] = i;
+        }
+
+        if (file.getParentFile() != null) file.getParentFile().mkdirs();
+        File partFile = new File(file.getPath() + ".part");
+        byte[] name = cavern.getBytes(StandardCharsets.UTF_8);
+        try (FileChannel out = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES + roundUpTo4(name.length)).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(regionSize).putInt(columns).putInt(rows);
+            header.putInt(activationDistance).putInt(xs.size()).putInt(name.length);
+            header.position(HEADER_BYTES);
+            header.put(name);
+            header.clear(); // (the whole thing, zeros and all)
+            writeAll(out, header);
+
+            ByteBuffer bytes = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int r = 0; r < table.length; r++){
+                if (bytes.remaining() < 4) flush(out, bytes);
+                bytes.putInt(table[r]);
+            }
+            for (int j = 0; j < order.length; j++){
+                if (bytes.remaining() < EGG_BYTES) flush(out, bytes);
+                int i = order[j];
+                bytes.putInt(i).putInt(xs.get(i)).putInt(ys.get(i));
+                bytes.putFloat((float)seconds.get(3 * i)).putFloat((float)seconds.get(3 * i + 1)).putFloat((float)seconds.get(3 * i + 2));
+            }
+            flush(out, bytes);
+        }
+        Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /*
+     * getters:
+     */
+    public String getCavern(){
+        return cavern;
+    }
+
+    public int getRegionSize(){
+        return regionSize;
+    }
+
+    public int getColumns(){
+        return columns;
+    }
+
+    public int getRows(){
+        return rows;
+    }
+
+    // how close (in pixels) a region has to come to the window before its eggs are made (ACTIVATE_ALL means at the start):
+    public int getActivationDistance(){
+        return activationDistance;
+    }
+
+    public int getNumberOfEggs(){
+        return numberOfEggs;
+    }
+
+    /**
+     * firstEggIn
+     * ----------
+     * The number of the first egg in region (column, row); its eggs are numbers firstEggIn(column, row) up to (but not including)
+     * firstEggIn of the next region (see endOfEggsIn).
+     * PRE: 0 <= column < getColumns(), 0 <= row < getRows()
+     */
+    public int firstEggIn(int column, int row){
+        return regionTable.getInt((column + row * columns) * 4);
+    }
+
+    // one past the number of the last egg in region (column, row):
+    public int endOfEggsIn(int column, int row){
+        return regionTable.getInt((column + row * columns + 1) * 4);
+    }
+
+    /**
+     * regionOf
+     * --------
+     * Which region (column + row * getColumns()) egg number egg is in.
+     * (It's a binary search of the region table, for the last region that starts at or before egg.)
+     * PRE: 0 <= egg < getNumberOfEggs()
+     */
+    public int regionOf(int egg){
+        int low = 0, high = columns * rows; // (the region starting after egg is somewhere in low+1..high)
+        while (low < high){
+            int middle = (low + high + 1) >>> 1;
+            if (regionTable.getInt(middle * 4) <= egg) low = middle;
+            else high = middle - 1;
+        }
+        return low;
+    }
+
+    /*
+     * the eggs (by number, from 0 to getNumberOfEggs() - 1):
+     */
+    // which egg it was in the text file (0 for the first one):
+    public int eggSequence(int egg){
+        return eggs.getInt(egg * EGG_BYTES);
+    }
+
+    public int eggX(int egg){
+        return eggs.getInt(egg * EGG_BYTES + 4);
+    }
+
+    public int eggY(int egg){
+        return eggs.getInt(egg * EGG_BYTES + 8);
+    }
+
+    public double secondsToAppear(int egg){
+        return eggs.getFloat(egg * EGG_BYTES + 12);
+    }
+
+    public double secondsToBeReadyToEat(int egg){
+        return eggs.getFloat(egg * EGG_BYTES + 16);
+    }
+
+    public double secondsToHatch(int egg){
+        return eggs.getFloat(egg * EGG_BYTES + 20);
+    }
+
+    // which region an egg at (x,y) goes in:
+    private static int regionOf(int x, int y, int regionSize, int columns){
+        return x / regionSize + (y / regionSize) * columns;
+    }
+
+    private static int roundUpTo4(int n){
+        return (n + 3) & ~3;
+    }
+
+    private static void flush(FileChannel out, ByteBuffer bytes) throws IOException {
+        bytes.flip();
+        writeAll(out, bytes);
+        bytes.clear();
+    }
+
+    private static void writeAll(FileChannel out, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) out.write(bytes);
+    }
+
+} // end LevelFile class
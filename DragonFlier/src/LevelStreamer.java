@@ -0,0 +1,240 @@
+import java.util.Arrays;
+
+/**
+ * LevelStreamer
+ * -------------
+ * Makes the eggs of a LevelFile a region at a time, when the window gets near each region
+ * (so a level can have hundreds of thousands of eggs, and only the ones around where you've been ever become Egg objects).
+ * Call activateNear() with the part of the cavern that's in the window every tick: any region that has come within the level's
+ * activation distance of it gets all its eggs made, through the EggMaker.
+ * (A level that says "activate all" has every region activated by activateAll() at the start, instead.)
+ *
+ * When several regions are activated at once, their eggs are made in the order they were in the level's text file,
+ * so the same game always has the same eggs in the same order.
+ *
+ * Regions get put away again, too: deactivateFar() (the GameWorld calls it every DEACTIVATION_CHECK_TICKS ticks) looks for
+ * regions that are more than DEACTIVATION_MARGIN farther from the window than the activation distance, where nothing has
+ * been touched (none of the eggs that are left have hatched -- see Egg.isUntouched()). It writes down each egg's state
+ * (see Egg.saveState()), and which ones are gone (eaten, say), and marks the eggs putAway, so the GameWorld gives them back
+ * to the EggPool. When the window comes near the region again, its eggs are made again and put back how they were.
+ * Time stands still for a region while it's put away (like it does for a DORMANT creature; see CreatureUpdater), so the
+ * eggs come back just as ripe as they were when the dragon left. A region with hatched creatures in it stays active,
+ * since they move around (and might not even be in the region anymore).
+ * With "activate all", nothing is ever put away (a level like that is small enough to keep everything).
+ */
+public class LevelStreamer {
+
+    /**
+     * EggMaker
+     * --------
+     * Puts one egg from the level into the game (the GameWorld's one gets it from the EggPool and adds it to the eggList).
+     */
+    public interface EggMaker {
+        Egg makeEgg(int x, int y, double secondsToAppear, double secondsToBeReadyToEat, double secondsToHatch);
+    }
+
+    // how much farther than the activation distance a region has to be from the window before it can be put away
+    // (so flying back and forth near the edge doesn't keep putting away the same eggs and making them again),
+    // and how often (in ticks) the GameWorld looks for regions to put away:
+    public static final int DEACTIVATION_MARGIN = 2048;
+    public static final int DEACTIVATION_CHECK_TICKS = 200;
+
+    private final LevelFile level;
+    private final boolean[] activated; // (one for each region: column + row * columns)
+    private int regionsActivated = 0;
+    private int eggsMade = 0;
+
+    // (these are all by region too)
+    // the eggs made for each active region, in the level's order (null for the regions that aren't active),
+    // and what the eggs of each put-away region were like (SAVED_STATE_INTS ints each, with -1 for an egg that's gone;
+    // null if the region isn't put away):
+    private final Egg[][] regionEggs;
+    private final int[][] savedRegions;
+    private int regionsDeactivated = 0; // (how many times a region has been put away, for the benchmarks and tests)
+
+    // the eggs to make in this activation, each one's sequence number in the top half and its egg number in the bottom half
+    // (so sorting them puts them in text file order):
+    private long[] eggsToMake = new long[256];
+
+    public LevelStreamer(LevelFile level){
+        this.level = level;
+        this.activated = new boolean[level.getColumns() * level.getRows()];
+        this.regionEggs = new Egg[activated.length][];
+        this.savedRegions = new int[activated.length][];
+    }
+
+    /**
+     * reset
+     * -----
+     * Forgets which regions have been activated, or put away (for when the game restarts).
+     */
+    public void reset(){
+        Arrays.fill(activated, false);
+        Arrays.fill(regionEggs, null);
+        Arrays.fill(savedRegions, null);
+        regionsActivated = 0;
+        regionsDeactivated = 0;
+        eggsMade = 0;
+    }
+
+    /**
+     * activateAll
+     * -----------
+     * Activates every region that isn't activated yet.
+     */
+    public void activateAll(EggMaker maker){
+        activate(0, 0, level.getColumns() - 1, level.getRows() - 1, maker);
+    }
+
+    /**
+     * activateNear
+     * ------------
+     * Activates every region that isn't activated yet and is within the level's activation distance of the rectangle
+     * from (minX,minY) to (maxX,maxY) in cavern coordinates (the part of the cavern that's in the window).
+     * If the level says "activate all", this activates everything.
+     * Most ticks nothing new comes near, and this just looks at the few regions around the window.
+     */
+    public void activateNear(double minX, double minY, double maxX, double maxY, EggMaker maker){
+        if (regionsActivated == activated.length) return; // (everything's been made already)
+        int distance = level.getActivationDistance();
+        if (distance == LevelFile.ACTIVATE_ALL){
+            activateAll(maker);
+            return;
+        }
+        int regionSize = level.getRegionSize();
+        int firstColumn = Math.max(0, (int)Math.floor((minX - distance) / regionSize));
+        int lastColumn = Math.min(level.getColumns() - 1, (int)Math.floor((maxX + distance) / regionSize));
+        int firstRow = Math.max(0, (int)Math.floor((minY - distance) / regionSize));
+        int lastRow = Math.min(level.getRows() - 1, (int)Math.floor((maxY + distance) / regionSize));
+        activate(firstColumn, firstRow, lastColumn, lastRow, maker);
+    }
+
+    // activates the regions in columns firstColumn..lastColumn and rows firstRow..lastRow that aren't active already
+    // (a region that was put away gets its eggs back the way they were):
+    private void activate(int firstColumn, int firstRow, int lastColumn, int lastRow, EggMaker maker){
+        int count = 0;
+        int columns = level.getColumns();
+        boolean keepTrack = level.getActivationDistance() != LevelFile.ACTIVATE_ALL; // (nothing's put away with "activate all")
+        for (int row = firstRow; row <= lastRow; row++){
+            for (int column = firstColumn; column <= lastColumn; column++){
+                int region = column + row * columns;
+                if (activated[region]) continue;
+                activated[region] = true;
+                regionsActivated++;
+                int first = level.firstEggIn(column, row);
+                int end = level.endOfEggsIn(column, row);
+                if (keepTrack) regionEggs[region] = new Egg[end - first];
+                for (int egg = first; egg < end; egg++){
+                    if (savedRegions[region] != null && savedRegions[region][(egg - first) * Egg.SAVED_STATE_INTS] < 0) continue; // (it's gone)
+                    if (count == eggsToMake.length) eggsToMake = Arrays.copyOf(eggsToMake, count * 2);
+                    eggsToMake[count++] = ((long)level.eggSequence(egg) << 32) | egg;
+                }
+            }
+        }
+        Arrays.sort(eggsToMake, 0, count);
+        int madeForTheFirstTime = 0;
+        for (int i = 0; i < count; i++){
+            int egg = (int)eggsToMake[i];
+            Egg made = maker.makeEgg(level.eggX(egg), level.eggY(egg), level.secondsToAppear(egg), level.secondsToBeReadyToEat(egg), level.secondsToHatch(egg));
+            if (!keepTrack){
+                madeForTheFirstTime++;
+                continue;
+            }
+            made.levelEggNumber = egg;
+            int region = level.regionOf(egg);
+            int first = level.firstEggIn(region % columns, region / columns);
+            regionEggs[region][egg - first] = made;
+            if (savedRegions[region] != null) made.restoreState(savedRegions[region], (egg - first) * Egg.SAVED_STATE_INTS);
+            else madeForTheFirstTime++;
+        }
+        eggsMade += madeForTheFirstTime;
+        // (the saved states have all been put back now)
+        for (int row = firstRow; keepTrack && row <= lastRow; row++){
+            for (int column = firstColumn; column <= lastColumn; column++){
+                savedRegions[column + row * columns] = null;
+            }
+        }
+    }
+
+    /**
+     * deactivateFar
+     * -------------
+     * Puts away every active region that's more than the activation distance plus DEACTIVATION_MARGIN from the rectangle
+     * from (minX,minY) to (maxX,maxY) (the part of the cavern that's in the window), if all the eggs it has left are untouched.
+     * Each of its eggs that's still in the game is marked putAway (the GameWorld takes those out of the game and gives them
+     * back to the EggPool), after its state is written down for when the region is activated again.
+     * If the level says "activate all", this doesn't do anything.
+     * POST: returns how many regions were put away.
+     */
+    public int deactivateFar(double minX, double minY, double maxX, double maxY){
+        int distance = level.getActivationDistance();
+        if (distance == LevelFile.ACTIVATE_ALL || regionsActivated == 0) return 0;
+        double far = distance + DEACTIVATION_MARGIN;
+        int regionSize = level.getRegionSize();
+        int columns = level.getColumns();
+        int putAway = 0;
+        for (int region = 0; region < activated.length; region++){
+            if (!activated[region]) continue;
+            double left = (region % columns) * (double)regionSize;
+            double top = (region / columns) * (double)regionSize;
+            // how far the region is from the window (0 if they overlap), across and up and down:
+            double dx = Math.max(0, Math.max(left - maxX, minX - (left + regionSize)));
+            double dy = Math.max(0, Math.max(top - maxY, minY - (top + regionSize)));
+            if (dx <= far && dy <= far) continue;
+            if (deactivate(region)) putAway++;
+        }
+        return putAway;
+    }
+
+    // puts away the region (if all of its eggs that are left are untouched) and returns true, or returns false if it can't:
+    private boolean deactivate(int region){
+        Egg[] eggs = regionEggs[region];
+        for (int i = 0; i < eggs.length; i++){
+            if (stillHere(eggs[i], region, i) && !eggs[i].isUntouched()) return false;
+        }
+        int[] state = new int[eggs.length * Egg.SAVED_STATE_INTS];
+        for (int i = 0; i < eggs.length; i++){
+            if (stillHere(eggs[i], region, i)){
+                eggs[i].saveState(state, i * Egg.SAVED_STATE_INTS);
+                eggs[i].putAway = true;
+            }
+            else {
+                state[i * Egg.SAVED_STATE_INTS] = -1; // (gone for good)
+            }
+        }
+        savedRegions[region] = state;
+        regionEggs[region] = null;
+        activated[region] = false;
+        regionsActivated--;
+        regionsDeactivated++;
+        return true;
+    }
+
+    // true if egg is still the region's i'th egg, and it's still in the game
+    // (once an egg dies, the EggPool might hand it out again as some other egg, so we check its levelEggNumber):
+    private boolean stillHere(Egg egg, int region, int i){
+        if (egg == null || egg.inPool || egg.isDead()) return false;
+        int columns = level.getColumns();
+        return egg.levelEggNumber == level.firstEggIn(region % columns, region / columns) + i;
+    }
+
+    public LevelFile getLevel(){
+        return level;
+    }
+
+    // how many regions are active right now:
+    public int getRegionsActivated(){
+        return regionsActivated;
+    }
+
+    // how many times a region has been put away since the game started (or was restarted):
+    public int getRegionsDeactivated(){
+        return regionsDeactivated;
+    }
+
+    // how many eggs have been made since the game started (or was restarted):
+    public int getEggsMade(){
+        return eggsMade;
+    }
+
+} // end LevelStreamer class
@@ -47,35 +47,21 @@ public class LocationAndVelocity {
         this.maxVelocity = other.maxVelocity;
     }
 
-    
     /**
-     * distance
-     * --------
-     * This calculates the distance between two points (x1,y2) and (x2,y2)
-     * using our old friend, the Pythagorean Theorem.
+     * set
+     * ---
+     * Copies another LocationAndVelocity into this one (the same things the copy constructor copies),
+     * so we can reuse this object instead of making a new one.
+     * (Like the copy constructor, it leaves gravity alone.)
      */
-    public int distance(int x1, int y1, int x2, int y2){
-        int x_dist = Math.abs(x1-x2);
-        int y_dist = Math.abs(y1-y2);
-        int x_squared = x_dist * x_dist;
-        int y_squared = y_dist * y_dist;
-
-        return (int)Math.sqrt(x_squared + y_squared);
-    }
-
-    /** distance: a version that takes in doubles: */
-    public int distance(double x1, double y1, double x2, double y2){
-        int x_dist = Math.abs((int)(x1-x2));
-        int y_dist = Math.abs((int)(y1-y2));
-        int x_squared = x_dist * x_dist;
-        int y_squared = y_dist * y_dist;
-
-        return (int)Math.sqrt(x_squared + y_squared);
+    public void set(LocationAndVelocity other){
+        this.x = other.x;
+        this.y = other.y;
+        this.xv = other.xv;
+        this.yv = other.yv;
+        this.acceleration = other.acceleration;
+        this.maxVelocity = other.maxVelocity;
     }
 
-    public int distance(Dragon d, Egg e){
-        return distance(d.getX(), d.getY(), e.getX(), e.getY());
-
-    }
 } // end LocationSpeedAndVelocity class
 
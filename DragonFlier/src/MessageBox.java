@@ -21,6 +21,11 @@ public class MessageBox extends DragonGameShape{
 	private int x;
 	private boolean run = false;
 	
+	// the font the message is written in (made just once, not every time it's drawn):
+	private static final Font MESSAGE_FONT = new Font("TimesRoman", Font.BOLD, 25);
+	private static final Color BOX_COLOR = new Color(0, 0, 0);
+	private static final Color BORDER_COLOR = new Color(100, 100, 0);
+	
 	/*
 	 * MessageBox constructor initializes the variables
 	 * accordingly.
@@ -111,7 +116,7 @@ public class MessageBox extends DragonGameShape{
 			g.drawRect(50,  60, getWidth(), getHeight());
 			
 			g.setColor(new Color(255, 255, 255));
-			g.setFont(new Font("TimesRoman", Font.BOLD, 25)); 
+			g.setFont(MESSAGE_FONT); 
 			
 			int y = 100;
 			g.drawString(displayMessage(1), 150, y);
@@ -128,6 +133,31 @@ public class MessageBox extends DragonGameShape{
 		
 	}
 
+	/*
+	 * addTo() adds the box and the text to contents
+	 * (the same things draw() draws), so they can be
+	 * drawn later (see FrameContents).
+	 */
+	public void addTo(FrameContents contents) {
+		contents.fillRect(BOX_COLOR, 50, 60, getWidth(), getHeight());
+		contents.drawRect(BORDER_COLOR, 50, 60, getWidth(), getHeight());
+		
+		int y = 100;
+		contents.text(displayMessage(1), MESSAGE_FONT, Color.WHITE, 150, y);
+		for (int line = 2; line <= 9; line++) {
+			contents.text(displayMessage(line), MESSAGE_FONT, Color.WHITE, 70, y + 100 + 40 * (line - 2));
+		}
+	}
+
+	/*
+	 * addScreenBounds() adds the rectangle the box is
+	 * drawn in to region (the border is drawn one pixel
+	 * past the width and height).
+	 */
+	public void addScreenBounds(DirtyRegion region) {
+		region.add(50, 60, getWidth() + 1, getHeight() + 1);
+	}
+
 	/*
 	 * displayMessage() function puts the text in a nice display.
 	 */
@@ -0,0 +1,200 @@
+import java.util.List;
+
+/**
+ * SpatialHash
+ * -----------
+ * A SpatialHash splits the cavern up into a grid of square cells, and remembers which eggs are in which cell.
+ * Then, when we want to know which eggs are near some point (like the dragon),
+ * we only have to look in the few cells around that point, instead of checking every egg in the level.
+ * Only the cells that have had eggs in them are stored, so the cavern can be as big as you like.
+ * (The cells are kept in a little hash table of our own, keyed by a long, so looking up a cell
+ *  doesn't need to make a Long object the way a HashMap would. Empty cells are kept around for next time.)
+ *
+ * Eggs are stored by their location in the cavern (egg.loc), so whenever an egg moves,
+ * call update() so the grid can move it to a new cell if it needs to.
+ */
+public class SpatialHash {
+
+    private final int cellSize;
+    private int size = 0; // number of eggs
+
+    // the hash table of cells: keys[i] is the cell's key, and cells[i] is the list of eggs in it (null if slot i is empty).
+    // (These are our own ArrayLists, for swapRemove().)
+    private long[] keys = new long[64];
+    private ArrayList<Egg>[] cells = newTable(64);
+    private int numberOfCells = 0;
+
+    /**
+     * SpatialHash constructor:
+     * ------------------------
+     * cellSize is the width (and height) of each cell, in pixels.
+     */
+    public SpatialHash(int cellSize){
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * insert
+     * ------
+     * Adds an egg to the grid at its current location.
+     * PRE: the egg isn't in the grid already.
+     */
+    public void insert(Egg egg){
+        long key = keyFor(egg.loc.x, egg.loc.y);
+        cellFor(key).add(egg);
+        egg.spatialCell = key;
+        egg.inSpatialHash = true;
+        size++;
+    }
+
+    /**
+     * remove
+     * ------
+     * Takes an egg out of the grid (if it's in there).
+     */
+    public void remove(Egg egg){
+        if (!egg.inSpatialHash) return;
+        ArrayList<Egg> cell = findCell(egg.spatialCell);
+        if (cell != null){
+            int i = cell.indexOf(egg);
+            if (i >= 0) cell.swapRemove(i); // (the order of the eggs in a cell doesn't matter, so there's no need to shift them all down)
+        }
+        egg.inSpatialHash = false;
+        size--;
+    }
+
+    /**
+     * update
+     * ------
+     * Call this after an egg moves. Most of the time it's still in the same cell, and nothing happens.
+     */
+    public void update(Egg egg){
+        if (!egg.inSpatialHash) return;
+        if (keyFor(egg.loc.x, egg.loc.y) == egg.spatialCell) return;
+        remove(egg);
+        insert(egg);
+    }
+
+    /**
+     * query
+     * -----
+     * Adds to out every egg in the square around (x,y) that reaches out distance radius in each direction.
+     * (That's every egg within radius of x,y, plus maybe a few in the corners of the square,
+     *  so the caller still needs to check the real distance.)
+     * Coordinates are cavern coordinates (the same as egg.loc).
+     */
+    public void query(double x, double y, double radius, List<Egg> out){
+        queryRect(x - radius, y - radius, x + radius, y + radius, out);
+    }
+
+    /**
+     * queryRect
+     * ---------
+     * Adds to out every egg inside the rectangle from (minX,minY) to (maxX,maxY).
+     */
+    public void queryRect(double minX, double minY, double maxX, double maxY, List<Egg> out){
+        int firstColumn = cellOf(minX);
+        int lastColumn = cellOf(maxX);
+        int firstRow = cellOf(minY);
+        int lastRow = cellOf(maxY);
+        for (int row = firstRow; row <= lastRow; row++){
+            for (int column = firstColumn; column <= lastColumn; column++){
+                ArrayList<Egg> cell = findCell(key(column, row));
+                if (cell == null) continue;
+                for (int i = 0; i < cell.size(); i++){
+                    Egg egg = cell.get(i);
+                    double ex = egg.loc.x;
+                    double ey = egg.loc.y;
+                    if (minX <= ex && ex <= maxX && minY <= ey && ey <= maxY) out.add(egg);
+                }
+            }
+        }
+    }
+
+    public void clear(){
+        for (ArrayList<Egg> cell: cells){
+            if (cell == null) continue;
+            for (Egg egg: cell){
+                egg.inSpatialHash = false;
+            }
+            cell.clear();
+        }
+        size = 0;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * findCell
+     * --------
+     * Returns the list of eggs for the cell with this key, or null if there's never been an egg there.
+     */
+    private ArrayList<Egg> findCell(long key){
+        int mask = keys.length - 1;
+        for (int i = slotFor(key, mask); cells[i] != null; i = (i + 1) & mask){
+            if (keys[i] == key) return cells[i];
+        }
+        return null;
+    }
+
+    /**
+     * cellFor
+     * -------
+     * Like findCell, but makes the cell if it isn't there yet.
+     */
+    private ArrayList<Egg> cellFor(long key){
+        ArrayList<Egg> cell = findCell(key);
+        if (cell != null) return cell;
+
+        if ((numberOfCells + 1) * 2 > keys.length) grow(); // keep the table at most half full
+        int mask = keys.length - 1;
+        int i = slotFor(key, mask);
+        while (cells[i] != null) i = (i + 1) & mask;
+        keys[i] = key;
+        cells[i] = new ArrayList<>();
+        numberOfCells++;
+        return cells[i];
+    }
+
+    private void grow(){
+        long[] oldKeys = keys;
+        ArrayList<Egg>[] oldCells = cells;
+        keys = new long[oldKeys.length * 2];
+        cells = newTable(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++){
+            if (oldCells[j] == null) continue;
+            int i = slotFor(oldKeys[j], mask);
+            while (cells[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            cells[i] = oldCells[j];
+        }
+    }
+
+    // mixes up the bits of the key, so neighbouring cells don't all land next to each other in the table:
+    private static int slotFor(long key, int mask){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int)(h ^ (h >>> 32)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArrayList<Egg>[] newTable(int length){
+        return (ArrayList<Egg>[]) new ArrayList<?>[length]; // (Java can't make an array of ArrayList<Egg> directly)
+    }
+
+    private int cellOf(double coordinate){
+        return (int)Math.floor(coordinate / cellSize);
+    }
+
+    private long keyFor(double x, double y){
+        return key(cellOf(x), cellOf(y));
+    }
+
+    // packs the column and row into one long, to use as the key in the hash table:
+    private static long key(int column, int row){
+        return ((long)column << 32) | (row & 0xffffffffL);
+    }
+
+} // end SpatialHash class
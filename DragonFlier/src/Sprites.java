@@ -0,0 +1,237 @@
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+/**
+ * Sprites
+ * -------
+ * This class is where all the little images (sprites) for the dragon, the creatures and the fireball live.
+ * Every image file is decoded exactly once for the whole program (and made compatible; see CompatibleImages), and all the frames are packed
+ * together into one big image (the "atlas"). Each frame handed out is just a window into the atlas,
+ * so every Egg, Dragon and Fireball shares the same images instead of loading their own copies.
+ * (That means making hundreds of eggs doesn't mean reading hundreds of copies of the same png files.)
+ * The images handed out are meant to be read-only: please don't draw on them!
+ */
+public class Sprites {
+
+    // The atlas is packed in rows ("shelves") no wider than this:
+    private static final int ATLAS_WIDTH = 1024;
+
+    private static Sprites loaded = null; // the one and only set of sprites, once it's been loaded.
+
+    private BufferedImage atlas;
+
+    private List<BufferedImage> creatureImages;
+    private List<BufferedImage> creatureFireImages;
+    private List<BufferedImage> leftDragonImages;
+    private List<BufferedImage> rightDragonImages;
+    private BufferedImage fireballImage;
+    private BufferedImage puffOfSmokeImage;
+
+    // the collision masks of the creature frames (in the same order as the images):
+    private List<CollisionMask> creatureMasks;
+    private List<CollisionMask> creatureFireMasks;
+    private int largestCreatureSize = 0;
+
+    private Sprites(){
+    }
+
+    /**
+     * preload
+     * -------
+     * Decodes every sprite and builds the atlas, if that hasn't been done yet.
+     * It's called automatically the first time any sprite is asked for,
+     * but you can call it at startup so the first level doesn't have to wait for it.
+     * PRE: all the images are in the images folder! (Any that are missing are reported and skipped.)
+     * POST: all sprites are loaded.
+     */
+    public static synchronized void preload(){
+        if (loaded == null) loaded = load();
+    }
+
+    private static Sprites get(){
+        if (loaded == null) preload();
+        return loaded;
+    }
+
+    /*
+     * Getters for the shared sprites. The lists can't be changed.
+     */
+    public static List<BufferedImage> creatureImages(){
+        return get().creatureImages;
+    }
+
+    public static List<BufferedImage> creatureFireImages(){
+        return get().creatureFireImages;
+    }
+
+    public static List<CollisionMask> creatureMasks(){
+        return get().creatureMasks;
+    }
+
+    public static List<CollisionMask> creatureFireMasks(){
+        return get().creatureFireMasks;
+    }
+
+    /**
+     * largestCreatureSize
+     * -------------------
+     * The biggest width or height of any creature frame (on fire or not), or 0 if they couldn't be loaded.
+     * (Useful for knowing how far away from its center a creature can be hit.)
+     */
+    public static int largestCreatureSize(){
+        return get().largestCreatureSize;
+    }
+
+    public static List<BufferedImage> leftDragonImages(){
+        return get().leftDragonImages;
+    }
+
+    public static List<BufferedImage> rightDragonImages(){
+        return get().rightDragonImages;
+    }
+
+    public static BufferedImage fireballImage(){
+        return get().fireballImage;
+    }
+
+    public static BufferedImage puffOfSmokeImage(){
+        return get().puffOfSmokeImage;
+    }
+
+    public static BufferedImage atlas(){
+        return get().atlas;
+    }
+
+    /**
+     * load
+     * ----
+     * Reads every sprite file, then copies them all into the atlas and
+     * replaces each decoded image with a sub-image of the atlas.
+     */
+    private static Sprites load(){
+        Sprites s = new Sprites();
+
+        List<BufferedImage> creatures = readAll("images/creatureSmall1.png", "images/creatureSmall2.png",
+                "images/creatureSmall3.png", "images/creatureSmall4.png", "images/creatureSmall5.png",
+                "images/creatureSmall6.png", "images/creatureSmall7.png", "images/creatureSmall8.png");
+        List<BufferedImage> creaturesOnFire = readAll("images/creatureFire1.png", "images/creatureFire2.png",
+                "images/creatureFire3.png", "images/creatureFire4.png");
+        List<BufferedImage> leftDragons = readAll("images/dragon1Left.png", "images/dragon2Left.png",
+                "images/dragon3Left.png", "images/dragon4Left.png", "images/dragon5Left.png", "images/dragon6Left.png");
+        List<BufferedImage> rightDragons = readAll("images/dragon1Right.png", "images/dragon2Right.png",
+                "images/dragon3Right.png", "images/dragon4Right.png", "images/dragon5Right.png", "images/dragon6Right.png");
+        List<BufferedImage> fireballs = readAll("images/fireball1.png");
+        List<BufferedImage> smoke = readAll("images/puffOfSmoke.png");
+
+        // everything that goes in the atlas, in order:
+        ArrayList<BufferedImage> all = new ArrayList<>();
+        all.addAll(creatures);
+        all.addAll(creaturesOnFire);
+        all.addAll(leftDragons);
+        all.addAll(rightDragons);
+        all.addAll(fireballs);
+        all.addAll(smoke);
+
+        List<BufferedImage> packed = pack(s, all);
+
+        // now hand the packed frames back out in the same groups they came in:
+        int i = 0;
+        s.creatureImages = Collections.unmodifiableList(new ArrayList<>(packed.subList(i, i += creatures.size())));
+        s.creatureFireImages = Collections.unmodifiableList(new ArrayList<>(packed.subList(i, i += creaturesOnFire.size())));
+        s.leftDragonImages = Collections.unmodifiableList(new ArrayList<>(packed.subList(i, i += leftDragons.size())));
+        s.rightDragonImages = Collections.unmodifiableList(new ArrayList<>(packed.subList(i, i += rightDragons.size())));
+        // (if the fireball or smoke couldn't be loaded, they stay null)
+        if (fireballs.size() > 0) s.fireballImage = packed.get(i++);
+        if (smoke.size() > 0) s.puffOfSmokeImage = packed.get(i++);
+
+        // the creatures get hit by fireballs, so their frames need collision masks:
+        s.creatureMasks = masksFor(s.creatureImages);
+        s.creatureFireMasks = masksFor(s.creatureFireImages);
+        for (BufferedImage image: creatures){
+            s.largestCreatureSize = Math.max(s.largestCreatureSize, Math.max(image.getWidth(), image.getHeight()));
+        }
+        for (BufferedImage image: creaturesOnFire){
+            s.largestCreatureSize = Math.max(s.largestCreatureSize, Math.max(image.getWidth(), image.getHeight()));
+        }
+
+        return s;
+    }
+
+    private static List<CollisionMask> masksFor(List<BufferedImage> images){
+        ArrayList<CollisionMask> masks = new ArrayList<>();
+        for (BufferedImage image: images){
+            masks.add(CollisionMask.fromImage(image));
+        }
+        return Collections.unmodifiableList(masks);
+    }
+
+    /**
+     * readAll
+     * -------
+     * Decodes each file, as a compatible image (see CompatibleImages.toCompatible()).
+     * If one can't be read, the error is printed and it's left out of the list.
+     */
+    private static List<BufferedImage> readAll(String... fileNames){
+        ArrayList<BufferedImage> images = new ArrayList<>();
+        for (String fileName: fileNames){
+            try {
+                BufferedImage image = ImageIO.read(new File(fileName));
+                if (image != null) images.add(CompatibleImages.toCompatible(image));
+            }
+            catch (IOException e) {
+                System.out.println("couldn't load sprite " + fileName + ": " + e.getMessage());
+            }
+        }
+        return images;
+    }
+
+    /**
+     * pack
+     * ----
+     * Packs the images, left to right, into shelves of the atlas (starting a new shelf
+     * whenever the current one is full) and returns a sub-image of the atlas for each of them.
+     * PRE: images isn't null (it can be empty)
+     * POST: s.atlas holds a copy of every image.
+     */
+    private static List<BufferedImage> pack(Sprites s, List<BufferedImage> images){
+        int[] xs = new int[images.size()];
+        int[] ys = new int[images.size()];
+
+        // first work out where everything goes:
+        int x = 0, y = 0, shelfHeight = 0, atlasWidth = 1;
+        for (int i = 0; i < images.size(); i++){
+            BufferedImage image = images.get(i);
+            if (x > 0 && x + image.getWidth() > ATLAS_WIDTH){ // no room left on this shelf
+                y += shelfHeight;
+                x = 0;
+                shelfHeight = 0;
+            }
+            xs[i] = x;
+            ys[i] = y;
+            x += image.getWidth();
+            shelfHeight = Math.max(shelfHeight, image.getHeight());
+            atlasWidth = Math.max(atlasWidth, x);
+        }
+        int atlasHeight = Math.max(1, y + shelfHeight);
+
+        // then copy them all in (the atlas is a compatible image, so drawing a sprite out of it doesn't convert any pixels):
+        s.atlas = CompatibleImages.create(atlasWidth, atlasHeight, Transparency.TRANSLUCENT);
+        Graphics2D g = s.atlas.createGraphics();
+        ArrayList<BufferedImage> frames = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++){
+            BufferedImage image = images.get(i);
+            g.drawImage(image, xs[i], ys[i], null);
+            frames.add(s.atlas.getSubimage(xs[i], ys[i], image.getWidth(), image.getHeight()));
+        }
+        g.dispose();
+        return frames;
+    }
+
+} // end Sprites class
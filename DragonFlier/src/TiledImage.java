@@ -0,0 +1,314 @@
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * TiledImage
+ * ----------
+ * A TiledImage is a big image (like the cavern) that's never kept in memory all at once.
+ * Instead, it's cut up into square tiles, and each tile is only loaded the first time it's needed.
+ * The tiles we've loaded are kept in a cache, and once there are more than maxTiles of them,
+ * the one that was used longest ago is thrown away (a "least recently used", or LRU, cache;
+ * LinkedHashMap does that for us if we make it keep its entries in access order).
+ *
+ * draw() only draws the tiles that can be seen in the window, so the cavern can be much bigger than
+ * we'd want to keep in memory, and each frame only copies the pixels that are actually on the screen.
+ *
+ * Where do the tiles come from? ImageIO can decode just one rectangle of an image (ImageReadParam.setSourceRegion),
+ * but a PNG is compressed as one long stream, so to get to a tile near the bottom it has to decode all the rows above it
+ * (that takes a couple of hundred milliseconds for the cavern, which is way too long to wait in the middle of a frame).
+ * So the first time an image is opened, it's decoded once, a strip of tiles at a time, and the tiles' pixels are written
+ * to a "tile store" file (in the temp folder), tile after tile. After that, loading a tile is just reading its pixels
+ * straight out of that file. The tile store is kept for next time (it's named after the image's size and date,
+ * so if the image changes, a new one gets made), so the game starts faster after the first time.
+ *
+ * The tiles are compatible images (see CompatibleImages), and the cache keeps them as AcceleratedImages,
+ * so when we're drawing to the screen, the tiles in the window stay in video memory.
+ *
+ * The tile store stays open for as long as the TiledImage is used, so call close() when you're done with it
+ * (that closes the file, and gives back the video memory of the tiles in the cache).
+ */
+public class TiledImage implements Closeable {
+
+    public static final int DEFAULT_TILE_SIZE = 512;
+
+    private final int width, height;
+    private final int tileSize;
+    private final int columns, rows;
+
+    private final FileChannel tileStore; // every tile's pixels (all tiles are stored full-size, even the ones on the edges)
+
+    private final LinkedHashMap<Long, AcceleratedImage> tiles;
+    private int tilesLoaded = 0; // (how many times we've had to go to the tile store, for the benchmarks)
+
+    /**
+     * TiledImage constructor:
+     * -----------------------
+     * Opens the image file. If there isn't a tile store for it yet, this decodes it (once) to make one.
+     * tileSize is the width (and height) of each tile, and at most maxTiles tiles are kept in memory at once.
+     * PRE: maxTiles is at least as many tiles as fit in the window (otherwise every frame would load tiles).
+     * POST: throws an IOException if the file isn't there or isn't an image ImageIO can read.
+     */
+    public TiledImage(File file, int tileSize, final int maxTiles) throws IOException {
+        this.tileSize = tileSize;
+
+        ImageInputStream input = ImageIO.createImageInputStream(file);
+        if (input == null) throw new IOException("can't open " + file);
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()){
+            input.close();
+            throw new IOException(file + " isn't an image we know how to read");
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, false, true); // (not "seek forward only", so it can go back for each strip)
+            this.width = reader.getWidth(0); // (this only reads the header)
+            this.height = reader.getHeight(0);
+            this.columns = (width + tileSize - 1) / tileSize;
+            this.rows = (height + tileSize - 1) / tileSize;
+
+            File storeFile = tileStoreFor(file);
+            if (storeFile.length() != (long)columns * rows * tileSize * tileSize * 4){
+                writeTileStore(reader, storeFile);
+            }
+            this.tileStore = FileChannel.open(storeFile.toPath(), StandardOpenOption.READ);
+        }
+        finally {
+            reader.dispose();
+            input.close();
+        }
+
+        // true means "access order": every get() moves the tile to the end, so the eldest entry is the least recently used one.
+        this.tiles = new LinkedHashMap<Long, AcceleratedImage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, AcceleratedImage> eldest){
+                if (size() <= maxTiles) return false;
+                eldest.getValue().flush(); // (give back its video memory)
+                return true;
+            }
+        };
+    }
+
+    /**
+     * getTile
+     * -------
+     * Returns the tile in the given column and row, loading it if it isn't in the cache.
+     * (The tiles along the right and bottom edges are smaller, if the image isn't a whole number of tiles.)
+     * PRE: 0 <= column < getColumns(), 0 <= row < getRows()
+     */
+    public BufferedImage getTile(int column, int row){
+        return getAcceleratedTile(column, row).getSource();
+    }
+
+    /**
+     * getAcceleratedTile
+     * ------------------
+     * Like getTile, but returns the tile wrapped up so it can be drawn from video memory (see AcceleratedImage).
+     */
+    private AcceleratedImage getAcceleratedTile(int column, int row){
+        Long key = ((long)column << 32) | row;
+        AcceleratedImage tile = tiles.get(key);
+        if (tile == null){
+            tile = new AcceleratedImage(readTile(column, row));
+            tiles.put(key, tile);
+        }
+        return tile;
+    }
+
+    /**
+     * readTile
+     * --------
+     * Loads the tile in the given column and row from the tile store (without putting it in the cache).
+     * The tile is a compatible image (see CompatibleImages), and it's opaque if none of its pixels are see-through
+     * (like all of the jpg's tiles), which makes it quicker to draw.
+     * If the tile store can't be read, the tile is transparent (so the game can keep going).
+     * PRE: 0 <= column < getColumns(), 0 <= row < getRows()
+     */
+    public BufferedImage readTile(int column, int row){
+        int tileWidth = Math.min(tileSize, width - column * tileSize);
+        int tileHeight = Math.min(tileSize, height - row * tileSize);
+        int[] pixels = new int[tileSize * tileSize];
+        if (!readTilePixels(column, row, pixels)){
+            return CompatibleImages.create(tileWidth, tileHeight, Transparency.BITMASK);
+        }
+        return CompatibleImages.fromPixels(pixels, tileWidth, tileHeight, tileSize);
+    }
+
+    /**
+     * readTilePixels
+     * --------------
+     * Reads the ARGB pixels of the tile in the given column and row straight into pixels, one row of the tile after another
+     * (always tileSize of them per row, even for the tiles on the edges; the pixels past the edge of the image are 0).
+     * This is for going through the whole image one tile at a time, like when we build the collision mask.
+     * Returns false (and prints why) if the tile store couldn't be read.
+     * PRE: pixels has room for tileSize * tileSize pixels
+     */
+    public boolean readTilePixels(int column, int row, int[] pixels){
+        ByteBuffer bytes = ByteBuffer.allocate(tileSize * tileSize * 4);
+        try {
+            long position = ((long)row * columns + column) * tileSize * tileSize * 4;
+            while (bytes.hasRemaining()){
+                if (tileStore.read(bytes, position + bytes.position()) < 0) throw new IOException("the tile store is too short");
+            }
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+        bytes.flip();
+        bytes.asIntBuffer().get(pixels, 0, tileSize * tileSize);
+        tilesLoaded++;
+        return true;
+    }
+
+    /**
+     * draw
+     * ----
+     * Draws the image with its top left corner at x,y, but only the tiles that land inside the
+     * viewWidth by viewHeight window (starting at 0,0).
+     * PRE: g is not null
+     */
+    public void draw(Graphics g, int x, int y, int viewWidth, int viewHeight){
+        // which tiles are in the window? (in image coordinates, the window goes from -x,-y to -x+viewWidth,-y+viewHeight)
+        int firstColumn = Math.max(0, Math.floorDiv(-x, tileSize));
+        int lastColumn = Math.min(columns - 1, Math.floorDiv(-x + viewWidth - 1, tileSize));
+        int firstRow = Math.max(0, Math.floorDiv(-y, tileSize));
+        int lastRow = Math.min(rows - 1, Math.floorDiv(-y + viewHeight - 1, tileSize));
+        for (int row = firstRow; row <= lastRow; row++){
+            for (int column = firstColumn; column <= lastColumn; column++){
+                getAcceleratedTile(column, row).draw(g, x + column * tileSize, y + row * tileSize);
+            }
+        }
+    }
+
+    /**
+     * clearCache
+     * ----------
+     * Throws away all the tiles in the cache (they'll be loaded again when they're needed).
+     */
+    public void clearCache(){
+        for (AcceleratedImage tile : tiles.values()) tile.flush();
+        tiles.clear();
+    }
+
+    /*
+     * getters:
+     */
+    public int getWidth(){
+        return width;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+
+    public int getTileSize(){
+        return tileSize;
+    }
+
+    public int getColumns(){
+        return columns;
+    }
+
+    public int getRows(){
+        return rows;
+    }
+
+    public int getCachedTileCount(){
+        return tiles.size();
+    }
+
+    public int getTilesLoaded(){
+        return tilesLoaded;
+    }
+
+    /**
+     * close
+     * -----
+     * Closes the tile store, and throws away the tiles in the cache (giving back their video memory).
+     * POST: the TiledImage shouldn't be used any more (any tile it had to load now would just be see-through).
+     */
+    @Override
+    public void close() throws IOException {
+        for (AcceleratedImage tile: tiles.values()){
+            tile.flush();
+        }
+        tiles.clear();
+        tileStore.close();
+    }
+
+    public boolean isOpen(){
+        return tileStore.isOpen();
+    }
+
+    /**
+     * tileStoreFor
+     * ------------
+     * Where the tile store for this image goes: in the temp folder, named after the image's name, size, date and the tile size.
+     */
+    private File tileStoreFor(File image){
+        return cacheFileFor(image, "-" + tileSize + ".tiles");
+    }
+
+    /**
+     * cacheFileFor
+     * ------------
+     * A file in our folder in the temp folder for keeping something we worked out from image (so we don't have to do it again
+     * next time). It's named after the image's name, size and date (so if the image changes, it gets a new one), plus ending.
+     */
+    public static File cacheFileFor(File image, String ending){
+        File folder = new File(System.getProperty("java.io.tmpdir"), "dragonflier-tiles");
+        return new File(folder, image.getName() + "-" + image.length() + "-" + image.lastModified() + ending);
+    }
+
+    /**
+     * writeTileStore
+     * --------------
+     * Decodes the image a strip of tiles at a time (the whole width, and one tile high),
+     * and writes each tile's pixels to the tile store. Only one strip is ever in memory.
+     * It's written to a temporary file first and then renamed, so a half-written tile store never gets used.
+     */
+    private void writeTileStore(ImageReader reader, File storeFile) throws IOException {
+        storeFile.getParentFile().mkdirs();
+        File partFile = new File(storeFile.getPath() + ".part");
+        try (FileChannel out = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)){
+            ByteBuffer bytes = ByteBuffer.allocate(tileSize * tileSize * 4);
+            IntBuffer ints = bytes.asIntBuffer();
+            int[] pixels = new int[tileSize * tileSize];
+            for (int row = 0; row < rows; row++){
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle(0, row * tileSize, width, Math.min(tileSize, height - row * tileSize)));
+                BufferedImage strip = reader.read(0, param);
+                for (int column = 0; column < columns; column++){
+                    Arrays.fill(pixels, 0);
+                    strip.getRGB(column * tileSize, 0, Math.min(tileSize, width - column * tileSize), strip.getHeight(), pixels, 0, tileSize);
+                    ints.clear();
+                    ints.put(pixels);
+                    bytes.clear();
+                    while (bytes.hasRemaining()) out.write(bytes);
+                }
+            }
+        }
+        Files.move(partFile.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+} // end TiledImage class
@@ -0,0 +1,255 @@
+/**
+ * TimingWheel
+ * -----------
+ * A TimingWheel is a timer for the game: you schedule a Task to run a certain number of ticks from now,
+ * and it runs when the game loop has advanced the wheel that many ticks.
+ * Since it only moves when the game calls advance(), pausing the game pauses every timer,
+ * and calling advance(n) fast-forwards them all.
+ * (Swing Timers, on the other hand, go by the wall clock and all have to go through the Swing event queue.)
+ *
+ * How it works: picture a clock face with 256 slots, one for each of the next 256 ticks.
+ * Scheduling a task just puts it in the slot for the tick it's due, and each tick we run whatever is
+ * in that tick's slot. Tasks due further away go in a coarser wheel (where each slot covers 256 ticks),
+ * and those further still go in even coarser wheels. Whenever a finer wheel goes all the way around,
+ * the tasks in the next slot of the coarser wheel get moved down ("cascaded") into the finer wheel.
+ * So scheduling, cancelling and running a task are all O(1), no matter how many tasks there are.
+ *
+ * Tasks are linked together directly (each Task has next/prev links), so scheduling doesn't allocate
+ * anything, and one Task object can be scheduled over and over again.
+ * Each slot's list is kept in the order the tasks were scheduled (a new task goes on the end, and one that
+ * cascades down goes in before any newer ones), so tasks that are due on the same tick run first-come, first-served.
+ */
+public class TimingWheel {
+
+    /**
+     * Task
+     * ----
+     * Something to run later. Make a subclass (or an anonymous class) with a run() method.
+     * A Task can only be scheduled once at a time; scheduling it again moves it.
+     */
+    public static abstract class Task {
+        private Task next, prev;
+        private int level = -1, slot; // where it's stored (level is -1 when it isn't scheduled)
+        private long deadline;        // the tick it's due
+        private long sequence;        // when it was scheduled (it counts up by one for every schedule())
+
+        public abstract void run();
+
+        public boolean isScheduled(){
+            return level >= 0;
+        }
+    }
+
+    // Each level has 2^bits slots, and level n's slots are 2^shift ticks wide:
+    private static final int[] BITS  = {8, 6, 6, 6};
+    private static final int[] SHIFT = {0, 8, 14, 20};
+    private static final int OVERFLOW = BITS.length; // the "level" of tasks too far away for any wheel
+    private static final long HORIZON = 1L << 26;    // (that's about 93 hours of 5 ms ticks)
+
+    // the first and last task in each slot (the overflow is one more "wheel", with just one slot):
+    private final Task[][] wheels = new Task[BITS.length + 1][];
+    private final Task[][] tails = new Task[BITS.length + 1][];
+    private long scheduled = 0; // how many times schedule() has been called (for each task's sequence)
+
+    private final double millisPerTick;
+    private long tick = 0; // how many ticks have gone by
+    private int size = 0;  // how many tasks are scheduled
+
+    /**
+     * TimingWheel constructor:
+     * ------------------------
+     * millisPerTick is how much time one tick is worth (used by ticksFor()).
+     */
+    public TimingWheel(double millisPerTick){
+        this.millisPerTick = millisPerTick;
+        for (int level = 0; level < BITS.length; level++){
+            wheels[level] = new Task[1 << BITS[level]];
+            tails[level] = new Task[1 << BITS[level]];
+        }
+        wheels[OVERFLOW] = new Task[1];
+        tails[OVERFLOW] = new Task[1];
+    }
+
+    /**
+     * ticksFor
+     * --------
+     * How many ticks it takes for this many milliseconds to go by (at least 1).
+     */
+    public long ticksFor(double millis){
+        return Math.max(1, Math.round(millis / millisPerTick));
+    }
+
+    /**
+     * schedule
+     * --------
+     * Schedules task to run delay ticks from now. (A delay less than 1 counts as 1: the next tick.)
+     * If the task was already scheduled, it's moved.
+     */
+    public void schedule(Task task, long delay){
+        if (task.isScheduled()) cancel(task);
+        task.deadline = tick + Math.max(1, delay);
+        task.sequence = scheduled++;
+        insert(task);
+        size++;
+    }
+
+    /**
+     * cancel
+     * ------
+     * Unschedules the task. If it isn't scheduled, nothing happens.
+     */
+    public void cancel(Task task){
+        if (!task.isScheduled()) return;
+        unlink(task);
+        size--;
+    }
+
+    /**
+     * advance
+     * -------
+     * Moves time forward one tick, and runs every task that's due on that tick (in the order they were scheduled).
+     */
+    public void advance(){
+        tick++;
+
+        // if the finest wheel has gone all the way around, bring down the tasks from the coarser wheels:
+        int level = 1;
+        while (level < BITS.length && (tick & ((1L << SHIFT[level]) - 1)) == 0){
+            level++;
+        }
+        // (we cascade from the coarsest wheel down, so tasks can fall all the way to where they belong)
+        if (level == BITS.length) cascadeOverflow();
+        for (int l = level - 1; l >= 1; l--){
+            cascade(l, slotOf(tick, l));
+        }
+
+        // now run everything in this tick's slot:
+        Task[] finest = wheels[0];
+        int i = slotOf(tick, 0);
+        Task task;
+        while ((task = finest[i]) != null){
+            unlink(task);
+            size--;
+            if (task.deadline == tick) task.run();
+            else { // (shouldn't happen, but just in case it's not due yet, put it back)
+                insert(task);
+                size++;
+            }
+        }
+    }
+
+    /**
+     * advance
+     * -------
+     * Fast-forwards the given number of ticks (running all the tasks that come due along the way).
+     */
+    public void advance(long ticks){
+        for (long t = 0; t < ticks; t++){
+            advance();
+        }
+    }
+
+    /**
+     * clear
+     * -----
+     * Unschedules everything.
+     */
+    public void clear(){
+        for (Task[] wheel: wheels){ // (the overflow too)
+            for (int i = 0; i < wheel.length; i++){
+                while (wheel[i] != null) unlink(wheel[i]);
+            }
+        }
+        size = 0;
+    }
+
+    public long getTick(){
+        return tick;
+    }
+
+    // how many ticks from now task is due (-1 if it isn't scheduled):
+    public long ticksUntil(Task task){
+        return task.isScheduled() ? task.deadline - tick : -1;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public double getMillisPerTick(){
+        return millisPerTick;
+    }
+
+    /*
+     * insert
+     * ------
+     * Puts a task into the right slot of the right wheel, depending on how far away its deadline is.
+     * It goes after every task in the slot that was scheduled before it. (A task that's just been scheduled is the newest,
+     * so it goes straight on the end; only one that's cascading down might have to go in front of some newer ones.)
+     */
+    private void insert(Task task){
+        long delta = task.deadline - tick;
+        int level = 0;
+        int slot = 0;
+        if (delta >= HORIZON){
+            level = OVERFLOW;
+        }
+        else {
+            while (level + 1 < BITS.length && delta >= (1L << SHIFT[level + 1])){
+                level++;
+            }
+            slot = slotOf(task.deadline, level);
+        }
+        task.level = level;
+        task.slot = slot;
+
+        Task before = tails[level][slot]; // (the task it goes after, or null if it goes first)
+        while (before != null && before.sequence > task.sequence){
+            before = before.prev;
+        }
+        task.prev = before;
+        if (before == null){
+            task.next = wheels[level][slot];
+            wheels[level][slot] = task;
+        }
+        else {
+            task.next = before.next;
+            before.next = task;
+        }
+        if (task.next != null) task.next.prev = task;
+        else tails[level][slot] = task;
+    }
+
+    private void unlink(Task task){
+        if (task.prev != null) task.prev.next = task.next;
+        else wheels[task.level][task.slot] = task.next;
+        if (task.next != null) task.next.prev = task.prev;
+        else tails[task.level][task.slot] = task.prev;
+        task.next = null;
+        task.prev = null;
+        task.level = -1;
+    }
+
+    // moves every task in one slot of a coarse wheel down to where it belongs now
+    // (the whole list is taken out of the slot first, so a task in the overflow that's still too far away
+    //  can go back in without being looked at again):
+    private void cascade(int level, int slot){
+        Task task = wheels[level][slot];
+        wheels[level][slot] = null;
+        tails[level][slot] = null;
+        while (task != null){
+            Task next = task.next;
+            insert(task);
+            task = next;
+        }
+    }
+
+    private void cascadeOverflow(){
+        cascade(OVERFLOW, 0);
+    }
+
+    private static int slotOf(long tick, int level){
+        return (int)((tick >>> SHIFT[level]) & ((1 << BITS[level]) - 1));
+    }
+
+} // end TimingWheel class
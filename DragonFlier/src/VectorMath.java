@@ -0,0 +1,63 @@
+/**
+ * VectorMath
+ * ----------
+ * Distances between points, for the collision checks and for the creatures deciding whether to chase the dragon.
+ *
+ * The old distance() methods (in the GamePane and in LocationAndVelocity) cut the coordinates down to ints, squared them,
+ * took the square root, and cut that down to an int too, every egg, every tick. Cutting things down to ints means a creature
+ * that's 0.9 of a pixel closer can still count as the same distance away, so collisions came and went a pixel or so late
+ * (and it made the creatures jitter when they're right at the edge of the distance where they notice the dragon).
+ *
+ * Here everything stays a double. And when all we want to know is whether two things are closer than some distance
+ * (which is almost always), we don't need the square root at all: a and b are closer than r
+ * exactly when the distance squared is less than r squared (both sides are never negative, so squaring doesn't change which is bigger).
+ * (VectorMathTest checks that it gets the right answers.)
+ */
+public class VectorMath {
+
+    private VectorMath(){
+    }
+
+    /**
+     * distanceSquared
+     * ---------------
+     * The distance between (x1,y1) and (x2,y2), squared.
+     */
+    public static double distanceSquared(double x1, double y1, double x2, double y2){
+        double dx = x1 - x2;
+        double dy = y1 - y2;
+        return dx*dx + dy*dy;
+    }
+
+    /**
+     * distance
+     * --------
+     * The distance between (x1,y1) and (x2,y2), using our old friend, the Pythagorean Theorem.
+     * (If you're just going to compare it to something, isWithin() is quicker.)
+     */
+    public static double distance(double x1, double y1, double x2, double y2){
+        return Math.sqrt(distanceSquared(x1, y1, x2, y2));
+    }
+
+    /**
+     * isWithin
+     * --------
+     * Returns true if (x1,y1) is closer than radius to (x2,y2) (exactly radius away doesn't count).
+     * PRE: radius >= 0
+     */
+    public static boolean isWithin(double x1, double y1, double x2, double y2, double radius){
+        return distanceSquared(x1, y1, x2, y2) < radius * radius;
+    }
+
+    /**
+     * isWithinSquared
+     * ---------------
+     * The same as isWithin, but with the radius already squared
+     * (for when it's the same radius for a lot of points, so it only has to be squared once).
+     * PRE: radiusSquared >= 0
+     */
+    public static boolean isWithinSquared(double x1, double y1, double x2, double y2, double radiusSquared){
+        return distanceSquared(x1, y1, x2, y2) < radiusSquared;
+    }
+
+} // end VectorMath class
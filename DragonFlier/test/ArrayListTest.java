@@ -0,0 +1,129 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * ArrayListTest
+ * -------------
+ * Our ArrayList, IntArrayList and DoubleArrayList: swapRemove(), removeIf(), equals() and hashCode(),
+ * and the bugs the old ArrayList had (remove() reading one past the end, isEmpty(), == instead of equals()).
+ */
+public class ArrayListTest {
+
+    private static ArrayList<String> listOf(String... strings){
+        ArrayList<String> list = new ArrayList<>(2); // (small, so adding them has to grow it)
+        for (String s: strings) list.add(s);
+        return list;
+    }
+
+    @Test
+    public void swapRemoveMovesTheLastOneIntoItsPlace(){
+        ArrayList<String> list = listOf("a", "b", "c", "d");
+        assertEquals("b", list.swapRemove(1));
+        assertEquals(List.of("a", "d", "c"), list);
+        assertEquals("c", list.swapRemove(2)); // (the last one just comes off the end)
+        assertEquals(List.of("a", "d"), list);
+    }
+
+    @Test
+    public void removeKeepsTheOrderAndWorksOnTheLastOne(){
+        ArrayList<String> list = listOf("a", "b", "c");
+        assertEquals("a", list.remove(0));
+        assertEquals(List.of("b", "c"), list);
+        assertEquals("c", list.remove(1));
+        assertEquals(List.of("b"), list);
+        assertEquals("b", list.remove(0));
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void removeIfSlidesTheKeepersDownInOrder(){
+        ArrayList<String> list = listOf("a", "bb", "c", "dd", "ee", "f");
+        assertTrue(list.removeIf(s -> s.length() == 2));
+        assertEquals(List.of("a", "c", "f"), list);
+        assertFalse(list.removeIf(s -> s.length() == 2));
+        list.add("g"); // (it still works after it's shrunk)
+        assertEquals(List.of("a", "c", "f", "g"), list);
+        assertTrue(list.removeIf(s -> true));
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.size());
+    }
+
+    @Test
+    public void equalsComparesTheElementsNotTheObjects(){
+        ArrayList<String> list = listOf("egg", "dragon");
+        ArrayList<String> same = listOf(new String("egg"), new String("dragon")); // (equal, but not the same objects)
+        assertEquals(list, same);
+        assertEquals(same, list);
+        assertEquals(list.hashCode(), same.hashCode());
+        assertEquals(List.of("egg", "dragon"), list);
+        assertEquals(List.of("egg", "dragon").hashCode(), list.hashCode());
+        assertNotEquals(listOf("dragon", "egg"), list);
+        assertNotEquals(listOf("egg"), list);
+        assertEquals(1, list.indexOf(new String("dragon")));
+    }
+
+    @Test
+    public void badIndexesThrow(){
+        ArrayList<String> list = listOf("a", "b");
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(2, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.remove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.swapRemove(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.swapRemove(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(3, "c"));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.add(-1, "c"));
+        assertEquals(List.of("a", "b"), list); // (and nothing changed)
+    }
+
+    @Test
+    public void intArrayList(){
+        IntArrayList ints = new IntArrayList(1);
+        assertTrue(ints.isEmpty());
+        for (int i = 0; i < 10; i++) ints.add(i);
+        assertEquals(10, ints.size());
+        assertEquals(3, ints.swapRemove(3));
+        assertEquals(9, ints.get(3));
+        assertTrue(ints.removeIf(n -> n % 2 == 0));
+        assertEquals("[1, 9, 5, 7]", ints.toString());
+        ints.set(0, 42);
+        assertEquals(42, ints.get(0));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.get(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.set(4, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.set(-1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.swapRemove(-1));
+        // (the numbers past the end are still in the array after removeIf, but they can't be got at)
+        assertThrows(IndexOutOfBoundsException.class, () -> ints.get(5));
+    }
+
+    @Test
+    public void doubleArrayList(){
+        DoubleArrayList doubles = new DoubleArrayList(1);
+        assertTrue(doubles.isEmpty());
+        for (int i = 0; i < 6; i++) doubles.add(i * 0.5);
+        assertEquals(0.5, doubles.swapRemove(1));
+        assertEquals(2.5, doubles.get(1));
+        assertTrue(doubles.removeIf(d -> d >= 2));
+        assertEquals(3, doubles.size());
+        assertEquals(0.0, doubles.get(0));
+        assertEquals(1.0, doubles.get(1));
+        assertEquals(1.5, doubles.get(2));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> doubles.get(3));
+        assertThrows(IndexOutOfBoundsException.class, () -> doubles.get(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> doubles.set(3, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> doubles.set(-1, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> doubles.swapRemove(-1));
+    }
+
+} // end ArrayListTest class
@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BackgroundTest
+ * --------------
+ * Restarting the game puts the same Background back where it started (instead of opening the cavern's files again),
+ * and closing the world closes the files.
+ */
+public class BackgroundTest {
+
+    @Test
+    public void restartingKeepsTheBackground(){
+        GameWorld world = GameRuns.crowdedWorld(0);
+        Background background = world.getBackground();
+        double startX = background.loc.x;
+        double startY = background.loc.y;
+        GameRuns.play(world, 500, 0); // (flies off to the right)
+
+        world.apply(GameInput.RESTART, true);
+        assertSame(background, world.getBackground());
+        assertEquals(startX, background.loc.x);
+        assertEquals(startY, background.loc.y);
+        assertEquals(0.0, background.loc.xv);
+        assertFalse(background.left || background.right || background.up || background.down);
+        world.close();
+    }
+
+    @Test
+    public void closingTheWorldClosesTheTileStores(){
+        GameWorld world = GameRuns.crowdedWorld(0);
+        TiledImage cavern = world.getBackground().backgroundImage;
+        if (cavern == null) return; // (the cavern image isn't there)
+        assertTrue(cavern.isOpen());
+        cavern.getTile(0, 0);
+        world.close();
+        assertFalse(cavern.isOpen());
+        assertEquals(0, cavern.getCachedTileCount());
+    }
+
+} // end BackgroundTest class
@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * CullingTest
+ * -----------
+ * The FrameRenderer only draws the eggs that are in the window. The ones it leaves out have to keep going just the same:
+ * a creature that's off the screen still flips through its pictures (and collision masks) on game time.
+ */
+public class CullingTest {
+
+    @Test
+    public void creaturesOffTheScreenStillAnimate(){
+        GameWorld world = GameRuns.crowdedWorld(0);
+        Background background = world.getBackground();
+        // a creature way off to the right of the window (but still in the cavern):
+        int x = (int)(-background.loc.x) + 3 * GameRuns.FRAME_WIDTH;
+        int y = (int)(-background.loc.y) + GameRuns.FRAME_HEIGHT / 2;
+        Egg creature = new Egg(background, world.getDragon(), world.getClock(), x, y, 0, 0.01, 0.01);
+        world.addEgg(creature);
+
+        FrameRenderer renderer = new FrameRenderer(GameRuns.FRAME_WIDTH);
+        Graphics g = new BufferedImage(GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+        long ticks = 5L * Egg.TICKS_PER_PICTURE;
+        for (long tick = 0; tick < ticks; tick++){
+            world.step();
+            renderer.draw(g, world);
+        }
+        g.dispose();
+
+        assertEquals(eggStage.HATCHED, creature.stage);
+        assertFalse(creature.drawnFrame >= 0, "the creature was drawn, so this doesn't test anything");
+        if (creature.creatureImageList.isEmpty()) return; // (the creature images aren't there, so there's nothing to flip)
+        int expected = (int)(((world.getTick() - creature.animationStartTick) / Egg.TICKS_PER_PICTURE) % creature.creatureImageList.size());
+        assertEquals(expected, creature.whichCreature);
+        assertSame(creature.creatureImageList.get(expected), creature.creatureImage);
+        assertSame(creature.creatureMaskList.get(expected), creature.creatureMask);
+    }
+
+} // end CullingTest class
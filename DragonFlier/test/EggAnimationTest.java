@@ -0,0 +1,58 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * EggAnimationTest
+ * ----------------
+ * The creatures' animation (which picture they show, which collision mask goes with it, and how much a burning one
+ * has shrunk) is part of the game, so it has to go by game time, not by how often the game gets drawn.
+ */
+public class EggAnimationTest {
+
+    private static final long TICKS = 3000;
+
+    @Test
+    public void drawingTheGameDoesNotChangeHowItGoes(){
+        GameWorld drawn = GameRuns.crowdedWorld(300);
+        GameWorld notDrawn = GameRuns.crowdedWorld(300);
+        long drawnHash = GameRuns.play(drawn, TICKS, 3);
+        long notDrawnHash = GameRuns.play(notDrawn, TICKS, 0);
+        assertEquals(notDrawn.describe(), drawn.describe());
+        assertEquals(notDrawnHash, drawnHash);
+    }
+
+    @Test
+    public void creaturesFlipPicturesOnGameTime(){
+        GameWorld world = GameRuns.crowdedWorld(1);
+        Egg creature = world.getEggs().get(world.getEggs().size() - 1);
+        world.getClock().advance(10); // (hatch it)
+        creature.animate(world.getTick());
+        assertEquals(eggStage.HATCHED, creature.stage);
+        if (creature.creatureImageList.isEmpty()) return; // (the creature images aren't there, so there's nothing to flip)
+
+        long hatched = creature.animationStartTick;
+        creature.animate(hatched + Egg.TICKS_PER_PICTURE - 1);
+        assertEquals(0, creature.whichCreature);
+        creature.animate(hatched + Egg.TICKS_PER_PICTURE);
+        assertEquals(1 % creature.creatureImageList.size(), creature.whichCreature);
+        assertTrue(creature.creatureMask == creature.creatureMaskList.get(creature.whichCreature));
+    }
+
+    @Test
+    public void burningCreaturesShrinkOnGameTime(){
+        GameWorld world = GameRuns.crowdedWorld(1);
+        Egg creature = world.getEggs().get(world.getEggs().size() - 1);
+        world.getClock().advance(10);
+        creature.creatureShot();
+        int width = creature.imageWidth;
+        long shot = creature.animationStartTick;
+        // calling it every tick, or only once at the end, comes out the same:
+        Egg everyTick = creature;
+        for (long tick = shot; tick <= shot + 10 * Egg.TICKS_PER_SHRINK; tick++) everyTick.animate(tick);
+        if (width > 0) assertTrue(everyTick.imageWidth < width);
+        assertEquals(10, everyTick.timesShrunk);
+    }
+
+} // end EggAnimationTest class
@@ -0,0 +1,53 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * EggStoreTest
+ * ------------
+ * With the EggStore on, the GameWorld moves the creatures and checks them against the dragon with loops over
+ * the EggStore's arrays instead of over the Egg objects, but the game has to come out exactly the same.
+ */
+public class EggStoreTest {
+
+    private static final long TICKS = 3000;
+
+    @Test
+    public void theStorePlaysTheSameGame(){
+        GameWorld objects = GameRuns.crowdedWorld(300);
+        GameWorld stored = GameRuns.crowdedWorld(300);
+        stored.setUseEggStore(true);
+        long objectsHash = GameRuns.play(objects, TICKS, 0);
+        long storedHash = GameRuns.play(stored, TICKS, 0);
+        assertEquals(objects.describe(), stored.describe());
+        assertEquals(objectsHash, storedHash);
+    }
+
+    @Test
+    public void theStorePlaysTheSameGameOnSeveralThreads(){
+        // (enough creatures that the CreatureUpdater splits the work up)
+        GameWorld objects = GameRuns.crowdedWorld(5000);
+        GameWorld stored = GameRuns.crowdedWorld(5000);
+        stored.setUseEggStore(true);
+        long objectsHash = GameRuns.play(objects, 600, 0);
+        long storedHash = GameRuns.play(stored, 600, 0);
+        assertEquals(objectsHash, storedHash);
+    }
+
+    @Test
+    public void itCanBeTurnedOnAndOffInTheMiddleOfAGame(){
+        GameWorld objects = GameRuns.crowdedWorld(300);
+        GameWorld switched = GameRuns.crowdedWorld(300);
+        for (long tick = 0; tick < TICKS; tick++){
+            if (tick == 700) switched.setUseEggStore(true);
+            if (tick == 2200) switched.setUseEggStore(false);
+            GameRuns.script(objects, tick);
+            objects.step();
+            GameRuns.script(switched, tick);
+            switched.step();
+        }
+        assertEquals(objects.describe(), switched.describe());
+        assertEquals(objects.stateHash(), switched.stateHash());
+    }
+
+} // end EggStoreTest class
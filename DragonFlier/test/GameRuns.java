@@ -0,0 +1,86 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+
+/**
+ * GameRuns
+ * --------
+ * Helpers for the tests that play the same game more than once and check that it comes out the same:
+ * a world with lots of hatched creatures around the dragon, and a little script of key presses to play in it
+ * (flying around and shooting, so creatures get chased, bitten and burned up).
+ */
+class GameRuns {
+
+    static final int FRAME_WIDTH = 1200;
+    static final int FRAME_HEIGHT = 900;
+
+    private GameRuns(){
+    }
+
+    /**
+     * crowdedWorld
+     * ------------
+     * The normal level, plus creatures scattered around where the dragon starts (they hatch on the first tick or two).
+     */
+    static GameWorld crowdedWorld(int creatures){
+        Sprites.preload();
+        GameWorld world = new GameWorld(FRAME_WIDTH, FRAME_HEIGHT);
+        Background background = world.getBackground();
+        Random random = new Random(7);
+        double left = -background.loc.x;
+        double top = -background.loc.y;
+        for (int i = 0; i < creatures; i++){
+            int x = (int)(left - FRAME_WIDTH / 2 + random.nextInt(2 * FRAME_WIDTH));
+            int y = (int)(top - FRAME_HEIGHT / 2 + random.nextInt(2 * FRAME_HEIGHT));
+            world.addEgg(new Egg(background, world.getDragon(), world.getClock(), x, y, 0, 0.01, 0.01));
+        }
+        return world;
+    }
+
+    /**
+     * script
+     * ------
+     * The keys the tests press on tick: fly right, then left, then down, shooting every 150 ticks.
+     */
+    static void script(GameWorld world, long tick){
+        if (tick == 0) world.apply(GameInput.RIGHT, true);
+        if (tick == 1000){
+            world.apply(GameInput.RIGHT, false);
+            world.apply(GameInput.LEFT, true);
+        }
+        if (tick == 2000){
+            world.apply(GameInput.LEFT, false);
+            world.apply(GameInput.DOWN, true);
+        }
+        if (tick == 2600) world.apply(GameInput.DOWN, false);
+        if (tick % 150 == 75) world.apply(GameInput.FIRE, true);
+    }
+
+    /**
+     * play
+     * ----
+     * Plays the script in world for ticks ticks, drawing a frame every ticksPerFrame ticks (or never, if it's 0),
+     * and returns world.stateHash() at the end.
+     */
+    static long play(GameWorld world, long ticks, int ticksPerFrame){
+        FrameRenderer renderer = new FrameRenderer(FRAME_WIDTH);
+        Graphics g = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream())); // (eggs print things now and then)
+        try {
+            for (long tick = 0; tick < ticks; tick++){
+                script(world, tick);
+                world.step();
+                if (ticksPerFrame > 0 && tick % ticksPerFrame == 0) renderer.draw(g, world);
+            }
+        }
+        finally {
+            System.setOut(out);
+            g.dispose();
+        }
+        return world.stateHash();
+    }
+
+} // end GameRuns class
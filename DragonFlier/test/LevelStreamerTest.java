@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * LevelStreamerTest
+ * -----------------
+ * When the window goes far away from a region where nothing's been touched, its eggs go back to the EggPool,
+ * and when it comes back, they're made again just how they were (and the ones that were eaten stay gone).
+ */
+public class LevelStreamerTest {
+
+    @TempDir
+    Path folder;
+
+    private static final int EGGS = 6;
+    private static final int FAR = 6000; // (how far we take the window away)
+
+    // a level with regions of 512 pixels, and EGGS eggs around the middle of where the window starts,
+    // that take hatchSeconds to hatch once they're ready:
+    private GameWorld world(double hatchSeconds) throws IOException {
+        Background background = new Background(GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT);
+        int centerX = (int)(-background.loc.x) + GameRuns.FRAME_WIDTH / 2;
+        int centerY = (int)(-background.loc.y) + GameRuns.FRAME_HEIGHT / 2;
+        background.close();
+        File level = folder.resolve("streaming.txt").toFile();
+        try (PrintWriter out = new PrintWriter(level)){
+            out.println("cavern " + Background.DEFAULT_CAVERN);
+            out.println("regionSize 512");
+            out.println("activate 256");
+            for (int i = 0; i < EGGS; i++){
+                out.println("egg " + (centerX + 40 * i) + " " + (centerY + 150) + " " + (i % 2) + " 2 " + hatchSeconds);
+            }
+        }
+        return new GameWorld(GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT, level);
+    }
+
+    // steps the world without pressing any keys (so the fireball doesn't hit anything):
+    private static void steps(GameWorld world, int ticks){
+        for (int i = 0; i < ticks; i++) world.step();
+    }
+
+    // steps the world up to (and including) the next tick it looks for regions to put away:
+    private static void stepUntilACheck(GameWorld world){
+        do {
+            world.step();
+        } while (world.getTick() % LevelStreamer.DEACTIVATION_CHECK_TICKS != 0);
+    }
+
+    @Test
+    public void farRegionsArePutAwayAndComeBackTheSame() throws IOException {
+        // two of the same world: one stays where it is, and the other one flies away and comes back
+        GameWorld stays = world(600);
+        GameWorld leaves = world(600);
+        for (GameWorld world: new GameWorld[] {stays, leaves}){
+            steps(world, 150); // (some of the eggs appear, and start getting bluer)
+            assertEquals(EGGS, world.getEggs().size());
+            world.getEggs().get(0).getEaten();
+        }
+        stepUntilACheck(stays);
+        String before = describe(stays);
+        int poolBefore = leaves.getEggPool().size();
+
+        Background background = leaves.getBackground();
+        background.loc.x -= FAR;
+        stepUntilACheck(leaves); // (its region is put away on this tick)
+        assertEquals(0, leaves.getEggs().size());
+        assertTrue(leaves.getLevelStreamer().getRegionsDeactivated() > 0);
+        assertEquals(poolBefore + EGGS, leaves.getEggPool().size()); // (the eaten one went back too, the usual way)
+        steps(leaves, 500);
+
+        background.loc.x += FAR;
+        leaves.step(); // (its region is activated again on this tick)
+        assertEquals(EGGS - 1, leaves.getEggs().size()); // (the eaten one doesn't come back)
+        // time stood still for them while they were put away:
+        assertEquals(before, describe(leaves));
+        stays.close();
+        leaves.close();
+    }
+
+    @Test
+    public void regionsWithCreaturesStayActive() throws IOException {
+        GameWorld world = world(0.1);
+        steps(world, 1000); // (they've all hatched)
+        int eggs = world.getEggs().size();
+        assertTrue(eggs > 0);
+
+        world.getBackground().loc.x -= FAR;
+        stepUntilACheck(world);
+        assertEquals(eggs, world.getEggs().size());
+        for (Egg anEgg: world.getEggs()) assertFalse(anEgg.putAway);
+        world.close();
+    }
+
+    @Test
+    public void regionOfFindsEachEggsRegion() throws IOException {
+        GameWorld world = world(600);
+        LevelFile level = world.getLevelStreamer().getLevel();
+        for (int egg = 0; egg < level.getNumberOfEggs(); egg++){
+            int region = level.regionOf(egg);
+            int column = region % level.getColumns();
+            int row = region / level.getColumns();
+            assertTrue(level.firstEggIn(column, row) <= egg && egg < level.endOfEggsIn(column, row));
+        }
+        for (Egg anEgg: world.getEggs()) assertFalse(anEgg.levelEggNumber < 0);
+        world.close();
+    }
+
+    // everything about the world's eggs that's put away and comes back:
+    private static String describe(GameWorld world){
+        StringBuilder s = new StringBuilder();
+        for (Egg anEgg: world.getEggs()) s.append(describe(anEgg));
+        return s.toString();
+    }
+
+    private static String describe(Egg anEgg){
+        TimingWheel clock = anEgg.clock;
+        return anEgg.levelEggNumber + " " + anEgg.stage + " at (" + anEgg.loc.x + ", " + anEgg.loc.y + ") blue " + anEgg.amountOfBlueness
+            + " timers " + clock.ticksUntil(anEgg.timerUntilEggAppears) + " " + clock.ticksUntil(anEgg.timerToKeepGettingBluer)
+            + " " + clock.ticksUntil(anEgg.timerUntilEggReadyToEat) + " " + clock.ticksUntil(anEgg.timerUntilEggHatches) + "\n";
+    }
+
+} // end LevelStreamerTest class
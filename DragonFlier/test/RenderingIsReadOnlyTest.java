@@ -0,0 +1,68 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RenderingIsReadOnlyTest
+ * -----------------------
+ * Drawing a frame only looks at the world: it doesn't move anything (not even the background, when the window
+ * draws it part-way between two ticks), and it doesn't move any animation along.
+ * And once a frame has been captured (which the window does holding the worldLock), the world can keep going
+ * without changing what gets drawn.
+ */
+public class RenderingIsReadOnlyTest {
+
+    @Test
+    public void drawingAFrameDoesNotChangeTheWorld(){
+        GameWorld world = GameRuns.crowdedWorld(200);
+        GameRuns.play(world, 400, 0);
+        Background background = world.getBackground();
+        double backgroundX = background.loc.x;
+        double backgroundY = background.loc.y;
+        long hash = world.stateHash();
+        String description = world.describe();
+
+        FrameRenderer renderer = new FrameRenderer(GameRuns.FRAME_WIDTH);
+        Graphics g = new BufferedImage(GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB).createGraphics();
+        for (int frame = 0; frame < 50; frame++){
+            renderer.draw(g, world);
+            renderer.draw(g, world, true, backgroundX + 3.5, backgroundY - 2.25); // (like the window does, in between ticks)
+        }
+        g.dispose();
+
+        assertEquals(backgroundX, background.loc.x);
+        assertEquals(backgroundY, background.loc.y);
+        assertEquals(description, world.describe());
+        assertEquals(hash, world.stateHash());
+    }
+
+    @Test
+    public void aCapturedFrameDoesNotChangeWhenTheWorldDoes(){
+        GameWorld world = GameRuns.crowdedWorld(200);
+        GameRuns.play(world, 400, 0);
+        FrameRenderer renderer = new FrameRenderer(GameRuns.FRAME_WIDTH);
+        int[] drawnRightAway = drawCapturedFrame(renderer, world, 0);
+        GameWorld sameWorld = GameRuns.crowdedWorld(200);
+        GameRuns.play(sameWorld, 400, 0);
+        int[] drawnLater = drawCapturedFrame(new FrameRenderer(GameRuns.FRAME_WIDTH), sameWorld, 60); // (60 ticks in between)
+        assertArrayEquals(drawnRightAway, drawnLater);
+    }
+
+    // captures a frame of world, lets it run for ticks more ticks, and then draws the frame (returning its pixels):
+    private static int[] drawCapturedFrame(FrameRenderer renderer, GameWorld world, int ticks){
+        renderer.capture(world, true, world.getBackground().loc.x, world.getBackground().loc.y);
+        for (int tick = 0; tick < ticks; tick++){
+            GameRuns.script(world, 400 + tick);
+            world.step();
+        }
+        BufferedImage image = new BufferedImage(GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.createGraphics();
+        renderer.drawCaptured(g);
+        g.dispose();
+        return image.getRGB(0, 0, GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT, null, 0, GameRuns.FRAME_WIDTH);
+    }
+
+} // end RenderingIsReadOnlyTest class
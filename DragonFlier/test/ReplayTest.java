@@ -0,0 +1,44 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * ReplayTest
+ * ----------
+ * A session recorded into an InputJournal plays back to exactly the same state (the same GameWorld.stateHash()),
+ * however often the replay draws a frame: never, every tick, or every few ticks, like HeadlessEngine -frameEvery N.
+ */
+public class ReplayTest {
+
+    private static final long TICKS = 2000;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void replaysComeOutTheSameWhateverTheFrameRate() throws IOException {
+        // record a session (drawn the way the window draws it, every 3 ticks):
+        GameWorld recorded = GameRuns.crowdedWorld(300);
+        InputJournal journal = new InputJournal(GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT);
+        recorded.setJournal(journal);
+        long recordedHash = GameRuns.play(recorded, TICKS, HeadlessEngine.Profile.TICKS_PER_FRAME);
+        journal.end(recorded.getStepCount());
+        File file = folder.resolve("session.dfj").toFile();
+        journal.save(file);
+
+        InputJournal loaded = InputJournal.load(file);
+        assertEquals(TICKS, loaded.getEndTick());
+        for (int ticksPerFrame: new int[] {0, 1, 7}){
+            GameWorld replayed = GameRuns.crowdedWorld(300);
+            HeadlessEngine.Profile profile = new HeadlessEngine.Profile(TICKS, ticksPerFrame, GameRuns.FRAME_WIDTH, GameRuns.FRAME_HEIGHT);
+            HeadlessEngine.run(replayed, HeadlessEngine.scriptFrom(loaded), loaded.getEndTick(), profile);
+            assertEquals(recordedHash, replayed.stateHash(), "replayed with a frame every " + ticksPerFrame + " ticks");
+            assertEquals(recorded.describe(), replayed.describe());
+        }
+    }
+
+} // end ReplayTest class
@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TimingWheelTest
+ * ---------------
+ * Tasks that are due on the same tick run in the order they were scheduled,
+ * however they got into the tick's slot (scheduled straight into it, or cascaded down from a coarser wheel).
+ */
+public class TimingWheelTest {
+
+    private final List<String> ran = new ArrayList<>();
+
+    // a task that writes its name down in ran when it runs:
+    private TimingWheel.Task task(String name){
+        return new TimingWheel.Task() {
+            public void run(){
+                ran.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void sameTickTasksRunFirstComeFirstServed(){
+        TimingWheel clock = new TimingWheel(5);
+        for (String name: new String[] {"a", "b", "c", "d"}){
+            clock.schedule(task(name), 10);
+        }
+        clock.advance(10);
+        assertEquals(List.of("a", "b", "c", "d"), ran);
+        assertEquals(0, clock.size());
+    }
+
+    @Test
+    public void cascadedTasksRunBeforeNewerOnes(){
+        TimingWheel clock = new TimingWheel(5);
+        clock.schedule(task("a"), 300);  // (due on tick 300: too far away for the finest wheel for now)
+        clock.advance(200);
+        clock.schedule(task("b"), 100);  // (also due on tick 300, straight into the finest wheel)
+        clock.advance(10);
+        clock.schedule(task("c"), 90);
+        clock.advance(90);
+        assertEquals(List.of("a", "b", "c"), ran);
+    }
+
+    @Test
+    public void reschedulingGoesToTheBackOfTheLine(){
+        TimingWheel clock = new TimingWheel(5);
+        TimingWheel.Task a = task("a");
+        clock.schedule(a, 5);
+        clock.schedule(task("b"), 5);
+        clock.schedule(a, 5);
+        clock.advance(5);
+        assertEquals(List.of("b", "a"), ran);
+    }
+
+    @Test
+    public void tasksPastTheLastWheelStillRunInOrder(){
+        TimingWheel clock = new TimingWheel(5);
+        long farAway = 3L << 26; // (farther than even the coarsest wheel goes, so they wait in the overflow)
+        clock.schedule(task("a"), farAway);
+        clock.schedule(task("b"), farAway);
+        clock.schedule(task("c"), farAway - 1);
+        clock.advance(farAway);
+        assertEquals(List.of("c", "a", "b"), ran);
+    }
+
+} // end TimingWheelTest class
@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * VectorMathTest
+ * --------------
+ * Checks VectorMath's answers against ones worked out by hand, against the slow way (with the square root),
+ * and against the old int distance for points on the pixel grid.
+ */
+public class VectorMathTest {
+
+    // some right triangles we know the answers to:
+    @Test
+    public void rightTriangles(){
+        assertEquals(5.0, VectorMath.distance(0, 0, 3, 4));
+        assertEquals(25.0, VectorMath.distanceSquared(0, 0, 3, 4));
+        assertEquals(13.0, VectorMath.distance(-2, -3, 3, 9)); // (with negatives)
+        assertEquals(0.0, VectorMath.distance(7.5, -2.25, 7.5, -2.25));
+        assertEquals(VectorMath.distanceSquared(-4, 8, 1.5, 2), VectorMath.distanceSquared(1.5, 2, -4, 8));
+    }
+
+    // exactly the radius away doesn't count, a tiny bit closer does:
+    @Test
+    public void theEdgeIsntWithin(){
+        assertFalse(VectorMath.isWithin(0, 0, 3, 4, 5));
+        assertTrue(VectorMath.isWithin(0, 0, 3, 4, 5.000001));
+        assertFalse(VectorMath.isWithin(1, 1, 1, 1, 0)); // (radius 0 is never within)
+    }
+
+    // the fractions count now (the old int distance said these were both 99 away, so neither was within 100):
+    @Test
+    public void fractionsCount(){
+        assertTrue(VectorMath.isWithin(0, 0, 99.4, 0, 99.5));
+        assertFalse(VectorMath.isWithin(0, 0, 99.6, 0, 99.5));
+        assertEquals(oldDistance(0, 0, 99.4, 0), oldDistance(0, 0, 99.6, 0));
+    }
+
+    // isWithin and isWithinSquared agree with comparing the real distance, for lots of random points:
+    @Test
+    public void randomPointsAgreeWithHypot(){
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000_000; i++){
+            double x1 = (random.nextDouble() - 0.5) * 20000;
+            double y1 = (random.nextDouble() - 0.5) * 20000;
+            double x2 = x1 + (random.nextDouble() - 0.5) * 2000;
+            double y2 = y1 + (random.nextDouble() - 0.5) * 2000;
+            double radius = random.nextDouble() * 1000;
+            double hypot = Math.hypot(x1 - x2, y1 - y2);
+            boolean within = VectorMath.isWithin(x1, y1, x2, y2, radius);
+            // (right on the edge, rounding can go either way)
+            if (Math.abs(hypot - radius) > 1e-9) assertEquals(hypot < radius, within, "point " + i);
+            assertEquals(within, VectorMath.isWithinSquared(x1, y1, x2, y2, radius * radius), "point " + i);
+        }
+    }
+
+    // whole numbers: isWithin gives exactly the same answer as the old int distance did, for points on the pixel grid:
+    @Test
+    public void sameAsTheOldWayForWholeNumbers(){
+        Random random = new Random(43);
+        for (int i = 0; i < 100_000; i++){
+            int x1 = random.nextInt(4000), y1 = random.nextInt(4000);
+            int x2 = x1 + random.nextInt(1400) - 700, y2 = y1 + random.nextInt(1400) - 700;
+            assertEquals(oldDistance(x1, y1, x2, y2) < 600, VectorMath.isWithin(x1, y1, x2, y2, 600),
+                "(" + x1 + ", " + y1 + ") to (" + x2 + ", " + y2 + ")");
+        }
+    }
+
+    // the old (int) distance, to compare against:
+    private static int oldDistance(double x1, double y1, double x2, double y2){
+        int x_dist = Math.abs((int)(x1-x2));
+        int y_dist = Math.abs((int)(y1-y2));
+        return (int)Math.sqrt(x_dist * x_dist + y_dist * y_dist);
+    }
+
+} // end VectorMathTest class